@@ -0,0 +1,85 @@
+package bench;
+
+import driver.Directory;
+import driver.OutputSink;
+import driver.TextFile;
+import driver.TextFileOutputSink;
+
+/**
+ * Benchmark for appending to text files, as echo "..." >> log does. Times a
+ * growing number of appends through the output sink redirection uses against
+ * appending by joining the old contents with the output, and times writing
+ * the log out a piece at a time, as cat does, against joining it first.
+ *
+ * Run with: java bench.AppendBenchmark
+ *
+ * @author Shamayum Rashad
+ */
+public class AppendBenchmark {
+
+  /**
+   * An output sink that only counts what is written to it.
+   */
+  private static class CountingSink extends OutputSink {
+
+    /**
+     * the number of characters written
+     */
+    private long written = 0;
+
+    @Override
+    protected void append(CharSequence output) {
+      this.written += output.length();
+    }
+  }
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args not used
+   */
+  public static void main(String[] args) throws Exception {
+    System.out.println(String.format("%10s %14s %14s %12s %12s", "appends",
+        "appended ms", "joined ms", "cat us", "joined us"));
+    // the first round only warms up the JIT
+    for (int round = 0; round < 2; round++) {
+      for (int appends = 1000; appends <= 64000; appends *= 4) {
+        Directory root = new Directory("/", null);
+        TextFile log = new TextFile("log", root, "");
+        long start = System.nanoTime();
+        for (int i = 0; i < appends; i++) {
+          TextFileOutputSink sink = new TextFileOutputSink(log, true);
+          sink.write("2024-05-17 12:00:00 request " + i + " served\n");
+          sink.flush();
+        }
+        double appended = (System.nanoTime() - start) / 1e6;
+
+        start = System.nanoTime();
+        CountingSink cat = new CountingSink();
+        log.writeContents(cat);
+        double streamed = (System.nanoTime() - start) / 1e3;
+
+        start = System.nanoTime();
+        CountingSink joinedCat = new CountingSink();
+        joinedCat.write(log.getContents());
+        double joinedRead = (System.nanoTime() - start) / 1e3;
+
+        TextFile joinedLog = new TextFile("joined", root, "");
+        start = System.nanoTime();
+        for (int i = 0; i < appends; i++) {
+          joinedLog.setContents(joinedLog.getContents()
+              + "2024-05-17 12:00:00 request " + i + " served\n");
+        }
+        double joined = (System.nanoTime() - start) / 1e6;
+
+        if (cat.written != joinedLog.getLength()) {
+          throw new IllegalStateException("the logs differ");
+        }
+        if (round == 1) {
+          System.out.println(String.format("%10d %14.2f %14.1f %12.1f %12.1f",
+              appends, appended, joined, streamed, joinedRead));
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import driver.Directory;
+import driver.JFileSystem;
+import driver.JFileSystemSaver;
+import driver.TextFile;
+
+/**
+ * Benchmark for background saves. Builds a file system of about a million
+ * files and times how long the shell is blocked by a normal save against a
+ * save -b, then keeps changing text files and adding directories while the
+ * background save runs, reporting how long those changes take (they keep what
+ * the files were for the save) and how far the save got while they were made.
+ *
+ * Run with: java bench.BackgroundSaveBenchmark [files]
+ *
+ * @author Shamayum Rashad
+ */
+public class BackgroundSaveBenchmark {
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of files in the file system
+   */
+  public static void main(String[] args) throws Exception {
+    int files = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+    JFileSystem fileSystem = JFileSystem.createInstanceOfJFileSystem();
+    Directory root = fileSystem.getRoot();
+    ArrayList<TextFile> textFiles = new ArrayList<TextFile>();
+    fill(root, files, textFiles);
+    System.out.println("files: " + files + ", text files: "
+        + textFiles.size());
+    java.io.File saveFile = java.io.File.createTempFile("background", ".save");
+    saveFile.deleteOnExit();
+    JFileSystemSaver saver = new JFileSystemSaver();
+
+    // the first of each only warms up the JIT
+    for (int round = 0; round < 2; round++) {
+      long start = System.nanoTime();
+      check(saver.saveFileSystem(saveFile.getPath(), fileSystem));
+      double foreground = (System.nanoTime() - start) / 1e6;
+
+      start = System.nanoTime();
+      check(saver.saveInBackground(saveFile.getPath(), fileSystem));
+      double blocked = (System.nanoTime() - start) / 1e6;
+
+      // change the file system while it is written
+      Random random = new Random(round);
+      long[] latencies = new long[20000];
+      int changes = 0;
+      while (changes < latencies.length) {
+        long before = System.nanoTime();
+        if (changes % 16 == 0) {
+          root.addContents(new Directory("new" + round + "_" + changes, root));
+        } else {
+          textFiles.get(random.nextInt(textFiles.size()))
+              .setContents("changed " + changes);
+        }
+        latencies[changes++] = System.nanoTime() - before;
+        if (changes == latencies.length / 2) {
+          System.out.println("  " + saver.getBackgroundStatus());
+        }
+      }
+      String during = saver.getBackgroundStatus();
+      if (!saver.awaitBackgroundSave(600000)) {
+        throw new IllegalStateException("background save didn't finish");
+      }
+      Arrays.sort(latencies);
+      System.out.println(String.format("save: %.1f ms, save -b blocked: %.2f "
+          + "ms, change p50: %.2f us, p99: %.2f us, max: %.1f us",
+          foreground, blocked, latencies[latencies.length / 2] / 1e3,
+          latencies[latencies.length * 99 / 100] / 1e3,
+          latencies[latencies.length - 1] / 1e3));
+      System.out.println("  after the changes: " + during);
+      System.out.println("  " + saver.getBackgroundStatus());
+    }
+  }
+
+  /**
+   * Stops the benchmark if saving gave an error.
+   *
+   * @param errors the errors given
+   */
+  private static void check(String errors) {
+    if (!errors.isEmpty()) {
+      throw new IllegalStateException(errors);
+    }
+  }
+
+  /**
+   * Fills a directory with a tree of sub directories 16 wide, each with 8
+   * text files.
+   *
+   * @param root the directory to fill
+   * @param files the number of files to create
+   * @param textFiles where every text file created is added
+   */
+  private static void fill(Directory root, int files,
+      ArrayList<TextFile> textFiles) throws Exception {
+    ArrayList<Directory> level = new ArrayList<Directory>();
+    level.add(root);
+    int count = 0;
+    while (count < files) {
+      ArrayList<Directory> next = new ArrayList<Directory>();
+      for (int d = 0; d < level.size() && count < files; d++) {
+        Directory parent = level.get(d);
+        for (int t = 0; t < 8; t++) {
+          TextFile file = new TextFile("file" + t, parent, "text " + count);
+          parent.addContents(file);
+          textFiles.add(file);
+        }
+        for (int c = 0; c < 16; c++) {
+          Directory child = new Directory("dir" + c, parent);
+          parent.addContents(child);
+          next.add(child);
+        }
+        count += 24;
+      }
+      level = next;
+    }
+  }
+}
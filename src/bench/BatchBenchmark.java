@@ -0,0 +1,58 @@
+package bench;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import driver.JShell;
+
+/**
+ * Benchmark for running a script through the shell. Writes a script of many
+ * commands, then runs it with -f as the shell would be run from another
+ * program, with its output thrown away. The time the shell reports is on the
+ * standard error.
+ *
+ * Run with: java bench.BatchBenchmark [commands]
+ *
+ * @author Shamayum Rashad
+ */
+public class BatchBenchmark {
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of commands in the script
+   */
+  public static void main(String[] args) throws Exception {
+    int commands = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+    java.io.File script = java.io.File.createTempFile("batch", ".jsh");
+    script.deleteOnExit();
+    try (PrintWriter writer = new PrintWriter(script, "UTF-8")) {
+      String[] lines = {"mkdir d%d", "cd d%d", "echo \"line %d\" > file",
+          "echo more >> file", "cat file", "pwd", "ls", "cd .."};
+      for (int command = 0; command < commands; command++) {
+        writer.println(String.format(lines[command % lines.length],
+            command / lines.length));
+      }
+      writer.println("exit");
+    }
+    System.err.println("script: " + commands + " commands");
+
+    PrintStream console = System.out;
+    InputStream input = System.in;
+    // a shell writing to a terminal flushes every line, so this one does too
+    System.setOut(new PrintStream(new FileOutputStream("/dev/null"), true));
+    // the shell reads the script itself, but without -f it reads this
+    System.setIn(new FileInputStream(script));
+    long start = System.nanoTime();
+    try {
+      JShell.main(new String[] {"-f", script.getPath()});
+    } finally {
+      System.setOut(console);
+      System.setIn(input);
+    }
+    System.err.println(String.format("whole run: %.1f ms",
+        (System.nanoTime() - start) / 1e6));
+  }
+}
@@ -0,0 +1,76 @@
+package bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import driver.Command;
+import driver.CommandRegistry;
+import driver.Directory;
+import driver.JFileSystem;
+import driver.Parser;
+
+/**
+ * Benchmark for making commands. Runs cheap commands many times, making a
+ * new command for each run as Parser.commandObject does, then reusing the
+ * command each time as the shell does, and reports the time and the memory
+ * allocated per run.
+ *
+ * Run with: java bench.CommandBenchmark [runs]
+ *
+ * @author Shamayum Rashad
+ */
+public class CommandBenchmark {
+
+  /**
+   * the commands run in turn
+   */
+  private static final String[] COMMANDS = {"pwd", "echo", "history", "man"};
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of commands run
+   */
+  public static void main(String[] args) throws Exception {
+    int runs = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+    JFileSystem fileSystem = JFileSystem.createInstanceOfJFileSystem();
+    fileSystem.setRoot(new Directory("/", null));
+    fileSystem.setCurrentDirectory(fileSystem.getRoot());
+    ArrayList<String> arguments = new ArrayList<String>();
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+
+    // the first rounds only warm up the JIT
+    for (int round = 0; round < 3; round++) {
+      long bytes = threads.getThreadAllocatedBytes(thread);
+      long start = System.nanoTime();
+      long output = 0;
+      for (int run = 0; run < runs; run++) {
+        Command command =
+            Parser.commandObject(COMMANDS[run % COMMANDS.length], fileSystem);
+        command.executeCommand(arguments);
+        output += command.getPrintCommand().length();
+      }
+      double fresh = (System.nanoTime() - start) / (double) runs;
+      long freshBytes = (threads.getThreadAllocatedBytes(thread) - bytes)
+          / runs;
+
+      bytes = threads.getThreadAllocatedBytes(thread);
+      start = System.nanoTime();
+      for (int run = 0; run < runs; run++) {
+        String name = COMMANDS[run % COMMANDS.length];
+        Command command = CommandRegistry.obtain(name, fileSystem);
+        command.executeCommand(arguments);
+        output += command.getPrintCommand().length();
+        CommandRegistry.release(name, fileSystem, command);
+      }
+      double reused = (System.nanoTime() - start) / (double) runs;
+      long reusedBytes = (threads.getThreadAllocatedBytes(thread) - bytes)
+          / runs;
+
+      System.out.println(String.format("new command per run: %.0f ns, %d "
+          + "bytes, reused command: %.0f ns, %d bytes (%d)", fresh,
+          freshBytes, reused, reusedBytes, output));
+    }
+  }
+}
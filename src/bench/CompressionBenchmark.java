@@ -0,0 +1,128 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.Random;
+import driver.BlockCodec;
+import driver.DeflateCodec;
+import driver.Directory;
+import driver.DirectoryStack;
+import driver.JFileSystem;
+import driver.JFileSystemSaver;
+import driver.TextFile;
+
+/**
+ * Benchmark for the codecs of binary snapshots. Builds a file system whose
+ * text files hold a few lines to a few kilobytes of log-like text, then saves
+ * and loads it without a codec and with Deflate at a few levels, reporting
+ * the size of each snapshot, how much the codec shrank it and how fast it was
+ * saved, loaded and loaded mapped.
+ *
+ * Run with: java bench.CompressionBenchmark [files]
+ *
+ * @author Shamayum Rashad
+ */
+public class CompressionBenchmark {
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of files in the file system
+   */
+  public static void main(String[] args) throws Exception {
+    int files = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 18;
+    JFileSystem fileSystem = JFileSystem.createInstanceOfJFileSystem();
+    fill(fileSystem.getRoot(), files);
+    java.io.File saveFile = java.io.File.createTempFile("codec", ".save");
+    saveFile.deleteOnExit();
+
+    String[] names = {"none", "deflate 1", "deflate 6", "deflate 9"};
+    BlockCodec[] codecs = {null, new DeflateCodec(1), new DeflateCodec(6),
+        new DeflateCodec(9)};
+    // the first round only warms up the JIT
+    for (int round = 0; round < 2; round++) {
+      for (int i = 0; i < codecs.length; i++) {
+        JFileSystemSaver saver =
+            new JFileSystemSaver(JFileSystemSaver.Format.BINARY, codecs[i]);
+        check(saver.saveFileSystem(saveFile.getPath(), fileSystem));
+        String saved = saver.getStatistics();
+        restart(fileSystem, saveFile);
+        check(saver.getSavedFileSystem(saveFile.getPath(), fileSystem));
+        String loaded = saver.getStatistics();
+        restart(fileSystem, saveFile);
+        check(saver.getMappedFileSystem(saveFile.getPath(), fileSystem));
+        String mapped = saver.getStatistics();
+        if (round == 1) {
+          System.out.println(names[i] + ":\n  " + saved + "\n  " + loaded
+              + "\n  mapped " + mapped);
+        }
+      }
+    }
+  }
+
+  /**
+   * Empties the history and directory stack as if a new shell was loading
+   * the saved file system as its first command.
+   *
+   * @param fileSystem the file system
+   * @param saveFile the file the file system is saved to
+   */
+  private static void restart(JFileSystem fileSystem, java.io.File saveFile) {
+    fileSystem.setCommandHistory(new ArrayList<String>());
+    fileSystem.addToHistory("load " + saveFile.getPath());
+    fileSystem.setDirectoryStack(new DirectoryStack());
+  }
+
+  /**
+   * Stops the benchmark if saving or loading gave an error.
+   *
+   * @param errors the errors given
+   */
+  private static void check(String errors) {
+    if (!errors.isEmpty()) {
+      throw new IllegalStateException(errors);
+    }
+  }
+
+  /**
+   * Fills a directory with a tree of sub directories 16 wide, each with 8
+   * text files of log-like lines.
+   *
+   * @param root the directory to fill
+   * @param files the number of files to create
+   */
+  private static void fill(Directory root, int files) throws Exception {
+    String[] words = {"GET", "POST", "/index.html", "/api/users", "200", "404",
+        "ms", "user", "session", "started", "finished", "cache", "miss"};
+    Random random = new Random(42);
+    ArrayList<Directory> level = new ArrayList<Directory>();
+    level.add(root);
+    int count = 0;
+    while (count < files) {
+      ArrayList<Directory> next = new ArrayList<Directory>();
+      for (int d = 0; d < level.size() && count < files; d++) {
+        Directory parent = level.get(d);
+        for (int t = 0; t < 8; t++) {
+          StringBuilder text = new StringBuilder();
+          int lines = 1 << random.nextInt(7);
+          for (int l = 0; l < lines; l++) {
+            text.append("2024-05-").append(10 + random.nextInt(20))
+                .append(' ').append(random.nextInt(100000));
+            for (int w = 0; w < 6; w++) {
+              text.append(' ').append(words[random.nextInt(words.length)]);
+            }
+            text.append('\n');
+          }
+          parent.addContents(
+              new TextFile("log" + t, parent, text.toString()));
+        }
+        for (int c = 0; c < 16; c++) {
+          Directory child = new Directory("dir" + c, parent);
+          parent.addContents(child);
+          next.add(child);
+        }
+        count += 24;
+      }
+      level = next;
+    }
+  }
+}
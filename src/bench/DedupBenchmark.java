@@ -0,0 +1,153 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import driver.BlobStore;
+import driver.Copy;
+import driver.Directory;
+import driver.JFileSystem;
+import driver.JFileSystemSaver;
+import driver.TextFile;
+
+/**
+ * Benchmark for sharing the contents of text files. Builds a tree of text
+ * files whose contents are each made separately from a few templates, as
+ * generated configs are, with the blob store on and off, and reports the heap
+ * the tree takes, how big and how fast a save of it is, and how long cp -r of
+ * the tree takes, both with the contents on the heap and after loading the
+ * save mapped.
+ *
+ * Run with: java bench.DedupBenchmark [files] [templates]
+ *
+ * @author Shamayum Rashad
+ */
+public class DedupBenchmark {
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of text files and the number of templates
+   */
+  public static void main(String[] args) throws Exception {
+    int files = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+    int templates = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+    String[] texts = new String[templates];
+    for (int t = 0; t < templates; t++) {
+      StringBuilder text = new StringBuilder();
+      for (int line = 0; line < 100; line++) {
+        text.append("template ").append(t).append(" setting ").append(line)
+            .append(" = value\n");
+      }
+      texts[t] = text.toString();
+    }
+    java.io.File saveFile = java.io.File.createTempFile("dedup", ".save");
+    saveFile.deleteOnExit();
+    JFileSystemSaver saver =
+        new JFileSystemSaver(JFileSystemSaver.Format.BINARY, null);
+    System.out.println("files: " + files + ", templates: " + templates
+        + ", template size: " + texts[0].length() + " chars");
+
+    // the first round only warms up the JIT
+    for (int round = 0; round < 3; round++) {
+      boolean stored = round != 1;
+      BlobStore.setEnabled(stored);
+      JFileSystem fileSystem = JFileSystem.createInstanceOfJFileSystem();
+      fileSystem.setRoot(new Directory("/", null));
+      fileSystem.setCurrentDirectory(fileSystem.getRoot());
+      long before = usedHeap();
+      long start = System.nanoTime();
+      Directory source = new Directory("source", fileSystem.getRoot());
+      fileSystem.getRoot().addContents(source);
+      fill(source, files, texts);
+      double built = (System.nanoTime() - start) / 1e6;
+      long heap = usedHeap() - before;
+
+      start = System.nanoTime();
+      check(saver.saveFileSystem(saveFile.getPath(), fileSystem));
+      double saved = (System.nanoTime() - start) / 1e6;
+      long size = saveFile.length();
+
+      double copied = copy(fileSystem, "/copy");
+
+      // loading keeps the load command that is running in the history
+      fileSystem.setCommandHistory(new ArrayList<String>());
+      fileSystem.addToHistory("load " + saveFile.getPath());
+      check(saver.getMappedFileSystem(saveFile.getPath(), fileSystem));
+      double mappedCopied = copy(fileSystem, "/mappedCopy");
+
+      if (round > 0) {
+        System.out.println(String.format("blob store %s: built in %.1f ms, "
+            + "heap %d KB, save %d KB in %.1f ms, cp -r %.1f ms, "
+            + "cp -r after a mapped load %.1f ms", stored ? "on " : "off",
+            built, heap / 1024, size / 1024, saved, copied, mappedCopied));
+      }
+    }
+    System.out.println(BlobStore.getStatistics());
+  }
+
+  /**
+   * Copies the source directory of a file system with cp -r.
+   *
+   * @param fileSystem the file system
+   * @param target the directory copied into, which is made first
+   * @return how long the copy took, in milliseconds
+   */
+  private static double copy(JFileSystem fileSystem, String target)
+      throws Exception {
+    Directory root = fileSystem.getRoot();
+    root.addContents(new Directory(target.substring(1), root));
+    Copy copy = new Copy(fileSystem);
+    long start = System.nanoTime();
+    copy.executeCommand(new ArrayList<String>(
+        Arrays.asList("/source", target)));
+    double copied = (System.nanoTime() - start) / 1e6;
+    check(copy.getError());
+    return copied;
+  }
+
+  /**
+   * Stops the benchmark if a command gave an error.
+   *
+   * @param errors the errors given
+   */
+  private static void check(String errors) {
+    if (!errors.isEmpty()) {
+      throw new IllegalStateException(errors);
+    }
+  }
+
+  /**
+   * Returns the heap in use after collecting garbage.
+   *
+   * @return the bytes of heap used
+   */
+  private static long usedHeap() throws InterruptedException {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+      Thread.sleep(50);
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /**
+   * Fills a directory with sub directories of 100 text files each, whose
+   * contents are made separately from the templates.
+   *
+   * @param top the directory to fill
+   * @param files the number of text files to create
+   * @param texts the templates
+   */
+  private static void fill(Directory top, int files, String[] texts)
+      throws Exception {
+    Directory directory = null;
+    for (int i = 0; i < files; i++) {
+      if (i % 100 == 0) {
+        directory = new Directory("dir" + i / 100, top);
+        top.addContents(directory);
+      }
+      String text = new String(texts[i % texts.length].toCharArray());
+      directory.addContents(new TextFile("config" + i % 100, directory, text));
+    }
+  }
+}
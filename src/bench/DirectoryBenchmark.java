@@ -0,0 +1,101 @@
+package bench;
+
+import java.util.ArrayList;
+import driver.Directory;
+import driver.File;
+import driver.TextFile;
+
+/**
+ * Benchmark for filling a single flat directory with files. Prints the time
+ * per insert and per lookup at doubling directory sizes, once for Directory
+ * and once for the linear scan Directory used before it indexed its contents.
+ *
+ * Run with: java bench.DirectoryBenchmark [maxFiles] [maxLinearFiles]
+ *
+ * @author Jadin Luong
+ */
+public class DirectoryBenchmark {
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the largest directory size, and the largest directory size
+   *        the linear scan is run for (it is quadratic)
+   */
+  public static void main(String[] args) throws Exception {
+    int maxFiles = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+    int maxLinearFiles = args.length > 1 ? Integer.parseInt(args[1]) : 1 << 16;
+
+    // warm up both versions so the JIT has compiled them
+    fillIndexed(1 << 14);
+    fillLinear(1 << 12);
+
+    System.out.println(String.format("%10s %18s %18s %18s", "files",
+        "indexed ns/insert", "indexed ns/lookup", "linear ns/insert"));
+    for (int size = 1 << 10; size <= maxFiles; size *= 2) {
+      long start = System.nanoTime();
+      Directory dir = fillIndexed(size);
+      double insert = (System.nanoTime() - start) / (double) size;
+
+      start = System.nanoTime();
+      int found = 0;
+      for (int i = 0; i < size; i++) {
+        if (dir.getChild("file" + i) != null) {
+          found++;
+        }
+      }
+      double lookup = (System.nanoTime() - start) / (double) size;
+      if (found != size) {
+        throw new IllegalStateException("lost files: " + (size - found));
+      }
+
+      String linear = "-";
+      if (size <= maxLinearFiles) {
+        start = System.nanoTime();
+        fillLinear(size);
+        linear = String.format("%.1f", (System.nanoTime() - start)
+            / (double) size);
+      }
+      System.out.println(String.format("%10d %18.1f %18.1f %18s", size,
+          insert, lookup, linear));
+    }
+  }
+
+  /**
+   * Fills a directory through Directory.addContents.
+   *
+   * @param size the number of files to add
+   * @return the filled directory
+   */
+  private static Directory fillIndexed(int size) throws Exception {
+    Directory dir = new Directory("flat", null);
+    for (int i = 0; i < size; i++) {
+      dir.addContents(new TextFile("file" + i, dir, ""));
+    }
+    return dir;
+  }
+
+  /**
+   * Fills a list the way Directory.addContents used to, scanning every file
+   * for a duplicate name before each insert.
+   *
+   * @param size the number of files to add
+   * @return the filled list
+   */
+  private static ArrayList<File> fillLinear(int size) {
+    ArrayList<File> contents = new ArrayList<File>();
+    for (int i = 0; i < size; i++) {
+      TextFile file = new TextFile("file" + i, null, "");
+      boolean fileExists = false;
+      for (File content : contents) {
+        if (content.getFileName().equals(file.getFileName())) {
+          fileExists = true;
+        }
+      }
+      if (!fileExists) {
+        contents.add(file);
+      }
+    }
+    return contents;
+  }
+}
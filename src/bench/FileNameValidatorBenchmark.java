@@ -0,0 +1,82 @@
+package bench;
+
+import java.util.regex.Pattern;
+import driver.Directory;
+import driver.FileNameValidator;
+import driver.TextFile;
+
+/**
+ * Microbenchmark for validating file names. Compares compiling the pattern on
+ * every call (what Directory.addContents used to do), a precompiled pattern,
+ * and the FileNameValidator lookup table, then reports the cost of a whole
+ * Directory.addContents call.
+ *
+ * Run with: java bench.FileNameValidatorBenchmark [iterations]
+ *
+ * @author Jadin Luong
+ */
+public class FileNameValidatorBenchmark {
+
+  /**
+   * the pattern Directory.addContents used to compile for every insert
+   */
+  private static final String REGEX = "[!@#$%^&*(){}~|<>?.]";
+
+  /**
+   * the names that get validated, a mix of valid and invalid names
+   */
+  private static final String[] NAMES = {"documents", "build_output_2020",
+      "a", "notes.txt", "src", "really_long_directory_name_for_testing",
+      "what?", "Makefile"};
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of names validated per measurement
+   */
+  public static void main(String[] args) throws Exception {
+    int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+    Pattern precompiled = Pattern.compile(REGEX);
+    int sink = 0;
+
+    for (int round = 0; round < 3; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations / 10; i++) {
+        if (Pattern.compile(REGEX).matcher(NAMES[i & 7]).find()) {
+          sink++;
+        }
+      }
+      double compiled = (System.nanoTime() - start) / (iterations / 10.0);
+
+      start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        if (precompiled.matcher(NAMES[i & 7]).find()) {
+          sink++;
+        }
+      }
+      double matcher = (System.nanoTime() - start) / (double) iterations;
+
+      start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        if (!FileNameValidator.isValid(NAMES[i & 7])) {
+          sink++;
+        }
+      }
+      double table = (System.nanoTime() - start) / (double) iterations;
+
+      int inserts = iterations / 10;
+      Directory dir = new Directory("flat", null);
+      start = System.nanoTime();
+      for (int i = 0; i < inserts; i++) {
+        dir.addContents(new TextFile("file" + i, dir, ""));
+      }
+      double insert = (System.nanoTime() - start) / (double) inserts;
+
+      System.out.println(String.format("round %d: compile per call %.1f ns, "
+          + "precompiled matcher %.1f ns, lookup table %.1f ns, "
+          + "addContents %.1f ns/insert", round, compiled, matcher, table,
+          insert));
+    }
+    System.out.println("(" + sink + " invalid names seen)");
+  }
+}
@@ -0,0 +1,152 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import driver.Directory;
+import driver.Find;
+import driver.JFileSystem;
+import driver.NameIndex;
+import driver.TextFile;
+
+/**
+ * Benchmark for find over a large file system. Builds a tree of directories,
+ * each holding a few text files, then times find / -type f -name "x" on one
+ * thread and with -j for doubling numbers of threads, checking every run
+ * prints the same paths. The name index is turned off for those runs, and a
+ * last run times the same search answered by the index.
+ *
+ * Run with: java bench.FindBenchmark [files] [maxThreads]
+ *
+ * @author Shamayum Rashad
+ */
+public class FindBenchmark {
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of files in the tree, and the most threads used
+   */
+  public static void main(String[] args) throws Exception {
+    int files = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+    int maxThreads = args.length > 1 ? Integer.parseInt(args[1])
+        : Runtime.getRuntime().availableProcessors();
+
+    JFileSystem fileSystem = JFileSystem.createInstanceOfJFileSystem();
+    int built = fill(fileSystem.getRoot(), files);
+    System.out.println("files: " + built);
+
+    NameIndex.setEnabled(false);
+    String expected = null;
+    System.out.println(String.format("%8s %12s %10s", "threads", "ms",
+        "speedup"));
+    double sequential = 0;
+    for (int threads = 1; threads <= maxThreads; threads *= 2) {
+      // run each configuration a few times and keep the best
+      double best = Double.MAX_VALUE;
+      String output = null;
+      for (int run = 0; run < 5; run++) {
+        Find find = new Find(fileSystem);
+        long start = System.nanoTime();
+        find.executeCommand(arguments(threads));
+        best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        output = find.getPrintCommand();
+      }
+      if (expected == null) {
+        expected = output;
+        sequential = best;
+      } else if (!expected.equals(output)) {
+        throw new IllegalStateException("output differs with -j " + threads);
+      }
+      System.out.println(String.format("%8d %12.1f %10.2f", threads, best,
+          sequential / best));
+    }
+
+    // the first indexed search builds the index, so time the ones after it
+    NameIndex.setEnabled(true);
+    timeIndexed(fileSystem, expected, sequential);
+    // a rare name, which is where the index pays off most
+    fileSystem.getRoot().addContents(
+        new TextFile("config", fileSystem.getRoot(), ""));
+    long start = System.nanoTime();
+    Find find = new Find(fileSystem);
+    ArrayList<String> rare = arguments(1);
+    rare.set(rare.size() - 1, "\"config\"");
+    find.executeCommand(rare);
+    System.out.println(String.format("%8s %12.3f  (find / -name \"config\")",
+        "indexed", (System.nanoTime() - start) / 1e6));
+    System.out.println(NameIndex.getStatistics());
+  }
+
+  /**
+   * Times the search when it is answered by the name index.
+   *
+   * @param fileSystem the file system searched
+   * @param expected the paths every search must print
+   * @param sequential the time the single threaded walk took
+   */
+  private static void timeIndexed(JFileSystem fileSystem, String expected,
+      double sequential) {
+    double best = Double.MAX_VALUE;
+    for (int run = 0; run < 6; run++) {
+      Find find = new Find(fileSystem);
+      long start = System.nanoTime();
+      find.executeCommand(arguments(1));
+      if (run > 0) {
+        best = Math.min(best, (System.nanoTime() - start) / 1e6);
+      }
+      if (!expected.equals(find.getPrintCommand())) {
+        throw new IllegalStateException("output differs with the index");
+      }
+    }
+    System.out.println(String.format("%8s %12.1f %10.2f", "indexed", best,
+        sequential / best));
+  }
+
+  /**
+   * Returns the arguments of find / -type f -name "x", with -j if more than
+   * one thread is used.
+   *
+   * @param threads the number of threads to search with
+   * @return the arguments for find
+   */
+  private static ArrayList<String> arguments(int threads) {
+    ArrayList<String> arguments = new ArrayList<String>();
+    if (threads > 1) {
+      arguments.add("-j");
+      arguments.add(String.valueOf(threads));
+    }
+    arguments.addAll(Arrays.asList("/", "-type", "f", "-name", "\"x\""));
+    return arguments;
+  }
+
+  /**
+   * Fills a directory with a tree of sub directories 16 wide, each with 8
+   * text files, one of them named x.
+   *
+   * @param root the directory to fill
+   * @param files the number of files to create
+   * @return the number of files created
+   */
+  private static int fill(Directory root, int files) throws Exception {
+    ArrayList<Directory> level = new ArrayList<Directory>();
+    level.add(root);
+    int count = 0;
+    while (count < files) {
+      ArrayList<Directory> next = new ArrayList<Directory>();
+      for (int d = 0; d < level.size() && count < files; d++) {
+        Directory parent = level.get(d);
+        for (int t = 0; t < 8; t++) {
+          parent.addContents(new TextFile(t == 0 ? "x" : "t" + t, parent, ""));
+        }
+        for (int c = 0; c < 16; c++) {
+          Directory child = new Directory("d" + c, parent);
+          parent.addContents(child);
+          next.add(child);
+        }
+        count += 24;
+      }
+      level = next;
+    }
+    return count;
+  }
+}
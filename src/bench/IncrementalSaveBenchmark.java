@@ -0,0 +1,154 @@
+package bench;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Random;
+import driver.Directory;
+import driver.DirectoryStack;
+import driver.JFileSystem;
+import driver.JFileSystemSaver;
+import driver.TextFile;
+
+/**
+ * Benchmark for incremental saves. Builds a file system of about a million
+ * files, saves it whole, then changes a growing number of text files and
+ * times saving only the changes (save --incremental) against saving
+ * everything again. Finally times loading the snapshot with all its deltas,
+ * compacting it, and loading the compacted snapshot.
+ *
+ * Run with: java bench.IncrementalSaveBenchmark [files]
+ *
+ * @author Shamayum Rashad
+ */
+public class IncrementalSaveBenchmark {
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of files in the file system
+   */
+  public static void main(String[] args) throws Exception {
+    int files = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+    JFileSystem fileSystem = JFileSystem.createInstanceOfJFileSystem();
+    Directory root = fileSystem.getRoot();
+    ArrayList<TextFile> textFiles = new ArrayList<TextFile>();
+    fill(root, files, textFiles);
+    System.out.println("files: " + files + ", text files: "
+        + textFiles.size());
+    java.io.File saveFile = java.io.File.createTempFile("incremental", ".save");
+    saveFile.deleteOnExit();
+    java.io.File wholeFile = java.io.File.createTempFile("whole", ".save");
+    wholeFile.deleteOnExit();
+    JFileSystemSaver saver = new JFileSystemSaver();
+
+    long start = System.nanoTime();
+    check(saver.saveFileSystem(saveFile.getPath(), fileSystem));
+    System.out.println(String.format("whole save: %.1f ms, %d bytes",
+        (System.nanoTime() - start) / 1e6, Files.size(saveFile.toPath())));
+
+    System.out.println(String.format("%10s %16s %14s %16s", "changed",
+        "incremental ms", "bytes added", "whole save ms"));
+    Random random = new Random(42);
+    for (int changed = 1; changed <= 16384; changed *= 8) {
+      for (int i = 0; i < changed; i++) {
+        TextFile file = textFiles.get(random.nextInt(textFiles.size()));
+        file.setContents("changed " + i);
+      }
+      long before = Files.size(saveFile.toPath());
+      start = System.nanoTime();
+      check(saver.saveIncrementally(saveFile.getPath(), fileSystem));
+      double incremental = (System.nanoTime() - start) / 1e6;
+      long added = Files.size(saveFile.toPath()) - before;
+
+      // a whole save elsewhere, for comparison; it becomes the snapshot
+      // changes are tracked against, so save to the first file again after
+      start = System.nanoTime();
+      check(new JFileSystemSaver().saveFileSystem(wholeFile.getPath(),
+          fileSystem));
+      double whole = (System.nanoTime() - start) / 1e6;
+      check(saver.saveFileSystem(saveFile.getPath(), fileSystem));
+      for (int i = 0; i < changed; i++) {
+        textFiles.get(random.nextInt(textFiles.size()))
+            .setContents("again " + i);
+      }
+      check(saver.saveIncrementally(saveFile.getPath(), fileSystem));
+
+      System.out.println(String.format("%10d %16.2f %14d %16.1f", changed,
+          incremental, added, whole));
+    }
+
+    // the first load only warms up the JIT
+    load(saver, saveFile, fileSystem);
+    double withDeltas = load(saver, saveFile, fileSystem);
+    long deltaBytes = Files.size(saveFile.toPath());
+    start = System.nanoTime();
+    check(saver.compact(saveFile.getPath()));
+    double compact = (System.nanoTime() - start) / 1e6;
+    double compacted = load(saver, saveFile, fileSystem);
+    System.out.println(String.format("load with deltas: %.1f ms (%d bytes), "
+        + "compact: %.1f ms, load compacted: %.1f ms (%d bytes)", withDeltas,
+        deltaBytes, compact, compacted, Files.size(saveFile.toPath())));
+  }
+
+  /**
+   * Loads the saved file system, as the first command of a new shell.
+   *
+   * @param saver the saver to load with
+   * @param saveFile the file the file system is saved to
+   * @param fileSystem the file system to load into
+   * @return the time the load took, in milliseconds
+   */
+  private static double load(JFileSystemSaver saver, java.io.File saveFile,
+      JFileSystem fileSystem) {
+    fileSystem.setCommandHistory(new ArrayList<String>());
+    fileSystem.addToHistory("load " + saveFile.getPath());
+    fileSystem.setDirectoryStack(new DirectoryStack());
+    long start = System.nanoTime();
+    check(saver.getSavedFileSystem(saveFile.getPath(), fileSystem));
+    return (System.nanoTime() - start) / 1e6;
+  }
+
+  /**
+   * Stops the benchmark if saving or loading gave an error.
+   *
+   * @param errors the errors given
+   */
+  private static void check(String errors) {
+    if (!errors.isEmpty()) {
+      throw new IllegalStateException(errors);
+    }
+  }
+
+  /**
+   * Fills a directory with a tree of sub directories 16 wide, each with 8
+   * text files.
+   *
+   * @param root the directory to fill
+   * @param files the number of files to create
+   * @param textFiles where every text file created is added
+   */
+  private static void fill(Directory root, int files,
+      ArrayList<TextFile> textFiles) throws Exception {
+    ArrayList<Directory> level = new ArrayList<Directory>();
+    level.add(root);
+    int count = 0;
+    while (count < files) {
+      ArrayList<Directory> next = new ArrayList<Directory>();
+      for (int d = 0; d < level.size() && count < files; d++) {
+        Directory parent = level.get(d);
+        for (int t = 0; t < 8; t++) {
+          TextFile file = new TextFile("file" + t, parent, "text " + count);
+          parent.addContents(file);
+          textFiles.add(file);
+        }
+        for (int c = 0; c < 16; c++) {
+          Directory child = new Directory("dir" + c, parent);
+          parent.addContents(child);
+          next.add(child);
+        }
+        count += 24;
+      }
+      level = next;
+    }
+  }
+}
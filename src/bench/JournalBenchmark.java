@@ -0,0 +1,113 @@
+package bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import driver.Command;
+import driver.JFileSystem;
+import driver.Journal;
+import driver.Parser;
+
+/**
+ * Benchmark for the command journal. Runs mkdir commands the way the shell
+ * does, without a journal and then appending each command line to a journal
+ * with different batches, and prints the latency each command saw and how
+ * many records were forced to disk together. Waiting 0 ms forces every record
+ * to disk before the command returns.
+ *
+ * Run with: java bench.JournalBenchmark [commands]
+ *
+ * @author Shamayum Rashad
+ */
+public class JournalBenchmark {
+
+  /**
+   * the batch sizes and waits, in milliseconds, that are measured
+   */
+  private static final long[][] CONFIGURATIONS = {{256, 20}, {64, 5},
+      {1, 0}};
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of commands run for each configuration
+   */
+  public static void main(String[] args) throws Exception {
+    int commands = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+    JFileSystem fileSystem = JFileSystem.createInstanceOfJFileSystem();
+    Path path = Files.createTempFile("benchmark", ".journal");
+
+    // warm up both paths so the JIT has compiled them
+    run(fileSystem, null, commands / 4, "warm");
+    Journal warm = Journal.open(path, 64, 5);
+    run(fileSystem, warm, commands / 4, "warmer");
+    warm.close();
+
+    System.out.println(String.format("%-16s %10s %10s %10s %10s %14s",
+        "journal", "mean us", "p50 us", "p99 us", "max us", "records/sync"));
+    print("none", run(fileSystem, null, commands, "plain"), "-");
+    for (long[] configuration : CONFIGURATIONS) {
+      Files.delete(path);
+      Journal journal = Journal.open(path, (int) configuration[0],
+          configuration[1]);
+      // forcing every record to disk is slow, so run fewer commands
+      int count = configuration[1] == 0 ? Math.min(commands, 2000) : commands;
+      long[] latencies =
+          run(fileSystem, journal, count, "batch" + configuration[0]);
+      journal.close();
+      String statistics = journal.getStatistics();
+      print(configuration[0] + " / " + configuration[1] + " ms", latencies,
+          statistics.substring(statistics.lastIndexOf(", ") + 2,
+              statistics.indexOf(" records per sync")));
+    }
+    Files.delete(path);
+  }
+
+  /**
+   * Runs mkdir commands, appending each command line to the journal.
+   *
+   * @param fileSystem the file system the commands work on
+   * @param journal the journal, or null to run without one
+   * @param commands the number of commands to run
+   * @param prefix the start of the names of the directories made
+   * @return the latency of each command, in nanoseconds
+   */
+  private static long[] run(JFileSystem fileSystem, Journal journal,
+      int commands, String prefix) throws Exception {
+    long[] latencies = new long[commands];
+    for (int i = 0; i < commands; i++) {
+      String input = "mkdir " + prefix + i;
+      long start = System.nanoTime();
+      ArrayList<String> arguments = new ArrayList<String>();
+      arguments.add(prefix + i);
+      Command command = Parser.commandObject("mkdir", fileSystem);
+      command.executeCommand(arguments);
+      if (journal != null) {
+        journal.append((byte) 'C', input);
+      }
+      latencies[i] = System.nanoTime() - start;
+    }
+    return latencies;
+  }
+
+  /**
+   * Prints a row of latencies.
+   *
+   * @param name the name of the configuration
+   * @param latencies the latency of each command, in nanoseconds
+   * @param perSync the number of records forced to disk together
+   */
+  private static void print(String name, long[] latencies, String perSync) {
+    long total = 0;
+    for (long latency : latencies) {
+      total += latency;
+    }
+    Arrays.sort(latencies);
+    System.out.println(String.format("%-16s %10.2f %10.2f %10.2f %10.1f %14s",
+        name, total / 1e3 / latencies.length,
+        latencies[latencies.length / 2] / 1e3,
+        latencies[(int) (latencies.length * 0.99)] / 1e3,
+        latencies[latencies.length - 1] / 1e3, perSync));
+  }
+}
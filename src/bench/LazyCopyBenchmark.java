@@ -0,0 +1,109 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import driver.Copy;
+import driver.Directory;
+import driver.FileTraversal;
+import driver.JFileSystem;
+import driver.NameIndex;
+import driver.TextFile;
+
+/**
+ * Benchmark for cp -r. Builds a directory of about a million files and times
+ * copying it, then changing a file deep in the source (which copies the
+ * directories of the copy above it), then walking the whole copy (which
+ * copies everything left), then finding a name in it with the name index.
+ *
+ * Run with: java bench.LazyCopyBenchmark [files]
+ *
+ * @author Shamayum Rashad
+ */
+public class LazyCopyBenchmark {
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of files in the directory copied
+   */
+  public static void main(String[] args) throws Exception {
+    int files = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+    JFileSystem fileSystem = JFileSystem.createInstanceOfJFileSystem();
+    fileSystem.setRoot(new Directory("/", null));
+    fileSystem.setCurrentDirectory(fileSystem.getRoot());
+    Directory root = fileSystem.getRoot();
+    Directory source = new Directory("source", root);
+    root.addContents(source);
+    TextFile deepest = fill(source, files);
+    System.out.println("files: " + files);
+    // build the name index, which every copy is then added to
+    NameIndex.find(root, root, "file0", false);
+
+    // the first rounds only warm up the JIT
+    for (int round = 0; round < 3; round++) {
+      String target = "copy" + round;
+      root.addContents(new Directory(target, root));
+      Copy copy = new Copy(fileSystem);
+      long start = System.nanoTime();
+      copy.executeCommand(
+          new ArrayList<String>(Arrays.asList("/source", "/" + target)));
+      double copied = (System.nanoTime() - start) / 1e3;
+      if (!copy.getError().isEmpty()) {
+        throw new IllegalStateException(copy.getError());
+      }
+
+      start = System.nanoTime();
+      deepest.setContents("changed " + round);
+      double changed = (System.nanoTime() - start) / 1e3;
+
+      start = System.nanoTime();
+      long walked = 0;
+      for (driver.File file : new FileTraversal(
+          (Directory) root.getChild(target), FileTraversal.Order.PRE_ORDER)) {
+        walked += file.getFileName().length() > 0 ? 1 : 0;
+      }
+      double walk = (System.nanoTime() - start) / 1e6;
+
+      start = System.nanoTime();
+      int found = NameIndex.find(root, root, "file0", false).size();
+      double find = (System.nanoTime() - start) / 1e6;
+
+      System.out.println(String.format("cp -r: %.1f us, change in the source: "
+          + "%.1f us, first walk of the copy (%d files): %.1f ms, find: %.1f "
+          + "ms (%d found)", copied, changed, walked, walk, find, found));
+    }
+  }
+
+  /**
+   * Fills a directory with a tree of sub directories 16 wide, each with 8
+   * text files.
+   *
+   * @param top the directory to fill
+   * @param files the number of files to create
+   * @return the last text file created, which is one of the deepest
+   */
+  private static TextFile fill(Directory top, int files) throws Exception {
+    ArrayList<Directory> level = new ArrayList<Directory>();
+    level.add(top);
+    TextFile last = null;
+    int count = 0;
+    while (count < files) {
+      ArrayList<Directory> next = new ArrayList<Directory>();
+      for (int d = 0; d < level.size() && count < files; d++) {
+        Directory parent = level.get(d);
+        for (int t = 0; t < 8; t++) {
+          last = new TextFile("file" + t, parent, "text " + count);
+          parent.addContents(last);
+        }
+        for (int c = 0; c < 16; c++) {
+          Directory child = new Directory("dir" + c, parent);
+          parent.addContents(child);
+          next.add(child);
+        }
+        count += 24;
+      }
+      level = next;
+    }
+    return last;
+  }
+}
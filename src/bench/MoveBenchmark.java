@@ -0,0 +1,101 @@
+package bench;
+
+import java.util.ArrayList;
+import driver.Directory;
+import driver.JFileSystem;
+import driver.Move;
+import driver.TextFile;
+
+/**
+ * Benchmark for mv. Fills a directory with many text files and times moving
+ * some of them out one at a time, listing the directory once, which is when
+ * the files moved out are finally taken out of its list, and moving them back
+ * in one command.
+ *
+ * Run with: java bench.MoveBenchmark [files] [moved]
+ *
+ * @author Shamayum Rashad
+ */
+public class MoveBenchmark {
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of files in the directory and the number moved
+   */
+  public static void main(String[] args) throws Exception {
+    int files = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+    int moved = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+    JFileSystem fileSystem = JFileSystem.createInstanceOfJFileSystem();
+    fileSystem.setRoot(new Directory("/", null));
+    fileSystem.setCurrentDirectory(fileSystem.getRoot());
+    Directory root = fileSystem.getRoot();
+    Directory big = new Directory("big", root);
+    root.addContents(big);
+    Directory other = new Directory("other", root);
+    root.addContents(other);
+    for (int index = 0; index < files; index++) {
+      big.addContents(new TextFile("file" + index, big, "text " + index));
+    }
+    System.out.println("files: " + files + ", moved: " + moved);
+
+    // the first rounds only warm up the JIT
+    for (int round = 0; round < 3; round++) {
+      long start = System.nanoTime();
+      for (int index = 0; index < moved; index++) {
+        // spread over the directory, and not the ones moved back last round,
+        // which are at the end of its list
+        String name = "file" + ((long) index * files / moved + round);
+        run(fileSystem, "/big/" + name, "/other");
+      }
+      double single = (System.nanoTime() - start) / 1e6;
+
+      start = System.nanoTime();
+      int listed = big.getContents().size();
+      double list = (System.nanoTime() - start) / 1e6;
+
+      ArrayList<String> arguments = new ArrayList<String>();
+      for (int index = 0; index < moved; index++) {
+        arguments.add("/other/file" + ((long) index * files / moved + round));
+      }
+      arguments.add("/big");
+      start = System.nanoTime();
+      run(fileSystem, arguments);
+      double bulk = (System.nanoTime() - start) / 1e6;
+
+      System.out.println(String.format("%d mv one at a time: %.1f ms (%.1f us "
+          + "each), next listing (%d files): %.1f ms, one mv of %d back: %.1f "
+          + "ms", moved, single, single * 1e3 / moved, listed, list, moved,
+          bulk));
+    }
+  }
+
+  /**
+   * Runs mv, failing if it gives an error.
+   *
+   * @param fileSystem the file system
+   * @param paths the paths given to mv
+   */
+  private static void run(JFileSystem fileSystem, String... paths) {
+    ArrayList<String> arguments = new ArrayList<String>();
+    for (String path : paths) {
+      arguments.add(path);
+    }
+    run(fileSystem, arguments);
+  }
+
+  /**
+   * Runs mv, failing if it gives an error.
+   *
+   * @param fileSystem the file system
+   * @param arguments the paths given to mv
+   */
+  private static void run(JFileSystem fileSystem,
+      ArrayList<String> arguments) {
+    Move move = new Move(fileSystem);
+    move.executeCommand(arguments);
+    if (!move.getError().isEmpty()) {
+      throw new IllegalStateException(move.getError());
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.regex.Pattern;
+import driver.Directory;
+import driver.File;
+import driver.FileTraversal;
+import driver.NameMatcher;
+import driver.TextFile;
+
+/**
+ * Benchmark for the patterns find matches file names against. Builds a tree
+ * of about a million files and times one walk of the tree per pattern: a
+ * plain name, globs that take the prefix/suffix fast path, a glob and a
+ * regular expression that need the regex engine, and, for comparison, a
+ * regular expression compiled again for every name.
+ *
+ * Run with: java bench.NameMatcherBenchmark [files]
+ *
+ * @author Shamayum Rashad
+ */
+public class NameMatcherBenchmark {
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of files in the tree
+   */
+  public static void main(String[] args) throws Exception {
+    int files = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+    Directory root = new Directory("/", null);
+    int built = fill(root, files);
+    System.out.println("files: " + built);
+
+    String[][] patterns = {
+        {"literal", "glob", "file2_log"},
+        {"suffix", "glob", "*_log"},
+        {"prefix", "glob", "data*"},
+        {"affix", "regex", "file.*log"},
+        {"glob", "glob", "f?le*[0-9]_log"},
+        {"regex", "regex", "file[0-9]+_log"}};
+
+    System.out.println(String.format("%-12s %-16s %10s %10s %10s", "kind",
+        "pattern", "matches", "ms", "ns/file"));
+    for (String[] pattern : patterns) {
+      NameMatcher matcher = pattern[1].equals("glob")
+          ? NameMatcher.glob(pattern[2]) : NameMatcher.regex(pattern[2]);
+      // warm up, then keep the best of a few walks
+      double best = Double.MAX_VALUE;
+      int matches = 0;
+      for (int run = 0; run < 6; run++) {
+        long start = System.nanoTime();
+        matches = count(root, matcher);
+        if (run > 0) {
+          best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+      }
+      System.out.println(String.format("%-12s %-16s %10d %10.1f %10.1f",
+          pattern[0], pattern[2], matches, best, best * 1e6 / built));
+    }
+
+    // the same regex, compiled again for every name
+    long start = System.nanoTime();
+    int matches = 0;
+    for (File file : new FileTraversal(root, FileTraversal.Order.PRE_ORDER)) {
+      if (Pattern.matches("file[0-9]+_log", file.getFileName())) {
+        matches++;
+      }
+    }
+    double uncompiled = (System.nanoTime() - start) / 1e6;
+    System.out.println(String.format("%-12s %-16s %10d %10.1f %10.1f",
+        "per-node", "file[0-9]+_log", matches, uncompiled,
+        uncompiled * 1e6 / built));
+  }
+
+  /**
+   * Counts the files in the tree whose names match.
+   *
+   * @param root the root of the tree
+   * @param matcher the pattern the names are matched against
+   * @return the number of matching files
+   */
+  private static int count(Directory root, NameMatcher matcher) {
+    int matches = 0;
+    for (File file : new FileTraversal(root, FileTraversal.Order.PRE_ORDER)) {
+      if (matcher.matches(file.getFileName())) {
+        matches++;
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * Fills a directory with a tree of sub directories 16 wide, each with 8
+   * text files named fileN_log or dataN_txt.
+   *
+   * @param root the directory to fill
+   * @param files the number of files to create
+   * @return the number of files created
+   */
+  private static int fill(Directory root, int files) throws Exception {
+    ArrayList<Directory> level = new ArrayList<Directory>();
+    level.add(root);
+    int count = 0;
+    while (count < files) {
+      ArrayList<Directory> next = new ArrayList<Directory>();
+      for (int d = 0; d < level.size() && count < files; d++) {
+        Directory parent = level.get(d);
+        for (int t = 0; t < 8; t++) {
+          String name = (t % 2 == 0 ? "file" : "data") + (count + t)
+              + (t % 2 == 0 ? "_log" : "_txt");
+          parent.addContents(new TextFile(name, parent, ""));
+        }
+        for (int c = 0; c < 16; c++) {
+          Directory child = new Directory("dir" + c, parent);
+          parent.addContents(child);
+          next.add(child);
+        }
+        count += 24;
+      }
+      level = next;
+    }
+    return count;
+  }
+}
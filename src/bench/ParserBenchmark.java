@@ -0,0 +1,72 @@
+package bench;
+
+import java.util.ArrayList;
+import driver.Parser;
+
+/**
+ * Benchmark for splitting input into words. Times parsing echo lines of
+ * growing length, and a script of many short commands of every kind.
+ *
+ * Run with: java bench.ParserBenchmark [longest line] [commands]
+ *
+ * @author Shamayum Rashad
+ */
+public class ParserBenchmark {
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the length of the longest echo line and the number of
+   *             commands in the script
+   */
+  public static void main(String[] args) {
+    int longest = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+    int commands = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+    ArrayList<String> script = new ArrayList<String>();
+    String[] lines = {"mkdir /a%d", "cd /a%d", "echo \"text %d\" > file%d",
+        "echo more %d >> file%d", "cat file%d", "ls -R /a%d",
+        "find /a%d -type f -name \"file%d\"", "mv file%d /a%d/moved",
+        "cp /a%d /b%d", "pwd"};
+    for (int command = 0; command < commands; command++) {
+      script.add(String.format(lines[command % lines.length], command,
+          command));
+    }
+
+    // the first rounds only warm up the JIT
+    for (int round = 0; round < 3; round++) {
+      StringBuilder report = new StringBuilder();
+      for (int length = 1000; length <= longest; length *= 10) {
+        String echo = echoLine(length);
+        long start = System.nanoTime();
+        int words = Parser.parseInput(echo).get("echo").size();
+        double parsed = (System.nanoTime() - start) / 1e6;
+        report.append(String.format("echo of %d chars (%d words): %.2f ms, ",
+            echo.length(), words, parsed));
+      }
+      long start = System.nanoTime();
+      int words = 0;
+      for (String line : script) {
+        words += Parser.parseInput(line).values().iterator().next().size();
+      }
+      double parsed = (System.nanoTime() - start) / 1e6;
+      report.append(String.format("script of %d commands (%d words): %.1f ms "
+          + "(%.0f ns each)", commands, words, parsed, parsed * 1e6 / commands));
+      System.out.println(report);
+    }
+  }
+
+  /**
+   * Builds an echo line of short words, written to a file.
+   *
+   * @param length the number of characters in the line
+   * @return the line
+   */
+  private static String echoLine(int length) {
+    StringBuilder line = new StringBuilder("echo");
+    int word = 0;
+    while (line.length() < length) {
+      line.append(" w").append(word++);
+    }
+    return line.toString();
+  }
+}
@@ -0,0 +1,94 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import driver.Directory;
+import driver.Find;
+import driver.JFileSystem;
+import driver.NameIndex;
+import driver.Pwd;
+import driver.TextFile;
+
+/**
+ * Benchmark for rendering absolute paths. Times pwd in a deep directory, pwd
+ * again after the directory at the top of it is renamed, and find printing
+ * every file of a wide tree.
+ *
+ * Run with: java bench.PathBenchmark [depth] [files]
+ *
+ * @author Shamayum Rashad
+ */
+public class PathBenchmark {
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the depth of the deep directory and the number of files found
+   */
+  public static void main(String[] args) throws Exception {
+    int depth = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int files = args.length > 1 ? Integer.parseInt(args[1]) : 500000;
+    JFileSystem fileSystem = JFileSystem.createInstanceOfJFileSystem();
+    fileSystem.setRoot(new Directory("/", null));
+    Directory root = fileSystem.getRoot();
+    Directory top = new Directory("deep", root);
+    root.addContents(top);
+    Directory deepest = top;
+    for (int level = 0; level < depth; level++) {
+      Directory child = new Directory("level" + level, deepest);
+      deepest.addContents(child);
+      deepest = child;
+    }
+    Directory wide = new Directory("wide", root);
+    root.addContents(wide);
+    for (int d = 0; d * 100 < files; d++) {
+      Directory directory = new Directory("dir" + d, wide);
+      wide.addContents(directory);
+      for (int t = 0; t < 100 && d * 100 + t < files; t++) {
+        directory.addContents(new TextFile("file" + t, directory, "text"));
+      }
+    }
+    fileSystem.setCurrentDirectory(deepest);
+    NameIndex.setEnabled(false);
+    System.out.println("depth: " + depth + ", files found: " + files);
+
+    // the first rounds only warm up the JIT
+    for (int round = 0; round < 3; round++) {
+      int calls = 2000;
+      long start = System.nanoTime();
+      int length = 0;
+      for (int call = 0; call < calls; call++) {
+        length += pwd(fileSystem).length();
+      }
+      double pwd = (System.nanoTime() - start) / 1e3 / calls;
+
+      top.setFileName("deep" + round);
+      start = System.nanoTime();
+      length += pwd(fileSystem).length();
+      double renamed = (System.nanoTime() - start) / 1e3;
+
+      Find find = new Find(fileSystem);
+      start = System.nanoTime();
+      find.executeCommand(new ArrayList<String>(
+          Arrays.asList("/wide", "-type", "f", "-name", "\"file*\"")));
+      String found = find.getPrintCommand();
+      double findTime = (System.nanoTime() - start) / 1e6;
+
+      System.out.println(String.format("pwd: %.1f us, pwd after renaming the "
+          + "top: %.1f us, find: %.1f ms (%d KB printed, %d)", pwd, renamed,
+          findTime, found.length() / 1024, length));
+    }
+  }
+
+  /**
+   * Runs pwd.
+   *
+   * @param fileSystem the file system
+   * @return the path printed
+   */
+  private static String pwd(JFileSystem fileSystem) {
+    Pwd pwd = new Pwd(fileSystem);
+    pwd.executeCommand(new ArrayList<String>());
+    return pwd.getPrintCommand();
+  }
+}
@@ -0,0 +1,83 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import driver.Command;
+import driver.CommandLine;
+import driver.Directory;
+import driver.JFileSystem;
+import driver.Parser;
+import driver.Pipeline;
+import driver.StringOutputSink;
+import driver.TextFile;
+
+/**
+ * Benchmark for pipelines. Finds every file in a large file system, printing
+ * all of them, then piping them into head, which stops find once it has the
+ * first lines, then piping them into cat, which copies every line through the
+ * pipes.
+ *
+ * Run with: java bench.PipelineBenchmark [files]
+ *
+ * @author Shamayum Rashad
+ */
+public class PipelineBenchmark {
+
+  /**
+   * the number of files in each directory
+   */
+  private static final int FILES_PER_DIRECTORY = 1000;
+
+  /**
+   * the search every run makes
+   */
+  private static final String FIND = "find / -type f -name \"f*\"";
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of files in the file system
+   */
+  public static void main(String[] args) throws Exception {
+    int files = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+    JFileSystem fileSystem = JFileSystem.createInstanceOfJFileSystem();
+    Directory root = new Directory("/", null);
+    fileSystem.setRoot(root);
+    fileSystem.setCurrentDirectory(root);
+    Directory directory = null;
+    for (int file = 0; file < files; file++) {
+      if (file % FILES_PER_DIRECTORY == 0) {
+        directory = new Directory("d" + file / FILES_PER_DIRECTORY, root);
+        root.addContents(directory);
+      }
+      directory.addContents(new TextFile("f" + file, directory, ""));
+    }
+
+    // the first rounds only warm up the JIT
+    for (int round = 0; round < 5; round++) {
+      long start = System.nanoTime();
+      Command find = Parser.commandObject("find", fileSystem);
+      find.executeCommand(new ArrayList<String>(
+          Arrays.asList("/", "-type", "f", "-name", "\"f*\"")));
+      long printed = find.getPrintCommand().length();
+      double all = (System.nanoTime() - start) / 1e6;
+
+      start = System.nanoTime();
+      StringOutputSink headOutput = new StringOutputSink();
+      Pipeline.run(CommandLine.splitPipeline(FIND + " | head 10"),
+          fileSystem, headOutput);
+      double head = (System.nanoTime() - start) / 1e6;
+
+      start = System.nanoTime();
+      StringOutputSink catOutput = new StringOutputSink();
+      Pipeline.run(CommandLine.splitPipeline(FIND + " | cat"), fileSystem,
+          catOutput);
+      double cat = (System.nanoTime() - start) / 1e6;
+
+      System.out.println(String.format("find: %.1f ms (%d chars), "
+          + "| head 10: %.1f ms (%d chars), | cat: %.1f ms (%d chars)", all,
+          printed, head, headOutput.getContents().length(), cat,
+          catOutput.getContents().length()));
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package bench;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CyclicBarrier;
+import driver.JFileSystem;
+import driver.ShellServer;
+
+/**
+ * Load generator for the shell server. Opens many sessions at once, each on
+ * a thread of its own, which all start sending commands together and wait
+ * for the prompt after each one. Reports the commands run per second and the
+ * latency of the commands, from sending the line to reading the prompt.
+ *
+ * Every session makes a directory of its own, then goes round cd, echo into a
+ * file, cat, pwd, ls and history in it.
+ *
+ * Run with: java bench.ServerBenchmark [sessions] [commands] [port]
+ *
+ * Without a port, a server is started in the benchmark on any free port.
+ *
+ * @author Shamayum Rashad
+ */
+public class ServerBenchmark {
+
+  /**
+   * the prompt the server sends once a command is done
+   */
+  private static final byte[] PROMPT =
+      "/#: ".getBytes(StandardCharsets.UTF_8);
+
+  /**
+   * the commands each session goes round, after making its directory
+   */
+  private static final String[] COMMANDS = {"cd /s%d",
+      "echo \"line %d\" >> f", "cat f", "pwd", "ls", "history 3", "cd /"};
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of sessions, the number of commands each sends,
+   *        and the port of a server already running
+   */
+  public static void main(String[] args) throws Exception {
+    int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int commands = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    ShellServer server = null;
+    int port;
+    if (args.length > 2) {
+      port = Integer.parseInt(args[2]);
+    } else {
+      server = new ShellServer(JFileSystem.createInstanceOfJFileSystem(), 0);
+      ShellServer served = server;
+      Thread accepting = new Thread(served::serve, "accept");
+      accepting.setDaemon(true);
+      accepting.start();
+      port = server.getPort();
+    }
+
+    // the first round only warms up the JIT
+    for (int round = 0; round < 2; round++) {
+      long[][] latencies = new long[sessions][];
+      CyclicBarrier start = new CyclicBarrier(sessions + 1);
+      Thread[] clients = new Thread[sessions];
+      for (int session = 0; session < sessions; session++) {
+        int number = round * sessions + session;
+        long[] times = new long[commands];
+        latencies[session] = times;
+        clients[session] = new Thread(
+            () -> runSession(port, number, times, start), "client " + number);
+        clients[session].start();
+      }
+      // every session is connected before the clock starts
+      start.await();
+      long begin = System.nanoTime();
+      for (Thread client : clients) {
+        client.join();
+      }
+      double seconds = (System.nanoTime() - begin) / 1e9;
+
+      long[] all = new long[sessions * commands];
+      for (int session = 0; session < sessions; session++) {
+        System.arraycopy(latencies[session], 0, all, session * commands,
+            commands);
+      }
+      Arrays.sort(all);
+      System.out.println(String.format("%d sessions, %d commands in %.2f s: "
+          + "%.0f commands/s, latency p50 %.2f ms, p99 %.2f ms, max %.2f ms",
+          sessions, all.length, seconds, all.length / seconds,
+          percentile(all, 0.50), percentile(all, 0.99),
+          all[all.length - 1] / 1e6));
+    }
+    if (server != null) {
+      server.close();
+    }
+  }
+
+  /**
+   * Connects a session and sends its commands, timing each one.
+   *
+   * @param port    the port of the server
+   * @param number  the number of the session, which names its directory
+   * @param times   where the time each command took is kept, in nanoseconds
+   * @param start   the barrier every session waits at before sending
+   */
+  private static void runSession(int port, int number, long[] times,
+      CyclicBarrier start) {
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      socket.setTcpNoDelay(true);
+      InputStream in = new BufferedInputStream(socket.getInputStream());
+      OutputStream out = socket.getOutputStream();
+      readPrompt(in);
+      send(out, in, "mkdir /s" + number);
+      start.await();
+      for (int command = 0; command < times.length; command++) {
+        String line = String.format(COMMANDS[command % COMMANDS.length],
+            command % COMMANDS.length == 0 ? number : command);
+        long sent = System.nanoTime();
+        send(out, in, line);
+        times[command] = System.nanoTime() - sent;
+      }
+      send(out, in, "exit");
+    } catch (Exception e) {
+      System.err.println("session " + number + ": " + e);
+    }
+  }
+
+  /**
+   * Sends a command and waits for the prompt after its output.
+   *
+   * @param out   the stream to the server
+   * @param in    the stream from the server
+   * @param line  the command
+   * @throws IOException exception when the connection breaks
+   */
+  private static void send(OutputStream out, InputStream in, String line)
+      throws IOException {
+    out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+    out.flush();
+    if (!line.equals("exit")) {
+      readPrompt(in);
+    }
+  }
+
+  /**
+   * Reads until the prompt.
+   *
+   * @param in  the stream from the server
+   * @throws IOException exception when the connection ends first
+   */
+  private static void readPrompt(InputStream in) throws IOException {
+    int matched = 0;
+    while (matched < PROMPT.length) {
+      int next = in.read();
+      if (next < 0) {
+        throw new IOException("connection closed");
+      } else if (next == PROMPT[matched]) {
+        matched++;
+      } else {
+        matched = next == PROMPT[0] ? 1 : 0;
+      }
+    }
+  }
+
+  /**
+   * Returns a percentile of sorted times in milliseconds.
+   *
+   * @param sorted    the times, in nanoseconds, in order
+   * @param fraction  the fraction of the times at or below the percentile
+   * @return          the percentile, in milliseconds
+   */
+  private static double percentile(long[] sorted, double fraction) {
+    int index = (int) Math.ceil(fraction * sorted.length) - 1;
+    return sorted[Math.max(index, 0)] / 1e6;
+  }
+}
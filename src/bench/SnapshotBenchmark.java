@@ -0,0 +1,137 @@
+package bench;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import driver.Directory;
+import driver.DirectoryStack;
+import driver.JFileSystem;
+import driver.JFileSystemSaver;
+import driver.TextFile;
+
+/**
+ * Benchmark for save and load. Builds a file system of about a million files
+ * and times saving and loading it, and measures the size of the saved file
+ * and the heap used after loading, with Java serialization, with the binary
+ * snapshot format, and with the binary snapshot loaded mapped (load -m).
+ *
+ * Run with: java bench.SnapshotBenchmark [files] [bytesPerFile]
+ *
+ * @author Shamayum Rashad
+ */
+public class SnapshotBenchmark {
+
+  /**
+   * the heap in use with only the original file system, in bytes
+   */
+  private static long baseline = 0;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of files in the file system, and the size of the
+   *        contents of each text file
+   */
+  public static void main(String[] args) throws Exception {
+    int files = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+    int bytesPerFile = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+    JFileSystem fileSystem = JFileSystem.createInstanceOfJFileSystem();
+    Directory root = fileSystem.getRoot();
+    int built = fill(root, files, bytesPerFile);
+    System.out.println("files: " + built);
+    java.io.File saveFile = java.io.File.createTempFile("snapshot", ".save");
+    saveFile.deleteOnExit();
+
+    System.out.println(String.format("%-12s %10s %10s %12s %10s", "format",
+        "save ms", "load ms", "bytes", "heap MB"));
+    String[] runs = {"SERIALIZED", "BINARY", "MAPPED", "SERIALIZED", "BINARY",
+        "MAPPED"};
+    for (String run : runs) {
+      boolean mapped = run.equals("MAPPED");
+      JFileSystemSaver saver = new JFileSystemSaver(mapped
+          ? JFileSystemSaver.Format.BINARY
+          : JFileSystemSaver.Format.valueOf(run));
+      fileSystem.setRoot(root);
+      fileSystem.setCurrentDirectory(root);
+
+      long start = System.nanoTime();
+      String errors = saver.saveFileSystem(saveFile.getPath(), fileSystem);
+      double save = (System.nanoTime() - start) / 1e6;
+      long bytes = Files.size(saveFile.toPath());
+
+      // loading is only allowed as the first command
+      fileSystem.setCommandHistory(new ArrayList<String>());
+      fileSystem.addToHistory("load " + saveFile.getPath());
+      fileSystem.setDirectoryStack(new DirectoryStack());
+      start = System.nanoTime();
+      errors += mapped
+          ? saver.getMappedFileSystem(saveFile.getPath(), fileSystem)
+          : saver.getSavedFileSystem(saveFile.getPath(), fileSystem);
+      double load = (System.nanoTime() - start) / 1e6;
+      if (!errors.isEmpty()) {
+        throw new IllegalStateException(errors);
+      }
+      System.out.println(String.format("%-12s %10.1f %10.1f %12d %10d", run,
+          save, load, bytes, usedHeap(fileSystem.getRoot(), root)));
+    }
+  }
+
+  /**
+   * Returns the heap used by the loaded file system, as the heap in use after
+   * a collection minus what the original file system still holds.
+   *
+   * @param loaded the root of the loaded file system
+   * @param original the root of the file system that was saved
+   * @return the heap used by the loaded file system, in MB
+   */
+  private static long usedHeap(Directory loaded, Directory original) {
+    Runtime runtime = Runtime.getRuntime();
+    System.gc();
+    long withLoaded = runtime.totalMemory() - runtime.freeMemory();
+    // keep the loaded file system reachable until it has been measured
+    if (loaded == original) {
+      throw new IllegalStateException("nothing was loaded");
+    }
+    return (withLoaded - baseline) >> 20;
+  }
+
+  /**
+   * Fills a directory with a tree of sub directories 16 wide, each with 8
+   * text files, then measures the heap used with just that file system.
+   *
+   * @param root the directory to fill
+   * @param files the number of files to create
+   * @param bytesPerFile the size of the contents of each text file
+   * @return the number of files created
+   */
+  private static int fill(Directory root, int files, int bytesPerFile)
+      throws Exception {
+    StringBuilder padding = new StringBuilder();
+    while (padding.length() < bytesPerFile) {
+      padding.append("0123456789abcdef");
+    }
+    ArrayList<Directory> level = new ArrayList<Directory>();
+    level.add(root);
+    int count = 0;
+    while (count < files) {
+      ArrayList<Directory> next = new ArrayList<Directory>();
+      for (int d = 0; d < level.size() && count < files; d++) {
+        Directory parent = level.get(d);
+        for (int t = 0; t < 8; t++) {
+          parent.addContents(new TextFile("file" + t, parent,
+              (count + t) + padding.substring(0, bytesPerFile)));
+        }
+        for (int c = 0; c < 16; c++) {
+          Directory child = new Directory("dir" + c, parent);
+          parent.addContents(child);
+          next.add(child);
+        }
+        count += 24;
+      }
+      level = next;
+    }
+    Runtime runtime = Runtime.getRuntime();
+    System.gc();
+    baseline = runtime.totalMemory() - runtime.freeMemory();
+    return count;
+  }
+}
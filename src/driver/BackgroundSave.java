@@ -0,0 +1,260 @@
+package driver;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * A save that runs on its own thread while the shell keeps being used. The
+ * file system is frozen when the save starts (see FrozenTree), so what is
+ * saved is the file system as it was then, whatever is changed while it is
+ * written. The snapshot is written next to the file and moved over it once it
+ * is complete, so the file always holds a whole save. A shell that exits while
+ * a background save is running waits for it to finish (see JShell.main).
+ *
+ * Only one background save runs at a time, and the last one started can be
+ * asked how far it got.
+ *
+ * @author Shamayum Rashad
+ */
+class BackgroundSave implements Runnable {
+
+  /**
+   * the size of the buffer the snapshot is written through
+   */
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /**
+   * the last background save started, or null if none was
+   */
+  private static BackgroundSave latest = null;
+
+  /**
+   * the name of the file being saved to, as it was given
+   */
+  private final String fileName;
+
+  /**
+   * the absolute path of the file being saved to
+   */
+  private final Path target;
+
+  /**
+   * the view of the file system being saved
+   */
+  private final FrozenTree tree;
+
+  /**
+   * the commands of the history when the save started
+   */
+  private final ArrayList<String> history;
+
+  /**
+   * the root of the file system being saved
+   */
+  private final Directory root;
+
+  /**
+   * the current directory when the save started
+   */
+  private final Directory currentDirectory;
+
+  /**
+   * the directories of the directory stack when the save started
+   */
+  private final ArrayList<Directory> stack;
+
+  /**
+   * the encoder the contents of text files are written with
+   */
+  private final BlockEncoder blocks;
+
+  /**
+   * the thread the save runs on
+   */
+  private final Thread thread;
+
+  /**
+   * when the save started, in nanoseconds
+   */
+  private final long started = System.nanoTime();
+
+  /**
+   * the number of files being saved, or -1 until they are counted
+   */
+  private volatile long total = -1;
+
+  /**
+   * any errors saving, or null while the save is running
+   */
+  private volatile String errors = null;
+
+  /**
+   * when the save finished, in nanoseconds
+   */
+  private volatile long finished = 0;
+
+  /**
+   * Constructs a background save of a file system that was just frozen.
+   *
+   * @param fileName    the name of the file being saved to
+   * @param target      the absolute path of the file being saved to
+   * @param tree        the view of the file system being saved
+   * @param fileSystem  the file system being saved
+   * @param blocks      the encoder the contents of text files are written with
+   */
+  private BackgroundSave(String fileName, Path target, FrozenTree tree,
+      JFileSystem fileSystem, BlockEncoder blocks) {
+    this.fileName = fileName;
+    this.blocks = blocks;
+    this.target = target;
+    this.tree = tree;
+    this.history = new ArrayList<String>(fileSystem.getCommandHistory());
+    this.root = fileSystem.getRoot();
+    this.currentDirectory = fileSystem.getCurrentDirectory();
+    this.stack = new ArrayList<Directory>(
+        fileSystem.getDirectoryStack().getDirStack());
+    this.thread = new Thread(this, "background save");
+    // a save started by a daemon thread, like a ShellServer session, still
+    // keeps the program running until it is written
+    this.thread.setDaemon(false);
+  }
+
+  /**
+   * Freezes the file system and starts saving it to a file on another thread.
+   *
+   * @param fileName    the name of the file the file system is saved to
+   * @param target      the absolute path of the file
+   * @param fileSystem  the file system being saved
+   * @param blocks      the encoder the contents of text files are written with
+   * @return            any errors starting the save
+   */
+  static synchronized String start(String fileName, Path target,
+      JFileSystem fileSystem, BlockEncoder blocks) {
+    String errors = "";
+    if (latest != null && latest.errors == null) {
+      errors = "Save: a background save to " + latest.fileName
+          + " is still running";
+    } else {
+      FrozenTree tree = FrozenTree.freeze();
+      if (tree == null) {
+        errors = "Save: the file system is already frozen";
+      } else {
+        latest = new BackgroundSave(fileName, target, tree, fileSystem,
+            blocks);
+        latest.thread.start();
+      }
+    }
+    return errors;
+  }
+
+  /**
+   * Returns how far the last background save got.
+   *
+   * @return a line saying whether the save is running, how much of the file
+   *         system it has written and how long it took, or why it failed
+   */
+  static synchronized String getStatus() {
+    String status;
+    if (latest == null) {
+      status = "save: no background save was started";
+    } else {
+      status = latest.describe();
+    }
+    return status;
+  }
+
+  /**
+   * Waits for the last background save to finish.
+   *
+   * @param millis  the longest time to wait, in milliseconds, or 0 to wait
+   *                until it finishes
+   * @return        true if no background save is running any more
+   * @throws InterruptedException  exception when the wait is interrupted
+   */
+  static boolean await(long millis) throws InterruptedException {
+    BackgroundSave save;
+    synchronized (BackgroundSave.class) {
+      save = latest;
+    }
+    if (save != null) {
+      save.thread.join(millis);
+    }
+    return save == null || save.errors != null;
+  }
+
+  /**
+   * Counts the files being saved, then writes them.
+   */
+  @Override
+  public void run() {
+    String result = "";
+    Path temporary = null;
+    try {
+      this.total = this.tree.count(this.root);
+      temporary = Files.createTempFile(this.target.getParent(),
+          this.target.getFileName().toString(), ".tmp");
+      DataOutputStream dataOutput = new DataOutputStream(
+          new BufferedOutputStream(new FileOutputStream(temporary.toFile()),
+              BUFFER_SIZE));
+      try {
+        BinarySnapshot.write(dataOutput, this.tree, this.history, this.root,
+            this.currentDirectory, this.stack, this.blocks);
+      } finally {
+        dataOutput.close();
+      }
+      JFileSystemSaver.replace(temporary, this.target);
+      temporary = null;
+      // the file no longer holds the snapshot changes were tracked against
+      ChangeTracker.replaced(this.target.toString());
+    } catch (IOException | RuntimeException e) {
+      result = this.fileName + ": " + e;
+    } finally {
+      this.tree.close();
+      if (temporary != null) {
+        try {
+          Files.deleteIfExists(temporary);
+        } catch (IOException e) {
+          // the partly written file is only left behind
+        }
+      }
+    }
+    this.finished = System.nanoTime();
+    this.errors = result;
+  }
+
+  /**
+   * Describes how far the save got.
+   *
+   * @return a line describing the save
+   */
+  private String describe() {
+    String errors = this.errors;
+    String status;
+    if (errors == null) {
+      double seconds = (System.nanoTime() - this.started) / 1e9;
+      long total = this.total;
+      if (total < 0) {
+        status = String.format("save: saving %s in the background, counting "
+            + "files after %.1f s", this.fileName, seconds);
+      } else {
+        long read = this.tree.getRead();
+        status = String.format("save: saving %s in the background, %d%% "
+            + "(%d of %d files) after %.1f s", this.fileName,
+            read * 100 / Math.max(total, 1), read, total, seconds);
+      }
+    } else if (errors.isEmpty()) {
+      status = String.format("save: saved %s in the background, %d files "
+          + "in %.1f s", this.fileName, this.total,
+          (this.finished - this.started) / 1e9);
+    } else {
+      status = "save: saving " + this.fileName
+          + " in the background failed (" + errors + ")";
+    }
+    return status;
+  }
+}
@@ -0,0 +1,866 @@
+package driver;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes a file system in the binary snapshot format. After the
+ * header (the magic number and the format version) come the command history,
+ * then every file in pre-order, then the current directory and the directory
+ * stack as positions in that order. Each file is written as its kind, its name
+ * and either its contents (for text files) or its number of children (for
+ * directories); a file's parent is the closest directory before it that still
+ * has children left. Strings are written as a length followed by their UTF-8
+ * bytes. Files are written and read one at a time with an explicit stack, so
+ * deep trees can't overflow the call stack.
+ *
+ * Since version 2 an incremental save appends a delta to the snapshot instead
+ * of writing it again. A delta is its magic number, its length, its contents
+ * and their CRC-32. The contents are the commands added to the history, then
+ * a record for each changed file, parents first, then the current directory
+ * and the directory stack as paths. A record is the kind and path of the file,
+ * then either its new contents (for text files) or its children (for
+ * directories), each either kept or renamed by name, or written whole like
+ * the files of a snapshot if it was added since the last save. A delta that
+ * was only partly written, e.g. because the shell stopped while saving, is
+ * ignored along with anything after it.
+ *
+ * Since version 3 the contents of a text file can be a block encoded with a
+ * codec (see BlockEncoder), marked by a negative length. Names, counts and
+ * everything else stay as they are, so the files can still be read without
+ * decoding any contents.
+ *
+ * Since version 4 text files that share their contents (see BlobStore) only
+ * write them once: later ones write BlockEncoder.SHARED and the number of the
+ * earlier block instead, counting the blocks of the snapshot, or of the
+ * delta, from 0.
+ *
+ * @author Shamayum Rashad
+ */
+class BinarySnapshot {
+
+  /**
+   * the first four bytes of every snapshot ("JSHS")
+   */
+  static final int MAGIC = 0x4A534853;
+
+  /**
+   * the first four bytes of every delta ("JSHD")
+   */
+  static final int DELTA_MAGIC = 0x4A534844;
+
+  /**
+   * the version of the format written
+   */
+  static final short VERSION = 4;
+
+  /**
+   * marks a directory in the list of files
+   */
+  private static final byte DIRECTORY = 'D';
+
+  /**
+   * marks a text file in the list of files
+   */
+  private static final byte TEXT_FILE = 'T';
+
+  /**
+   * marks a child of a changed directory that was already there
+   */
+  private static final byte KEPT = 'K';
+
+  /**
+   * marks a child of a changed directory that was renamed
+   */
+  private static final byte RENAMED = 'R';
+
+  /**
+   * the commands of the history read
+   */
+  private final ArrayList<String> history;
+
+  /**
+   * the root of the files read
+   */
+  private final Directory root;
+
+  /**
+   * the current directory read
+   */
+  private Directory currentDirectory;
+
+  /**
+   * the directory stack read
+   */
+  private DirectoryStack directoryStack;
+
+  /**
+   * the number of deltas applied to the files read
+   */
+  private int deltas = 0;
+
+  /**
+   * whether a delta that was only partly written was ignored
+   */
+  private boolean torn = false;
+
+  /**
+   * the version of the format the snapshot was read in
+   */
+  private short version = VERSION;
+
+  /**
+   * Constructs a snapshot that was read.
+   *
+   * @param history           the commands of the history read
+   * @param root              the root of the files read
+   * @param currentDirectory  the current directory read
+   * @param directoryStack    the directory stack read
+   */
+  private BinarySnapshot(ArrayList<String> history, Directory root,
+      Directory currentDirectory, DirectoryStack directoryStack) {
+    this.history = history;
+    this.root = root;
+    this.currentDirectory = currentDirectory;
+    this.directoryStack = directoryStack;
+  }
+
+  /**
+   * Writes the file system as a snapshot. Every file written remembers where
+   * it was saved, which is what later deltas are relative to.
+   *
+   * @param output      the stream the snapshot is written to
+   * @param fileSystem  the file system being written
+   * @param blocks      the encoder the contents of text files are written with
+   * @throws IOException  exception when the stream can't be written
+   */
+  static void write(DataOutputStream output, JFileSystem fileSystem,
+      BlockEncoder blocks) throws IOException {
+    write(output, fileSystem.getCommandHistory(), fileSystem.getRoot(),
+        fileSystem.getCurrentDirectory(),
+        fileSystem.getDirectoryStack().getDirStack(), null, blocks);
+  }
+
+  /**
+   * Writes the files of a frozen view of a file system as a snapshot. The
+   * files written don't remember where they were saved, since they may have
+   * changed since the view was taken.
+   *
+   * @param output            the stream the snapshot is written to
+   * @param tree              the view the files are read from
+   * @param history           the commands of the history when the view was
+   *                          taken
+   * @param root              the root of the files
+   * @param currentDirectory  the current directory when the view was taken
+   * @param stack             the directories of the directory stack when the
+   *                          view was taken
+   * @param blocks            the encoder the contents of text files are
+   *                          written with
+   * @throws IOException  exception when the stream can't be written
+   */
+  static void write(DataOutputStream output, FrozenTree tree,
+      List<String> history, Directory root, Directory currentDirectory,
+      List<Directory> stack, BlockEncoder blocks) throws IOException {
+    write(output, history, root, currentDirectory, stack, tree, blocks);
+  }
+
+  /**
+   * Writes the snapshot that was read, with its deltas applied, as a single
+   * snapshot.
+   *
+   * @param output  the stream the snapshot is written to
+   * @param blocks  the encoder the contents of text files are written with
+   * @throws IOException  exception when the stream can't be written
+   */
+  void write(DataOutputStream output, BlockEncoder blocks) throws IOException {
+    write(output, this.history, this.root, this.currentDirectory,
+        this.directoryStack.getDirStack(), null, blocks);
+  }
+
+  /**
+   * Writes a snapshot of the given parts of a file system.
+   *
+   * @param output            the stream the snapshot is written to
+   * @param history           the commands of the history
+   * @param root              the root of the files
+   * @param currentDirectory  the current directory
+   * @param stack             the directories of the directory stack
+   * @param tree              the frozen view the files are read from, or null
+   *                          to read them as they are
+   * @param blocks            the encoder the contents of text files are
+   *                          written with
+   * @throws IOException  exception when the stream can't be written
+   */
+  private static void write(DataOutputStream output, List<String> history,
+      Directory root, Directory currentDirectory, List<Directory> stack,
+      FrozenTree tree, BlockEncoder blocks) throws IOException {
+
+    output.writeInt(MAGIC);
+    output.writeShort(VERSION);
+
+    output.writeInt(history.size());
+    for (String command : history) {
+      writeString(output, command);
+    }
+
+    // remember the positions of the directories referred to after the files
+    IdentityHashMap<File, Integer> positions = new IdentityHashMap<>();
+    positions.put(currentDirectory, -1);
+    for (Directory directory : stack) {
+      positions.put(directory, -1);
+    }
+
+    if (tree == null) {
+      writeFiles(output, root, positions, blocks);
+    } else {
+      writeFrozenFiles(output, root, positions, tree, blocks);
+    }
+
+    output.writeInt(positions.get(currentDirectory));
+    output.writeInt(stack.size());
+    for (Directory directory : stack) {
+      output.writeInt(positions.get(directory));
+    }
+  }
+
+  /**
+   * Writes a delta holding everything that changed in the file system since
+   * it was last saved.
+   *
+   * @param output        the stream the delta is appended to
+   * @param fileSystem    the file system being saved
+   * @param historyStart  the number of commands of the history already saved
+   * @param changed       the files that changed since the last save
+   * @param blocks        the encoder the contents of text files are written
+   *                      with
+   * @throws IOException  exception when the stream can't be written
+   */
+  static void writeDelta(DataOutputStream output, JFileSystem fileSystem,
+      int historyStart, List<File> changed, BlockEncoder blocks)
+      throws IOException {
+
+    Directory root = fileSystem.getRoot();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream delta = new DataOutputStream(bytes);
+
+    ArrayList<String> history = fileSystem.getCommandHistory();
+    int start = Math.min(historyStart, history.size());
+    delta.writeInt(start);
+    delta.writeInt(history.size() - start);
+    for (String command : history.subList(start, history.size())) {
+      writeString(delta, command);
+    }
+
+    // files added since the last save are written whole with their parent,
+    // so only the other changed files still in the file system get a record
+    IdentityHashMap<File, Integer> depths = new IdentityHashMap<>();
+    ArrayList<File> records = new ArrayList<>();
+    for (File file : changed) {
+      int depth = getRecordDepth(file, root);
+      if (depth >= 0 && !depths.containsKey(file)) {
+        depths.put(file, depth);
+        records.add(file);
+      }
+    }
+    // a record's path only exists once the records of its parents are applied
+    records.sort(Comparator.comparingInt(depths::get));
+
+    delta.writeInt(records.size());
+    for (File file : records) {
+      if (file instanceof Directory) {
+        delta.writeByte(DIRECTORY);
+        writePath(delta, file, root);
+        writeChildren(delta, (Directory) file, blocks);
+      } else {
+        delta.writeByte(TEXT_FILE);
+        writePath(delta, file, root);
+        blocks.write(delta, ((TextFile) file).getBlob());
+      }
+    }
+
+    writePath(delta, fileSystem.getCurrentDirectory(), root);
+    ArrayList<Directory> stack = fileSystem.getDirectoryStack().getDirStack();
+    delta.writeInt(stack.size());
+    for (Directory directory : stack) {
+      writePath(delta, directory, root);
+    }
+    delta.flush();
+
+    CRC32 checksum = new CRC32();
+    checksum.update(bytes.toByteArray());
+    output.writeInt(DELTA_MAGIC);
+    output.writeInt(bytes.size());
+    bytes.writeTo(output);
+    output.writeInt((int) checksum.getValue());
+  }
+
+  /**
+   * Reads a snapshot and applies every delta after it.
+   *
+   * @param input    the stream the snapshot is read from, after the magic
+   * @param mapping  the mapped snapshot input reads directly from, or null to
+   *                 read every text file now; text files written by deltas
+   *                 are always read now
+   * @return         the snapshot read
+   * @throws IOException  exception when the stream can't be read or does not
+   *         hold a valid snapshot
+   */
+  static BinarySnapshot read(DataInputStream input, MappedSnapshot mapping)
+      throws IOException {
+
+    short version = input.readShort();
+    if (version < 1 || version > VERSION) {
+      throw new IOException("unsupported snapshot version " + version);
+    }
+
+    int historySize = readCount(input);
+    ArrayList<String> history = new ArrayList<>(historySize);
+    for (int i = 0; i < historySize; i++) {
+      history.add(readString(input));
+    }
+
+    if (input.readByte() != DIRECTORY) {
+      throw new IOException("the root is not a directory");
+    }
+    ArrayList<Directory> directories = new ArrayList<>();
+    ArrayList<Integer> directoryPositions = new ArrayList<>();
+    Directory root = (Directory) readFiles(input, DIRECTORY, null,
+        new BlockDecoder(mapping), directories, directoryPositions);
+
+    Directory currentDirectory = findDirectory(input.readInt(), directories,
+        directoryPositions, root);
+    int stackSize = readCount(input);
+    DirectoryStack stack = new DirectoryStack();
+    for (int i = 0; i < stackSize; i++) {
+      int position = input.readInt();
+      // a directory that was no longer in the file system wasn't saved
+      if (position >= 0) {
+        stack.push(findDirectory(position, directories, directoryPositions,
+            root));
+      }
+    }
+
+    BinarySnapshot snapshot =
+        new BinarySnapshot(history, root, currentDirectory, stack);
+    snapshot.version = version;
+    if (version >= 2) {
+      snapshot.readDeltas(input);
+    }
+    return snapshot;
+  }
+
+  /**
+   * Replaces the files, history, current directory and directory stack of the
+   * file system with the ones read.
+   *
+   * @param fileSystem  the file system being replaced
+   */
+  void restore(JFileSystem fileSystem) {
+    fileSystem.setCommandHistory(this.history);
+    fileSystem.setRoot(this.root);
+    fileSystem.setCurrentDirectory(this.currentDirectory);
+    fileSystem.setDirectoryStack(this.directoryStack);
+  }
+
+  /**
+   * Returns the number of deltas applied to the snapshot.
+   *
+   * @return the number of deltas read
+   */
+  int getDeltaCount() {
+    return this.deltas;
+  }
+
+  /**
+   * Returns whether a delta that was only partly written was ignored.
+   *
+   * @return true if the end of the stream did not hold a whole delta
+   */
+  boolean isTorn() {
+    return this.torn;
+  }
+
+  /**
+   * Returns the version of the format the snapshot was read in.
+   *
+   * @return the version read
+   */
+  short getVersion() {
+    return this.version;
+  }
+
+  /**
+   * Reads and applies every delta up to the end of the stream, stopping at
+   * the first one that was only partly written.
+   *
+   * @param input  the stream the deltas are read from
+   * @throws IOException  exception when a whole delta does not apply to the
+   *         snapshot
+   */
+  private void readDeltas(DataInputStream input) throws IOException {
+    boolean done = false;
+    while (!done) {
+      byte[] header = input.readNBytes(2 * Integer.BYTES);
+      ByteBuffer fields = ByteBuffer.wrap(header);
+      if (header.length == 0) {
+        done = true;
+      } else if (header.length < 2 * Integer.BYTES
+          || fields.getInt() != DELTA_MAGIC) {
+        this.torn = true;
+        done = true;
+      } else {
+        int length = fields.getInt();
+        byte[] delta = input.readNBytes(Math.max(length, 0));
+        byte[] trailer = input.readNBytes(Integer.BYTES);
+        CRC32 checksum = new CRC32();
+        checksum.update(delta);
+        if (length < 0 || delta.length != length
+            || trailer.length != Integer.BYTES
+            || ByteBuffer.wrap(trailer).getInt() != (int) checksum.getValue()) {
+          this.torn = true;
+          done = true;
+        } else {
+          this.applyDelta(
+              new DataInputStream(new ByteArrayInputStream(delta)));
+          this.deltas++;
+        }
+      }
+    }
+  }
+
+  /**
+   * Applies one delta to the snapshot.
+   *
+   * @param input  the contents of the delta
+   * @throws IOException  exception when the delta does not apply
+   */
+  private void applyDelta(DataInputStream input) throws IOException {
+
+    // blocks in a delta only refer back to blocks in the same delta
+    BlockDecoder blocks = new BlockDecoder(null);
+
+    int historyStart = readCount(input);
+    if (historyStart > this.history.size()) {
+      throw new IOException("delta does not follow the snapshot");
+    }
+    this.history.subList(historyStart, this.history.size()).clear();
+    int commands = readCount(input);
+    for (int i = 0; i < commands; i++) {
+      this.history.add(readString(input));
+    }
+
+    int records = readCount(input);
+    for (int i = 0; i < records; i++) {
+      byte kind = input.readByte();
+      File file = readPath(input, this.root);
+      if (kind == DIRECTORY && file instanceof Directory) {
+        readChildren(input, (Directory) file, blocks);
+      } else if (kind == TEXT_FILE && file instanceof TextFile) {
+        ((TextFile) file).setContents(blocks.read(input));
+      } else {
+        throw new IOException("delta changes a file that isn't there");
+      }
+    }
+
+    File current = readPath(input, this.root);
+    this.currentDirectory =
+        current instanceof Directory ? (Directory) current : this.root;
+    int stackSize = readCount(input);
+    this.directoryStack = new DirectoryStack();
+    for (int i = 0; i < stackSize; i++) {
+      File directory = readPath(input, this.root);
+      if (directory instanceof Directory) {
+        this.directoryStack.push((Directory) directory);
+      }
+    }
+  }
+
+  /**
+   * Returns how deep a changed file is, if it needs a record in a delta. A
+   * file added since the last save, or inside one, is written whole with its
+   * parent instead, and a file no longer in the file system isn't written.
+   *
+   * @param file  the changed file
+   * @param root  the root of the file system
+   * @return      the number of directories above the file, or -1 if the file
+   *              doesn't need a record
+   */
+  private static int getRecordDepth(File file, Directory root) {
+    int depth = 0;
+    boolean attached = true;
+    boolean added = false;
+    File child = file;
+    while (attached && child.getParentDir() != null) {
+      Directory parent = child.getParentDir();
+      attached = parent.getChild(child.getFileName()) == child;
+      added = added || !child.wasSavedIn(parent);
+      child = parent;
+      depth++;
+    }
+    return attached && !added && child == root ? depth : -1;
+  }
+
+  /**
+   * Writes the children of a changed directory.
+   *
+   * @param output     the stream the delta is written to
+   * @param directory  the changed directory
+   * @param blocks     the encoder the contents of text files are written with
+   * @throws IOException  exception when the stream can't be written
+   */
+  private static void writeChildren(DataOutputStream output,
+      Directory directory, BlockEncoder blocks) throws IOException {
+    ArrayList<File> children = directory.getContents();
+    output.writeInt(children.size());
+    for (File child : children) {
+      if (!child.wasSavedIn(directory)) {
+        writeFiles(output, child, null, blocks);
+      } else if (child.getSavedFileName().equals(child.getFileName())) {
+        output.writeByte(KEPT);
+        writeString(output, child.getFileName());
+      } else {
+        output.writeByte(RENAMED);
+        writeString(output, child.getSavedFileName());
+        writeString(output, child.getFileName());
+        child.markSaved();
+      }
+    }
+  }
+
+  /**
+   * Reads the children of a changed directory and replaces its contents with
+   * them.
+   *
+   * @param input      the stream the delta is read from
+   * @param directory  the changed directory
+   * @param blocks     the decoder the contents of text files are read with
+   * @throws IOException  exception when a kept child isn't in the directory
+   */
+  private static void readChildren(DataInputStream input, Directory directory,
+      BlockDecoder blocks) throws IOException {
+    int count = readCount(input);
+    ArrayList<File> children = new ArrayList<>(count);
+    ArrayList<File> renamed = new ArrayList<>();
+    ArrayList<String> newNames = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      byte kind = input.readByte();
+      File child;
+      if (kind == KEPT || kind == RENAMED) {
+        child = directory.getChild(readString(input));
+        if (child == null) {
+          throw new IOException("delta keeps a file that isn't there");
+        }
+        if (kind == RENAMED) {
+          renamed.add(child);
+          newNames.add(readString(input));
+        }
+      } else {
+        child = readFiles(input, kind, directory, blocks, null, null);
+      }
+      children.add(child);
+    }
+    directory.setContents(children);
+    // rename only once every child was found by its old name
+    for (int i = 0; i < renamed.size(); i++) {
+      renamed.get(i).setFileName(newNames.get(i));
+      renamed.get(i).markSaved();
+    }
+  }
+
+  /**
+   * Writes a file and, for a directory, every file below it in pre-order.
+   * Every file written remembers where it was saved.
+   *
+   * @param output     the stream the files are written to
+   * @param top        the first file written
+   * @param positions  the directories whose positions are needed, which get
+   *                   their positions filled in, or null
+   * @param blocks     the encoder the contents of text files are written with
+   * @throws IOException  exception when the stream can't be written
+   */
+  private static void writeFiles(DataOutputStream output, File top,
+      IdentityHashMap<File, Integer> positions, BlockEncoder blocks)
+      throws IOException {
+    if (top instanceof Directory) {
+      int position = 0;
+      for (File file : new FileTraversal((Directory) top,
+          FileTraversal.Order.PRE_ORDER)) {
+        writeFile(output, file, blocks);
+        if (positions != null && positions.containsKey(file)) {
+          positions.put(file, position);
+        }
+        position++;
+      }
+    } else {
+      writeFile(output, top, blocks);
+    }
+  }
+
+  /**
+   * Writes every file below a directory, and the directory, in pre-order as
+   * they were when a frozen view was taken.
+   *
+   * @param output     the stream the files are written to
+   * @param top        the first file written
+   * @param positions  the directories whose positions are needed, which get
+   *                   their positions filled in
+   * @param tree       the view the files are read from
+   * @param blocks     the encoder the contents of text files are written with
+   * @throws IOException  exception when the stream can't be written
+   */
+  private static void writeFrozenFiles(DataOutputStream output, Directory top,
+      IdentityHashMap<File, Integer> positions, FrozenTree tree,
+      BlockEncoder blocks) throws IOException {
+    ArrayDeque<File> files = new ArrayDeque<File>();
+    files.push(top);
+    int position = 0;
+    while (!files.isEmpty()) {
+      File file = files.pop();
+      FrozenTree.Node node = tree.read(file);
+      List<File> children = node.getChildren();
+      if (children != null) {
+        output.writeByte(DIRECTORY);
+        writeString(output, node.getName());
+        output.writeInt(children.size());
+        // pushed last to first, so the first child is written next
+        for (int i = children.size() - 1; i >= 0; i--) {
+          files.push(children.get(i));
+        }
+      } else {
+        output.writeByte(TEXT_FILE);
+        writeString(output, node.getName());
+        blocks.write(output, node.getContents());
+      }
+      if (positions.containsKey(file)) {
+        positions.put(file, position);
+      }
+      position++;
+    }
+  }
+
+  /**
+   * Writes a single file as its kind, its name and either its number of
+   * children or its contents.
+   *
+   * @param output  the stream the file is written to
+   * @param file    the file written
+   * @param blocks  the encoder the contents of text files are written with
+   * @throws IOException  exception when the stream can't be written
+   */
+  private static void writeFile(DataOutputStream output, File file,
+      BlockEncoder blocks) throws IOException {
+    if (file instanceof Directory) {
+      output.writeByte(DIRECTORY);
+      writeString(output, file.getFileName());
+      output.writeInt(((Directory) file).getContents().size());
+    } else {
+      output.writeByte(TEXT_FILE);
+      writeString(output, file.getFileName());
+      blocks.write(output, ((TextFile) file).getBlob());
+    }
+    file.markSaved();
+  }
+
+  /**
+   * Reads a file and, for a directory, every file below it, rebuilding the
+   * tree they came from.
+   *
+   * @param input               the stream the files are read from
+   * @param kind                the kind of the first file, already read
+   * @param parent              the parent of the first file, or null
+   * @param blocks              the decoder the contents of text files are
+   *                            read with
+   * @param directories         where every directory read is added, or null
+   * @param directoryPositions  where the position of each directory is added
+   * @return                    the first file read
+   * @throws IOException  exception when the files are not valid
+   */
+  private static File readFiles(DataInputStream input, byte kind,
+      Directory parent, BlockDecoder blocks,
+      ArrayList<Directory> directories,
+      ArrayList<Integer> directoryPositions) throws IOException {
+
+    File top = readFile(input, kind, parent, blocks);
+
+    // each entry is a directory and how many of its children are left to read
+    ArrayDeque<Directory> parents = new ArrayDeque<>();
+    ArrayDeque<Integer> childrenLeft = new ArrayDeque<>();
+    if (top instanceof Directory) {
+      parents.push((Directory) top);
+      childrenLeft.push(readCount(input));
+      if (directories != null) {
+        directories.add((Directory) top);
+        directoryPositions.add(0);
+      }
+    }
+    int position = 1;
+    while (!parents.isEmpty()) {
+      int left = childrenLeft.pop();
+      if (left == 0) {
+        parents.pop();
+      } else {
+        childrenLeft.push(left - 1);
+        Directory directory = parents.peek();
+        File file = readFile(input, input.readByte(), directory, blocks);
+        directory.getContents().add(file);
+        if (file instanceof Directory) {
+          if (directories != null) {
+            directories.add((Directory) file);
+            directoryPositions.add(position);
+          }
+          parents.push((Directory) file);
+          childrenLeft.push(readCount(input));
+        }
+        position++;
+      }
+    }
+    return top;
+  }
+
+  /**
+   * Reads the name and, for a text file, the contents of a single file. The
+   * number of children of a directory is left to be read.
+   *
+   * @param input    the stream the file is read from
+   * @param kind     the kind of the file, already read
+   * @param parent   the parent of the file
+   * @param blocks   the decoder the contents of text files are read with
+   * @return         the file read
+   * @throws IOException  exception when the kind of file is unknown
+   */
+  private static File readFile(DataInputStream input, byte kind,
+      Directory parent, BlockDecoder blocks) throws IOException {
+    String name = readString(input);
+    File file;
+    if (kind == DIRECTORY) {
+      file = new Directory(name, parent);
+    } else if (kind == TEXT_FILE) {
+      file = new TextFile(name, parent, blocks.read(input));
+    } else {
+      throw new IOException("unknown kind of file " + kind);
+    }
+    file.markSaved();
+    return file;
+  }
+
+  /**
+   * Returns the directory at the given position of the snapshot.
+   *
+   * @param position            the position of the directory
+   * @param directories         every directory read, in order
+   * @param directoryPositions  the position of each directory read
+   * @param root                the root, used when the position is unknown
+   * @return                    the directory at the position
+   */
+  private static Directory findDirectory(int position,
+      ArrayList<Directory> directories, ArrayList<Integer> directoryPositions,
+      Directory root) {
+
+    int found = Collections.binarySearch(directoryPositions,
+        position);
+    return found >= 0 ? directories.get(found) : root;
+  }
+
+  /**
+   * Writes the path of a file from the root as its number of names followed
+   * by the names, or -1 if the file is no longer in the file system.
+   *
+   * @param output  the stream the path is written to
+   * @param file    the file whose path is written
+   * @param root    the root of the file system
+   * @throws IOException  exception when the stream can't be written
+   */
+  private static void writePath(DataOutputStream output, File file,
+      Directory root) throws IOException {
+    ArrayDeque<String> names = new ArrayDeque<>();
+    File child = file;
+    boolean attached = true;
+    while (attached && child != root && child.getParentDir() != null) {
+      attached = child.getParentDir().getChild(child.getFileName()) == child;
+      names.push(child.getFileName());
+      child = child.getParentDir();
+    }
+    if (attached && child == root) {
+      output.writeInt(names.size());
+      for (String name : names) {
+        writeString(output, name);
+      }
+    } else {
+      output.writeInt(-1);
+    }
+  }
+
+  /**
+   * Reads a path written by writePath.
+   *
+   * @param input  the stream the path is read from
+   * @param root   the root the path starts at
+   * @return       the file at the path, or null if there is none
+   * @throws IOException  exception when the stream can't be read
+   */
+  private static File readPath(DataInputStream input, Directory root)
+      throws IOException {
+    int depth = input.readInt();
+    File file = depth < 0 ? null : root;
+    for (int i = 0; i < depth; i++) {
+      String name = readString(input);
+      file = file instanceof Directory ? ((Directory) file).getChild(name)
+          : null;
+    }
+    return file;
+  }
+
+  /**
+   * Writes a string as its length followed by its UTF-8 bytes.
+   *
+   * @param output  the stream the string is written to
+   * @param text    the string being written
+   * @throws IOException  exception when the stream can't be written
+   */
+  private static void writeString(DataOutputStream output, String text)
+      throws IOException {
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  /**
+   * Reads a string written by writeString.
+   *
+   * @param input  the stream the string is read from
+   * @return       the string read
+   * @throws IOException  exception when the stream can't be read
+   */
+  private static String readString(DataInputStream input) throws IOException {
+    byte[] bytes = new byte[readCount(input)];
+    input.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Reads a length or count, which can't be negative.
+   *
+   * @param input  the stream the count is read from
+   * @return       the count read
+   * @throws IOException  exception when the count is negative
+   */
+  private static int readCount(DataInputStream input) throws IOException {
+    int count = input.readInt();
+    if (count < 0) {
+      throw new IOException("negative length " + count);
+    }
+    return count;
+  }
+}
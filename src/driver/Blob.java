@@ -0,0 +1,134 @@
+package driver;
+
+/**
+ * Represents the contents of one or more text files. Text files with the same
+ * contents can share one blob (see BlobStore), so copying a text file only
+ * copies a reference to its contents. A blob never changes; a text file whose
+ * contents change gets another blob. The contents are either a string or still
+ * only in a mapped snapshot file.
+ *
+ * @author Shamayum Rashad
+ */
+class Blob {
+
+  /**
+   * the contents, or null if they are still in a mapped snapshot
+   */
+  private final String text;
+
+  /**
+   * where the contents are in a mapped snapshot, or null if they are a string
+   */
+  private final MappedText mapped;
+
+  /**
+   * the hash of the contents the blob store keeps the blob under, or null if
+   * the blob isn't in the store
+   */
+  private BlobStore.Digest digest = null;
+
+  /**
+   * the number of text files holding the blob, counted only while it is in
+   * the blob store
+   */
+  private int references = 0;
+
+  /**
+   * the number of times a text file took the blob, which is never counted
+   * down
+   */
+  private volatile int taken = 0;
+
+  /**
+   * Constructs a blob holding a string.
+   *
+   * @param text  the contents
+   */
+  Blob(String text) {
+    this.text = text;
+    this.mapped = null;
+  }
+
+  /**
+   * Constructs a blob whose contents stay in a mapped snapshot file until
+   * they are read.
+   *
+   * @param mapped  where the contents are in the snapshot
+   */
+  Blob(MappedText mapped) {
+    this.text = null;
+    this.mapped = mapped;
+  }
+
+  /**
+   * Returns the contents. Contents still in a mapped snapshot are decoded
+   * every time, so they never stay on the heap.
+   *
+   * @return the contents
+   */
+  String read() {
+    return this.text != null ? this.text : this.mapped.read();
+  }
+
+  /**
+   * Returns whether the contents are still only in a mapped snapshot file.
+   *
+   * @return true if the contents haven't been loaded onto the heap
+   */
+  boolean isMapped() {
+    return this.mapped != null;
+  }
+
+  /**
+   * Returns the hash the blob store keeps the blob under.
+   *
+   * @return the hash, or null if the blob isn't in the store
+   */
+  BlobStore.Digest getDigest() {
+    return this.digest;
+  }
+
+  /**
+   * Sets the hash the blob store keeps the blob under.
+   *
+   * @param digest  the hash
+   */
+  void setDigest(BlobStore.Digest digest) {
+    this.digest = digest;
+  }
+
+  /**
+   * Returns whether more than one text file has held the blob, which is when
+   * it is worth writing only once.
+   *
+   * @return true if the blob was shared
+   */
+  boolean isShared() {
+    return this.taken > 1;
+  }
+
+  /**
+   * Counts a text file taking the blob.
+   */
+  void markTaken() {
+    this.taken++;
+  }
+
+  /**
+   * Returns the number of text files holding the blob.
+   *
+   * @return the number of references counted
+   */
+  int getReferences() {
+    return this.references;
+  }
+
+  /**
+   * Changes the number of text files holding the blob.
+   *
+   * @param change  the number of references added, or removed if negative
+   */
+  void addReferences(int change) {
+    this.references += change;
+  }
+}
@@ -0,0 +1,297 @@
+package driver;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Represents a store of the contents of text files keyed by their SHA-256
+ * hash, so text files with the same contents share one blob however they got
+ * them. Each blob counts the text files that took it; a text file whose
+ * contents change takes another blob and lets go of the old one, which is
+ * never changed, so the files still holding it keep their contents. The store
+ * only holds blobs weakly, so a blob no text file holds any more is garbage
+ * collected and dropped from the store without being released.
+ *
+ * Contents shorter than MIN_STORED characters aren't worth hashing and always
+ * get a blob of their own, as do contents loaded from a snapshot, which are
+ * shared the way the snapshot shares them without hashing them again.
+ *
+ * The store can be turned off by setting the jshell.blobStore property to
+ * false.
+ *
+ * @author Shamayum Rashad
+ */
+public class BlobStore {
+
+  /**
+   * the shortest contents kept in the store
+   */
+  static final int MIN_STORED = 64;
+
+  /**
+   * Represents the SHA-256 hash of the contents of a blob.
+   */
+  static final class Digest {
+
+    /**
+     * the bytes of the hash
+     */
+    private final byte[] bytes;
+
+    /**
+     * the hash code, taken from the first bytes of the hash
+     */
+    private final int hash;
+
+    /**
+     * Constructs a hash from its bytes.
+     *
+     * @param bytes  the bytes of the hash
+     */
+    private Digest(byte[] bytes) {
+      this.bytes = bytes;
+      this.hash = ByteBuffer.wrap(bytes).getInt();
+    }
+
+    /**
+     * Returns the hash code of the hash.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+
+    /**
+     * Checks whether another object is the same hash.
+     *
+     * @param other  the object compared to
+     * @return       true if the other object is a hash with the same bytes
+     */
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Digest
+          && Arrays.equals(this.bytes, ((Digest) other).bytes);
+    }
+  }
+
+  /**
+   * Represents a blob in the store, which is held weakly.
+   */
+  private static final class Entry extends WeakReference<Blob> {
+
+    /**
+     * the hash the blob is kept under
+     */
+    private final Digest digest;
+
+    /**
+     * the number of characters in the blob
+     */
+    private final int length;
+
+    /**
+     * Constructs an entry for a blob.
+     *
+     * @param blob    the blob
+     * @param digest  the hash the blob is kept under
+     * @param length  the number of characters in the blob
+     */
+    private Entry(Blob blob, Digest digest, int length) {
+      super(blob, collected);
+      this.digest = digest;
+      this.length = length;
+    }
+  }
+
+  /**
+   * whether the store is used
+   */
+  private static boolean enabled =
+      !"false".equals(System.getProperty("jshell.blobStore"));
+
+  /**
+   * the blobs in the store keyed by their hash
+   */
+  private static final HashMap<Digest, Entry> blobs = new HashMap<>();
+
+  /**
+   * the entries whose blobs were garbage collected
+   */
+  private static final ReferenceQueue<Blob> collected = new ReferenceQueue<>();
+
+  /**
+   * the hash function, used while holding the lock of the store
+   */
+  private static final MessageDigest sha256 = createDigest();
+
+  /**
+   * the number of characters in the blobs in the store
+   */
+  private static long storedLength = 0;
+
+  /**
+   * the number of times contents were stored
+   */
+  private static long stores = 0;
+
+  /**
+   * the number of times a blob was shared instead of stored again
+   */
+  private static long shares = 0;
+
+  /**
+   * the number of characters that were shared instead of stored again
+   */
+  private static long sharedLength = 0;
+
+  /**
+   * the time spent hashing contents, in nanoseconds
+   */
+  private static long hashTime = 0;
+
+  /**
+   * Returns the blob holding the given contents, which is the blob already in
+   * the store if there is one, and counts the text file taking it.
+   *
+   * @param text  the contents
+   * @return      a blob holding the contents
+   */
+  static Blob store(String text) {
+    Blob blob;
+    if (!enabled || text == null || text.length() < MIN_STORED) {
+      blob = new Blob(text);
+      blob.markTaken();
+    } else {
+      blob = intern(text);
+    }
+    return blob;
+  }
+
+  /**
+   * Counts a text file taking a blob, which other text files may already
+   * hold.
+   *
+   * @param blob  the blob being shared
+   * @return      the blob
+   */
+  static Blob share(Blob blob) {
+    blob.markTaken();
+    if (blob.getDigest() != null) {
+      synchronized (BlobStore.class) {
+        blob.addReferences(1);
+        shares++;
+        sharedLength += blob.read().length();
+      }
+    }
+    return blob;
+  }
+
+  /**
+   * Counts a text file letting go of a blob.
+   *
+   * @param blob  the blob let go of, or null
+   */
+  static void release(Blob blob) {
+    if (blob != null && blob.getDigest() != null) {
+      synchronized (BlobStore.class) {
+        blob.addReferences(-1);
+      }
+    }
+  }
+
+  /**
+   * Turns the store on or off. Blobs already stored stay shared.
+   *
+   * @param on  whether the store is used
+   */
+  public static synchronized void setEnabled(boolean on) {
+    enabled = on;
+  }
+
+  /**
+   * Describes how much the store saved.
+   *
+   * @return a line with the number of blobs stored, how much they hold, and
+   *         how much sharing them saved
+   */
+  public static synchronized String getStatistics() {
+    purge();
+    long references = 0;
+    for (Entry entry : blobs.values()) {
+      Blob blob = entry.get();
+      if (blob != null) {
+        references += blob.getReferences();
+      }
+    }
+    return String.format("blob store: %d blobs, %d KB, %d references, "
+        + "%d KB shared by %d copies, %d stored in %.1f ms", blobs.size(),
+        storedLength * 2 / 1024, references, sharedLength * 2 / 1024, shares,
+        stores, hashTime / 1e6);
+  }
+
+  /**
+   * Returns the blob in the store with the given contents, adding one if
+   * there is none, and counts the text file taking it.
+   *
+   * @param text  the contents, at least MIN_STORED characters long
+   * @return      the blob holding the contents
+   */
+  private static synchronized Blob intern(String text) {
+    purge();
+    long start = System.nanoTime();
+    Digest digest =
+        new Digest(sha256.digest(text.getBytes(StandardCharsets.UTF_8)));
+    hashTime += System.nanoTime() - start;
+    stores++;
+    Entry entry = blobs.get(digest);
+    Blob blob = entry == null ? null : entry.get();
+    if (blob == null) {
+      blob = new Blob(text);
+      blob.setDigest(digest);
+      blobs.put(digest, new Entry(blob, digest, text.length()));
+      storedLength += text.length();
+    } else {
+      shares++;
+      sharedLength += text.length();
+    }
+    blob.markTaken();
+    blob.addReferences(1);
+    return blob;
+  }
+
+  /**
+   * Drops the entries whose blobs were garbage collected.
+   */
+  private static void purge() {
+    Entry entry = (Entry) collected.poll();
+    while (entry != null) {
+      if (blobs.get(entry.digest) == entry) {
+        blobs.remove(entry.digest);
+      }
+      storedLength -= entry.length;
+      entry = (Entry) collected.poll();
+    }
+  }
+
+  /**
+   * Creates the SHA-256 hash function.
+   *
+   * @return the hash function
+   */
+  private static MessageDigest createDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform has to provide SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package driver;
+
+import java.io.IOException;
+
+/**
+ * Interface for codecs that encode blocks of a saved file system, such as the
+ * contents of a text file, to make them smaller. Each codec has a number that
+ * is saved with every block it encoded, so a saved file system can be loaded
+ * as long as the codecs it was saved with are registered (see BlockCodecs).
+ * 
+ * @author Shamayum Rashad
+ *
+ */
+public interface BlockCodec {
+
+  /**
+   * Returns the number saved with every block the codec encoded.
+   * 
+   * @return  the number of the codec, from 1 to 127
+   */
+  public int getId();
+
+  /**
+   * Returns the name the codec is chosen by.
+   * 
+   * @return  the name of the codec
+   */
+  public String getName();
+
+  /**
+   * Encodes a block.
+   * 
+   * @param block  the bytes of the block
+   * @return       the encoded block
+   */
+  public byte[] encode(byte[] block);
+
+  /**
+   * Decodes a block encoded by the codec.
+   * 
+   * @param encoded  the encoded block
+   * @param length   the number of bytes of the block before it was encoded
+   * @return         the bytes of the block
+   * @throws IOException  exception when the block can't be decoded
+   */
+  public byte[] decode(byte[] encoded, int length) throws IOException;
+}
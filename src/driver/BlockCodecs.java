@@ -0,0 +1,87 @@
+package driver;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+
+/**
+ * The codecs blocks of a saved file system can be encoded with. Deflate is
+ * always registered; other codecs have to be registered before a file system
+ * saved with them is loaded.
+ * 
+ * @author Shamayum Rashad
+ *
+ */
+public final class BlockCodecs {
+
+  /**
+   * the Deflate codec, at its fastest level: text compresses almost as well
+   * at it, in about half the time
+   */
+  public static final BlockCodec DEFLATE =
+      new DeflateCodec(Deflater.BEST_SPEED);
+
+  /**
+   * the codecs registered, by number
+   */
+  private static final Map<Integer, BlockCodec> byId =
+      new ConcurrentHashMap<Integer, BlockCodec>();
+
+  /**
+   * the codecs registered, by name
+   */
+  private static final Map<String, BlockCodec> byName =
+      new ConcurrentHashMap<String, BlockCodec>();
+
+  static {
+    register(DEFLATE);
+  }
+
+  /**
+   * The codecs are only used through the static methods.
+   */
+  private BlockCodecs() {
+  }
+
+  /**
+   * Registers a codec, so blocks encoded with it can be decoded and it can be
+   * chosen by name.
+   * 
+   * @param codec  the codec
+   * @throws IllegalArgumentException  exception when the number of the codec
+   *         isn't from 1 to 127 or another codec already has it
+   */
+  public static synchronized void register(BlockCodec codec) {
+    int id = codec.getId();
+    BlockCodec registered = byId.get(id);
+    if (id < 1 || id > 127) {
+      throw new IllegalArgumentException("codec number " + id
+          + " isn't from 1 to 127");
+    } else if (registered != null && registered != codec) {
+      throw new IllegalArgumentException("codec number " + id
+          + " is already used by " + registered.getName());
+    }
+    byId.put(id, codec);
+    byName.put(codec.getName(), codec);
+  }
+
+  /**
+   * Returns the codec with the given number.
+   * 
+   * @param id  the number of the codec
+   * @return    the codec, or null if none is registered with the number
+   */
+  public static BlockCodec get(int id) {
+    return byId.get(id);
+  }
+
+  /**
+   * Returns the codec with the given name.
+   * 
+   * @param name  the name of the codec
+   * @return      the codec, or null if none is registered with the name
+   */
+  public static BlockCodec forName(String name) {
+    return byName.get(name);
+  }
+}
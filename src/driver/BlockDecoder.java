@@ -0,0 +1,149 @@
+package driver;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * Reads the contents of text files written by BlockEncoder, as blobs. A block
+ * that refers back to one already read gives the same blob, so text files
+ * that shared their contents when they were saved share them again when they
+ * are loaded, without hashing them. Blocks are either read now or left in a
+ * mapped snapshot until they are needed.
+ *
+ * @author Shamayum Rashad
+ */
+class BlockDecoder {
+
+  /**
+   * the mapped snapshot blocks are left in, or null to read them now
+   */
+  private final MappedSnapshot mapping;
+
+  /**
+   * the blob of every block read whole, in order
+   */
+  private final ArrayList<Blob> blocks = new ArrayList<>();
+
+  /**
+   * Constructs a decoder.
+   *
+   * @param mapping  the mapped snapshot the stream reads directly from, or
+   *                 null to read every block now
+   */
+  BlockDecoder(MappedSnapshot mapping) {
+    this.mapping = mapping;
+  }
+
+  /**
+   * Reads a block.
+   *
+   * @param input  the stream the block is read from
+   * @return       the blob holding the contents of the block
+   * @throws IOException  exception when the stream can't be read or the block
+   *         can't be decoded
+   */
+  Blob read(DataInputStream input) throws IOException {
+    int length = input.readInt();
+    Blob blob;
+    if (length == BlockEncoder.SHARED) {
+      int number = input.readInt();
+      if (number < 0 || number >= this.blocks.size()) {
+        throw new IOException("no block number " + number + " to share");
+      }
+      blob = this.blocks.get(number);
+    } else {
+      if (this.mapping == null) {
+        blob = new Blob(readText(input, length));
+      } else {
+        blob = new Blob(this.skipText(input, length));
+      }
+      this.blocks.add(blob);
+    }
+    return blob;
+  }
+
+  /**
+   * Reads the contents of a block, decoding them if they were encoded.
+   *
+   * @param input   the stream the contents are read from
+   * @param length  the length the block starts with, already read
+   * @return        the contents read
+   * @throws IOException  exception when the stream can't be read or the
+   *         contents can't be decoded
+   */
+  private static String readText(DataInputStream input, int length)
+      throws IOException {
+    String text;
+    if (length >= 0) {
+      byte[] bytes = new byte[length];
+      input.readFully(bytes);
+      text = new String(bytes, StandardCharsets.UTF_8);
+    } else {
+      BlockCodec codec = getCodec(-length);
+      int decodedLength = readCount(input);
+      byte[] encoded = new byte[readCount(input)];
+      input.readFully(encoded);
+      text = new String(codec.decode(encoded, decodedLength),
+          StandardCharsets.UTF_8);
+    }
+    return text;
+  }
+
+  /**
+   * Skips over the contents of a block, remembering where they are in the
+   * mapped snapshot.
+   *
+   * @param input   the stream reading the mapped snapshot
+   * @param length  the length the block starts with, already read
+   * @return        where the contents are in the mapped snapshot
+   * @throws IOException  exception when the contents go past the end
+   */
+  private MappedText skipText(DataInputStream input, int length)
+      throws IOException {
+    BlockCodec codec = null;
+    int decodedLength = length;
+    if (length < 0) {
+      codec = getCodec(-length);
+      decodedLength = readCount(input);
+      length = readCount(input);
+    }
+    long offset = this.mapping.getPosition();
+    if (input.skip(length) != length) {
+      throw new IOException("text goes past the end of the snapshot");
+    }
+    return codec == null ? new MappedText(this.mapping, offset, length)
+        : new MappedText(this.mapping, offset, length, codec, decodedLength);
+  }
+
+  /**
+   * Returns the codec a block was encoded with.
+   *
+   * @param id  the number of the codec
+   * @return    the codec
+   * @throws IOException  exception when no codec has the number
+   */
+  private static BlockCodec getCodec(int id) throws IOException {
+    BlockCodec codec = BlockCodecs.get(id);
+    if (codec == null) {
+      throw new IOException("no codec number " + id + " to decode with");
+    }
+    return codec;
+  }
+
+  /**
+   * Reads a length, which can't be negative.
+   *
+   * @param input  the stream the length is read from
+   * @return       the length read
+   * @throws IOException  exception when the length is negative
+   */
+  private static int readCount(DataInputStream input) throws IOException {
+    int count = input.readInt();
+    if (count < 0) {
+      throw new IOException("negative length " + count);
+    }
+    return count;
+  }
+}
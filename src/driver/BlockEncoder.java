@@ -0,0 +1,173 @@
+package driver;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.IdentityHashMap;
+
+/**
+ * Writes the contents of text files as blocks of a binary snapshot, encoding
+ * each block with a codec when that makes it enough smaller. Small blocks, and
+ * blocks that hardly shrink, are written as they are, so they cost nothing to
+ * read. A blob that several text files share is written once; the other text
+ * files refer back to its block by number (see BlockDecoder). Counts how much
+ * the blocks written shrank.
+ *
+ * @author Shamayum Rashad
+ */
+class BlockEncoder {
+
+  /**
+   * the smallest block worth encoding
+   */
+  static final int MIN_ENCODED = 64;
+
+  /**
+   * the length that marks a block already written, followed by its number
+   */
+  static final int SHARED = Integer.MIN_VALUE;
+
+  /**
+   * the codec blocks are encoded with, or null to write them as they are
+   */
+  private final BlockCodec codec;
+
+  /**
+   * the number of bytes of the blocks before they were encoded
+   */
+  private long blockBytes = 0;
+
+  /**
+   * the number of bytes the blocks were written as
+   */
+  private long writtenBytes = 0;
+
+  /**
+   * the number of blocks encoded with the codec
+   */
+  private long encodedBlocks = 0;
+
+  /**
+   * the number of blocks that refer back to one already written
+   */
+  private long sharedBlocks = 0;
+
+  /**
+   * the number of blocks written whole
+   */
+  private int blocks = 0;
+
+  /**
+   * the number and UTF-8 length of each shared blob written, keyed by the
+   * blob; blobs only one text file holds are never looked for again
+   */
+  private final IdentityHashMap<Blob, int[]> written = new IdentityHashMap<>();
+
+  /**
+   * Constructs an encoder.
+   *
+   * @param codec  the codec blocks are encoded with, or null to write them as
+   *               they are
+   */
+  BlockEncoder(BlockCodec codec) {
+    this.codec = codec;
+  }
+
+  /**
+   * Writes a blob as a block, or, if it was already written by this encoder,
+   * as SHARED followed by the number of the block it was written as. Blocks
+   * are numbered from 0 in the order they are written.
+   *
+   * @param output  the stream the block is written to
+   * @param blob    the blob written
+   * @throws IOException  exception when the stream can't be written
+   */
+  void write(DataOutputStream output, Blob blob) throws IOException {
+    int[] block = blob.isShared() ? this.written.get(blob) : null;
+    if (block != null) {
+      output.writeInt(SHARED);
+      output.writeInt(block[0]);
+      this.writtenBytes += 2 * Integer.BYTES;
+      this.blockBytes += Integer.BYTES + block[1];
+      this.sharedBlocks++;
+    } else {
+      int length = this.write(output, blob.read());
+      if (blob.isShared()) {
+        this.written.put(blob, new int[] {this.blocks, length});
+      }
+      this.blocks++;
+    }
+  }
+
+  /**
+   * Writes a block as its length followed by its UTF-8 bytes, or, if the
+   * codec makes it at least an eighth smaller, as the negated number of the
+   * codec, its length, the length of the encoded bytes and the encoded bytes.
+   *
+   * @param output  the stream the block is written to
+   * @param text    the text of the block
+   * @return        the number of UTF-8 bytes of the text
+   * @throws IOException  exception when the stream can't be written
+   */
+  private int write(DataOutputStream output, String text) throws IOException {
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    byte[] encoded = null;
+    if (this.codec != null && bytes.length >= MIN_ENCODED) {
+      encoded = this.codec.encode(bytes);
+      if (encoded.length > bytes.length - bytes.length / 8) {
+        encoded = null;
+      }
+    }
+    if (encoded == null) {
+      output.writeInt(bytes.length);
+      output.write(bytes);
+      this.writtenBytes += Integer.BYTES + bytes.length;
+    } else {
+      output.writeInt(-this.codec.getId());
+      output.writeInt(bytes.length);
+      output.writeInt(encoded.length);
+      output.write(encoded);
+      this.writtenBytes += 3 * Integer.BYTES + encoded.length;
+      this.encodedBlocks++;
+    }
+    this.blockBytes += Integer.BYTES + bytes.length;
+    return bytes.length;
+  }
+
+  /**
+   * Returns the number of bytes the blocks written would have taken without
+   * a codec.
+   *
+   * @return the number of bytes of the blocks
+   */
+  long getBlockBytes() {
+    return this.blockBytes;
+  }
+
+  /**
+   * Returns the number of bytes the blocks were written as.
+   *
+   * @return the number of bytes written
+   */
+  long getWrittenBytes() {
+    return this.writtenBytes;
+  }
+
+  /**
+   * Returns the number of blocks encoded with the codec.
+   *
+   * @return the number of blocks encoded
+   */
+  long getEncodedBlocks() {
+    return this.encodedBlocks;
+  }
+
+  /**
+   * Returns the number of blocks that referred back to one already written.
+   *
+   * @return the number of blocks shared
+   */
+  long getSharedBlocks() {
+    return this.sharedBlocks;
+  }
+}
@@ -30,9 +30,12 @@ public class Cat extends Command {
    * @param arguments an ArrayList containing information related to cat command
    */
   public void executeCommand(ArrayList<String> arguments) {
-    // do nothing if cat is not followed by any strings
+    // copy the input if there is one and cat is not followed by any strings
     if (arguments.isEmpty()) {
       this.setPrintCommand("");
+      if (this.getInput() != null) {
+        this.copyInput();
+      }
     } else {
       Path p = new Path(this.fileSystem);
       ArrayList<TextFile> textfiles = new ArrayList<TextFile>();
@@ -59,25 +62,38 @@ public class Cat extends Command {
     }
   }
 
+  /**
+   * Copy every line of the input to the output, with a line break between
+   * each line.
+   */
+  private void copyInput() {
+    String line = this.getInput().readLine();
+    while (line != null) {
+      this.setPrintCommand(line);
+      line = this.getInput().readLine();
+      if (line != null) {
+        this.setPrintCommand("\n");
+      }
+    }
+  }
+
   /**
    * Given a list of TextFiles, show contents of the files.
    * 
    * @param textfiles a list of text files with contents that will be displayed
    */
   private void showContent(ArrayList<TextFile> textfiles) {
-    String output = "";
     for (int index = 0; index < textfiles.size(); index++) {
-      // add file content to output
+      // display file content to Jshell
       TextFile file = textfiles.get(index);
-      output += file.getContents();
+      // appended contents are written a piece at a time, never joined
+      file.writeContents(this.getOutputSink());
       // three line breaks between each file's content
       if (index != textfiles.size() - 1) {
         for (int subindex = 0; subindex < 4; subindex++) {
-          output += System.lineSeparator();
+          this.setPrintCommand(System.lineSeparator());
         }
       }
     }
-    // display contents to Jshell
-    this.setPrintCommand(output);
   }
 }
@@ -0,0 +1,162 @@
+package driver;
+
+import java.util.ArrayList;
+
+/**
+ * Keeps track of the files that changed since the file system was last saved
+ * to or loaded from a binary snapshot, so an incremental save only has to
+ * write those files. A directory changes when a file is added to, removed from
+ * or renamed in it, and a text file changes when its contents are set. Files
+ * that were added or moved since the save are found by the location each file
+ * remembers it was saved at (see File.markSaved).
+ *
+ * Nothing is tracked until the file system has been saved or loaded once.
+ *
+ * @author Shamayum Rashad
+ */
+class ChangeTracker {
+
+  /**
+   * the root of the file system the snapshot was saved from or loaded into, or
+   * null if nothing is being tracked
+   */
+  private static volatile Directory root = null;
+
+  /**
+   * the absolute path of the snapshot the changes are relative to
+   */
+  private static String snapshotPath = null;
+
+  /**
+   * the length the snapshot had after it was last written or read, or -1 if
+   * it can't be appended to
+   */
+  private static long snapshotLength = -1;
+
+  /**
+   * the number of commands of the history in the snapshot
+   */
+  private static int historySize = 0;
+
+  /**
+   * the files that changed since the snapshot, each only once
+   */
+  private static final ArrayList<File> changed = new ArrayList<>();
+
+  /**
+   * Records that a file changed, if changes are being tracked.
+   *
+   * @param file the directory or text file that changed
+   */
+  static void changed(File file) {
+    if (root != null && file != null && !file.isChanged()) {
+      synchronized (ChangeTracker.class) {
+        if (root != null && !file.isChanged()) {
+          file.setChanged(true);
+          changed.add(file);
+        }
+      }
+    }
+  }
+
+  /**
+   * Starts tracking changes relative to a snapshot that was just written or
+   * read, forgetting every earlier change.
+   *
+   * @param path        the absolute path of the snapshot
+   * @param length      the length of the snapshot, or -1 if it can't be
+   *                    appended to
+   * @param fileRoot    the root of the file system the snapshot holds
+   * @param commands    the number of commands of the history in the snapshot
+   */
+  static synchronized void saved(String path, long length, Directory fileRoot,
+      int commands) {
+    clearChanged();
+    snapshotPath = path;
+    snapshotLength = length;
+    historySize = commands;
+    root = fileRoot;
+  }
+
+  /**
+   * Updates the length of the snapshot after it was compacted, if changes are
+   * being tracked relative to it.
+   *
+   * @param path    the absolute path of the snapshot
+   * @param length  the length of the compacted snapshot
+   */
+  static synchronized void compacted(String path, long length) {
+    if (root != null && path.equals(snapshotPath) && snapshotLength >= 0) {
+      snapshotLength = length;
+    }
+  }
+
+  /**
+   * Stops tracking changes if they are relative to a snapshot that was just
+   * replaced by a save that didn't track them, such as a background save.
+   *
+   * @param path  the absolute path of the file that was replaced
+   */
+  static synchronized void replaced(String path) {
+    if (path.equals(snapshotPath)) {
+      reset();
+    }
+  }
+
+  /**
+   * Stops tracking changes, so the next save has to write a whole snapshot.
+   */
+  static synchronized void reset() {
+    root = null;
+    snapshotPath = null;
+    snapshotLength = -1;
+    historySize = 0;
+    clearChanged();
+  }
+
+  /**
+   * Returns whether the changes being tracked are relative to the given
+   * snapshot, as it is now on disk, and file system.
+   *
+   * @param path        the absolute path of the snapshot
+   * @param length      the current length of the snapshot
+   * @param fileRoot    the root of the file system
+   * @return            true if the snapshot can be brought up to date by
+   *                    appending the changes to it, false otherwise
+   */
+  static synchronized boolean isTracking(String path, long length,
+      Directory fileRoot) {
+    return root != null && root == fileRoot && path.equals(snapshotPath)
+        && length >= 0 && length == snapshotLength;
+  }
+
+  /**
+   * Returns the files that changed since the snapshot, in the order they
+   * first changed.
+   *
+   * @return the changed files, some of which may no longer be in the file
+   *         system
+   */
+  static synchronized ArrayList<File> getChanged() {
+    return new ArrayList<File>(changed);
+  }
+
+  /**
+   * Returns the number of commands of the history in the snapshot.
+   *
+   * @return the number of commands saved
+   */
+  static synchronized int getHistorySize() {
+    return historySize;
+  }
+
+  /**
+   * Clears the changed mark of every file that changed.
+   */
+  private static void clearChanged() {
+    for (File file : changed) {
+      file.setChanged(false);
+    }
+    changed.clear();
+  }
+}
@@ -10,9 +10,10 @@ import java.util.ArrayList;
 public abstract class Command {
 
   /**
-   * generic command output string
+   * where the command output is written to, held as a string unless the
+   * output is sent somewhere else
    */
-  private String printCommand = "";
+  private OutputSink printCommand = new StringOutputSink();
   /**
    * generic command error string
    */
@@ -22,6 +23,12 @@ public abstract class Command {
    */
   private boolean hasError = false;
 
+  /**
+   * the input the command reads, such as the output of the command before it
+   * in a pipeline, or null if it has none
+   */
+  private LineSource input = null;
+
   /**
    * to determine if the command output can be redirected
    */
@@ -46,23 +53,67 @@ public abstract class Command {
   public abstract void executeCommand(ArrayList<String> arguments);
 
   /**
-   * Get the command output that needs to be printed.
+   * Get the command output that needs to be printed. Output already sent to
+   * a sink other than the default one is not included.
    * 
    * @return  the command output
    */
   public String getPrintCommand() {
 
-    return this.printCommand;
+    return this.printCommand.getContents();
   }
 
   /**
-   * Set the command output that needs to be printed.
+   * Set the command output that needs to be printed, adding it to the end of
+   * the output so far.
    * 
    * @param output  the output of the command that needs to be printed.
    */
   public void setPrintCommand(String output) {
 
-    this.printCommand += output;
+    this.printCommand.write(output);
+  }
+
+  /**
+   * Get the sink the command output is written to.
+   * 
+   * @return  the sink the command output is written to
+   */
+  public OutputSink getOutputSink() {
+
+    return this.printCommand;
+  }
+
+  /**
+   * Set the sink the command output is written to, so the output can go
+   * straight to the shell or a file while the command runs.
+   * 
+   * @param sink  the sink the command output is written to
+   */
+  public void setOutputSink(OutputSink sink) {
+
+    this.printCommand = sink;
+  }
+
+  /**
+   * Get the input the command reads.
+   * 
+   * @return  the input, or null if the command has none
+   */
+  public LineSource getInput() {
+
+    return this.input;
+  }
+
+  /**
+   * Set the input the command reads, such as the output of the command before
+   * it in a pipeline.
+   * 
+   * @param input  the input, or null for none
+   */
+  public void setInput(LineSource input) {
+
+    this.input = input;
   }
 
   /**
@@ -118,6 +169,18 @@ public abstract class Command {
     return this.redirectable;
   }
 
+  /**
+   * Clear the output and errors of the last run, so the command can be run
+   * again (see CommandRegistry).
+   */
+  void reset() {
+
+    this.printCommand = new StringOutputSink();
+    this.input = null;
+    this.error.clear();
+    this.hasError = false;
+  }
+
   /**
    * Set whether or not the command has an error.
    */
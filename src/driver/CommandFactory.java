@@ -0,0 +1,19 @@
+package driver;
+
+/**
+ * Represents a way of making a command, registered with the CommandRegistry
+ * under the name the command is run by.
+ *
+ * @author Shamayum Rashad
+ */
+@FunctionalInterface
+public interface CommandFactory {
+
+  /**
+   * Makes a command that works on the given file system.
+   *
+   * @param fileSystem  the file system the command will be working on
+   * @return            a new command
+   */
+  Command create(FileSystem<Directory> fileSystem);
+}
@@ -0,0 +1,233 @@
+package driver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a line of input split into words in a single pass. The words
+ * are kept as offsets into the line, so splitting a line copies nothing until
+ * a word is asked for as a string.
+ *
+ * A word runs from a character that isn't a space to the next space, or to
+ * the end of the line. A word starting with a quote that is closed later on
+ * the line runs to the closing quote instead, spaces and all, and keeps its
+ * quotes. The first word is the command. For echo, everything between the
+ * command and the first > is one word, trimmed, so the string echoed keeps
+ * its spaces even without quotes; > and >> are then words like any other.
+ *
+ * A line can also hold a pipeline of commands separated by | (see
+ * splitPipeline), each of which is split into words on its own.
+ *
+ * @author Shamayum Rashad
+ */
+public class CommandLine {
+
+  /**
+   * the line, trimmed
+   */
+  private final String line;
+
+  /**
+   * the offset in the line where each word starts, followed by the offset
+   * after it ends
+   */
+  private int[] bounds = new int[16];
+
+  /**
+   * the number of words in the line, including the command
+   */
+  private int words = 0;
+
+  /**
+   * Splits a line of input into words.
+   *
+   * @param input  the line
+   */
+  public CommandLine(String input) {
+    this.line = input.trim();
+    int length = this.line.length();
+    int commandEnd = this.line.indexOf(' ');
+    if (commandEnd < 0) {
+      commandEnd = length;
+    }
+    this.addWord(0, commandEnd);
+    int from = commandEnd;
+    if (commandEnd < length && commandEnd == 4
+        && this.line.startsWith("echo")) {
+      int redirection = this.line.indexOf('>', commandEnd);
+      if (redirection >= 0) {
+        // the string echoed is one word, without the spaces around it
+        int start = commandEnd;
+        int end = redirection;
+        while (start < end && this.line.charAt(start) <= ' ') {
+          start++;
+        }
+        while (end > start && this.line.charAt(end - 1) <= ' ') {
+          end--;
+        }
+        this.addWord(start, end);
+        from = redirection;
+      }
+    }
+    this.split(from);
+  }
+
+  /**
+   * Splits a line of input into the commands of a pipeline, at every | that
+   * isn't in quotes. Quotes are matched the way words are: a quote is only
+   * opened if there is another one after it.
+   *
+   * @param input  the line
+   * @return       the commands, untrimmed, which is just the line if there is
+   *               no |
+   */
+  public static List<String> splitPipeline(String input) {
+    List<String> stages = new ArrayList<String>(1);
+    int lastQuote = input.lastIndexOf('"');
+    int start = 0;
+    int index = input.indexOf('|');
+    if (index >= 0) {
+      // a quote opened before the first | could protect it
+      int firstQuote = input.indexOf('"');
+      if (firstQuote >= 0 && firstQuote < index) {
+        index = firstQuote;
+      }
+      while (index < input.length()) {
+        char next = input.charAt(index);
+        if (next == '"' && index < lastQuote) {
+          index = input.indexOf('"', index + 1) + 1;
+        } else {
+          if (next == '|') {
+            stages.add(input.substring(start, index));
+            start = index + 1;
+          }
+          index++;
+        }
+      }
+    }
+    stages.add(input.substring(start));
+    return stages;
+  }
+
+  /**
+   * Splits the line into words from the given offset to the end.
+   *
+   * @param from  the offset the first word can start at
+   */
+  private void split(int from) {
+    int length = this.line.length();
+    // a quote can only be closed if there is another one after it
+    int lastQuote = this.line.lastIndexOf('"');
+    int index = from;
+    while (index < length) {
+      char next = this.line.charAt(index);
+      if (next == '"' && index < lastQuote) {
+        int closing = this.line.indexOf('"', index + 1);
+        this.addWord(index, closing + 1);
+        index = closing + 1;
+      } else if (next != ' ') {
+        int space = this.line.indexOf(' ', index + 1);
+        if (space < 0) {
+          space = length;
+        }
+        this.addWord(index, space);
+        index = space + 1;
+      } else {
+        index++;
+      }
+    }
+  }
+
+  /**
+   * Adds a word, making room for it if needed.
+   *
+   * @param start  the offset where the word starts
+   * @param end    the offset after the word ends
+   */
+  private void addWord(int start, int end) {
+    if (this.words * 2 == this.bounds.length) {
+      int[] grown = new int[this.bounds.length * 2];
+      System.arraycopy(this.bounds, 0, grown, 0, this.bounds.length);
+      this.bounds = grown;
+    }
+    this.bounds[this.words * 2] = start;
+    this.bounds[this.words * 2 + 1] = end;
+    this.words++;
+  }
+
+  /**
+   * Returns the number of words in the line, including the command.
+   *
+   * @return the number of words
+   */
+  public int size() {
+    return this.words;
+  }
+
+  /**
+   * Returns a word of the line.
+   *
+   * @param word  the number of the word, 0 being the command
+   * @return      the word
+   */
+  public String get(int word) {
+    return this.line.substring(this.getStart(word), this.getEnd(word));
+  }
+
+  /**
+   * Returns the offset in the trimmed line where a word starts.
+   *
+   * @param word  the number of the word, 0 being the command
+   * @return      the offset of the first character of the word
+   */
+  public int getStart(int word) {
+    if (word < 0 || word >= this.words) {
+      throw new IndexOutOfBoundsException("no word " + word);
+    }
+    return this.bounds[word * 2];
+  }
+
+  /**
+   * Returns the offset in the trimmed line after a word ends.
+   *
+   * @param word  the number of the word, 0 being the command
+   * @return      the offset after the last character of the word
+   */
+  public int getEnd(int word) {
+    if (word < 0 || word >= this.words) {
+      throw new IndexOutOfBoundsException("no word " + word);
+    }
+    return this.bounds[word * 2 + 1];
+  }
+
+  /**
+   * Returns the line the words are in, trimmed.
+   *
+   * @return the line
+   */
+  public String getLine() {
+    return this.line;
+  }
+
+  /**
+   * Returns the command, which is the first word of the line.
+   *
+   * @return the command, or an empty string for an empty line
+   */
+  public String getCommand() {
+    return this.get(0);
+  }
+
+  /**
+   * Returns the words after the command.
+   *
+   * @return a new list of the arguments of the command
+   */
+  public ArrayList<String> getArguments() {
+    ArrayList<String> arguments = new ArrayList<String>(this.words);
+    for (int word = 1; word < this.words; word++) {
+      arguments.add(this.get(word));
+    }
+    return arguments;
+  }
+}
@@ -0,0 +1,318 @@
+package driver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Represents the commands the shell knows, each made by a factory registered
+ * under the name it is run by. Commands can be registered from outside the
+ * shell, or replaced, without changing the shell.
+ *
+ * A command registered as reusable holds nothing from one run to the next
+ * but its output and errors, so each thread keeps the one it last ran and
+ * runs it again once those are cleared, instead of making a new one every
+ * time. The saver and the fetcher commands are given are made once, the
+ * first time a command needs them.
+ *
+ * @author Shamayum Rashad
+ */
+public class CommandRegistry {
+
+  /**
+   * Represents a command registered under a name.
+   */
+  private static final class Registration {
+
+    /**
+     * the factory the command is made by
+     */
+    private final CommandFactory factory;
+
+    /**
+     * whether a command can be run again once its output and errors are
+     * cleared
+     */
+    private final boolean reusable;
+
+    /**
+     * Constructs a registration.
+     *
+     * @param factory   the factory the command is made by
+     * @param reusable  whether the command can be run again
+     */
+    private Registration(CommandFactory factory, boolean reusable) {
+      this.factory = factory;
+      this.reusable = reusable;
+    }
+  }
+
+  /**
+   * Represents a command kept by a thread to be run again.
+   */
+  private static final class Pooled {
+
+    /**
+     * the registration the command was made from
+     */
+    private final Registration registration;
+
+    /**
+     * the file system the command works on
+     */
+    private final FileSystem<Directory> fileSystem;
+
+    /**
+     * the command
+     */
+    private final Command command;
+
+    /**
+     * whether the command was obtained and not given back yet
+     */
+    private boolean inUse = true;
+
+    /**
+     * Constructs a kept command, which is in use.
+     *
+     * @param registration  the registration the command was made from
+     * @param fileSystem    the file system the command works on
+     * @param command       the command
+     */
+    private Pooled(Registration registration,
+        FileSystem<Directory> fileSystem, Command command) {
+      this.registration = registration;
+      this.fileSystem = fileSystem;
+      this.command = command;
+    }
+  }
+
+  /**
+   * Holds the saver commands are given, which is made the first time it is
+   * needed.
+   */
+  private static final class SaverHolder {
+
+    /**
+     * the saver
+     */
+    private static final FileSystemSaver SAVER = new JFileSystemSaver();
+  }
+
+  /**
+   * Holds the fetcher get commands are given unless another one is set,
+   * which is made the first time it is needed.
+   */
+  private static final class FetcherHolder {
+
+    /**
+     * the fetcher
+     */
+    private static final RemoteDataFetcher FETCHER = new HTTPDataFetcher();
+  }
+
+  /**
+   * the registered commands keyed by name
+   */
+  private static final ConcurrentHashMap<String, Registration> commands =
+      new ConcurrentHashMap<>();
+
+  /**
+   * the reusable command each thread kept under each name
+   */
+  private static final ThreadLocal<HashMap<String, Pooled>> pools =
+      ThreadLocal.withInitial(HashMap::new);
+
+  // register the commands of the shell
+  static {
+    register("cd", DirectoryChanger::new, true);
+    register("mkdir", DirectoryMaker::new, true);
+    register("ls", Ls::new, true);
+    register("pwd", Pwd::new, true);
+    register("cat", Cat::new, true);
+    register("echo", fileSystem -> new Echo(), true);
+    register("history", History::new, true);
+    register("pushd", Pushd::new, true);
+    register("popd", Popd::new, true);
+    register("man", fileSystem -> new Man(), true);
+    register("tree", Tree::new, true);
+    register("cp", Copy::new, true);
+    register("mv", Move::new, true);
+    register("find", Find::new, true);
+    register("stats", fileSystem -> new Stats(), true);
+    register("head", fileSystem -> new Head(), true);
+    // the fetcher can be changed between runs, e.g. to record what it gets
+    register("get", fileSystem -> new Get(fileSystem, getFetcher()));
+    register("load", fileSystem -> new Load(fileSystem, getSaver()));
+    // save remembers whether it saved, for the journal
+    register("save", fileSystem -> new Save(fileSystem, getSaver()));
+    register("compact", fileSystem -> new Compact(getSaver()));
+  }
+
+  /**
+   * Registers a command, replacing any command registered under the same
+   * name. A new command is made every time it is run.
+   *
+   * @param name     the name the command is run by
+   * @param factory  the factory the command is made by
+   */
+  public static void register(String name, CommandFactory factory) {
+    register(name, factory, false);
+  }
+
+  /**
+   * Registers a command, replacing any command registered under the same
+   * name.
+   *
+   * @param name      the name the command is run by
+   * @param factory   the factory the command is made by
+   * @param reusable  true if the command holds nothing from one run to the
+   *                  next but its output and errors, so it can be run again
+   */
+  public static void register(String name, CommandFactory factory,
+      boolean reusable) {
+    if (name == null || name.isEmpty() || factory == null) {
+      throw new IllegalArgumentException("a command needs a name and a "
+          + "factory");
+    }
+    commands.put(name, new Registration(factory, reusable));
+  }
+
+  /**
+   * Removes a command.
+   *
+   * @param name  the name the command is run by
+   * @return      true if a command was registered under the name
+   */
+  public static boolean unregister(String name) {
+    return commands.remove(name) != null;
+  }
+
+  /**
+   * Returns whether a command is registered under a name.
+   *
+   * @param name  the name the command is run by
+   * @return      true if there is such a command
+   */
+  public static boolean isRegistered(String name) {
+    return commands.containsKey(name);
+  }
+
+  /**
+   * Returns the names of the registered commands.
+   *
+   * @return the names, sorted
+   */
+  public static ArrayList<String> getNames() {
+    ArrayList<String> names = new ArrayList<String>(commands.keySet());
+    Collections.sort(names);
+    return names;
+  }
+
+  /**
+   * Makes a new command.
+   *
+   * @param name        the name the command is run by
+   * @param fileSystem  the file system the command will be working on
+   * @return            a new command
+   * @throws InvalidCommandException  exception when no command has the name
+   */
+  public static Command create(String name, FileSystem<Directory> fileSystem)
+      throws InvalidCommandException {
+    return find(name).factory.create(fileSystem);
+  }
+
+  /**
+   * Returns a command to run, which is the one the thread ran last if it is
+   * reusable and works on the same file system, with its output and errors
+   * cleared. The command is the thread's alone until it is given back with
+   * release.
+   *
+   * @param name        the name the command is run by
+   * @param fileSystem  the file system the command will be working on
+   * @return            a command ready to run
+   * @throws InvalidCommandException  exception when no command has the name
+   */
+  public static Command obtain(String name, FileSystem<Directory> fileSystem)
+      throws InvalidCommandException {
+    Registration registration = find(name);
+    Command command = null;
+    if (registration.reusable) {
+      HashMap<String, Pooled> pool = pools.get();
+      Pooled pooled = pool.get(name);
+      if (pooled != null && !pooled.inUse
+          && pooled.registration == registration
+          && pooled.fileSystem == fileSystem) {
+        pooled.inUse = true;
+        command = pooled.command;
+        command.reset();
+      } else {
+        command = registration.factory.create(fileSystem);
+        // a command in use is kept, and one made for another file system or
+        // by a factory registered before is replaced
+        if (pooled == null || !pooled.inUse) {
+          pool.put(name, new Pooled(registration, fileSystem, command));
+        }
+      }
+    } else {
+      command = registration.factory.create(fileSystem);
+    }
+    return command;
+  }
+
+  /**
+   * Gives back a command that was run, so the thread can run it again if it
+   * is reusable. The output and errors of the command can still be read
+   * until the thread next obtains a command with the same name.
+   *
+   * @param name        the name the command was obtained by
+   * @param fileSystem  the file system the command works on
+   * @param command     the command
+   */
+  public static void release(String name, FileSystem<Directory> fileSystem,
+      Command command) {
+    Pooled pooled = pools.get().get(name);
+    if (pooled != null && pooled.command == command
+        && pooled.fileSystem == fileSystem) {
+      pooled.inUse = false;
+    }
+  }
+
+  /**
+   * Returns the saver commands are given, made the first time it is needed.
+   *
+   * @return the saver
+   */
+  static FileSystemSaver getSaver() {
+    return SaverHolder.SAVER;
+  }
+
+  /**
+   * Returns the fetcher get commands are given, which is the one set with
+   * Parser.setDataFetcher if there is one, or one fetching over HTTP made the
+   * first time it is needed.
+   *
+   * @return the fetcher
+   */
+  static RemoteDataFetcher getFetcher() {
+    RemoteDataFetcher fetcher = Parser.getDataFetcher();
+    return fetcher != null ? fetcher : FetcherHolder.FETCHER;
+  }
+
+  /**
+   * Returns the command registered under a name.
+   *
+   * @param name  the name the command is run by
+   * @return      the registration of the command
+   * @throws InvalidCommandException  exception when no command has the name
+   */
+  private static Registration find(String name)
+      throws InvalidCommandException {
+    Registration registration = name == null ? null : commands.get(name);
+    if (registration == null) {
+      throw new InvalidCommandException(name + ": command not found");
+    }
+    return registration;
+  }
+}
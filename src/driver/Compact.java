@@ -0,0 +1,47 @@
+package driver;
+
+import java.util.ArrayList;
+
+/**
+ * Represents the compact command in the command line. Rewrites a file system
+ * saved with incremental saves as a single save.
+ *
+ * @author Shamayum Rashad
+ */
+public class Compact extends Command {
+
+  /**
+   * the saver the file was saved with
+   */
+  private FileSystemSaver saver;
+
+  /**
+   * Constructs an object to represent the compact command on the command
+   * line.
+   *
+   * @param saver the saver the file was saved with
+   */
+  public Compact(FileSystemSaver saver) {
+    super(false);
+    this.saver = saver;
+  }
+
+  /**
+   * Executes the compact command, folding every incremental save appended to
+   * the file given by arguments back into the file system saved before them.
+   *
+   * @param arguments the file being compacted
+   */
+  public void executeCommand(ArrayList<String> arguments) {
+
+    if (arguments.isEmpty()) {
+      this.setError("compact: no file given");
+    }
+    else if (arguments.size() > 1) {
+      this.setError("compact: too many files given");
+    }
+    else {
+      this.setError(this.saver.compact(arguments.get(0)));
+    }
+  }
+}
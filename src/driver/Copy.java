@@ -72,7 +72,7 @@ public class Copy extends Command {
       } else if ((fileToCopy instanceof TextFile)
           && (destination instanceof Directory)) {
         TextFile newFile = new TextFile(fileToCopy.getFileName(),
-            (Directory) destination, ((TextFile) fileToCopy).getContents());
+            (Directory) destination, ((TextFile) fileToCopy).getBlob());
         try {
           ((Directory) destination).addContents(newFile);
         } catch (Exception e) {
@@ -83,8 +83,8 @@ public class Copy extends Command {
         // if we are copying a TextFile's content to overwrite another
         // TextFile's content
       } else {
-        String newContent = ((TextFile) fileToCopy).getContents();
-        ((TextFile) destination).setContents(newContent);
+        ((TextFile) destination)
+            .setContents(((TextFile) fileToCopy).getBlob());
       }
     }
   }
@@ -130,39 +130,24 @@ public class Copy extends Command {
 
   /**
    * Copy the given directory and set the copy's parent as the given parent.
+   * The copy is lazy (see LazyCopy): its children are only copied once they
+   * are needed, or before either side changes.
    * 
    * @param dir The directory that we want to copy
    * @param parent The parent of the copy of dir (newDir)
    * @return newDir The copy of dir and has parent as the given one
    */
   private Directory copyDirectory(Directory dir, Directory parent) {
-    // get a list of children that are to be copied
-    ArrayList<File> Children = dir.getContents();
     // initialize the copy directory
-    Directory newDir = new Directory(dir.getFileName(), parent);
+    Directory newDir = LazyCopy.copy(dir, parent);
     // add the new copy as parent's child
     try {
       parent.addContents(newDir);
     } catch (Exception e1) {
+      LazyCopy.cancel(newDir);
       this.setError("cp: file named " + newDir.getFileName() + " exists in "
           + parent.getFileName());
     }
-    // copy children one by one
-    for (int index = 0; index < Children.size(); index++) {
-      File file = Children.get(index);
-      // recursive case: copy a directory
-      if (file instanceof Directory) {
-        this.copyDirectory((Directory) (file), newDir);
-        // base case: copy TextFile
-      } else {
-        TextFile newFile = new TextFile(file.getFileName(), newDir,
-            ((TextFile) (file)).getContents());
-        try {
-          newDir.addContents(newFile);
-        } catch (Exception e) {
-        }
-      }
-    }
     // return the copy directory
     return newDir;
   }
@@ -0,0 +1,119 @@
+package driver;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes blocks with Deflate, as the JDK implements it. The deflater and
+ * inflater of each thread are kept and reused, since making one costs more
+ * than encoding a small block.
+ * 
+ * @author Shamayum Rashad
+ *
+ */
+public class DeflateCodec implements BlockCodec {
+
+  /**
+   * the number of the codec
+   */
+  public static final int ID = 1;
+
+  /**
+   * the compression level blocks are encoded at
+   */
+  private final int level;
+
+  /**
+   * the deflater of each thread encoding blocks
+   */
+  private final ThreadLocal<Deflater> deflaters;
+
+  /**
+   * the inflater of each thread decoding blocks
+   */
+  private static final ThreadLocal<Inflater> INFLATERS =
+      ThreadLocal.withInitial(() -> new Inflater(true));
+
+  /**
+   * Constructs a codec encoding at the default compression level.
+   */
+  public DeflateCodec() {
+    this(Deflater.DEFAULT_COMPRESSION);
+  }
+
+  /**
+   * Constructs a codec encoding at the given compression level.
+   * 
+   * @param level  the compression level, from 0 to 9 or -1 for the default
+   */
+  public DeflateCodec(int level) {
+    this.level = level;
+    this.deflaters = ThreadLocal.withInitial(() -> new Deflater(level, true));
+  }
+
+  @Override
+  public int getId() {
+    return ID;
+  }
+
+  @Override
+  public String getName() {
+    return "deflate";
+  }
+
+  /**
+   * Returns the compression level blocks are encoded at.
+   * 
+   * @return  the compression level
+   */
+  public int getLevel() {
+    return this.level;
+  }
+
+  @Override
+  public byte[] encode(byte[] block) {
+    Deflater deflater = this.deflaters.get();
+    deflater.reset();
+    deflater.setInput(block);
+    deflater.finish();
+    // room for a block that doesn't compress, plus the deflate overhead
+    byte[] encoded = new byte[block.length + block.length / 1000 + 64];
+    int length = 0;
+    while (!deflater.finished()) {
+      if (length == encoded.length) {
+        encoded = Arrays.copyOf(encoded, encoded.length * 2);
+      }
+      length += deflater.deflate(encoded, length, encoded.length - length);
+    }
+    return Arrays.copyOf(encoded, length);
+  }
+
+  @Override
+  public byte[] decode(byte[] encoded, int length) throws IOException {
+    Inflater inflater = INFLATERS.get();
+    inflater.reset();
+    inflater.setInput(encoded);
+    byte[] block = new byte[length];
+    try {
+      int decoded = 0;
+      while (decoded < length && !inflater.finished()) {
+        int count = inflater.inflate(block, decoded, length - decoded);
+        if (count == 0
+            && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        decoded += count;
+      }
+      if (decoded != length) {
+        throw new IOException("deflated block is " + decoded
+            + " bytes instead of " + length);
+      }
+    } catch (DataFormatException e) {
+      throw new IOException("deflated block is corrupt", e);
+    }
+    return block;
+  }
+}
@@ -1,8 +1,11 @@
 package driver;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Represents a directory in the filesystem
@@ -22,6 +25,18 @@ public class Directory extends File {
    */
   private ArrayList<File> contents;
 
+  /**
+   * Represents the directory this one is a lazy copy of, until the children
+   * are copied from it (see LazyCopy), or null
+   */
+  private transient volatile Directory copyOf;
+
+  /**
+   * Represents the lazy copies of this directory whose children haven't been
+   * copied from it yet, or null if there are none
+   */
+  private transient ArrayList<Directory> copies;
+
   /**
    * Creates a directory with the given name and parent directory.
    * 
@@ -30,7 +45,7 @@ public class Directory extends File {
    */
   public Directory(String name, Directory parent) {
     super(name, parent);
-    this.contents = new ArrayList<File>();
+    this.contents = new DirectoryContents(this);
   }
 
   /**
@@ -40,25 +55,11 @@ public class Directory extends File {
    */
   public void addContents(File data)
       throws InvalidFileNameException, ExistingFileException {
-    // Regex: check if there are any special characters
     String newFileName = data.getFileName();
-    Pattern regex = Pattern.compile("[!@#$%^&*(){}~|<>?.]");
-    Matcher match = regex.matcher(newFileName);
-    // Check if there exists a file with the same name as the new file
-    boolean fileExists = false;
-    // Compare the new data's file name with each of the current directory's
-    // files
-    for (File content : this.getContents()) {
-      if (content.getFileName().equals(newFileName)) {
-        fileExists = true;
-      }
-    }
-    // Regex checker
-    if (match.find()) {
-      throw new InvalidFileNameException(
-          "File name must not contain any special characters.");
-      // Existing file name checker
-    } else if (fileExists) {
+    // Special character checker
+    FileNameValidator.validate(newFileName);
+    // Existing file name checker
+    if (this.getIndexedContents().containsName(newFileName)) {
       throw new ExistingFileException("File already exists.");
     } else {
       this.getContents().add(data);
@@ -71,16 +72,63 @@ public class Directory extends File {
    * @return the contents of the directory.
    */
   public ArrayList<File> getContents() {
+    if (this.copyOf != null) {
+      LazyCopy.materialize(this);
+    }
     return this.contents;
   }
 
   /**
-   * Overwrites the content of the specified directory with new content.
+   * Overwrites the content of the specified directory with new content. The
+   * files are copied into the directory's own indexed list, unless it already
+   * is one.
    * 
    * @param newContent Represents the new content overwriting the old content
    */
   public void setContents(ArrayList<File> newContent) {
-    this.contents = newContent;
+    LazyCopy.changing(this);
+    FrozenTree.changing(this);
+    if (newContent instanceof DirectoryContents
+        && ((DirectoryContents) newContent).getOwner() == this) {
+      this.contents = newContent;
+    } else {
+      this.contents = new DirectoryContents(this, newContent);
+    }
+    for (File file : newContent) {
+      NameIndex.fileAdded(this, file);
+    }
+    ChangeTracker.changed(this);
+    PathCache.invalidate();
+  }
+
+  /**
+   * Returns the file within the directory with the given name.
+   * 
+   * @param name Represents the name of the file being looked for
+   * @return the file with the given name, or null if there is no such file
+   */
+  public File getChild(String name) {
+    return this.getIndexedContents().getFile(name);
+  }
+
+  /**
+   * Removes a file from the contents of the directory.
+   * 
+   * @param data Represents the file being removed from the directory
+   * @return whether the file was in the directory and got removed
+   */
+  public boolean removeContents(File data) {
+    return this.getIndexedContents().remove(data);
+  }
+
+  /**
+   * Updates the directory's lookup of a file that was renamed.
+   * 
+   * @param data Represents the file within the directory that was renamed
+   * @param oldName Represents the name of the file before it was renamed
+   */
+  void childRenamed(File data, String oldName) {
+    this.getIndexedContents().rename(data, oldName);
   }
 
   /**
@@ -90,11 +138,40 @@ public class Directory extends File {
    *         format
    */
   public String toString() {
-    String retVal = "";
-    int level = 0;
-    // Call the recursive helper function
-    retVal = this.printTree(this.getFileName(), level);
-    return retVal;
+    StringOutputSink output = new StringOutputSink();
+    this.printTree(output);
+    return output.getContents();
+  }
+
+  /**
+   * Prints the tree of a specified directory to the given output sink.
+   * 
+   * @param output Represents where the tree is printed to
+   */
+  public void printTree(OutputSink output) {
+    this.printTree(output, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Prints the tree of a specified directory to the given output sink, down
+   * to the given number of levels below the directory.
+   * 
+   * @param output Represents where the tree is printed to
+   * @param maxDepth Represents the deepest level of the tree printed
+   */
+  public void printTree(OutputSink output, int maxDepth) {
+    FileTraversal.Walker walker =
+        new FileTraversal(this, FileTraversal.Order.PRE_ORDER, maxDepth)
+            .iterator();
+    // The walk starts with this directory itself
+    output.write(walker.next().getFileName());
+    while (walker.hasNext()) {
+      File dirContent = walker.next();
+      // Indent each file by a tab for every level it is below this directory
+      output.write("\n");
+      output.write(Indentation.tabs(walker.getDepth()));
+      output.write(dirContent.getFileName());
+    }
   }
 
   /**
@@ -120,33 +197,131 @@ public class Directory extends File {
   }
 
   /**
-   * Helper function for the toString() method.
+   * Returns the contents of the directory as an indexed list.
    * 
-   * @param output Contains the names of files of the specified directory
-   * @param level Represents the level of the directory (used for recursion)
-   * @return a tree representation of all files within a directory
+   * @return the contents of the directory, indexed by file name
    */
-  private String printTree(String output, int level) {
-    // Go through each file within the current directory
-    for (int i = 0; i < this.getContents().size(); i++) {
-      // For organization purposes
-      output += "\n";
-      // Retrieve and work with each of the current directory's files
-      File dirContent = this.getContents().get(i);
-      // Add spaces in correlation to the level of the current directory
-      // (For organization purposes for the final output)
-      for (int j = 0; j < level; j++) {
-        output += "\t";
-      }
-      // Check whether the directory's content is either another directory or
-      // a text file
-      if (dirContent instanceof Directory) {
-        output = ((Directory) dirContent)
-            .printTree(output + "\t" + dirContent.getFileName(), level + 1);
-      } else {
-        output += "\t" + dirContent.getFileName();
+  private DirectoryContents getIndexedContents() {
+    return (DirectoryContents) this.getContents();
+  }
+
+  /**
+   * Returns a copy of the contents of the directory, without changing how
+   * they are held, so they can be read by another thread while nothing
+   * changes them.
+   * 
+   * @return a copy of the contents of the directory.
+   */
+  ArrayList<File> copyContents() {
+    if (this.copyOf != null) {
+      LazyCopy.materialize(this);
+    }
+    return ((DirectoryContents) this.contents).copy();
+  }
+
+  /**
+   * Returns whether the directory is a lazy copy whose children haven't been
+   * copied yet.
+   * 
+   * @return true if the children are still to be copied
+   */
+  boolean isCopyPending() {
+    return this.copyOf != null;
+  }
+
+  /**
+   * Returns the directory this one is a lazy copy of.
+   * 
+   * @return the directory the children are still to be copied from, or null
+   */
+  Directory getCopyOf() {
+    return this.copyOf;
+  }
+
+  /**
+   * Makes the directory a lazy copy of another one.
+   * 
+   * @param source Represents the directory the children are to be copied from
+   */
+  void setCopyOf(Directory source) {
+    this.copyOf = source;
+  }
+
+  /**
+   * Gives a lazy copy the children copied for it, which is not a change.
+   * 
+   * @param copied Represents the copied children
+   */
+  void setCopiedContents(ArrayList<File> copied) {
+    this.contents = new DirectoryContents(this, copied);
+    this.copyOf = null;
+  }
+
+  /**
+   * Returns the lazy copies of the directory that haven't copied its
+   * children yet.
+   * 
+   * @return a list of the lazy copies
+   */
+  List<Directory> getCopies() {
+    return this.copies == null ? Collections.<Directory>emptyList()
+        : new ArrayList<Directory>(this.copies);
+  }
+
+  /**
+   * Adds a lazy copy of the directory.
+   * 
+   * @param copy Represents the lazy copy
+   */
+  void addCopy(Directory copy) {
+    if (this.copies == null) {
+      this.copies = new ArrayList<Directory>();
+    }
+    this.copies.add(copy);
+  }
+
+  /**
+   * Removes a lazy copy of the directory once it copied the children.
+   * 
+   * @param copy Represents the lazy copy
+   */
+  void removeCopy(Directory copy) {
+    if (this.copies != null) {
+      this.copies.remove(copy);
+      if (this.copies.isEmpty()) {
+        this.copies = null;
       }
     }
-    return output;
   }
+
+  /**
+   * Saves the directory with serialization, copying the children of a lazy
+   * copy first.
+   * 
+   * @param out Represents the stream the directory is written to
+   * @throws IOException exception when the stream can't be written
+   */
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    this.getContents();
+    out.defaultWriteObject();
+  }
+
+  /**
+   * Restores the directory when loading a saved file system. Older saves store
+   * the contents as a plain list, so they are moved into an indexed list.
+   * 
+   * @param in Represents the stream the directory is read from
+   * @throws IOException exception when the stream can't be read
+   * @throws ClassNotFoundException exception when a saved class is unknown
+   */
+  private void readObject(ObjectInputStream in)
+      throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    if (!(this.contents instanceof DirectoryContents)) {
+      this.contents = new DirectoryContents(this, this.contents);
+    } else {
+      ((DirectoryContents) this.contents).setOwner(this);
+    }
+  }
+
 }
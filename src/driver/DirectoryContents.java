@@ -0,0 +1,576 @@
+package driver;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Represents the contents/children of a directory. The children are kept in
+ * insertion order like any other list, and are also indexed by file name so
+ * looking up, checking for and unlinking a child does not need to compare
+ * against every file in the directory.
+ *
+ * Unlinking a child by name (remove(Object), which mv uses) only drops it from
+ * the index and remembers it; the list itself is compacted, dropping every
+ * child unlinked since, the next time it is read or changed in any other way.
+ * Moving many files out of a large directory then shifts its list once
+ * instead of once per file.
+ *
+ * @author Jadin Luong
+ *
+ */
+class DirectoryContents extends ArrayList<File> {
+
+  /**
+   * the serial version for serialization
+   */
+  private static final long serialVersionUID = 6L;
+
+  /**
+   * Represents the children of the directory keyed by their file name
+   */
+  private transient HashMap<String, File> index;
+
+  /**
+   * Represents the modification count of the list when the index was last in
+   * sync with it
+   */
+  private transient int indexedModCount;
+
+  /**
+   * Represents whether two children with the same name were ever found while
+   * indexing (only possible when the list is modified directly)
+   */
+  private transient boolean duplicateNames;
+
+  /**
+   * Represents the directory the contents belong to
+   */
+  private transient Directory owner;
+
+  /**
+   * Represents the children unlinked from the directory that are still in the
+   * list until it is compacted, or null if there are none
+   */
+  private transient IdentityHashMap<File, Boolean> unlinked;
+
+  /**
+   * Creates an empty list of directory contents.
+   *
+   * @param owner represents the directory the contents belong to
+   */
+  DirectoryContents(Directory owner) {
+    super();
+    this.owner = owner;
+  }
+
+  /**
+   * Creates a list of directory contents holding the given files in order.
+   *
+   * @param owner represents the directory the contents belong to
+   * @param files represents the files the directory contains
+   */
+  DirectoryContents(Directory owner, Collection<? extends File> files) {
+    super(files);
+    this.owner = owner;
+  }
+
+  /**
+   * Sets the directory the contents belong to, after loading a saved file
+   * system.
+   *
+   * @param owner represents the directory the contents belong to
+   */
+  void setOwner(Directory owner) {
+    this.owner = owner;
+  }
+
+  /**
+   * Returns the directory the contents belong to.
+   *
+   * @return the directory the contents belong to
+   */
+  Directory getOwner() {
+    return this.owner;
+  }
+
+  /**
+   * Returns the child with the given name.
+   *
+   * @param name represents the name of the child being looked for
+   * @return the child with the given name, or null if there is none
+   */
+  File getFile(String name) {
+    return this.getIndex().get(name);
+  }
+
+  /**
+   * Returns whether there is a child with the given name.
+   *
+   * @param name represents the name being looked for
+   * @return true if a child has the given name, false otherwise
+   */
+  boolean containsName(String name) {
+    return this.getIndex().containsKey(name);
+  }
+
+  /**
+   * Re-keys a child of the directory after it has been renamed.
+   *
+   * @param file represents the child that was renamed
+   * @param oldName represents the name the child had before
+   */
+  void rename(File file, String oldName) {
+    if (this.isIndexSynced()) {
+      if (this.index.get(oldName) == file && !this.duplicateNames) {
+        this.index.remove(oldName);
+        this.indexFile(file);
+      } else if (this.duplicateNames) {
+        // Can't tell which duplicate got renamed, so re-index next time
+        this.index = null;
+      }
+    }
+  }
+
+  @Override
+  public boolean add(File file) {
+    if (this.unlinked != null && this.unlinked.containsKey(file)) {
+      this.compact();
+    }
+    this.structureChanging();
+    boolean synced = this.isIndexSynced();
+    super.add(file);
+    this.afterInsert(synced, file);
+    return true;
+  }
+
+  @Override
+  public void add(int position, File file) {
+    this.compact();
+    this.structureChanging();
+    boolean synced = this.isIndexSynced();
+    super.add(position, file);
+    this.afterInsert(synced, file);
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends File> files) {
+    this.compact();
+    this.structureChanging();
+    boolean synced = this.isIndexSynced();
+    boolean changed = super.addAll(files);
+    if (synced) {
+      for (File file : files) {
+        this.indexFile(file);
+      }
+      this.indexedModCount = this.modCount;
+    }
+    this.namesAdded(files);
+    this.structureChanged();
+    return changed;
+  }
+
+  @Override
+  public boolean addAll(int position, Collection<? extends File> files) {
+    this.compact();
+    this.structureChanging();
+    boolean changed = super.addAll(position, files);
+    this.namesAdded(files);
+    this.structureChanged();
+    return changed;
+  }
+
+  @Override
+  public File set(int position, File file) {
+    this.compact();
+    this.structureChanging();
+    boolean synced = this.isIndexSynced();
+    File replaced = super.set(position, file);
+    if (synced) {
+      this.unindexFile(replaced);
+      if (this.index != null) {
+        this.indexFile(file);
+      }
+    }
+    NameIndex.fileAdded(this.owner, file);
+    this.structureChanged();
+    return replaced;
+  }
+
+  @Override
+  public File remove(int position) {
+    this.compact();
+    this.structureChanging();
+    boolean synced = this.isIndexSynced();
+    File removed = super.remove(position);
+    if (synced) {
+      this.unindexFile(removed);
+      if (this.index != null) {
+        this.indexedModCount = this.modCount;
+      }
+    }
+    this.structureChanged();
+    return removed;
+  }
+
+  @Override
+  public boolean remove(Object data) {
+    boolean removed = false;
+    if (data instanceof File) {
+      File file = (File) data;
+      // A file that isn't indexed under its name is not a child, unless
+      // duplicates make the index ambiguous
+      boolean indexed = this.getIndex().get(file.getFileName()) == file;
+      if (indexed && !this.duplicateNames) {
+        // unlink it now, and drop it from the list when it is compacted
+        this.structureChanging();
+        if (this.unlinked == null) {
+          this.unlinked = new IdentityHashMap<File, Boolean>();
+        }
+        this.unlinked.put(file, Boolean.TRUE);
+        this.index.remove(file.getFileName());
+        this.structureChanged();
+        removed = true;
+      } else if (indexed || this.duplicateNames) {
+        // File doesn't override equals(Object), so search by identity
+        int position = this.size() - 1;
+        while (position >= 0 && this.get(position) != file) {
+          position--;
+        }
+        if (position >= 0) {
+          this.remove(position);
+          removed = true;
+        }
+      }
+    }
+    return removed;
+  }
+
+  @Override
+  public boolean removeAll(Collection<?> files) {
+    this.compact();
+    this.structureChanging();
+    boolean changed = super.removeAll(files);
+    this.structureChanged();
+    return changed;
+  }
+
+  @Override
+  public boolean retainAll(Collection<?> files) {
+    this.compact();
+    this.structureChanging();
+    boolean changed = super.retainAll(files);
+    this.structureChanged();
+    return changed;
+  }
+
+  @Override
+  public boolean removeIf(Predicate<? super File> filter) {
+    this.compact();
+    this.structureChanging();
+    boolean changed = super.removeIf(filter);
+    this.structureChanged();
+    return changed;
+  }
+
+  @Override
+  public void replaceAll(UnaryOperator<File> operator) {
+    this.compact();
+    this.structureChanging();
+    super.replaceAll(operator);
+    this.structureChanged();
+  }
+
+  @Override
+  public void clear() {
+    this.structureChanging();
+    super.clear();
+    this.index = null;
+    this.unlinked = null;
+    this.structureChanged();
+  }
+
+  @Override
+  public void sort(Comparator<? super File> comparator) {
+    this.compact();
+    super.sort(comparator);
+  }
+
+  @Override
+  public int size() {
+    this.compact();
+    return super.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    this.compact();
+    return super.isEmpty();
+  }
+
+  @Override
+  public File get(int position) {
+    this.compact();
+    return super.get(position);
+  }
+
+  @Override
+  public int indexOf(Object data) {
+    this.compact();
+    return super.indexOf(data);
+  }
+
+  @Override
+  public int lastIndexOf(Object data) {
+    this.compact();
+    return super.lastIndexOf(data);
+  }
+
+  @Override
+  public boolean contains(Object data) {
+    this.compact();
+    return super.contains(data);
+  }
+
+  @Override
+  public Object[] toArray() {
+    this.compact();
+    return super.toArray();
+  }
+
+  @Override
+  public <T> T[] toArray(T[] array) {
+    this.compact();
+    return super.toArray(array);
+  }
+
+  @Override
+  public Iterator<File> iterator() {
+    this.compact();
+    return super.iterator();
+  }
+
+  @Override
+  public ListIterator<File> listIterator() {
+    this.compact();
+    return super.listIterator();
+  }
+
+  @Override
+  public ListIterator<File> listIterator(int position) {
+    this.compact();
+    return super.listIterator(position);
+  }
+
+  @Override
+  public List<File> subList(int from, int to) {
+    this.compact();
+    return super.subList(from, to);
+  }
+
+  @Override
+  public void forEach(Consumer<? super File> action) {
+    this.compact();
+    super.forEach(action);
+  }
+
+  @Override
+  public Spliterator<File> spliterator() {
+    this.compact();
+    return super.spliterator();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    this.compact();
+    if (other instanceof DirectoryContents) {
+      // lists are compared by their arrays, so both have to be compacted
+      ((DirectoryContents) other).compact();
+    }
+    return super.equals(other);
+  }
+
+  @Override
+  public int hashCode() {
+    this.compact();
+    return super.hashCode();
+  }
+
+  @Override
+  public Object clone() {
+    this.compact();
+    return super.clone();
+  }
+
+  /**
+   * Returns a copy of the children without compacting the list, so the
+   * children can be read by another thread while nothing changes them.
+   *
+   * @return the children in order
+   */
+  ArrayList<File> copy() {
+    IdentityHashMap<File, Boolean> gone = this.unlinked;
+    int size = super.size();
+    ArrayList<File> children = new ArrayList<File>(size);
+    for (int position = 0; position < size; position++) {
+      File file = super.get(position);
+      if (gone == null || !gone.containsKey(file)) {
+        children.add(file);
+      }
+    }
+    return children;
+  }
+
+  /**
+   * Drops the children unlinked since the list was last compacted from the
+   * list. This is not a change to the directory, but it changes the list,
+   * so lazy copies and a frozen view that still need the list are given
+   * what it holds first.
+   */
+  private void compact() {
+    if (this.unlinked != null) {
+      this.structureChanging();
+      boolean synced = this.isIndexSynced();
+      IdentityHashMap<File, Boolean> gone = this.unlinked;
+      this.unlinked = null;
+      super.removeIf(gone::containsKey);
+      if (synced) {
+        this.indexedModCount = this.modCount;
+      }
+    }
+  }
+
+  /**
+   * Returns the index of the children, rebuilding it first if the list was
+   * modified in a way the index could not follow.
+   *
+   * @return the children of the directory keyed by their file name
+   */
+  private HashMap<String, File> getIndex() {
+    if (!this.isIndexSynced()) {
+      this.index = new HashMap<String, File>(this.size() * 4 / 3 + 16);
+      this.duplicateNames = false;
+      for (File file : this) {
+        this.indexFile(file);
+      }
+      this.indexedModCount = this.modCount;
+    }
+    return this.index;
+  }
+
+  /**
+   * Returns whether the index reflects the current contents of the list.
+   *
+   * @return true if the index is in sync with the list, false otherwise
+   */
+  private boolean isIndexSynced() {
+    return this.index != null && this.indexedModCount == this.modCount;
+  }
+
+  /**
+   * Helper for the add methods which indexes a newly inserted child.
+   *
+   * @param synced represents whether the index was in sync before inserting
+   * @param file represents the child that was inserted
+   */
+  private void afterInsert(boolean synced, File file) {
+    if (synced) {
+      this.indexFile(file);
+      this.indexedModCount = this.modCount;
+    }
+    NameIndex.fileAdded(this.owner, file);
+    this.structureChanged();
+  }
+
+  /**
+   * Helper for the addAll methods which adds the new children to the name
+   * index of the file system.
+   *
+   * @param files represents the children that were inserted
+   */
+  private void namesAdded(Collection<? extends File> files) {
+    for (File file : files) {
+      NameIndex.fileAdded(this.owner, file);
+    }
+  }
+
+  /**
+   * Helper for every method that changes the list, which keeps the children
+   * for lazy copies and a frozen view of the file system that still need
+   * them.
+   */
+  private void structureChanging() {
+    LazyCopy.changing(this.owner);
+    FrozenTree.changing(this.owner);
+  }
+
+  /**
+   * Helper for every method that changes the list, which marks the cached
+   * paths as stale and the directory as changed since it was saved.
+   */
+  private void structureChanged() {
+    ChangeTracker.changed(this.owner);
+    PathCache.invalidate();
+  }
+
+  /**
+   * Adds a child to the index. The first child with a given name wins, the
+   * same child searching the list in order would find.
+   *
+   * @param file represents the child being indexed
+   */
+  private void indexFile(File file) {
+    if (this.index.putIfAbsent(file.getFileName(), file) != null) {
+      this.duplicateNames = true;
+    }
+  }
+
+  /**
+   * Removes a child from the index.
+   *
+   * @param file represents the child no longer in the list
+   */
+  private void unindexFile(File file) {
+    if (this.duplicateNames) {
+      // Another child may share the name, so re-index next time
+      this.index = null;
+    } else {
+      this.index.remove(file.getFileName(), file);
+    }
+  }
+
+  /**
+   * Restores the list when loading a saved file system. The index is not
+   * saved and is rebuilt the first time it is needed.
+   *
+   * @param in represents the stream the list is read from
+   * @throws IOException exception when the stream can't be read
+   * @throws ClassNotFoundException exception when a saved class is unknown
+   */
+  private void readObject(ObjectInputStream in)
+      throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    this.index = null;
+  }
+
+  /**
+   * Compacts the list before it is saved with serialization.
+   *
+   * @return the list to save
+   */
+  private Object writeReplace() {
+    this.compact();
+    return this;
+  }
+}
@@ -79,6 +79,7 @@ public class DirectoryMaker extends Command {
     // Only create directory if it doesn't exist or it doesn't contain any
     // illegal characters.
     try {
+      FileNameValidator.validate(newDirName);
       // Create and add the new directory into the file system.
       Directory newDirectory = new Directory(newDirName, parent);
       parent.addContents(newDirectory);
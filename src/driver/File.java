@@ -1,6 +1,7 @@
 package driver;
 
 import java.io.Serializable;
+import java.util.ArrayDeque;
 
 /**
  * Represents a file in the filesystem.
@@ -25,12 +26,77 @@ public class File implements Serializable {
    */
   private Directory parentDir;
 
+  /**
+   * Represents the parent directory of the file when it was last saved to or
+   * loaded from a snapshot
+   */
+  private transient Directory savedParentDir;
+
+  /**
+   * Represents the name of the file when it was last saved to or loaded from a
+   * snapshot, or null if it never was
+   */
+  private transient String savedFileName;
+
+  /**
+   * Represents whether the file changed since it was last saved
+   */
+  private transient boolean changed;
+
+  /**
+   * Represents the frozen view of the file system that no longer has to keep
+   * what the file was before it changes (see FrozenTree)
+   */
+  private transient int frozenView;
+
+  /**
+   * Represents the absolute path of the file the last time it was asked for,
+   * or null if it never was
+   */
+  private transient volatile CachedPath cachedPath;
+
+  /**
+   * Represents the absolute path and depth of a file, as they were in one
+   * rename generation of the file system (see PathCache).
+   */
+  private static final class CachedPath {
+
+    /**
+     * Represents the absolute path of the file
+     */
+    private final String path;
+
+    /**
+     * Represents the number of directories above the file
+     */
+    private final int depth;
+
+    /**
+     * Represents the rename generation the path was rendered in
+     */
+    private final long generation;
+
+    /**
+     * Creates a cached path.
+     * 
+     * @param path represents the absolute path of the file
+     * @param depth represents the number of directories above the file
+     * @param generation represents the rename generation it was rendered in
+     */
+    private CachedPath(String path, int depth, long generation) {
+      this.path = path;
+      this.depth = depth;
+      this.generation = generation;
+    }
+  }
+
   /**
    * Creates and empty file object.
    */
   public File() {
     this.fileName = "";
     this.parentDir = null;
+    this.frozenView = FrozenTree.getOpenView();
   }
 
   /**
@@ -39,6 +105,7 @@ public class File implements Serializable {
   public File(String name, Directory parentDirectory) {
     this.fileName = name;
     this.parentDir = parentDirectory;
+    this.frozenView = FrozenTree.getOpenView();
   }
 
   /**
@@ -56,7 +123,20 @@ public class File implements Serializable {
    * @param name Represents the new name of the file
    */
   public void setFileName(String name) {
+    LazyCopy.changing(this);
+    FrozenTree.changing(this);
+    String oldName = this.fileName;
     this.fileName = name;
+    // Keep the parent's lookup of its files in sync with the new name
+    if (this.parentDir != null && oldName != null) {
+      this.parentDir.childRenamed(this, oldName);
+    }
+    if (oldName != null) {
+      NameIndex.fileRenamed(this, oldName);
+    }
+    // the parent now holds a differently named file
+    ChangeTracker.changed(this.parentDir);
+    PathCache.renamed();
   }
 
   /**
@@ -75,5 +155,153 @@ public class File implements Serializable {
    */
   public void setParentDir(Directory directory) {
     this.parentDir = directory;
+    // a new parent changes where .. leads
+    PathCache.renamed();
+  }
+
+  /**
+   * Returns the absolute path of the file, from the top of the file system it
+   * is in. The path is cached, so it is only rendered again after a file is
+   * renamed or moved, and then only from the nearest directory above whose
+   * path is still cached, in one pass.
+   * 
+   * @return the names from the top of the file system down to the file,
+   *         separated by /
+   */
+  public String getAbsolutePath() {
+    return this.getCachedPath().path;
+  }
+
+  /**
+   * Returns the number of directories above the file, which is cached along
+   * with its absolute path.
+   * 
+   * @return 0 for the top of the file system, 1 for its files, and so on
+   */
+  public int getDepth() {
+    return this.getCachedPath().depth;
+  }
+
+  /**
+   * Returns the absolute path and depth of the file, rendering them again if
+   * a file was renamed or moved since they were cached. The path of the
+   * parent is cached too, since it is the start of the path and the files
+   * next to this one need it; the directories further up are left for when
+   * they are asked for, so rendering costs no more than the length of the
+   * path.
+   * 
+   * @return the cached path of the file, up to date
+   */
+  private CachedPath getCachedPath() {
+    // a rename while rendering leaves the new paths stale, so they're redone
+    long generation = PathCache.getRenameGeneration();
+    CachedPath cached = this.cachedPath;
+    if (cached == null || cached.generation != generation) {
+      // climb to the nearest directory whose path is still cached
+      ArrayDeque<File> stale = new ArrayDeque<File>();
+      File file = this;
+      CachedPath above = null;
+      while (file != null && above == null) {
+        CachedPath fileCached = file.cachedPath;
+        if (fileCached != null && fileCached.generation == generation) {
+          above = fileCached;
+        } else {
+          stale.push(file);
+          file = file.parentDir;
+        }
+      }
+      boolean parentStale = stale.size() > 1;
+      StringBuilder path = new StringBuilder();
+      int depth = 0;
+      if (above == null) {
+        path.append(stale.pop().fileName);
+      } else {
+        path.append(above.path);
+        depth = above.depth;
+      }
+      // then add the names on the way back down
+      int parentLength = 0;
+      for (File staleFile : stale) {
+        parentLength = path.length();
+        // the root is named / so it doesn't need another separator
+        if (depth > 0 || path.length() != 1 || path.charAt(0) != '/') {
+          path.append('/');
+        }
+        path.append(staleFile.fileName);
+        depth++;
+      }
+      cached = new CachedPath(path.toString(), depth, generation);
+      this.cachedPath = cached;
+      if (parentStale) {
+        ((File) this.parentDir).cachedPath = new CachedPath(
+            path.substring(0, parentLength), depth - 1, generation);
+      }
+    }
+    return cached;
+  }
+
+  /**
+   * Remembers where the file is, after it was saved to or loaded from a
+   * snapshot.
+   */
+  void markSaved() {
+    this.savedParentDir = this.parentDir;
+    this.savedFileName = this.fileName;
+  }
+
+  /**
+   * Returns whether the file was saved in the given directory.
+   * 
+   * @param directory represents the directory the file is in now
+   * @return true if the file was last saved in the directory, false if it was
+   *         added to it since
+   */
+  boolean wasSavedIn(Directory directory) {
+    return this.savedFileName != null && this.savedParentDir == directory;
+  }
+
+  /**
+   * Returns the name the file had when it was last saved.
+   * 
+   * @return the saved name of the file, or null if it was never saved
+   */
+  String getSavedFileName() {
+    return this.savedFileName;
+  }
+
+  /**
+   * Returns whether the file changed since it was last saved.
+   * 
+   * @return true if the file is marked as changed, false otherwise
+   */
+  boolean isChanged() {
+    return this.changed;
+  }
+
+  /**
+   * Marks whether the file changed since it was last saved.
+   * 
+   * @param changed represents whether the file changed
+   */
+  void setChanged(boolean changed) {
+    this.changed = changed;
+  }
+
+  /**
+   * Returns the frozen view that no longer has to keep what the file was.
+   * 
+   * @return the number of the view, or 0 if there is none
+   */
+  int getFrozenView() {
+    return this.frozenView;
+  }
+
+  /**
+   * Marks the frozen view that no longer has to keep what the file was.
+   * 
+   * @param view represents the number of the view
+   */
+  void setFrozenView(int view) {
+    this.frozenView = view;
   }
 }
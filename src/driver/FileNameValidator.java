@@ -0,0 +1,59 @@
+package driver;
+
+/**
+ * Validates the names of files in the file system. A file name must not
+ * contain any of the special characters !@#$%^&*(){}~|<>?. and is checked
+ * against a lookup table, so validating a name allocates nothing.
+ *
+ * @author Jadin Luong
+ *
+ */
+public class FileNameValidator {
+
+  /**
+   * Represents the characters a file name must not contain
+   */
+  public static final String ILLEGAL_CHARACTERS = "!@#$%^&*(){}~|<>?.";
+
+  /**
+   * Represents whether each ASCII character is illegal in a file name
+   */
+  private static final boolean[] ILLEGAL = new boolean[128];
+
+  // populate the lookup table with the illegal characters
+  static {
+    for (int i = 0; i < ILLEGAL_CHARACTERS.length(); i++) {
+      ILLEGAL[ILLEGAL_CHARACTERS.charAt(i)] = true;
+    }
+  }
+
+  /**
+   * Returns whether the given name is a valid file name.
+   *
+   * @param name represents the file name being checked
+   * @return true if the name has no illegal characters, false otherwise
+   */
+  public static boolean isValid(String name) {
+    boolean valid = true;
+    int length = name.length();
+    for (int i = 0; i < length && valid; i++) {
+      char character = name.charAt(i);
+      valid = character >= ILLEGAL.length || !ILLEGAL[character];
+    }
+    return valid;
+  }
+
+  /**
+   * Checks that the given name is a valid file name.
+   *
+   * @param name represents the file name being checked
+   * @throws InvalidFileNameException exception when the name contains any
+   *         illegal characters
+   */
+  public static void validate(String name) throws InvalidFileNameException {
+    if (!isValid(name)) {
+      throw new InvalidFileNameException(
+          "File name must not contain any special characters.");
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package driver;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Represents the lock every command holds while it runs, so commands running
+ * at the same time, such as the stages of a pipeline, take turns with the
+ * file system. Even reading the file system can change how it is held (see
+ * DirectoryContents), so readers take the lock too. A command waiting for
+ * another one, such as a stage of a pipeline waiting for its input, lets go
+ * of the lock while it waits.
+ *
+ * With many sessions of a ShellServer waiting for the lock, letting a
+ * running thread take it ahead of the threads already waiting gets more
+ * commands run, but a few commands wait far longer than the rest. Setting
+ * the jshell.fairLock property to true hands the lock out in the order it
+ * was asked for instead.
+ *
+ * @author Shamayum Rashad
+ */
+class FileSystemLock {
+
+  /**
+   * the lock
+   */
+  private static final ReentrantLock lock =
+      new ReentrantLock(Boolean.getBoolean("jshell.fairLock"));
+
+  /**
+   * Waits until the thread holds the lock.
+   */
+  static void lock() {
+    lock.lock();
+  }
+
+  /**
+   * Lets go of the lock once.
+   */
+  static void unlock() {
+    lock.unlock();
+  }
+
+  /**
+   * Lets go of the lock however many times the thread took it, before the
+   * thread waits for something another thread holding the lock will do.
+   *
+   * @return the number of times the thread held the lock
+   */
+  static int releaseAll() {
+    int holds = lock.getHoldCount();
+    for (int hold = 0; hold < holds; hold++) {
+      lock.unlock();
+    }
+    return holds;
+  }
+
+  /**
+   * Takes the lock again as many times as the thread let go of it.
+   *
+   * @param holds  the number of times the thread held the lock
+   */
+  static void reacquire(int holds) {
+    for (int hold = 0; hold < holds; hold++) {
+      lock.lock();
+    }
+  }
+}
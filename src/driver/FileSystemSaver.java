@@ -28,4 +28,67 @@ public interface FileSystemSaver {
   public String getSavedFileSystem
   (String fileName, FileSystem<Directory> fileSystem);
 
+  /**
+   * Load the saved file system to the specified file system, leaving as much
+   * of it in the saved file as possible until it is needed. Savers that can't
+   * do that load the whole file system.
+   * 
+   * @param fileName    the file name of the file the file system is saved to.
+   * @param fileSystem  the file system that will overloaded.
+   * @return            any errors
+   */
+  public default String getMappedFileSystem
+  (String fileName, FileSystem<Directory> fileSystem) {
+    return this.getSavedFileSystem(fileName, fileSystem);
+  }
+
+  /**
+   * Saves the file system to a file named fileName, only writing what changed
+   * since it was last saved to or loaded from that file if possible. Savers
+   * that can't do that save the whole file system.
+   * 
+   * @param fileName    the file name that the file system will be saved to.
+   * @param fileSystem  the file system that will be saved
+   * @return            any errors
+   */
+  public default String saveIncrementally
+  (String fileName, FileSystem<Directory> fileSystem) {
+    return this.saveFileSystem(fileName, fileSystem);
+  }
+
+  /**
+   * Rewrites the file system saved to a file named fileName so it no longer
+   * holds the changes of incremental saves separately.
+   * 
+   * @param fileName    the file name of the file the file system is saved to.
+   * @return            any errors
+   */
+  public default String compact(String fileName) {
+    return fileName + ": can't be compacted";
+  }
+
+  /**
+   * Starts saving the file system to a file named fileName while it keeps
+   * being used, saving it as it was when the save started. Savers that can't
+   * do that save it before returning.
+   * 
+   * @param fileName    the file name that the file system will be saved to.
+   * @param fileSystem  the file system that will be saved
+   * @return            any errors starting the save
+   */
+  public default String saveInBackground
+  (String fileName, FileSystem<Directory> fileSystem) {
+    return this.saveFileSystem(fileName, fileSystem);
+  }
+
+  /**
+   * Returns how far the last save started in the background got.
+   * 
+   * @return            whether the save is running, how far it got, or how it
+   *                    finished
+   */
+  public default String getBackgroundStatus() {
+    return "save: no background save was started";
+  }
+
 }
@@ -0,0 +1,280 @@
+package driver;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Represents a walk over every file below (and including) a directory. The
+ * walk keeps its own stack or queue of directories instead of recursing or
+ * moving the current working directory, so each step takes constant amortized
+ * time and the shell is left untouched.
+ *
+ * @author Jadin Luong
+ *
+ */
+public class FileTraversal implements Iterable<File> {
+
+  /**
+   * Represents the orders the files can be visited in.
+   */
+  public enum Order {
+    /**
+     * every directory comes before its contents
+     */
+    PRE_ORDER,
+    /**
+     * every directory comes after its contents
+     */
+    POST_ORDER,
+    /**
+     * every file comes before the files one level deeper than it
+     */
+    BREADTH_FIRST
+  }
+
+  /**
+   * Represents the directory the walk starts from
+   */
+  private final Directory start;
+
+  /**
+   * Represents the order the files are visited in
+   */
+  private final Order order;
+
+  /**
+   * Represents the deepest level below the start that is visited
+   */
+  private final int maxDepth;
+
+  /**
+   * Creates a walk over every file below the given directory.
+   *
+   * @param start represents the directory the walk starts from
+   * @param order represents the order the files are visited in
+   */
+  public FileTraversal(Directory start, Order order) {
+    this(start, order, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Creates a walk over the files at most maxDepth levels below the given
+   * directory. The directory itself is at depth 0.
+   *
+   * @param start represents the directory the walk starts from
+   * @param order represents the order the files are visited in
+   * @param maxDepth represents the deepest level below the start visited
+   */
+  public FileTraversal(Directory start, Order order, int maxDepth) {
+    this.start = start;
+    this.order = order;
+    this.maxDepth = maxDepth;
+  }
+
+  /**
+   * Returns an iterator over the files, starting from the directory the walk
+   * starts from.
+   *
+   * @return an iterator over the files in the order of the walk
+   */
+  @Override
+  public Walker iterator() {
+    return new Walker();
+  }
+
+  /**
+   * Represents a directory whose contents are being visited.
+   */
+  private static class Frame {
+    /**
+     * Represents the directory being visited
+     */
+    private final Directory directory;
+    /**
+     * Represents the position of the next child to visit
+     */
+    private int position;
+    /**
+     * Represents how many levels below the start the directory is
+     */
+    private final int depth;
+
+    /**
+     * Creates a frame for visiting the contents of a directory.
+     *
+     * @param directory represents the directory being visited
+     * @param depth represents how many levels below the start it is
+     */
+    private Frame(Directory directory, int depth) {
+      this.directory = directory;
+      this.position = 0;
+      this.depth = depth;
+    }
+
+    /**
+     * Returns whether there are children left to visit.
+     *
+     * @return true if a child has not been visited yet, false otherwise
+     */
+    private boolean hasChild() {
+      return this.position < this.directory.getContents().size();
+    }
+
+    /**
+     * Returns the next child to visit.
+     *
+     * @return the next child of the directory
+     */
+    private File nextChild() {
+      return this.directory.getContents().get(this.position++);
+    }
+  }
+
+  /**
+   * Represents an iterator over the files of the walk, which can also tell how
+   * deep the last file returned is.
+   */
+  public class Walker implements Iterator<File> {
+
+    /**
+     * Represents the directories being visited, either as a stack or a queue
+     */
+    private final ArrayDeque<Frame> frames = new ArrayDeque<Frame>();
+
+    /**
+     * Represents the file that will be returned next
+     */
+    private File upcoming;
+
+    /**
+     * Represents the depth of the file that will be returned next
+     */
+    private int upcomingDepth;
+
+    /**
+     * Represents the depth of the last file returned
+     */
+    private int depth = -1;
+
+    /**
+     * Creates an iterator positioned before the first file of the walk.
+     */
+    private Walker() {
+      if (FileTraversal.this.order == Order.POST_ORDER
+          && FileTraversal.this.maxDepth > 0) {
+        this.frames.push(new Frame(FileTraversal.this.start, 0));
+        this.advance();
+      } else {
+        // the start comes first in both pre-order and breadth first order
+        this.upcoming = FileTraversal.this.start;
+        this.upcomingDepth = 0;
+        this.enter(FileTraversal.this.start, 0);
+      }
+    }
+
+    /**
+     * Returns whether there is another file in the walk.
+     *
+     * @return true if there is another file, false otherwise
+     */
+    @Override
+    public boolean hasNext() {
+      return this.upcoming != null;
+    }
+
+    /**
+     * Returns the next file in the walk.
+     *
+     * @return the next file in the walk
+     */
+    @Override
+    public File next() {
+      if (this.upcoming == null) {
+        throw new NoSuchElementException();
+      }
+      File file = this.upcoming;
+      this.depth = this.upcomingDepth;
+      if (FileTraversal.this.order != Order.POST_ORDER
+          && file != FileTraversal.this.start) {
+        // in post-order the directory was already entered before it came up
+        this.enter(file, this.depth);
+      }
+      this.advance();
+      return file;
+    }
+
+    /**
+     * Returns how many levels below the start the last file returned is.
+     *
+     * @return the depth of the last file returned, or -1 before the first
+     */
+    public int getDepth() {
+      return this.depth;
+    }
+
+    /**
+     * Starts visiting the contents of a file if it is a directory that is not
+     * too deep.
+     *
+     * @param file represents the file that was reached
+     * @param fileDepth represents how many levels below the start it is
+     */
+    private void enter(File file, int fileDepth) {
+      if (file instanceof Directory && fileDepth < FileTraversal.this.maxDepth) {
+        Frame frame = new Frame((Directory) file, fileDepth);
+        if (FileTraversal.this.order == Order.BREADTH_FIRST) {
+          this.frames.addLast(frame);
+        } else {
+          this.frames.push(frame);
+        }
+      }
+    }
+
+    /**
+     * Finds the file that comes after the one about to be returned.
+     */
+    private void advance() {
+      this.upcoming = null;
+      if (FileTraversal.this.order == Order.POST_ORDER) {
+        this.advancePostOrder();
+      } else {
+        // pre-order uses the frames as a stack, breadth first as a queue
+        Frame frame = this.frames.peekFirst();
+        while (frame != null && !frame.hasChild()) {
+          this.frames.pollFirst();
+          frame = this.frames.peekFirst();
+        }
+        if (frame != null) {
+          this.upcoming = frame.nextChild();
+          this.upcomingDepth = frame.depth + 1;
+        }
+      }
+    }
+
+    /**
+     * Finds the next file in post-order: the deepest unvisited file along the
+     * leftmost unvisited branch, or the directory whose contents are done.
+     */
+    private void advancePostOrder() {
+      Frame frame = this.frames.peek();
+      while (frame != null && this.upcoming == null) {
+        if (frame.hasChild()) {
+          File child = frame.nextChild();
+          if (child instanceof Directory
+              && frame.depth + 1 < FileTraversal.this.maxDepth) {
+            frame = new Frame((Directory) child, frame.depth + 1);
+            this.frames.push(frame);
+          } else {
+            this.upcoming = child;
+            this.upcomingDepth = frame.depth + 1;
+          }
+        } else {
+          this.frames.pop();
+          this.upcoming = frame.directory;
+          this.upcomingDepth = frame.depth;
+        }
+      }
+    }
+  }
+}
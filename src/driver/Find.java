@@ -2,6 +2,9 @@ package driver;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * Represents the Find command in the command line.
@@ -10,6 +13,12 @@ import java.util.List;
  */
 public class Find extends Command{
 
+  /**
+   * the most threads a search can use, which is the most a ForkJoinPool can
+   * have
+   */
+  public static final int MAX_THREADS = 32767;
+
   /**
    * the file system the command will be working with
    */
@@ -25,56 +34,132 @@ public class Find extends Command{
     this.fileSystem = fileSystem;
   }
 
+  /**
+   * the thread pool searching in parallel, or null when searching on the
+   * current thread
+   */
+  private ForkJoinPool pool;
+
   /**
    * Executes the Find command, modifying the output string to include relative
-   * paths of files with a given file name in the paths given.
+   * paths of files with a given file name in the paths given. If the arguments
+   * start with -j N, the paths are searched by N threads.
    * 
    * @param arguments  the paths and parameters for the command
    */
   public void executeCommand(ArrayList<String> arguments) {
 
-    String result = "";
+    List<String> searchArguments = arguments;
+    int threads = 1;
+    // split off the number of threads to search with, if one is given
+    if (!arguments.isEmpty() && arguments.get(0).equals("-j")) {
+      threads = arguments.size() > 1 ? parseThreads(arguments.get(1)) : 0;
+      searchArguments = arguments.subList(Math.min(2, arguments.size()),
+          arguments.size());
+    }
 
+    if (threads < 1) {
+      this.setError("Find: invalid number of threads: -j must be followed by"
+          + " a positive number");
+    }
+    else if (threads > MAX_THREADS) {
+      this.setError("Find: invalid number of threads: -j can't be more than "
+          + MAX_THREADS);
+    }
     // if the syntax is valid, separate the paths and the parameters
-    if (validSyntax(arguments)) {
-      int typeIndex = arguments.indexOf("-type");
-      List<String> pathsToSearch = arguments.subList(0, typeIndex);
-      List<String> params = arguments.subList(typeIndex, arguments.size());
+    else if (validSyntax(searchArguments)) {
+      int typeIndex = searchArguments.indexOf("-type");
+      List<String> pathsToSearch = searchArguments.subList(0, typeIndex);
+      List<String> params =
+          searchArguments.subList(typeIndex, searchArguments.size());
       String type = params.get(1);
-      String fileName = params.get(3).substring(1, params.get(3).length() - 1);
-      // search for files with the given name in each path in pathsToSearch
-      for (String filePath: pathsToSearch) {
-        result += findFiles(filePath, type, fileName) + "\n";
+      String pattern = params.get(3).substring(1, params.get(3).length() - 1);
+      NameMatcher nameMatcher = compile(params.get(2), pattern);
+      if (nameMatcher != null && threads > 1) {
+        this.pool = new ForkJoinPool(threads);
+      }
+      /*
+       * search for files with the given name in each path in pathsToSearch,
+       * with the results of each path on a new line
+       */
+      try {
+        for (int i = 0; nameMatcher != null && i < pathsToSearch.size(); i++) {
+          if (i > 0) {
+            this.setPrintCommand("\n");
+          }
+          findFiles(pathsToSearch.get(i), type, nameMatcher);
+        }
+      } finally {
+        if (this.pool != null) {
+          this.pool.shutdown();
+          this.pool = null;
+        }
       }
     // if the syntax is not valid, give an error
     } else {
       this.setError("Find: invalid syntax: valid syntax as follows: find "
           + "path ... -type [f|d] -name expression");
     }
+  }
 
-    // take the newline out at the end of results
-    if (!result.isEmpty()) {
-      result = result.substring(0, result.length() - 1);
+  /**
+   * Compiles the pattern given to -name (a glob) or -regex (a regular
+   * expression) once for the whole search.
+   * 
+   * @param option   -name or -regex
+   * @param pattern  the pattern the file names are matched against
+   * @return         the compiled pattern, or null if it is not valid
+   */
+  private NameMatcher compile(String option, String pattern) {
+
+    NameMatcher nameMatcher = null;
+    if (option.equals("-regex")) {
+      try {
+        nameMatcher = NameMatcher.regex(pattern);
+      } catch (PatternSyntaxException e) {
+        this.setError("Find: invalid regular expression: " + pattern);
+      }
+    } else {
+      // a bracket like [z-a] makes a character class that can't compile
+      try {
+        nameMatcher = NameMatcher.glob(pattern);
+      } catch (PatternSyntaxException e) {
+        this.setError("Find: invalid pattern: " + pattern);
+      }
     }
+    return nameMatcher;
+  }
+
+  /**
+   * Converts the number of threads given to -j into a number.
+   * 
+   * @param threads  the number of threads entered by the user
+   * @return         the number of threads, 0 if it is not a number, or more
+   *                 than MAX_THREADS if it is too big to be an int
+   */
+  private int parseThreads(String threads) {
 
-    this.setPrintCommand(result);
+    int result;
+    try {
+      result = Integer.parseInt(threads);
+    } catch (NumberFormatException e) {
+      result = threads.matches("[0-9]+") ? MAX_THREADS + 1 : 0;
+    }
+    return result;
   }
 
   /**
    * Find files, specifically text files if type is f or directories if type is
-   * d, with the given name fileName in the file given by the path filePath.
+   * d, with names matching nameMatcher in the file given by the path filePath.
    * 
-   * @param filePath  the file that will be searched
-   * @param type      d if looking for directories and f if looking for text
-   *                  files
-   * @param fileName  the name of the files that are being searched for
-   * @return          a string with the relative paths of all the files in 
-   *                  filePath with the name fileName, each in a new line
+   * @param filePath     the file that will be searched
+   * @param type         d if looking for directories and f if looking for text
+   *                     files
+   * @param nameMatcher  the pattern the names of the files have to match
    */
-  private String findFiles(String filePath, String type, String fileName) {
+  private void findFiles(String filePath, String type,
+      NameMatcher nameMatcher) {
 
-    String result = "";
-    ArrayList<String> fileMatches;
     Path path = new Path(this.fileSystem);
 
     try {
@@ -82,13 +167,14 @@ public class Find extends Command{
 
       // if the file is a directory, search for files with the given name in it
       if (fileToSearch instanceof Directory) {
-        if (type.equals("f")) {
-          fileMatches = recursiveTextFile(fileToSearch, fileName);
-        } else {
-          fileMatches = recursiveDirectory(fileToSearch, fileName);
-        }
-        for (String files: fileMatches) {
-          result = files + "\n" + result;
+        ArrayList<File> fileMatches =
+            matchingFiles((Directory) fileToSearch, type, nameMatcher);
+        // output the relative paths, last match first, each in a new line
+        for (int i = fileMatches.size() - 1; i >= 0; i--) {
+          this.setPrintCommand(relativePath(fileMatches.get(i), fileToSearch));
+          if (i > 0) {
+            this.setPrintCommand("\n");
+          }
         }
       }
       // if the file is not a directory, give an error
@@ -99,89 +185,65 @@ public class Find extends Command{
     } catch (InvalidPathException e) {
       this.setError(filePath + ": directory not found");
     }
-
-    // take the newline out at the end of results
-    if (!result.isEmpty()) {
-      result = result.substring(0, result.length() - 1);
-    }
-
-    return result;
   }
 
   /**
-   * Recursively search for text files in currFile with the name FileName.
+   * Search dirToSearch, and everything below it, for text files if type is f
+   * or directories if type is d with names matching nameMatcher. The name
+   * index answers the search when it is turned on and the pattern is a plain
+   * name; otherwise the search is split between the threads of the pool if
+   * there is one.
    * 
-   * @param currFile  the file that is being searched
-   * @param fileName  the name of the files being searched for
-   * @return          a list with the relative paths of the text files with the
-   *                  names matching fileName
+   * @param dirToSearch  the directory that is being searched
+   * @param type         d if looking for directories and f if looking for text
+   *                     files
+   * @param nameMatcher  the pattern the names of the files have to match
+   * @return             the matching files, in pre-order
    */
-  private ArrayList<String> recursiveTextFile(File currFile, String fileName) {
+  private ArrayList<File> matchingFiles(Directory dirToSearch, String type,
+      NameMatcher nameMatcher) {
 
-    ArrayList<String> result = new ArrayList<>();
+    boolean wantDirectory = type.equals("d");
+    Predicate<File> matcher =
+        file -> (file instanceof Directory) == wantDirectory
+            && nameMatcher.matches(file.getFileName());
 
-    // if the file is a text file and has the given file name, add it to result
-    if ((currFile instanceof TextFile) &&
-        (currFile.getFileName().equals(fileName))) {
-      result.add(currFile.getFileName());
+    ArrayList<File> result = null;
+    if (nameMatcher.getLiteral() != null) {
+      result = NameIndex.find(this.fileSystem.getRoot(), dirToSearch,
+          nameMatcher.getLiteral(), wantDirectory);
     }
-    /*
-     * otherwise if its a directory, see if there is a text file with the given
-     * file name as a child of the directory
-     */
-    else if (currFile instanceof Directory) {
-      ArrayList<File> fileChildren = ((Directory) currFile).getContents();
-      for (File child: fileChildren) {
-        ArrayList<String> recursiveResult = recursiveTextFile(child, fileName);
-        if (!recursiveResult.isEmpty()) {
-          for (int i = 0; i < recursiveResult.size(); i++) {
-            String name = currFile.getFileName() + "/" + recursiveResult.get(i);
-            if (name.startsWith("//")) {
-              name = name.substring(1);
-            }
-            recursiveResult.set(i, name);
-          }
-          result.addAll(recursiveResult);
-        }
-      }
+    // without the index, walk everything below dirToSearch
+    if (result == null && this.pool != null) {
+      result = this.pool.invoke(new FindTask(dirToSearch, matcher));
+    } else if (result == null) {
+      result = new ArrayList<>();
+      FindTask.collect(dirToSearch, matcher, result);
     }
     return result;
   }
 
   /**
-   * Recursively search for directories in currFile with the name FileName.
+   * Returns the path of a file relative to the directory that was searched,
+   * starting with the name of that directory. The path of its parent is cut
+   * from the absolute path the parent caches, which the files next to it
+   * share, so it isn't built again for every match.
    * 
-   * @param currFile  the file that is being searched
-   * @param fileName  the name of the files being searched for
-   * @return          a list with the relative paths of the directories with
-   *                  the names matching fileName
+   * @param file      the file that was found
+   * @param searched  the directory the file was found in
+   * @return          the names from searched down to file, separated by /
    */
-  private ArrayList<String> recursiveDirectory(File currFile, String fileName) {
+  private String relativePath(File file, File searched) {
 
-    ArrayList<String> result = new ArrayList<>();
-
-    if (currFile instanceof Directory) {
-      // if the file is a directory and has the given file name,add it to result
-      if (currFile.getFileName().equals(fileName)) {
-        result.add(currFile.getFileName());
-      }
-      /*
-       * otherwise if its a directory then see if there are other directories
-       * with the given file name as children of the directory
-       */
-      ArrayList<File> fileChildren = ((Directory) currFile).getContents();
-      for (File child: fileChildren) {
-        ArrayList<String> recursiveResult = recursiveDirectory(child, fileName);
-        if (!recursiveResult.isEmpty()) {
-          for (int i = 0; i < recursiveResult.size(); i++) {
-            String name = currFile.getFileName() + "/" + recursiveResult.get(i);
-            if (name.startsWith("//")) {
-              name = name.substring(1);
-            }
-            recursiveResult.set(i, name);
-          }
-          result.addAll(recursiveResult);
-        }
+    String result = searched.getFileName();
+    if (file != searched) {
+      String parentPath = file.getParentDir().getAbsolutePath();
+      String below = parentPath.substring(searched.getAbsolutePath().length());
+      // the root is named / so it doesn't need another separator
+      if (below.isEmpty() && result.equals("/")) {
+        result = result + file.getFileName();
+      } else {
+        result = result + below + "/" + file.getFileName();
       }
     }
     return result;
@@ -194,7 +256,7 @@ public class Find extends Command{
    * @param arguments  the list of words and strings passed to the command
    * @return           true if the arguments are valid, false if they are not
    */
-  private boolean validSyntax(ArrayList<String> arguments) {
+  private boolean validSyntax(List<String> arguments) {
 
     boolean isValid = true;
 
@@ -214,11 +276,12 @@ public class Find extends Command{
         isValid = false;
       }
       /*
-       * the syntax is invalid if -type and -name aren't included in the
-       * arguments or in the right order
+       * the syntax is invalid if -type and -name (or -regex) aren't included
+       * in the arguments or in the right order
        */
       else if ((!params.get(0).equals("-type")) || 
-          (!params.get(2).equals("-name"))) {
+          (!(params.get(2).equals("-name")
+              || params.get(2).equals("-regex")))) {
         isValid = false;
       }
       /*
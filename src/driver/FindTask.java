@@ -0,0 +1,130 @@
+package driver;
+
+import java.util.ArrayList;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * Represents a search of a directory, and everything below it, for the files
+ * find is looking for. The search splits at directory boundaries so each sub
+ * directory can be searched by a different thread of a ForkJoinPool, and the
+ * results are joined in order, so the files found are always in pre-order no
+ * matter how the work was scheduled.
+ *
+ * @author Shamayum Rashad
+ */
+class FindTask extends RecursiveTask<ArrayList<File>> {
+
+  /**
+   * the serial version for serialization
+   */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * the number of queued tasks above which sub directories are searched by the
+   * current thread instead of being split off
+   */
+  private static final int SURPLUS_THRESHOLD = 3;
+
+  /**
+   * how many levels deep the search keeps splitting, so joining doesn't run
+   * out of stack on very deep trees
+   */
+  private static final int MAX_SPLIT_DEPTH = 64;
+
+  /**
+   * the directory being searched
+   */
+  private final Directory directory;
+
+  /**
+   * decides which files are being looked for
+   */
+  private final Predicate<File> matcher;
+
+  /**
+   * how many levels below the first directory searched this one is
+   */
+  private final int depth;
+
+  /**
+   * Constructs a search of the given directory.
+   * 
+   * @param directory  the directory being searched
+   * @param matcher    decides which files are being looked for
+   */
+  FindTask(Directory directory, Predicate<File> matcher) {
+    this(directory, matcher, 0);
+  }
+
+  /**
+   * Constructs a search of a directory some levels below the first one.
+   * 
+   * @param directory  the directory being searched
+   * @param matcher    decides which files are being looked for
+   * @param depth      how many levels below the first directory it is
+   */
+  private FindTask(Directory directory, Predicate<File> matcher, int depth) {
+    this.directory = directory;
+    this.matcher = matcher;
+    this.depth = depth;
+  }
+
+  /**
+   * Searches the directory, splitting off its sub directories while the pool
+   * has threads to spare.
+   * 
+   * @return  the matching files, in pre-order
+   */
+  @Override
+  protected ArrayList<File> compute() {
+
+    ArrayList<File> result = new ArrayList<>();
+    if (this.matcher.test(this.directory)) {
+      result.add(this.directory);
+    }
+
+    // split off every sub directory first, then collect in the original order
+    ArrayList<File> children = this.directory.getContents();
+    ArrayList<FindTask> subtasks = new ArrayList<>(children.size());
+    for (File child : children) {
+      FindTask subtask = null;
+      if (child instanceof Directory && this.depth < MAX_SPLIT_DEPTH
+          && getSurplusQueuedTaskCount() <= SURPLUS_THRESHOLD) {
+        subtask = new FindTask((Directory) child, this.matcher, this.depth + 1);
+        subtask.fork();
+      }
+      subtasks.add(subtask);
+    }
+    for (int i = 0; i < subtasks.size(); i++) {
+      if (subtasks.get(i) != null) {
+        result.addAll(subtasks.get(i).join());
+      } else {
+        collect(children.get(i), this.matcher, result);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Searches a file, and everything below it, on the current thread.
+   * 
+   * @param file     the file being searched
+   * @param matcher  decides which files are being looked for
+   * @param result   where the matching files are added, in pre-order
+   */
+  static void collect(File file, Predicate<File> matcher,
+      ArrayList<File> result) {
+
+    if (file instanceof Directory) {
+      for (File descendant : new FileTraversal((Directory) file,
+          FileTraversal.Order.PRE_ORDER)) {
+        if (matcher.test(descendant)) {
+          result.add(descendant);
+        }
+      }
+    } else if (matcher.test(file)) {
+      result.add(file);
+    }
+  }
+}
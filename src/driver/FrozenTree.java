@@ -0,0 +1,247 @@
+package driver;
+
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * A view of the files as they were at the moment it was taken, which stays the
+ * same while the shell keeps changing them, so a background save can write a
+ * consistent file system without stopping the shell. Taking the view copies
+ * nothing: the first time a file changes while the view is open, what it was
+ * (its name and either its children or its contents) is kept for the view
+ * just before the change is made. Files the view was already read from, and
+ * files made after it was taken, are never kept. Lists of children are copied
+ * when they are read, so the reader never shares a list the shell changes.
+ *
+ * Only one view is open at a time.
+ *
+ * @author Shamayum Rashad
+ */
+class FrozenTree {
+
+  /**
+   * A file as it was when the view was taken.
+   */
+  static final class Node {
+
+    /**
+     * the name of the file
+     */
+    private final String name;
+
+    /**
+     * the children of a directory, or null for a text file
+     */
+    private final List<File> children;
+
+    /**
+     * the contents of a text file, or null for a directory
+     */
+    private final Blob contents;
+
+    /**
+     * Constructs the frozen state of a file from what it is now.
+     *
+     * @param file  the file
+     */
+    private Node(File file) {
+      this.name = file.getFileName();
+      if (file instanceof Directory) {
+        this.children = ((Directory) file).copyContents();
+        this.contents = null;
+      } else {
+        this.children = null;
+        this.contents = ((TextFile) file).readBlob();
+      }
+    }
+
+    /**
+     * Returns the name the file had.
+     *
+     * @return the name of the file
+     */
+    String getName() {
+      return this.name;
+    }
+
+    /**
+     * Returns the children the directory had.
+     *
+     * @return the children of the directory, or null for a text file
+     */
+    List<File> getChildren() {
+      return this.children;
+    }
+
+    /**
+     * Returns the contents the text file had.
+     *
+     * @return the contents of the text file, or null for a directory
+     */
+    Blob getContents() {
+      return this.contents;
+    }
+  }
+
+  /**
+   * the view that is open, or null if there is none
+   */
+  private static volatile FrozenTree open = null;
+
+  /**
+   * the number of views taken so far
+   */
+  private static int taken = 0;
+
+  /**
+   * the number of the view, which marks the files it no longer has to keep
+   */
+  private final int view;
+
+  /**
+   * what the files that changed before they were read were
+   */
+  private final IdentityHashMap<File, Node> kept = new IdentityHashMap<>();
+
+  /**
+   * the number of files read from the view
+   */
+  private volatile long read = 0;
+
+  /**
+   * Constructs a view.
+   *
+   * @param view  the number of the view
+   */
+  private FrozenTree(int view) {
+    this.view = view;
+  }
+
+  /**
+   * Takes a view of the files as they are now.
+   *
+   * @return the view, or null if another view is still open
+   */
+  static synchronized FrozenTree freeze() {
+    FrozenTree tree = null;
+    if (open == null) {
+      taken++;
+      tree = new FrozenTree(taken);
+      open = tree;
+    }
+    return tree;
+  }
+
+  /**
+   * Returns the number of the view that is open, which files made now are
+   * marked with since the view never has to keep them.
+   *
+   * @return the number of the open view, or 0 if there is none
+   */
+  static int getOpenView() {
+    FrozenTree tree = open;
+    return tree == null ? 0 : tree.view;
+  }
+
+  /**
+   * Keeps what a file is for the open view, if it has to be kept, before it
+   * changes. Every change to the name, the children or the contents of a file
+   * calls this first.
+   *
+   * @param file  the file about to change
+   */
+  static void changing(File file) {
+    FrozenTree tree = open;
+    if (tree != null && file != null && file.getFrozenView() != tree.view) {
+      tree.keep(file);
+    }
+  }
+
+  /**
+   * Keeps what a file is, unless it was already kept or read.
+   *
+   * @param file  the file about to change
+   */
+  private synchronized void keep(File file) {
+    if (open == this && file.getFrozenView() != this.view) {
+      this.kept.put(file, new Node(file));
+      file.setFrozenView(this.view);
+    }
+  }
+
+  /**
+   * Reads a file as it was when the view was taken. Each file is read once;
+   * the view stops keeping it afterwards.
+   *
+   * @param file  the file, which was in the view
+   * @return      the file as it was
+   */
+  synchronized Node read(File file) {
+    Node node = this.kept.remove(file);
+    if (node == null) {
+      node = new Node(file);
+      file.setFrozenView(this.view);
+    }
+    this.read++;
+    return node;
+  }
+
+  /**
+   * Counts the files below a directory, and the directory, as they were when
+   * the view was taken, without reading them.
+   *
+   * @param top  the directory, which was in the view
+   * @return     the number of files
+   */
+  long count(Directory top) {
+    long count = 0;
+    ArrayDeque<File> files = new ArrayDeque<File>();
+    files.push(top);
+    while (!files.isEmpty()) {
+      File file = files.pop();
+      count++;
+      if (file instanceof Directory) {
+        for (File child : this.peekChildren((Directory) file)) {
+          files.push(child);
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the children a directory had when the view was taken, without
+   * reading it.
+   *
+   * @param directory  the directory, which was in the view
+   * @return           a copy of its children
+   */
+  private synchronized List<File> peekChildren(Directory directory) {
+    Node node = this.kept.get(directory);
+    return node != null ? node.getChildren() : directory.copyContents();
+  }
+
+  /**
+   * Returns the number of files read from the view so far.
+   *
+   * @return the number of files read
+   */
+  long getRead() {
+    return this.read;
+  }
+
+  /**
+   * Closes the view, forgetting every file it kept.
+   */
+  void close() {
+    synchronized (FrozenTree.class) {
+      if (open == this) {
+        open = null;
+      }
+    }
+    synchronized (this) {
+      this.kept.clear();
+    }
+  }
+}
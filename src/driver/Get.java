@@ -69,26 +69,25 @@ public class Get extends Command {
     // create a file name for the new file
     String fileName = address.substring(address.lastIndexOf('/') + 1,
         address.lastIndexOf('.'));
-    // create a new file
-    TextFile newFile = new TextFile(fileName, this.current, content);
-    // add file to be a child for the current directory
-    boolean done = false;
+    String baseName = fileName;
     int index = 1;
-    while (!done) {
-      try {
-        this.current.addContents(newFile);
-        done = true;
-        // change file name if file name contain invalid characters
-      } catch (InvalidFileNameException e) {
-        newFile.setFileName("newFile" + "_" + index);
-        index++;
-        done = false;
-        // change file name if the previous file name already exists
-      } catch (ExistingFileException e) {
-        newFile.setFileName(fileName + "_" + index);
-        index++;
-        done = false;
-      }
+    // change file name if file name contain invalid characters
+    if (!FileNameValidator.isValid(fileName)) {
+      baseName = "newFile";
+      fileName = baseName + "_" + index;
+      index++;
+    }
+    // change file name if the previous file name already exists
+    while (this.current.getChild(fileName) != null) {
+      fileName = baseName + "_" + index;
+      index++;
+    }
+    // create a new file and add it to be a child for the current directory
+    TextFile newFile = new TextFile(fileName, this.current, content);
+    try {
+      this.current.addContents(newFile);
+    } catch (InvalidFileNameException | ExistingFileException e) {
+      // the file name was already checked to be valid and unused
     }
     this.setPrintCommand(
         "get: file from " + address + " is named " + newFile.getFileName()
@@ -0,0 +1,74 @@
+package driver;
+
+import java.util.ArrayList;
+
+/**
+ * Represents the head command in the command line, which prints the first
+ * lines of its input, such as the output of the command before it in a
+ * pipeline. It stops reading once it has them, so the command before it can
+ * stop too.
+ *
+ * @author Shamayum Rashad
+ */
+public class Head extends Command {
+
+  /**
+   * the number of lines printed when none is given
+   */
+  static final int DEFAULT_LINES = 10;
+
+  /**
+   * Constructs an object to represent the head command on the command line.
+   */
+  public Head() {
+    super(true);
+  }
+
+  /**
+   * Executes the head command, printing the first lines of the input.
+   *
+   * @param arguments  the number of lines to print, if not the default
+   */
+  public void executeCommand(ArrayList<String> arguments) {
+
+    int lines = DEFAULT_LINES;
+    if (arguments.size() > 1) {
+      this.setError("head: too many arguments given");
+      lines = -1;
+    } else if (arguments.size() == 1) {
+      try {
+        lines = Integer.parseInt(arguments.get(0));
+      } catch (NumberFormatException e) {
+        lines = -1;
+      }
+      if (lines < 0) {
+        this.setError("head: invalid number of lines: " + arguments.get(0));
+      }
+    }
+
+    LineSource input = this.getInput();
+    if (lines < 0) {
+      // the arguments were wrong, so the input isn't read at all
+      if (input != null) {
+        input.close();
+      }
+    } else if (input == null) {
+      this.setError("head: no input given, use it after a | in a pipeline");
+    } else {
+      // print the lines asked for, with a line break between each line
+      for (int line = 0; line < lines; line++) {
+        String next = input.readLine();
+        if (next == null) {
+          lines = line;
+        } else {
+          if (line > 0) {
+            this.setPrintCommand("\n");
+          }
+          this.setPrintCommand(next);
+        }
+      }
+      // the command before doesn't have to write the rest
+      input.close();
+    }
+  }
+}
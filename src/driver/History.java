@@ -40,17 +40,17 @@ public class History extends Command {
 
     // if there is no argument given, give the whole command history
     if (arguments.size() == 0) {
-      this.setPrintCommand(historyTilNumber(historySize));
+      historyTilNumber(historySize);
     }
 
     // if there is one argument, give command history until the argument given
     else if ((arguments.size() == 1) && (arguments.get(0).matches("[0-9]+"))) {
       int historyTil = Integer.parseInt(arguments.get(0)); 
       if (historyTil < historySize) {
-        this.setPrintCommand(historyTilNumber(historyTil));
+        historyTilNumber(historyTil);
       }
       else {
-        this.setPrintCommand(historyTilNumber(historySize));
+        historyTilNumber(historySize);
       }
     }
 
@@ -66,32 +66,24 @@ public class History extends Command {
   }
 
   /**
-   * Returns the command history, from the most recent command to the number
-   * specified.
+   * Outputs the command history, the number specified of the most recent
+   * commands, from oldest to newest.
    * 
    * @param number  the amount of command history to give
-   * @return        the command history until the number
    */
-  private String historyTilNumber(int number) {
+  private void historyTilNumber(int number) {
 
-    String history = "";
-    int commandsAdded = 0;
-    int numberOfCommands = this.fileSystem.getCommandHistory().size();
+    ArrayList<String> commandHistory = this.fileSystem.getCommandHistory();
+    int firstCommand = commandHistory.size() - number;
 
-    // add command history from the array list to string with a newline
-    while (!(commandsAdded == number)) {
-      history = "\n" + String.valueOf(numberOfCommands)
-      + ". " + this.fileSystem.getCommandHistory().get(numberOfCommands - 1) +
-      history;
-      numberOfCommands--;
-      commandsAdded++;
-    }
-
-    if (history.length() > 0) {
-      history = history.substring(1);
+    // output each command with its number, with a newline between them
+    for (int i = firstCommand; i < commandHistory.size(); i++) {
+      if (i > firstCommand) {
+        this.setPrintCommand("\n");
+      }
+      this.setPrintCommand(String.valueOf(i + 1) + ". "
+          + commandHistory.get(i));
     }
-    // return the string history without the first newline
-    return history;
   }
 
   /**
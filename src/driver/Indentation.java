@@ -0,0 +1,60 @@
+package driver;
+
+/**
+ * Provides the tab indentation used when printing files as a tree. The
+ * prefixes for each depth are built once and reused, so printing a line only
+ * costs the length of its indentation.
+ *
+ * @author Jadin Luong
+ *
+ */
+public class Indentation {
+
+  /**
+   * Represents the prefixes built so far, where index i holds i tabs
+   */
+  private static volatile String[] tabs = buildTabs(64);
+
+  /**
+   * Returns a string made of the given number of tabs.
+   *
+   * @param depth represents the number of tabs
+   * @return a string of depth tabs
+   */
+  public static String tabs(int depth) {
+    String[] prefixes = tabs;
+    if (depth >= prefixes.length) {
+      prefixes = grow(depth);
+    }
+    return prefixes[depth];
+  }
+
+  /**
+   * Builds the prefixes up to at least the given depth.
+   *
+   * @param depth represents the deepest prefix needed
+   * @return the prefixes including the given depth
+   */
+  private static synchronized String[] grow(int depth) {
+    if (depth >= tabs.length) {
+      tabs = buildTabs(Math.max(depth + 1, tabs.length * 2));
+    }
+    return tabs;
+  }
+
+  /**
+   * Builds the given number of prefixes.
+   *
+   * @param count represents the number of prefixes to build
+   * @return prefixes where index i holds i tabs
+   */
+  private static String[] buildTabs(int count) {
+    String[] prefixes = new String[count];
+    StringBuilder prefix = new StringBuilder(count);
+    for (int i = 0; i < count; i++) {
+      prefixes[i] = prefix.toString();
+      prefix.append('\t');
+    }
+    return prefixes;
+  }
+}
@@ -8,6 +8,12 @@ import java.util.Iterator;
 /**
  * Represents the JFileSystem as a whole
  * 
+ * Sessions made by createSession share the files of the file system, but each
+ * has its own current directory, history and directory stack, so several
+ * users can work on the same files at once (see ShellServer). Once a session
+ * replaces the root, e.g. by loading a saved file system, the other sessions
+ * go back to the new root and empty their directory stacks.
+ * 
  * @author Jadin Luong
  *
  */
@@ -26,9 +32,22 @@ public class JFileSystem
   private static JFileSystem fileSystemRef = null;
 
   /**
-   * Represents the root directory of the file system
+   * Represents the root directory of the file system, or null for a session
+   * sharing the root of another file system
+   */
+  private volatile Directory root;
+
+  /**
+   * Represents the file system a session shares its files with, or null if
+   * this is not a session
+   */
+  private final transient JFileSystem shared;
+
+  /**
+   * Represents the number of times the root was replaced, as last seen by a
+   * session
    */
-  private Directory root;
+  private volatile long rootGeneration = 0;
 
   /**
    * Represents the current directory the user is currently working in
@@ -50,11 +69,26 @@ public class JFileSystem
    */
   private JFileSystem() {
     this.root = new Directory("/", null);
+    this.shared = null;
     this.currentDirectory = root;
     this.history = new ArrayList<String>();
     this.directoryStack = new DirectoryStack();
   }
 
+  /**
+   * Creates a session sharing the files of another file system.
+   * 
+   * @param shared represents the file system whose files are shared
+   */
+  private JFileSystem(JFileSystem shared) {
+    this.root = null;
+    this.shared = shared;
+    this.rootGeneration = shared.rootGeneration;
+    this.currentDirectory = shared.getRoot();
+    this.history = new ArrayList<String>();
+    this.directoryStack = new DirectoryStack();
+  }
+
   /**
    * Creates a single instance of a JFileSystem for singleton principle purposes
    * 
@@ -67,13 +101,23 @@ public class JFileSystem
     return fileSystemRef;
   }
 
+  /**
+   * Creates a session working on the files of this file system, starting at
+   * the root with an empty history and directory stack.
+   * 
+   * @return a new session sharing the files of this file system
+   */
+  public JFileSystem createSession() {
+    return new JFileSystem(this.shared == null ? this : this.shared);
+  }
+
   /**
    * Returns the root of the JFileSystem.
    * 
    * @return the root of the JFileSystem.
    */
   public Directory getRoot() {
-    return this.root;
+    return this.shared == null ? this.root : this.shared.getRoot();
   }
 
   /**
@@ -82,7 +126,19 @@ public class JFileSystem
    * @param newRoot represents a new root for the file system
    */
   public void setRoot(Directory newRoot) {
-    this.root = newRoot;
+    if (this.shared != null) {
+      this.shared.setRoot(newRoot);
+      // only the other sessions have to go back to the new root
+      this.rootGeneration = this.shared.rootGeneration;
+    } else {
+      this.root = newRoot;
+      this.rootGeneration++;
+      // a loaded file system needs its own name index
+      NameIndex.clear();
+      // changes are only tracked for the file system that was saved
+      ChangeTracker.reset();
+      PathCache.invalidate();
+    }
   }
 
   /**
@@ -100,6 +156,7 @@ public class JFileSystem
    * @return the current working directory of the JFilesystem.
    */
   public Directory getCurrentDirectory() {
+    this.followRoot();
     return this.currentDirectory;
   }
 
@@ -146,9 +203,23 @@ public class JFileSystem
    * @return a stack of directories.
    */
   public DirectoryStack getDirectoryStack() {
+    this.followRoot();
     return this.directoryStack;
   }
 
+  /**
+   * Goes back to the root and empties the directory stack if another session
+   * replaced the root since this session last looked.
+   */
+  private void followRoot() {
+    if (this.shared != null
+        && this.rootGeneration != this.shared.rootGeneration) {
+      this.rootGeneration = this.shared.rootGeneration;
+      this.currentDirectory = this.shared.getRoot();
+      this.directoryStack = new DirectoryStack();
+    }
+  }
+
 
   /**
    * For serialization of JFileSystem so that the singleton pattern is not
@@ -170,7 +241,19 @@ public class JFileSystem
    * @return a string representation of the files within the file system.
    */
   public String toString() {
-    return root.toString();
+    return this.getRoot().toString();
+  }
+
+  /**
+   * Returns a walk over every file in the file system, starting from the root.
+   * Unlike next(), the walk does not depend on or change the current working
+   * directory.
+   * 
+   * @param order represents the order the files are visited in
+   * @return a walk over the files of the file system
+   */
+  public FileTraversal traverse(FileTraversal.Order order) {
+    return new FileTraversal(this.getRoot(), order);
   }
 
   /**
@@ -182,58 +265,37 @@ public class JFileSystem
     // Retrieve the current file and it's parent
     File currFile = this.getCurrentDirectory();
     Directory currParentDir = currFile.getParentDir();
-    // Check if the current file is last directory in the file system or the
-    // file system contains just the root directory
-    if ((currFile.equals(this.getRoot())
-        && ((Directory) currFile).getContents().size() == 0)
-        || currFile.equals(this.getLastFileInFileSystem())) {
-      currFile = null;
+    if (((Directory) currFile).getContents().size() > 0) {
+      // Go to the first child if the current directory has children
+      currFile = ((Directory) currFile).getContents().get(0);
     } else {
-      // If the current directory does not have any child then traverse to the
-      // next directory in pre order traversal
-      if (((Directory) currFile).getContents().size() == 0) {
-        while (currParentDir.getContents()
-            .indexOf(currFile) == currParentDir.getContents().size() - 1) {
-          currFile = currParentDir;
-          currParentDir = currFile.getParentDir();
-        }
-        // Get the index of the next directory in the file system
+      // Climb up past every directory that is the last child of its parent
+      while (currParentDir != null
+          && this.isLastChild(currParentDir.getContents(), currFile)) {
+        currFile = currParentDir;
+        currParentDir = currFile.getParentDir();
+      }
+      // Reaching the root means the current file is the last in the system
+      if (currParentDir == null) {
+        currFile = null;
+      } else {
         int indexOfcurrFile = currParentDir.getContents().indexOf(currFile);
         currFile = currParentDir.getContents().get(indexOfcurrFile + 1);
-      } else {
-        // Go to the first child if the current directory has children
-        currFile = ((Directory) currFile).getContents().get(0);
       }
     }
     return currFile;
   }
 
   /**
-   * A helper method for the next() method which returns the last file in the
-   * file system in pre-order.
+   * A helper method for the next() method which checks whether a file is the
+   * last child of its parent.
    * 
-   * @return a File that is at the end of the file system.
+   * @param siblings represents the contents of the parent of the file
+   * @param file represents the file being checked
+   * @return true if the file is the last of its siblings, false otherwise
    */
-  private File getLastFileInFileSystem() {
-    // Get the last child out of the root's contents (children)
-    ArrayList<File> rootContents = this.getRoot().getContents();
-    File lastFile = rootContents.get(rootContents.size() - 1);
-    // Will determine whether the last file was found.
-    boolean foundLastFile = false;
-    // Iterate through the file System in pre order until last file is found
-    while (!foundLastFile) {
-      if (lastFile instanceof Directory) {
-        if (((Directory) lastFile).getContents().size() > 0) {
-          lastFile = ((Directory) lastFile).getContents()
-              .get(((Directory) lastFile).getContents().size() - 1);
-        } else {
-          foundLastFile = true;
-        }
-      } else {
-        foundLastFile = true;
-      }
-    }
-    return lastFile;
+  private boolean isLastChild(ArrayList<File> siblings, File file) {
+    return siblings.get(siblings.size() - 1) == file;
   }
 
   /**
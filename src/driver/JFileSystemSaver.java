@@ -1,118 +1,592 @@
-package driver;
-
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.util.ArrayList;
-import java.util.HashMap;
-
-/**
- * The JFileSystem saver.
- * 
- * @author Shamayum Rashad
- *
- */
-public class JFileSystemSaver implements FileSystemSaver{
-
-  /**
-   * Default constructor for JFileSystemSaver.
-   */
-  public JFileSystemSaver() { 
-  }
-
-  
-  /**
-   * Saves the JFileSystem instance to a file names fileName.
-   * 
-   * @param fileName  the name of the file that will store the file system
-   * @param fileSys   the file system that will be saved
-   * @return          any errors that result
-   */
-  @Override
-  public String saveFileSystem(String fileName, FileSystem<Directory> fileSys) {
-
-    String errors = "";
-
-    // add the file system components to a hashmap to be saved to the file
-    HashMap<String, Object> savedObjects = new HashMap<String, Object>();
-    savedObjects.put("root", fileSys.getRoot());
-    savedObjects.put("currentDirectory",
-        fileSys.getCurrentDirectory());
-    savedObjects.put("history", fileSys.getCommandHistory());
-    savedObjects.put("directoryStack",
-        ((JFileSystem)fileSys).getDirectoryStack());
-    try {
-      // save the hashmap to the file
-      FileOutputStream fileOut = new FileOutputStream(fileName);
-      ObjectOutputStream objOutput = new ObjectOutputStream(fileOut);
-      objOutput.writeObject(savedObjects);
-      objOutput.close();
-      fileOut.close();
-      // give appropriate errors for any exceptions
-    } catch (FileNotFoundException e) {
-      errors = "The filePath: " + fileName
-          + " exists but is a directory rather than a regular file"
-          + "The filePath: " + fileName
-          + "\nDoes not exist but cannot be created" + "The filePath: "
-          + fileName + "\nOr cannot be opened for any other reason ";
-    } catch (IOException e) {
-      errors = "An I/O error occurs while writing stream header";
-    } catch (SecurityException e) {
-      errors = 
-          "untrusted subclass illegally overrides security-sensitive methods";
-    } catch (NullPointerException e) {
-      errors = "Input of the ObjectOutputStream constructor is null";
-    }
-
-    return errors;
-  }
-
-  /**
-   * Loads the saved JFileSystem in the file fileName to the file system.
-   * 
-   * @param fileName  the name of the file that stores the saved file system
-   * @param fileSys   the file system that will be overloaded
-   * @return          any errors that result
-   */
-  @SuppressWarnings("unchecked")
-  @Override
-  public String getSavedFileSystem(String fileName, 
-      FileSystem<Directory> fileSys) {
-
-    String errors = "";
-    String loadInput = fileSys.getCommandHistory().get(0).substring(3);
-    
-    // get the saved file system from the file given
-    try {
-      FileInputStream inputFile = new FileInputStream(fileName);
-      ObjectInputStream inputObject = new ObjectInputStream(inputFile);
-      // change the current file system to the saved file system
-      try {
-        HashMap<String, Object> serializedData =
-            (HashMap<String, Object>) inputObject.readObject();
-        ((JFileSystem)fileSys).setCommandHistory(
-            (ArrayList<String>) serializedData.get("history"));
-        fileSys.setCurrentDirectory(
-            (Directory) serializedData.get("currentDirectory"));
-        ((JFileSystem)fileSys).setDirectoryStack(
-            (DirectoryStack) serializedData.get("directoryStack"));
-        fileSys.setRoot((Directory) serializedData.get("root"));
-        // add the load input to the command history of the loaded file system
-        fileSys.addToHistory(loadInput);
-        // give appropriate errors for any exceptions
-      } catch (FileNotFoundException e1) {
-        errors = fileName + ": file not found";
-      } catch (ClassNotFoundException e2) {
-        errors = fileName + ": does not store a loadable object";
-      }
-      inputFile.close();
-      inputObject.close();
-    } catch (IOException e) {
-      errors = fileName + ": not an appropriate file";
-    }
-    return errors;
-  }
-}
+package driver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * The JFileSystem saver. File systems are saved in the binary snapshot format
+ * unless the serialized format is asked for; loading tells the two apart by
+ * the first bytes of the file. A binary snapshot that was just saved or loaded
+ * can be brought up to date by appending only what changed since, and
+ * compacted back into a single snapshot later. A binary snapshot can also be
+ * saved in the background while the shell keeps being used.
+ * 
+ * The contents of text files in a binary snapshot are encoded with a codec
+ * when that makes them smaller (see BlockEncoder), Deflate unless the
+ * jshell.codec property names another registered codec or "none".
+ * 
+ * @author Shamayum Rashad
+ *
+ */
+public class JFileSystemSaver implements FileSystemSaver{
+
+  /**
+   * The formats a file system can be saved in.
+   */
+  public enum Format {
+    /**
+     * the file system objects written with Java serialization
+     */
+    SERIALIZED,
+    /**
+     * the compact binary snapshot written by BinarySnapshot
+     */
+    BINARY
+  }
+
+  /**
+   * the size of the buffers used when saving and loading
+   */
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /**
+   * the format file systems are saved in
+   */
+  private final Format format;
+
+  /**
+   * the codec the contents of text files are encoded with, or null
+   */
+  private final BlockCodec codec;
+
+  /**
+   * how the last save or load went, or an empty string
+   */
+  private volatile String statistics = "";
+
+  /**
+   * Default constructor for JFileSystemSaver, saving in the binary format.
+   */
+  public JFileSystemSaver() { 
+    this(Format.BINARY);
+  }
+
+  /**
+   * Constructs a JFileSystemSaver saving in the given format, with the codec
+   * the jshell.codec property names.
+   * 
+   * @param format  the format file systems are saved in
+   */
+  public JFileSystemSaver(Format format) {
+    this(format, getDefaultCodec());
+  }
+
+  /**
+   * Constructs a JFileSystemSaver saving in the given format, with the given
+   * codec.
+   * 
+   * @param format  the format file systems are saved in
+   * @param codec   the codec the contents of text files are encoded with in
+   *                binary snapshots, or null to write them as they are
+   */
+  public JFileSystemSaver(Format format, BlockCodec codec) {
+    this.format = format;
+    this.codec = codec;
+  }
+
+  /**
+   * Returns the codec the jshell.codec property names.
+   * 
+   * @return  the codec, or null if the property is "none"
+   */
+  private static BlockCodec getDefaultCodec() {
+    String name = System.getProperty("jshell.codec", "deflate");
+    BlockCodec codec = BlockCodecs.forName(name);
+    if (codec == null && !name.equals("none")) {
+      codec = BlockCodecs.DEFLATE;
+    }
+    return codec;
+  }
+
+  /**
+   * Returns the codec the contents of text files are encoded with.
+   * 
+   * @return  the codec, or null if they are written as they are
+   */
+  public BlockCodec getCodec() {
+    return this.codec;
+  }
+
+  /**
+   * Returns how the last binary snapshot saved or loaded by the saver went:
+   * its size, how much smaller the codec made it and how fast it was written
+   * or read.
+   * 
+   * @return  the statistics of the last save or load, or an empty string
+   */
+  public String getStatistics() {
+    return this.statistics;
+  }
+
+  /**
+   * Saves the JFileSystem instance to a file names fileName.
+   * 
+   * @param fileName  the name of the file that will store the file system
+   * @param fileSys   the file system that will be saved
+   * @return          any errors that result
+   */
+  @Override
+  public String saveFileSystem(String fileName, FileSystem<Directory> fileSys) {
+    return this.save(fileName, fileSys, false);
+  }
+
+  /**
+   * Saves the JFileSystem instance to a file named fileName, only appending
+   * what changed if the file holds the binary snapshot the file system was
+   * last saved to or loaded from.
+   * 
+   * @param fileName  the name of the file that will store the file system
+   * @param fileSys   the file system that will be saved
+   * @return          any errors that result
+   */
+  @Override
+  public String saveIncrementally(String fileName,
+      FileSystem<Directory> fileSys) {
+    return this.save(fileName, fileSys, true);
+  }
+
+  /**
+   * Helper for saveFileSystem and saveIncrementally.
+   * 
+   * @param fileName     the name of the file that will store the file system
+   * @param fileSys      the file system that will be saved
+   * @param incremental  whether only the changes may be appended to the file
+   * @return             any errors that result
+   */
+  private String save(String fileName, FileSystem<Directory> fileSys,
+      boolean incremental) {
+
+    String errors = "";
+
+    try {
+      Path target = Paths.get(fileName).toAbsolutePath().normalize();
+      if (this.format == Format.BINARY && incremental
+          && Files.isRegularFile(target)
+          && ChangeTracker.isTracking(target.toString(), Files.size(target),
+              fileSys.getRoot())) {
+        this.appendDelta(target, fileSys);
+      } else if (this.format == Format.BINARY) {
+        this.saveBinary(fileName, fileSys);
+      } else {
+        FileOutputStream fileOut = new FileOutputStream(fileName);
+        this.saveSerialized(fileOut, fileSys);
+        fileOut.close();
+      }
+      // give appropriate errors for any exceptions
+    } catch (FileNotFoundException e) {
+      errors = "The filePath: " + fileName
+          + " exists but is a directory rather than a regular file"
+          + "The filePath: " + fileName
+          + "\nDoes not exist but cannot be created" + "The filePath: "
+          + fileName + "\nOr cannot be opened for any other reason ";
+    } catch (IOException e) {
+      errors = "An I/O error occurs while writing stream header";
+    } catch (InvalidPathException e) {
+      errors = fileName + ": not a valid file name";
+    } catch (SecurityException e) {
+      errors = 
+          "untrusted subclass illegally overrides security-sensitive methods";
+    } catch (NullPointerException e) {
+      errors = "Input of the ObjectOutputStream constructor is null";
+    }
+
+    return errors;
+  }
+
+  /**
+   * Saves the file system as a binary snapshot. The snapshot is written next
+   * to the file and then moved over it, so a file system loaded with its text
+   * still mapped from the old file keeps reading the old file.
+   * 
+   * @param fileName  the name of the file that will store the file system
+   * @param fileSys   the file system that will be saved
+   * @throws IOException  exception when the file can't be written
+   */
+  private void saveBinary(String fileName, FileSystem<Directory> fileSys)
+      throws IOException {
+
+    Path target = Paths.get(fileName);
+    Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+    long start = System.nanoTime();
+    BlockEncoder blocks = new BlockEncoder(this.codec);
+    DataOutputStream dataOutput = new DataOutputStream(new BufferedOutputStream(
+        new FileOutputStream(temporary.toFile()), BUFFER_SIZE));
+    try {
+      BinarySnapshot.write(dataOutput, (JFileSystem) fileSys, blocks);
+      dataOutput.close();
+      replace(temporary, target);
+    } catch (IOException e) {
+      dataOutput.close();
+      Files.deleteIfExists(temporary);
+      // the files were marked as saved to a snapshot that wasn't written
+      ChangeTracker.reset();
+      // the file can't be replaced, e.g. because it is a directory
+      throw new FileNotFoundException(e.getMessage());
+    }
+    Path saved = target.toAbsolutePath().normalize();
+    long size = Files.size(saved);
+    this.statistics = describeSave(blocks, size, System.nanoTime() - start);
+    ChangeTracker.saved(saved.toString(), size, fileSys.getRoot(),
+        fileSys.getCommandHistory().size());
+  }
+
+  /**
+   * Describes a save: the bytes written, the bytes the codec and shared blocks
+   * saved and how fast the file system was written.
+   * 
+   * @param blocks   the encoder the contents of text files were written with
+   * @param written  the number of bytes written
+   * @param nanos    how long the save took, in nanoseconds
+   * @return         the statistics of the save
+   */
+  private static String describeSave(BlockEncoder blocks, long written,
+      long nanos) {
+    long unencoded =
+        written - blocks.getWrittenBytes() + blocks.getBlockBytes();
+    return String.format("save: %d bytes, %d before encoding (%.2fx, %d "
+        + "blocks encoded, %d shared), in %.1f ms (%.1f MB/s)", written,
+        unencoded, unencoded / (double) Math.max(written, 1),
+        blocks.getEncodedBlocks(), blocks.getSharedBlocks(), nanos / 1e6,
+        unencoded / 1e6 / Math.max(nanos / 1e9, 1e-9));
+  }
+
+  /**
+   * Appends what changed since the file system was last saved to or loaded
+   * from the binary snapshot in the file.
+   * 
+   * @param target   the file that stores the snapshot
+   * @param fileSys  the file system that will be saved
+   * @throws IOException  exception when the file can't be written
+   */
+  private void appendDelta(Path target, FileSystem<Directory> fileSys)
+      throws IOException {
+
+    long start = System.nanoTime();
+    long before = Files.size(target);
+    BlockEncoder blocks = new BlockEncoder(this.codec);
+    DataOutputStream dataOutput = new DataOutputStream(new BufferedOutputStream(
+        new FileOutputStream(target.toFile(), true), BUFFER_SIZE));
+    try {
+      BinarySnapshot.writeDelta(dataOutput, (JFileSystem) fileSys,
+          ChangeTracker.getHistorySize(), ChangeTracker.getChanged(), blocks);
+      dataOutput.close();
+    } catch (IOException e) {
+      dataOutput.close();
+      // a partly written delta is ignored, but the next save has to be whole
+      ChangeTracker.reset();
+      throw e;
+    }
+    long size = Files.size(target);
+    this.statistics =
+        describeSave(blocks, size - before, System.nanoTime() - start);
+    ChangeTracker.saved(target.toString(), size, fileSys.getRoot(),
+        fileSys.getCommandHistory().size());
+  }
+
+  /**
+   * Compacts the binary snapshot in the file fileName, applying every delta
+   * appended to it and writing the result as a single snapshot.
+   * 
+   * @param fileName  the name of the file that stores the snapshot
+   * @return          any errors that result
+   */
+  @Override
+  public String compact(String fileName) {
+
+    String errors = "";
+
+    try {
+      Path target = Paths.get(fileName);
+      Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+      DataInputStream dataInput = new DataInputStream(new BufferedInputStream(
+          new FileInputStream(fileName), BUFFER_SIZE));
+      BinarySnapshot snapshot = null;
+      try {
+        if (dataInput.readInt() == BinarySnapshot.MAGIC) {
+          snapshot = BinarySnapshot.read(dataInput, null);
+        }
+      } finally {
+        dataInput.close();
+      }
+      if (snapshot == null) {
+        errors = fileName + ": not a binary snapshot";
+      } else {
+        DataOutputStream dataOutput = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(temporary.toFile()),
+                BUFFER_SIZE));
+        try {
+          snapshot.write(dataOutput, new BlockEncoder(this.codec));
+          dataOutput.close();
+          replace(temporary, target);
+        } catch (IOException e) {
+          dataOutput.close();
+          Files.deleteIfExists(temporary);
+          throw e;
+        }
+        // the snapshot holds the same file system, so changes since it was
+        // saved can still be appended to it
+        Path compacted = target.toAbsolutePath().normalize();
+        ChangeTracker.compacted(compacted.toString(), Files.size(compacted));
+      }
+    } catch (FileNotFoundException e) {
+      errors = fileName + ": file not found";
+    } catch (IOException e) {
+      errors = fileName + ": not an appropriate file";
+    } catch (InvalidPathException e) {
+      errors = fileName + ": not a valid file name";
+    }
+    return errors;
+  }
+
+  /**
+   * Starts saving the JFileSystem instance to a file named fileName in the
+   * background, as a binary snapshot of the file system as it is now. The
+   * shell can keep changing the file system while it is written.
+   * 
+   * @param fileName  the name of the file that will store the file system
+   * @param fileSys   the file system that will be saved
+   * @return          any errors starting the save
+   */
+  @Override
+  public String saveInBackground(String fileName,
+      FileSystem<Directory> fileSys) {
+
+    String errors;
+    try {
+      Path target = Paths.get(fileName).toAbsolutePath().normalize();
+      if (this.format != Format.BINARY) {
+        errors = "Save: only binary snapshots can be saved in the background";
+      } else if (Files.isDirectory(target)) {
+        errors = "The filePath: " + fileName
+            + " exists but is a directory rather than a regular file";
+      } else {
+        errors = BackgroundSave.start(fileName, target, (JFileSystem) fileSys,
+            new BlockEncoder(this.codec));
+      }
+    } catch (InvalidPathException e) {
+      errors = fileName + ": not a valid file name";
+    }
+    return errors;
+  }
+
+  /**
+   * Returns how far the last save started in the background got.
+   * 
+   * @return          whether the save is running, how far it got, or how it
+   *                  finished
+   */
+  @Override
+  public String getBackgroundStatus() {
+    return BackgroundSave.getStatus();
+  }
+
+  /**
+   * Waits for the last save started in the background to finish.
+   * 
+   * @param millis  the longest time to wait, in milliseconds, or 0 to wait
+   *                until it finishes
+   * @return        true if no save is running in the background any more
+   * @throws InterruptedException  exception when the wait is interrupted
+   */
+  public boolean awaitBackgroundSave(long millis)
+      throws InterruptedException {
+    return BackgroundSave.await(millis);
+  }
+
+  /**
+   * Moves a file that was just written over the file it replaces, atomically
+   * if the file system allows it.
+   * 
+   * @param temporary  the file that was written
+   * @param target     the file being replaced
+   * @throws IOException  exception when the file can't be replaced
+   */
+  static void replace(Path temporary, Path target) throws IOException {
+    try {
+      Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Saves the file system objects with Java serialization.
+   * 
+   * @param fileOut  the stream of the file that will store the file system
+   * @param fileSys  the file system that will be saved
+   * @throws IOException  exception when the file can't be written
+   */
+  private void saveSerialized(FileOutputStream fileOut,
+      FileSystem<Directory> fileSys) throws IOException {
+
+    // add the file system components to a hashmap to be saved to the file
+    HashMap<String, Object> savedObjects = new HashMap<String, Object>();
+    savedObjects.put("root", fileSys.getRoot());
+    savedObjects.put("currentDirectory",
+        fileSys.getCurrentDirectory());
+    savedObjects.put("history", fileSys.getCommandHistory());
+    savedObjects.put("directoryStack",
+        ((JFileSystem)fileSys).getDirectoryStack());
+    // save the hashmap to the file
+    ObjectOutputStream objOutput = new ObjectOutputStream(
+        new BufferedOutputStream(fileOut, BUFFER_SIZE));
+    objOutput.writeObject(savedObjects);
+    objOutput.close();
+  }
+
+  /**
+   * Loads the saved JFileSystem in the file fileName to the file system.
+   * 
+   * @param fileName  the name of the file that stores the saved file system
+   * @param fileSys   the file system that will be overloaded
+   * @return          any errors that result
+   */
+  @Override
+  public String getSavedFileSystem(String fileName, 
+      FileSystem<Directory> fileSys) {
+
+    String errors = "";
+    String loadInput = fileSys.getCommandHistory().get(0).substring(3);
+    
+    // get the saved file system from the file given
+    try {
+      FileInputStream inputFile = new FileInputStream(fileName);
+      BufferedInputStream input =
+          new BufferedInputStream(inputFile, BUFFER_SIZE);
+      DataInputStream dataInput = new DataInputStream(input);
+      // the first bytes tell which format the file was saved in
+      input.mark(Integer.BYTES);
+      boolean binary = dataInput.readInt() == BinarySnapshot.MAGIC;
+      // change the current file system to the saved file system
+      try {
+        if (binary) {
+          this.loadBinary(fileName, dataInput, null, fileSys);
+        } else {
+          input.reset();
+          this.loadSerialized(input, fileSys);
+        }
+        // add the load input to the command history of the loaded file system
+        fileSys.addToHistory(loadInput);
+        // give appropriate errors for any exceptions
+      } catch (ClassNotFoundException e2) {
+        errors = fileName + ": does not store a loadable object";
+      }
+      dataInput.close();
+    } catch (FileNotFoundException e1) {
+      errors = fileName + ": file not found";
+    } catch (IOException e) {
+      errors = fileName + ": not an appropriate file";
+    }
+    return errors;
+  }
+
+  /**
+   * Loads the saved JFileSystem in the file fileName to the file system,
+   * mapping the file into memory and leaving the contents of text files in it
+   * until they are read. Files saved with serialization are loaded whole.
+   * 
+   * @param fileName  the name of the file that stores the saved file system
+   * @param fileSys   the file system that will be overloaded
+   * @return          any errors that result
+   */
+  @Override
+  public String getMappedFileSystem(String fileName,
+      FileSystem<Directory> fileSys) {
+
+    String errors = "";
+    String loadInput = fileSys.getCommandHistory().get(0).substring(3);
+
+    try {
+      MappedSnapshot mapping = new MappedSnapshot(fileName);
+      // read straight from the mapping, so its position is the stream's
+      DataInputStream dataInput = new DataInputStream(mapping);
+      if (mapping.available() >= Integer.BYTES
+          && dataInput.readInt() == BinarySnapshot.MAGIC) {
+        this.loadBinary(fileName, dataInput, mapping, fileSys);
+        fileSys.addToHistory(loadInput);
+      } else {
+        errors = this.getSavedFileSystem(fileName, fileSys);
+      }
+    } catch (NoSuchFileException e1) {
+      errors = fileName + ": file not found";
+    } catch (IOException e) {
+      errors = fileName + ": not an appropriate file";
+    }
+    return errors;
+  }
+
+  /**
+   * Loads a binary snapshot and its deltas, and tracks the changes made to the
+   * file system from then on so they can be appended to the snapshot.
+   * 
+   * @param fileName   the name of the file that stores the snapshot
+   * @param dataInput  the stream of the file, after the magic
+   * @param mapping    the mapped snapshot dataInput reads from, or null
+   * @param fileSys    the file system that will be overloaded
+   * @throws IOException  exception when the file can't be read
+   */
+  private void loadBinary(String fileName, DataInputStream dataInput,
+      MappedSnapshot mapping, FileSystem<Directory> fileSys)
+      throws IOException {
+
+    // the files read aren't changes to the file system being replaced
+    ChangeTracker.reset();
+    long start = System.nanoTime();
+    BinarySnapshot snapshot = BinarySnapshot.read(dataInput, mapping);
+    snapshot.restore((JFileSystem) fileSys);
+    long nanos = System.nanoTime() - start;
+    Path loaded = Paths.get(fileName).toAbsolutePath().normalize();
+    long size = Files.size(loaded);
+    this.statistics = String.format("load: %d bytes in %.1f ms (%.1f MB/s)",
+        size, nanos / 1e6, size / 1e6 / Math.max(nanos / 1e9, 1e-9));
+    // a partly written delta, or an older version, has to be overwritten by a
+    // whole snapshot
+    ChangeTracker.saved(loaded.toString(),
+        snapshot.isTorn() || snapshot.getVersion() < BinarySnapshot.VERSION
+            ? -1 : size,
+        fileSys.getRoot(), fileSys.getCommandHistory().size());
+  }
+
+  /**
+   * Loads file system objects saved with Java serialization.
+   * 
+   * @param input    the stream of the file that stores the saved file system
+   * @param fileSys  the file system that will be overloaded
+   * @throws IOException  exception when the file can't be read
+   * @throws ClassNotFoundException  exception when a saved class is unknown
+   */
+  @SuppressWarnings("unchecked")
+  private void loadSerialized(BufferedInputStream input,
+      FileSystem<Directory> fileSys)
+      throws IOException, ClassNotFoundException {
+
+    ObjectInputStream inputObject = new ObjectInputStream(input);
+    HashMap<String, Object> serializedData =
+        (HashMap<String, Object>) inputObject.readObject();
+    ((JFileSystem)fileSys).setCommandHistory(
+        (ArrayList<String>) serializedData.get("history"));
+    fileSys.setCurrentDirectory(
+        (Directory) serializedData.get("currentDirectory"));
+    ((JFileSystem)fileSys).setDirectoryStack(
+        (DirectoryStack) serializedData.get("directoryStack"));
+    fileSys.setRoot((Directory) serializedData.get("root"));
+  }
+}
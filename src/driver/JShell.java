@@ -1,88 +1,309 @@
 package driver;
 
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
 
 /**
  * Represents the command line. Users can input in commands to manipulate the
- * file system.
+ * file system. Commands separated by | run together as a pipeline, each
+ * reading the output of the one before it (see Pipeline).
+ * 
+ * With the jshell.journal property set to a file, every command is also
+ * written to that journal, and a shell started with the same journal picks up
+ * where the last one stopped, even if it stopped without saving.
+ * 
+ * Started with -f and a script, the shell runs the commands in the script
+ * instead, and with more than one -f it runs each script in turn. The same
+ * happens with the commands piped into the shell when its input isn't a
+ * terminal, unless it is started with -i. Scripts run in batch mode: there
+ * is no prompt, output is only written out when the buffer fills up or every
+ * FLUSH_INTERVAL milliseconds, and the time each script took is reported on
+ * the standard error.
  * 
  * @author Shamayum Rashad
  * 
  */
 public class JShell {
 
+  /**
+   * the size of the buffer input is read through, in characters
+   */
+  private static final int INPUT_BUFFER_SIZE = 1 << 16;
+
+  /**
+   * the longest time output is held in batch mode, in milliseconds
+   */
+  private static final long FLUSH_INTERVAL = 200;
+
+  /**
+   * the prompt shown before each command in interactive mode
+   */
+  private static final String PROMPT = "/#: ";
+
   public static void main(String[] args) {
 
+    // find the scripts to run, if any
+    ArrayList<String> scripts = new ArrayList<String>();
+    boolean interactive = System.console() != null;
+    for (int index = 0; index < args.length; index++) {
+      if (args[index].equals("-f") && index + 1 < args.length) {
+        scripts.add(args[++index]);
+      } else if (args[index].equals("-i")) {
+        interactive = true;
+      } else {
+        System.err.println("usage: JShell [-i] [-f script]...");
+        System.exit(2);
+      }
+    }
+
     // create the File System program and objects needed to start program
     FileSystem<Directory> fileSystem =
         JFileSystem.createInstanceOfJFileSystem();
-    ArrayList<String> arguments;
-    Command specificCommand;
-
-    // prompt user for input and parse through the input
-    String userInput;
-    Scanner in = new Scanner(System.in);
-    System.out.print("/#: ");
-    userInput = in.nextLine();
+    // command output is streamed to the shell through a buffer
+    StandardOutputSink standardOutput = new StandardOutputSink(System.out);
+
+    // with a journal, pick up where the last shell using it stopped
+    SessionJournal journal = new SessionJournal(fileSystem);
+    String journalPath = System.getProperty("jshell.journal");
+    if (journalPath != null) {
+      String recovered = journal.open(journalPath, new JFileSystemSaver());
+      if (!recovered.isEmpty()) {
+        standardOutput.write(recovered + "\n");
+      }
+    }
+
+    if (scripts.isEmpty()) {
+      run("standard input", System.in, !interactive, fileSystem,
+          standardOutput, journal);
+    }
+    // run each script until one of them exits
+    for (int index = 0; index < scripts.size(); index++) {
+      try {
+        if (!run(scripts.get(index), new FileInputStream(scripts.get(index)),
+            true, fileSystem, standardOutput, journal)) {
+          index = scripts.size();
+        }
+      } catch (IOException e) {
+        standardOutput.write(scripts.get(index) + ": cannot read script\n");
+      }
+    }
+    String journalErrors = journal.close();
+    if (!journalErrors.isEmpty()) {
+      standardOutput.write(journalErrors + "\n");
+    }
+    standardOutput.flush();
+    awaitBackgroundSave();
+  }
+
+  /**
+   * Waits for a save started in the background to finish, so the shell
+   * doesn't exit while the file is half written.
+   */
+  private static void awaitBackgroundSave() {
+    FileSystemSaver saver = CommandRegistry.getSaver();
+    if (saver instanceof JFileSystemSaver) {
+      try {
+        ((JFileSystemSaver) saver).awaitBackgroundSave(0);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Reads commands and executes them until the input ends or the exit command
+   * is given. Everything, error messages included, is written to the output
+   * sink, so it stays in order however long the sink holds it.
+   * 
+   * @param name the name of the input, for the report in batch mode
+   * @param input where the commands are read from, closed afterwards
+   * @param batch true to run without prompts, holding output and reporting
+   *        the time taken, false to prompt for each command
+   * @param fileSystem the file system the commands work on
+   * @param output where the output of the commands is written
+   * @param journal the journal every command is recorded in
+   * @return false if the exit command was given, true if the input ended
+   */
+  static boolean run(String name, InputStream input, boolean batch,
+      FileSystem<Directory> fileSystem, StandardOutputSink output,
+      SessionJournal journal) {
+
+    long start = System.nanoTime();
+    long lastFlush = start;
+    long commands = 0;
+    boolean ended = false;
+    boolean exited = false;
+    BufferedReader in = new BufferedReader(new InputStreamReader(input),
+        INPUT_BUFFER_SIZE);
+
+    try {
+      /*
+       * until user inputs the exit program command, continue to prompt the
+       * user for commands and execute the commands
+       */
+      while (!ended && !exited) {
+        // prompt the user for commands and parse through the input
+        if (!batch) {
+          output.writePrompt(PROMPT);
+          output.flush();
+        }
+        String userInput = in.readLine();
+        if (userInput == null) {
+          ended = true;
+        } else {
+          exited = execute(userInput, fileSystem, output, journal);
+          commands += exited ? 0 : 1;
+          long now = System.nanoTime();
+          if (!batch || now - lastFlush > FLUSH_INTERVAL * 1000000) {
+            output.flush();
+            lastFlush = now;
+          }
+        }
+      }
+      in.close();
+    } catch (IOException e) {
+      output.write(name + ": cannot read commands\n");
+    }
+    output.flush();
+
+    if (batch) {
+      double seconds = (System.nanoTime() - start) / 1e9;
+      System.err.println(String.format("%s: %d commands in %.3f s (%.0f "
+          + "commands/s)", name, commands, seconds,
+          seconds > 0 ? commands / seconds : 0.0));
+    }
+    return !exited;
+  }
+
+  /**
+   * Executes one line of input.
+   * 
+   * @param userInput the line the user entered
+   * @param fileSystem the file system the command works on
+   * @param output where the output of the command is written
+   * @param journal the journal the command is recorded in
+   * @return true if the line is the exit command, false otherwise
+   */
+  private static boolean execute(String userInput,
+      FileSystem<Directory> fileSystem, StandardOutputSink output,
+      SessionJournal journal) {
+
     HashMap<String, ArrayList<String>> inputParsed =
         Parser.parseInput(userInput);
-    String command;
-    List<String> redirectionPath;
-
-    /*
-     * until user inputs the exit program command, continue to prompt the user
-     * for commands and execute the commands
-     */
-    while (!(inputParsed.containsKey("exit"))
-        || !(inputParsed.get("exit").isEmpty())) {
+    boolean exit = inputParsed.containsKey("exit")
+        && inputParsed.get("exit").isEmpty();
 
+    if (!exit) {
       fileSystem.addToHistory(userInput);
+      Command executed = null;
+      String command = "";
+      ArrayList<String> arguments = null;
+      List<String> stages = CommandLine.splitPipeline(userInput);
+
+      // commands separated by | run together as a pipeline
+      if (stages.size() > 1) {
+        command = Pipeline.COMMAND;
+        executed = Pipeline.run(stages, fileSystem, output);
+      }
 
       // if the input has arguments with the exit command, give an error
-      if (inputParsed.containsKey("exit")) {
-        System.out.println("exit: does not take any arguments");
+      else if (inputParsed.containsKey("exit")) {
+        output.write("exit: does not take any arguments\n");
       }
 
-      // otherwise get the command, arguments and redirection paths from the map
+      // otherwise get the command, arguments and redirection paths from the
+      // map
       else {
         for (Map.Entry<String, ArrayList<String>> pair : inputParsed
             .entrySet()) {
           command = pair.getKey();
-          arguments = new ArrayList<String>(pair.getValue().subList
-              (0, RedirectionDecorator.redirectionStart(pair.getValue())));
-          redirectionPath = pair.getValue().subList
-              (RedirectionDecorator.redirectionStart
-                  (pair.getValue()), pair.getValue().size());
+          arguments = pair.getValue();
 
           if (!command.isEmpty()) {
             // if the command isn't empty, execute the specific command inputed
             try {
-              specificCommand = new RedirectionDecorator
-                  (Parser.commandObject(command, fileSystem), redirectionPath, 
-                      command, fileSystem);
-              specificCommand.executeCommand(arguments);
-              if (!specificCommand.getPrintCommand().isEmpty()) {
-                System.out.println(specificCommand.getPrintCommand());
-              }
-              } catch (InvalidCommandException e) {
+              executed = runCommand(command, arguments, fileSystem, output);
+              output.endLine();
+            } catch (InvalidCommandException e) {
               if (command.contains("\"")) {
-                System.out.println(command + ": excessive quotes");
+                output.write(command + ": excessive quotes\n");
               } else {
-                System.out.println(command + ": command not found");
+                output.write(command + ": command not found\n");
               }
             }
           }
         }
       }
-      // prompt the user for commands and parse through the input
-      System.out.print("/#: ");
-      userInput = in.nextLine();
-      inputParsed = Parser.parseInput(userInput);
+      // record the command before the next one, if there is a journal
+      String journalErrors =
+          journal.commandRun(userInput, command, arguments, executed);
+      if (!journalErrors.isEmpty()) {
+        output.write(journalErrors + "\n");
+      }
+    }
+    return exit;
+  }
+
+  /**
+   * Runs a command, redirecting its output to a file if its arguments end
+   * with a redirection, and otherwise writing its output to the given sink.
+   * The command is the one the thread ran last under the same name if it can
+   * be run again (see CommandRegistry), and its output and errors can be read
+   * until the thread runs that command again.
+   * 
+   * @param command the name of the command
+   * @param parsed the arguments of the command, with any redirection
+   * @param fileSystem the file system the command works on
+   * @param output where the output of the command is written
+   * @return the command that was run
+   * @throws InvalidCommandException exception when the command does not exist
+   */
+  static Command runCommand(String command, List<String> parsed,
+      FileSystem<Directory> fileSystem, OutputSink output)
+      throws InvalidCommandException {
+    return runCommand(command, parsed, fileSystem, output, null);
+  }
+
+  /**
+   * Runs a command reading the given input, such as the last command of a
+   * pipeline (see Pipeline). The command holds the FileSystemLock while it
+   * runs.
+   * 
+   * @param command the name of the command
+   * @param parsed the arguments of the command, with any redirection
+   * @param fileSystem the file system the command works on
+   * @param output where the output of the command is written
+   * @param input the input the command reads, or null for none
+   * @return the command that was run
+   * @throws InvalidCommandException exception when the command does not exist
+   */
+  static Command runCommand(String command, List<String> parsed,
+      FileSystem<Directory> fileSystem, OutputSink output, LineSource input)
+      throws InvalidCommandException {
+    int redirectionStart = RedirectionDecorator.redirectionStart(parsed);
+    ArrayList<String> arguments =
+        new ArrayList<String>(parsed.subList(0, redirectionStart));
+    List<String> redirectionPath =
+        parsed.subList(redirectionStart, parsed.size());
+    Command specificCommand = CommandRegistry.obtain(command, fileSystem);
+    FileSystemLock.lock();
+    try {
+      specificCommand.setInput(input);
+      Command redirected = new RedirectionDecorator(specificCommand,
+          redirectionPath, command, fileSystem);
+      redirected.setOutputSink(output);
+      redirected.executeCommand(arguments);
+    } finally {
+      FileSystemLock.unlock();
+      CommandRegistry.release(command, fileSystem, specificCommand);
     }
-    in.close();
+    return specificCommand;
   }
 }
@@ -0,0 +1,604 @@
+package driver;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Represents an append only journal of records, kept on disk so the shell can
+ * recover what happened since its last save. Appending a record only copies
+ * it into memory; a background thread writes the records appended since it
+ * last ran and forces them to disk together, once a batch of records is
+ * waiting or the oldest of them has waited long enough. With a wait of 0,
+ * appending a record waits until it is on disk instead (records appended at
+ * the same time by other threads are still forced together).
+ *
+ * The file starts with a magic number and a version, followed by the records.
+ * Each record is its length, the CRC-32 of its contents, and the contents: its
+ * type, its number of fields and the fields as strings. A record that was only
+ * partly written is dropped, along with anything after it, when the journal
+ * is opened again.
+ *
+ * @author Shamayum Rashad
+ */
+public class Journal {
+
+  /**
+   * the first four bytes of every journal ("JSHJ")
+   */
+  static final int MAGIC = 0x4A53484A;
+
+  /**
+   * the version of the format written
+   */
+  static final short VERSION = 1;
+
+  /**
+   * the number of records written together unless the jshell.journalBatch
+   * property is set
+   */
+  public static final int DEFAULT_BATCH_SIZE = 64;
+
+  /**
+   * the longest time a record waits to be written, in milliseconds, unless the
+   * jshell.journalMillis property is set
+   */
+  public static final long DEFAULT_BATCH_MILLIS = 5;
+
+  /**
+   * Represents a record read back from the journal.
+   */
+  public static class Record {
+    /**
+     * the type of the record
+     */
+    private final byte type;
+    /**
+     * the fields of the record
+     */
+    private final String[] fields;
+    /**
+     * the number of bytes the record takes in the journal
+     */
+    private final int size;
+
+    /**
+     * Constructs a record.
+     *
+     * @param type the type of the record
+     * @param fields the fields of the record
+     * @param size the number of bytes the record takes in the journal
+     */
+    private Record(byte type, String[] fields, int size) {
+      this.type = type;
+      this.fields = fields;
+      this.size = size;
+    }
+
+    /**
+     * Returns the type of the record.
+     *
+     * @return the type the record was appended with
+     */
+    public byte getType() {
+      return this.type;
+    }
+
+    /**
+     * Returns a field of the record.
+     *
+     * @param index the position of the field
+     * @return the field, or null if the record has fewer fields
+     */
+    public String getField(int index) {
+      return index < this.fields.length ? this.fields[index] : null;
+    }
+  }
+
+  /**
+   * the file the journal is kept in
+   */
+  private final Path path;
+
+  /**
+   * the number of records that make the background thread write them
+   */
+  private final int batchSize;
+
+  /**
+   * the longest time a record waits to be written, in nanoseconds
+   */
+  private final long batchNanos;
+
+  /**
+   * the records read when the journal was opened
+   */
+  private final List<Record> recovered;
+
+  /**
+   * the records appended and not yet taken by the background thread
+   */
+  private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+  /**
+   * when the oldest pending record was appended, in nanoseconds
+   */
+  private long pendingSince = 0;
+
+  /**
+   * the number of records appended
+   */
+  private long appended = 0;
+
+  /**
+   * the number of records taken by the background thread
+   */
+  private long taken = 0;
+
+  /**
+   * the number of records written and forced to disk
+   */
+  private long durable = 0;
+
+  /**
+   * the number of times records were forced to disk
+   */
+  private long syncs = 0;
+
+  /**
+   * whether records have to be written now, regardless of the batch
+   */
+  private boolean syncRequested = false;
+
+  /**
+   * whether the journal was closed
+   */
+  private boolean closed = false;
+
+  /**
+   * the error that stopped the background thread, if any
+   */
+  private IOException failure = null;
+
+  /**
+   * guards the file being written, which restart replaces
+   */
+  private final Object fileLock = new Object();
+
+  /**
+   * the file being written
+   */
+  private FileChannel channel;
+
+  /**
+   * the thread writing the records in the background
+   */
+  private final Thread writer;
+
+  /**
+   * Constructs a journal appending to an open file.
+   *
+   * @param path the file the journal is kept in
+   * @param channel the open file, positioned at its end
+   * @param recovered the records already in the file
+   * @param batchSize the number of records written together
+   * @param batchMillis the longest time a record waits to be written
+   */
+  private Journal(Path path, FileChannel channel, List<Record> recovered,
+      int batchSize, long batchMillis) {
+    this.path = path;
+    this.channel = channel;
+    this.recovered = Collections.unmodifiableList(recovered);
+    this.batchSize = Math.max(1, batchSize);
+    this.batchNanos = Math.max(0, batchMillis) * 1000000L;
+    this.writer = new Thread(this::writeRecords, "journal writer");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  /**
+   * Opens the journal in the given file, creating it if it doesn't exist. The
+   * records already in it can be recovered with getRecovered, and new records
+   * are appended after them.
+   *
+   * @param path the file the journal is kept in
+   * @param batchSize the number of records written together
+   * @param batchMillis the longest time a record waits to be written, or 0 to
+   *        wait for every record to be written when it is appended
+   * @return the open journal
+   * @throws IOException exception when the file can't be read or written, or
+   *         isn't a journal
+   */
+  public static Journal open(Path path, int batchSize, long batchMillis)
+      throws IOException {
+    ArrayList<Record> records = new ArrayList<>();
+    long length = read(path, records);
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE);
+    if (length == 0) {
+      channel.truncate(0);
+      writeFully(channel, header());
+      channel.force(false);
+    } else {
+      // drop a record that was only partly written before appending
+      channel.truncate(length);
+    }
+    channel.position(channel.size());
+    return new Journal(path, channel, records, batchSize, batchMillis);
+  }
+
+  /**
+   * Returns the records that were in the journal when it was opened.
+   *
+   * @return the records read, in the order they were appended
+   */
+  public List<Record> getRecovered() {
+    return this.recovered;
+  }
+
+  /**
+   * Appends a record to the journal.
+   *
+   * @param type the type of the record
+   * @param fields the fields of the record
+   * @throws IOException exception when the journal can no longer be written
+   */
+  public void append(byte type, String... fields) throws IOException {
+    byte[] record = encode(type, fields);
+    synchronized (this) {
+      if (this.failure != null || this.closed) {
+        throw new IOException(this.failure != null ? this.failure.getMessage()
+            : "the journal is closed");
+      }
+      if (this.appended == this.taken) {
+        this.pendingSince = System.nanoTime();
+      }
+      this.pending.write(record, 0, record.length);
+      this.appended++;
+      long sequence = this.appended;
+      // wake the background thread once, when the batch fills up
+      if (this.appended - this.taken == this.batchSize
+          || this.batchNanos == 0) {
+        this.notifyAll();
+      }
+      // without a wait, the record has to be on disk before returning
+      while (this.batchNanos == 0 && this.durable < sequence
+          && this.failure == null) {
+        this.awaitWriter();
+      }
+      if (this.failure != null) {
+        throw new IOException(this.failure.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Writes every record appended so far and waits until they are on disk.
+   *
+   * @throws IOException exception when the records can't be written
+   */
+  public synchronized void sync() throws IOException {
+    long sequence = this.appended;
+    this.syncRequested = true;
+    this.notifyAll();
+    while (this.durable < sequence && this.failure == null) {
+      this.awaitWriter();
+    }
+    if (this.failure != null) {
+      throw new IOException(this.failure.getMessage());
+    }
+  }
+
+  /**
+   * Replaces every record in the journal with a single record, after the
+   * state the records led to was saved somewhere else. The new journal is
+   * written next to the old one and moved over it, so a crash leaves one or
+   * the other.
+   *
+   * @param type the type of the record
+   * @param fields the fields of the record
+   * @throws IOException exception when the journal can't be replaced
+   */
+  public void restart(byte type, String... fields) throws IOException {
+    this.sync();
+    Path temporary = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+    synchronized (this.fileLock) {
+      FileChannel replacement = FileChannel.open(temporary,
+          StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+          StandardOpenOption.TRUNCATE_EXISTING);
+      try {
+        writeFully(replacement, header());
+        writeFully(replacement, ByteBuffer.wrap(encode(type, fields)));
+        replacement.force(false);
+        try {
+          Files.move(temporary, this.path, StandardCopyOption.ATOMIC_MOVE,
+              StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+          Files.move(temporary, this.path, StandardCopyOption.REPLACE_EXISTING);
+        }
+      } catch (IOException e) {
+        replacement.close();
+        Files.deleteIfExists(temporary);
+        throw e;
+      }
+      this.channel.close();
+      this.channel = replacement;
+    }
+  }
+
+  /**
+   * Writes every record appended so far and closes the journal.
+   *
+   * @throws IOException exception when the records can't be written
+   */
+  public void close() throws IOException {
+    try {
+      this.sync();
+    } finally {
+      synchronized (this) {
+        this.closed = true;
+        this.notifyAll();
+      }
+      try {
+        this.writer.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      synchronized (this.fileLock) {
+        this.channel.close();
+      }
+    }
+  }
+
+  /**
+   * Returns a summary of how many records were written and how many were
+   * forced to disk together.
+   *
+   * @return the journal statistics, on one line
+   */
+  public synchronized String getStatistics() {
+    double perSync = this.syncs == 0 ? 0 : (double) this.durable / this.syncs;
+    return String.format("journal: %d records, %d syncs, %.1f records per "
+        + "sync", this.durable, this.syncs, perSync);
+  }
+
+  /**
+   * Waits for the background thread to write more records.
+   */
+  private void awaitWriter() {
+    try {
+      this.wait();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      this.failure = new IOException("interrupted while writing the journal");
+    }
+  }
+
+  /**
+   * Writes the records appended, a batch at a time, until the journal is
+   * closed. Run by the background thread.
+   */
+  private void writeRecords() {
+    boolean running = true;
+    while (running) {
+      ByteArrayOutputStream batch = null;
+      long sequence = 0;
+      synchronized (this) {
+        while (batch == null && running) {
+          long waiting = this.appended - this.taken;
+          long waited = System.nanoTime() - this.pendingSince;
+          if (waiting > 0 && (waiting >= this.batchSize || this.syncRequested
+              || this.closed || waited >= this.batchNanos)) {
+            // copy the records outside the lock, so appending doesn't wait
+            batch = this.pending;
+            this.pending = new ByteArrayOutputStream(batch.size());
+            this.taken = this.appended;
+            sequence = this.appended;
+            this.syncRequested = false;
+          } else if (this.closed) {
+            running = false;
+          } else {
+            try {
+              if (waiting > 0) {
+                long left = this.batchNanos - waited;
+                this.wait(left / 1000000L, (int) (left % 1000000L));
+              } else {
+                this.wait();
+              }
+            } catch (InterruptedException e) {
+              running = false;
+            }
+          }
+        }
+      }
+      if (batch != null) {
+        IOException error = null;
+        try {
+          synchronized (this.fileLock) {
+            writeFully(this.channel, ByteBuffer.wrap(batch.toByteArray()));
+            this.channel.force(false);
+          }
+        } catch (IOException e) {
+          error = e;
+        }
+        synchronized (this) {
+          if (error == null) {
+            this.durable = sequence;
+            this.syncs++;
+          } else {
+            this.failure = error;
+            running = false;
+          }
+          this.notifyAll();
+        }
+      }
+    }
+  }
+
+  /**
+   * Encodes a record as its length, its checksum and its contents.
+   *
+   * @param type the type of the record
+   * @param fields the fields of the record
+   * @return the encoded record
+   * @throws IOException exception when the record can't be encoded
+   */
+  private static byte[] encode(byte type, String[] fields) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream contents = new DataOutputStream(bytes);
+    // leave room for the length and checksum
+    contents.writeLong(0);
+    contents.writeByte(type);
+    contents.writeInt(fields.length);
+    for (String field : fields) {
+      byte[] text = field.getBytes(StandardCharsets.UTF_8);
+      contents.writeInt(text.length);
+      contents.write(text);
+    }
+    byte[] record = bytes.toByteArray();
+    CRC32 checksum = new CRC32();
+    checksum.update(record, Long.BYTES, record.length - Long.BYTES);
+    ByteBuffer.wrap(record).putInt(record.length - Long.BYTES)
+        .putInt((int) checksum.getValue());
+    return record;
+  }
+
+  /**
+   * Returns the header every journal starts with.
+   *
+   * @return the magic number and the version
+   */
+  private static ByteBuffer header() {
+    ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + Short.BYTES);
+    header.putInt(MAGIC).putShort(VERSION).flip();
+    return header;
+  }
+
+  /**
+   * Reads every whole record of a journal.
+   *
+   * @param path the file the journal is kept in
+   * @param records where the records read are added
+   * @return the length of the journal up to the end of the last whole record,
+   *         or 0 if the file is missing or empty
+   * @throws IOException exception when the file can't be read or isn't a
+   *         journal
+   */
+  static long read(Path path, List<Record> records) throws IOException {
+    long length = 0;
+    InputStream file = null;
+    try {
+      file = Files.newInputStream(path);
+    } catch (NoSuchFileException e) {
+      // a new journal
+    }
+    if (file != null) {
+      DataInputStream input = new DataInputStream(
+          new BufferedInputStream(file, 1 << 16));
+      try {
+        byte[] header = input.readNBytes(Integer.BYTES + Short.BYTES);
+        if (header.length > 0) {
+          ByteBuffer fields = ByteBuffer.wrap(header);
+          if (header.length < Integer.BYTES + Short.BYTES
+              || fields.getInt() != MAGIC || fields.getShort() != VERSION) {
+            throw new IOException(path + " is not a journal");
+          }
+          length = header.length;
+          Record record = readRecord(input);
+          while (record != null) {
+            records.add(record);
+            length += record.size;
+            record = readRecord(input);
+          }
+        }
+      } finally {
+        input.close();
+      }
+    }
+    return length;
+  }
+
+  /**
+   * Reads the next record of a journal.
+   *
+   * @param input the stream the journal is read from
+   * @return the record read, or null if the journal ends or the rest of it
+   *         was only partly written
+   * @throws IOException exception when the stream can't be read
+   */
+  private static Record readRecord(DataInputStream input) throws IOException {
+    Record record = null;
+    byte[] header = input.readNBytes(Long.BYTES);
+    if (header.length == Long.BYTES) {
+      ByteBuffer fields = ByteBuffer.wrap(header);
+      int length = fields.getInt();
+      int expected = fields.getInt();
+      byte[] contents = input.readNBytes(Math.max(0, length));
+      CRC32 checksum = new CRC32();
+      checksum.update(contents);
+      if (length > Byte.BYTES + Integer.BYTES && contents.length == length
+          && (int) checksum.getValue() == expected) {
+        record = decode(contents);
+      }
+    }
+    return record;
+  }
+
+  /**
+   * Decodes the contents of a record whose checksum matched.
+   *
+   * @param contents the contents of the record
+   * @return the record, or null if the contents don't hold a whole record
+   */
+  private static Record decode(byte[] contents) {
+    Record record = null;
+    ByteBuffer buffer = ByteBuffer.wrap(contents);
+    byte type = buffer.get();
+    int count = buffer.getInt();
+    String[] values = new String[Math.max(0, count)];
+    boolean whole = count >= 0;
+    for (int i = 0; i < values.length && whole; i++) {
+      int length = buffer.remaining() >= Integer.BYTES ? buffer.getInt() : -1;
+      whole = length >= 0 && length <= buffer.remaining();
+      if (whole) {
+        values[i] = new String(contents, buffer.position(), length,
+            StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+      }
+    }
+    if (whole) {
+      record = new Record(type, values, Long.BYTES + contents.length);
+    }
+    return record;
+  }
+
+  /**
+   * Writes all of a buffer to a file.
+   *
+   * @param channel the file written to
+   * @param buffer the bytes written
+   * @throws IOException exception when the file can't be written
+   */
+  private static void writeFully(FileChannel channel, ByteBuffer buffer)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package driver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+/**
+ * Copies directories lazily, so cp -r of a directory takes the same time
+ * however many files are below it. A lazy copy starts with no children of its
+ * own, only the directory it is a copy of. Its children are copied the first
+ * time they are needed: directories become lazy copies in turn, and text
+ * files share the contents of the files they are copies of (see BlobStore).
+ *
+ * The copy has to stay the way the directory was when it was copied. So
+ * before any file changes (its name, its children or its contents), every
+ * lazy copy of the directories above it, from the top down, and of the file
+ * itself, copies its children, and the change can't reach the copy. Every
+ * change to a file calls changing first, as it does for FrozenTree.
+ *
+ * Copying the children is not a change to the copy; it does not count as one
+ * for saving, and the files it makes stand for files that were there all
+ * along.
+ *
+ * @author Shamayum Rashad
+ */
+class LazyCopy {
+
+  /**
+   * the number of lazy copies whose children haven't been copied yet
+   */
+  private static volatile int pending = 0;
+
+  /**
+   * Makes a lazy copy of a directory.
+   *
+   * @param source  the directory being copied
+   * @param parent  the parent of the copy
+   * @return        the copy, with the name the directory has now
+   */
+  static synchronized Directory copy(Directory source, Directory parent) {
+    Directory copy = new Directory(source.getFileName(), parent);
+    copy.setCopyOf(source);
+    source.addCopy(copy);
+    pending++;
+    return copy;
+  }
+
+  /**
+   * Copies the children of every lazy copy the change to a file could reach
+   * before the file changes.
+   *
+   * @param file  the file about to change
+   */
+  static void changing(File file) {
+    if (pending > 0 && file != null) {
+      synchronized (LazyCopy.class) {
+        ArrayDeque<Directory> path = new ArrayDeque<Directory>();
+        Directory directory = file instanceof Directory ? (Directory) file
+            : file.getParentDir();
+        while (directory != null) {
+          path.push(directory);
+          directory = directory.getParentDir();
+        }
+        // a copy of a directory above makes lazy copies of the one below it
+        for (Directory ancestor : path) {
+          for (Directory copy : ancestor.getCopies()) {
+            materialize(copy);
+          }
+        }
+        if (file instanceof Directory) {
+          materialize((Directory) file);
+        }
+      }
+    }
+  }
+
+  /**
+   * Copies the children of a lazy copy from the directory it is a copy of.
+   * Nothing happens if they were already copied.
+   *
+   * @param copy  the lazy copy
+   */
+  static synchronized void materialize(Directory copy) {
+    Directory source = copy.getCopyOf();
+    if (source != null) {
+      ArrayList<File> children = source.copyContents();
+      ArrayList<File> copied = new ArrayList<File>(children.size());
+      for (File child : children) {
+        File childCopy;
+        if (child instanceof Directory) {
+          childCopy = copy((Directory) child, copy);
+        } else {
+          childCopy = new TextFile(child.getFileName(), copy,
+              ((TextFile) child).readBlob());
+        }
+        // a frozen view has to keep it if it changes, like any older file
+        childCopy.setFrozenView(0);
+        copied.add(childCopy);
+      }
+      source.removeCopy(copy);
+      copy.setCopiedContents(copied);
+      pending--;
+    }
+  }
+
+  /**
+   * Stops a lazy copy that was never used from being copied.
+   *
+   * @param copy  the lazy copy
+   */
+  static synchronized void cancel(Directory copy) {
+    Directory source = copy.getCopyOf();
+    if (source != null) {
+      source.removeCopy(copy);
+      copy.setCopiedContents(new ArrayList<File>());
+      pending--;
+    }
+  }
+
+  /**
+   * Returns the number of lazy copies whose children haven't been copied.
+   *
+   * @return the number of lazy copies left
+   */
+  static int getPending() {
+    return pending;
+  }
+}
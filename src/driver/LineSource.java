@@ -0,0 +1,22 @@
+package driver;
+
+/**
+ * Represents input a command reads a line at a time, such as the output of
+ * the command before it in a pipeline.
+ *
+ * @author Shamayum Rashad
+ */
+public interface LineSource {
+
+  /**
+   * Reads the next line, waiting for it if it isn't there yet.
+   *
+   * @return the line without its line break, or null at the end of the input
+   */
+  String readLine();
+
+  /**
+   * Stops reading, so whatever writes the input can stop too.
+   */
+  void close();
+}
@@ -30,7 +30,9 @@ public class Load extends Command {
   /**
    * Executes the load command, overriding the current file system to the one
    * saved in the file given by arguments. The file system should only be
-   * overridden if load is the first command used.
+   * overridden if load is the first command used. With -m before the file,
+   * the file is mapped into memory and text files are only read from it when
+   * they are used.
    * 
    * @param arguments a list of file paths
    */
@@ -43,7 +45,17 @@ public class Load extends Command {
       this.setError(this.saver.getSavedFileSystem(file, fileSystem));
     }
 
+    // the same, but mapping the file instead of reading all of it
+    else if ((arguments.size() == 2) && arguments.get(0).equals("-m")
+        && (this.fileSystem.getCommandHistory().size() == 1)) {
+      String file = arguments.get(1);
+      this.setError(this.saver.getMappedFileSystem(file, fileSystem));
+    }
+
     // otherwise, give the appropriate error
+    else if (!arguments.isEmpty() && arguments.get(0).equals("-m")) {
+      manageErrors(arguments.size() - 1);
+    }
     else {
       manageErrors(arguments.size());
     }
@@ -50,17 +50,16 @@ public class Ls extends Command {
      */
     if (arguments.size() > 0) {
       if (!arguments.get(0).equals("-R")) {
-        this.setPrintCommand(listContents(arguments));
+        listContents(arguments);
       } else if (arguments.size() == 1) {
         // print the contents of current Working directory.
-        this.setPrintCommand(fileSystem.getCurrentDirectory().toString());
+        fileSystem.getCurrentDirectory().printTree(this.getOutputSink());
       } else {
-        this.setPrintCommand(listAllContents(arguments));
+        listAllContents(arguments);
       }
     } else {
       // print the contents of current Working directory.
-      this.setPrintCommand(
-          this.printContentsOf(fileSystem.getCurrentDirectory()));
+      this.printContentsOf(fileSystem.getCurrentDirectory());
     }
 
   }
@@ -80,15 +79,13 @@ public class Ls extends Command {
    * Print the contents of the given directory vertically.
    * 
    * @param dr the directory to be printed
-   * @return the contents of the directory
    */
-  private String printContentsOf(Directory dr) {
-    String output = "";
+  private void printContentsOf(Directory dr) {
     ArrayList<File> contents = dr.getContents();
     for (File content : contents) {
-      output += content.getFileName() + "\n";
+      this.setPrintCommand(content.getFileName());
+      this.setPrintCommand("\n");
     }
-    return output;
   }
 
   /**
@@ -98,10 +95,8 @@ public class Ls extends Command {
    * retrieved by using getPrintCommand().
    * 
    * @param arguments The ArrayList containing all user desired
-   * @return output
    */
-  private String listContents(ArrayList<String> arguments) {
-    String output = "";
+  private void listContents(ArrayList<String> arguments) {
     for (String argument : arguments) {
       try {
         File file = path.searchByPath(argument);
@@ -109,18 +104,17 @@ public class Ls extends Command {
         // Directory.
         if (file instanceof Directory) {
           // Extract the name of each content and list them vertically.
-          output += argument + ":\n";
-          output += printContentsOf((Directory) file);
+          this.setPrintCommand(argument + ":\n");
+          printContentsOf((Directory) file);
         } else {
           // the file is a TextFile, just print the path.
-          output += argument + "\n";
+          this.setPrintCommand(argument + "\n");
         }
       } catch (InvalidPathException e) {
         // Warn the user that there is no file at given path.
         this.setError("There is no such file as:" + argument + "\n");
       }
     }
-    return output;
   }
 
   /**
@@ -130,10 +124,8 @@ public class Ls extends Command {
    * arguments, and they could be retrieved by using getPrintCommand().
    * 
    * @param arguments the list of the paths
-   * @return the contents of all the paths int the list
    */
-  private String listAllContents(ArrayList<String> arguments) {
-    String output = "";
+  private void listAllContents(ArrayList<String> arguments) {
     for (int i = 1; i < arguments.size(); i++) {
       String argument = arguments.get(i);
       try {
@@ -143,44 +135,38 @@ public class Ls extends Command {
         if (file instanceof Directory) {
           // For each sub-content of this Directory, List all the all the
           // sub-directory
-          output += argument += ":\n";
-          for (File subcontent : ((Directory) file).getContents()) {
-            output += recursiveHelper(subcontent, "\t");
-          }
+          this.setPrintCommand(argument + ":\n");
+          listLeaves((Directory) file);
         } else {
           // the file is a TextFile, just print the path.
-          output += argument + "\n";
+          this.setPrintCommand(argument + "\n");
         }
       } catch (InvalidPathException e) {
         // Warn the user that there is no file at given path.
         this.setError("There is no such file as:" + argument + "\n");
       }
     }
-    return output;
   }
 
   /**
-   * Recursively find all the sub-directory in the given directory. List only
-   * one of them each line, and separate the level visually by tabs.
+   * Find all the text files and empty directories below the given directory.
+   * List only one of them each line, and separate the level visually by tabs.
    * 
-   * @param file The file to be extracted.
-   * @param level The level relative to the first iteration represented by tabs.
-   * @return output The list of the contents of the first directory and its
-   *         subdirectory's contents.
+   * @param directory The directory to be extracted.
    */
-  private String recursiveHelper(File file, String level) {
-    String output = "";
-    if (file instanceof TextFile) {
-      output += level + file.getFileName() + "\n";
-    } else {
-      if (((Directory) file).getContents().isEmpty()) {
-        output += level + file.getFileName() + "\n";
-      } else {
-        for (File content : ((Directory) file).getContents()) {
-          output += recursiveHelper(content, level + "\t");
-        }
+  private void listLeaves(Directory directory) {
+    FileTraversal.Walker walker =
+        new FileTraversal(directory, FileTraversal.Order.PRE_ORDER).iterator();
+    // skip the directory itself
+    walker.next();
+    while (walker.hasNext()) {
+      File file = walker.next();
+      if (file instanceof TextFile
+          || ((Directory) file).getContents().isEmpty()) {
+        this.setPrintCommand(Indentation.tabs(walker.getDepth()));
+        this.setPrintCommand(file.getFileName());
+        this.setPrintCommand("\n");
       }
     }
-    return output;
   }
 }
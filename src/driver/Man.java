@@ -54,6 +54,14 @@ public class Man extends Command{
         + " by specifying a number (>=0) after the command.");
     commandDefinitions.put("cat", "cat:\n Display the contents of files "
         + "concatenated in the shell.");
+    commandDefinitions.put("head", "head:\n Display the first N lines of "
+        + "its input, or 10 if N is not\ngiven, then stop reading it. Its "
+        + "input is the output of the\ncommand before it in a pipeline: "
+        + "find / -type f -name \"x*\" | head 5");
+    commandDefinitions.put("pipeline", "pipeline:\n COMMAND | COMMAND ...\n "
+        + "Run the commands at the same time, each reading the output of\nthe "
+        + "one before it, or with no files for cat. Only the last\ncommand "
+        + "can be redirected, and cd, pushd and popd can't be used.");
     commandDefinitions.put("echo", "echo:\n If [> OUTFILE] is not provided, "
         + "print STRING on the shell.\nOtherwise, put STRING into file OUTFILE."
         + " This creates a new file\nif OUTFILE does not exists and erases the"
@@ -72,18 +80,40 @@ public class Man extends Command{
         + "with your real file system on\nyour computer. When the above command"
         + " is typed, you must ensure\nthat the entire state of the program is "
         + "written to the file\nFileName. The file FileName is some file that "
-        + "is stored on the actual\nfilesystem of your computer.");
+        + "is stored on the actual\nfilesystem of your computer.\n\n save "
+        + "--incremental FileName\n Only append what changed since the "
+        + "FileName was last\nsaved or loaded to it, instead of writing "
+        + "everything again.\n\n save -b FileName\n Save in the background "
+        + "while the shell keeps\nbeing used. The state of the program when "
+        + "the command\nis typed is what gets saved.\n\n save -s\n Show how "
+        + "far the last background save got.");
+    commandDefinitions.put("compact", "compact:\n Rewrite the FileName as "
+        + "a single save, folding every\nincremental save appended to it "
+        + "back into it.");
     commandDefinitions.put("load", "load:\n When the user types in the above"
         + " command, your JShell must load\nthe contents of the FileName and"
         + " reinitialize everything that was\nsaved previously into the"
-        + " FileName.");
+        + " FileName.\n\n load -m FileName\n Map the FileName into memory "
+        + "instead, only reading the\ncontents of a file when it is used.");
     commandDefinitions.put("find", "find:\n You are now asked to implement "
         + "the find command. The syntax\nof the find command is as follows: "
-        + "find path ... -type [f|d]\n-name expression.");
+        + "find path ... -type [f|d]\n-name expression.\n\n find -j N "
+        + "path ... -type [f|d] -name expression\n Search with N threads. "
+        + "The files found are the same, in the same\norder, as searching "
+        + "with one.\n\n -name \"pattern\"\n The pattern is a glob: * "
+        + "matches any characters, ? matches\none and [abc] matches one of "
+        + "a, b or c.\n\n -regex \"pattern\"\n Match the whole name against "
+        + "a regular expression instead.");
     commandDefinitions.put("tree", "tree:\n When the user types in the tree"
         + " command you must starting, from\nthe root directory display"
         + " the entire filesystem as a tree. For every\nlevel of the tree, "
-        + "you must indent by a tab character.");
+        + "you must indent by a tab character.\n\n tree -L n\n Only "
+        + "display the first n levels below the root directory.");
+    commandDefinitions.put("stats", "stats:\n Print the size and hit rate of"
+        + " the path cache, which remembers\nthe files that recently used "
+        + "paths lead to, and the size and upkeep of\nthe name index find "
+        + "uses to look up files by name, and how much the blob store\n"
+        + "saves by keeping one copy of the contents text files share.");
   }
   
   /**
@@ -0,0 +1,153 @@
+package driver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Represents a snapshot file mapped into memory. The file is read from start
+ * to end like any other stream while the files are being loaded, and the
+ * contents of text files are decoded from the mapping later, when they are
+ * read. Files larger than one mapping allows are mapped in several segments.
+ *
+ * @author Shamayum Rashad
+ */
+class MappedSnapshot extends InputStream {
+
+  /**
+   * the size of each mapped segment of the file
+   */
+  private static final long SEGMENT_SIZE = 1L << 30;
+
+  /**
+   * the segments of the file, in order
+   */
+  private final MappedByteBuffer[] segments;
+
+  /**
+   * the size of the file
+   */
+  private final long size;
+
+  /**
+   * the position of the next byte read as a stream
+   */
+  private long position = 0;
+
+  /**
+   * Maps the given file into memory.
+   * 
+   * @param fileName  the name of the snapshot file
+   * @throws IOException  exception when the file can't be opened or mapped
+   */
+  MappedSnapshot(String fileName) throws IOException {
+    FileChannel channel =
+        FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+    try {
+      this.size = channel.size();
+      int count = (int) ((this.size + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+      this.segments = new MappedByteBuffer[count];
+      for (int i = 0; i < count; i++) {
+        long start = i * SEGMENT_SIZE;
+        this.segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+            Math.min(SEGMENT_SIZE, this.size - start));
+      }
+    } finally {
+      // the mapping stays valid after the channel is closed
+      channel.close();
+    }
+  }
+
+  /**
+   * Returns the position of the next byte read as a stream.
+   * 
+   * @return  the position in the file
+   */
+  long getPosition() {
+    return this.position;
+  }
+
+  /**
+   * Decodes the UTF-8 text stored at the given part of the file.
+   * 
+   * @param offset  the position of the text in the file
+   * @param length  the number of bytes of text
+   * @return        the text
+   */
+  String decode(long offset, int length) {
+    return new String(this.copy(offset, length), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Copies the bytes stored at the given part of the file.
+   * 
+   * @param offset  the position of the bytes in the file
+   * @param length  the number of bytes
+   * @return        a copy of the bytes
+   */
+  byte[] copy(long offset, int length) {
+    byte[] bytes = new byte[length];
+    this.copy(offset, bytes, 0, length);
+    return bytes;
+  }
+
+  @Override
+  public int read() {
+    int result = -1;
+    if (this.position < this.size) {
+      result = this.segments[(int) (this.position / SEGMENT_SIZE)]
+          .get((int) (this.position % SEGMENT_SIZE)) & 0xFF;
+      this.position++;
+    }
+    return result;
+  }
+
+  @Override
+  public int read(byte[] bytes, int offset, int length) {
+    int count = (int) Math.min(length, this.size - this.position);
+    if (count <= 0) {
+      count = length == 0 ? 0 : -1;
+    } else {
+      this.copy(this.position, bytes, offset, count);
+      this.position += count;
+    }
+    return count;
+  }
+
+  @Override
+  public long skip(long count) {
+    long skipped = Math.max(0, Math.min(count, this.size - this.position));
+    this.position += skipped;
+    return skipped;
+  }
+
+  @Override
+  public int available() {
+    return (int) Math.min(Integer.MAX_VALUE, this.size - this.position);
+  }
+
+  /**
+   * Copies bytes out of the mapping without moving the stream position, so
+   * text can be decoded by several threads at once.
+   * 
+   * @param from    the position in the file of the first byte
+   * @param bytes   where the bytes are copied to
+   * @param offset  the position in bytes of the first byte copied
+   * @param length  the number of bytes copied
+   */
+  private void copy(long from, byte[] bytes, int offset, int length) {
+    int copied = 0;
+    while (copied < length) {
+      long at = from + copied;
+      MappedByteBuffer segment = this.segments[(int) (at / SEGMENT_SIZE)];
+      int inSegment = (int) (at % SEGMENT_SIZE);
+      int count = Math.min(length - copied, segment.limit() - inSegment);
+      segment.get(inSegment, bytes, offset + copied, count);
+      copied += count;
+    }
+  }
+}
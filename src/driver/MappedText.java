@@ -0,0 +1,92 @@
+package driver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Represents the contents of a text file that are still in a mapped snapshot
+ * file, as the position and length of their bytes, and the codec they were
+ * encoded with if they were.
+ *
+ * @author Shamayum Rashad
+ */
+class MappedText {
+
+  /**
+   * the snapshot the contents are in
+   */
+  private final MappedSnapshot snapshot;
+
+  /**
+   * the position of the contents in the snapshot
+   */
+  private final long offset;
+
+  /**
+   * the number of bytes of the contents
+   */
+  private final int length;
+
+  /**
+   * the codec the contents were encoded with, or null if they weren't
+   */
+  private final BlockCodec codec;
+
+  /**
+   * the number of bytes of the contents before they were encoded
+   */
+  private final int decodedLength;
+
+  /**
+   * Constructs a reference to contents in a mapped snapshot.
+   * 
+   * @param snapshot  the snapshot the contents are in
+   * @param offset    the position of the contents in the snapshot
+   * @param length    the number of bytes of the contents
+   */
+  MappedText(MappedSnapshot snapshot, long offset, int length) {
+    this(snapshot, offset, length, null, length);
+  }
+
+  /**
+   * Constructs a reference to encoded contents in a mapped snapshot.
+   * 
+   * @param snapshot       the snapshot the contents are in
+   * @param offset         the position of the contents in the snapshot
+   * @param length         the number of bytes of the encoded contents
+   * @param codec          the codec the contents were encoded with
+   * @param decodedLength  the number of bytes of the contents before they
+   *                       were encoded
+   */
+  MappedText(MappedSnapshot snapshot, long offset, int length,
+      BlockCodec codec, int decodedLength) {
+    this.snapshot = snapshot;
+    this.offset = offset;
+    this.length = length;
+    this.codec = codec;
+    this.decodedLength = decodedLength;
+  }
+
+  /**
+   * Decodes the contents from the snapshot.
+   * 
+   * @return  the contents
+   */
+  String read() {
+    String contents;
+    if (this.codec == null) {
+      contents = this.snapshot.decode(this.offset, this.length);
+    } else {
+      try {
+        contents = new String(this.codec.decode(
+            this.snapshot.copy(this.offset, this.length), this.decodedLength),
+            StandardCharsets.UTF_8);
+      } catch (IOException e) {
+        // the file changed under the mapping since it was loaded
+        throw new UncheckedIOException(e);
+      }
+    }
+    return contents;
+  }
+}
@@ -1,6 +1,9 @@
 package driver;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 
 /**
  * For command mv.
@@ -43,11 +46,19 @@ public class Move extends Command {
         // get the destination where files are going to move to
         String newPath = arguments.get(arguments.size() - 1);
         File destination = path.searchByPath(newPath);
-        // move one file at a time
-        for (int index = 0; index < arguments.size() - 1; index++) {
-          String oldPath = arguments.get(index);
-          File fileToMove = path.searchByPath(oldPath);
-          this.moveFile(fileToMove, destination);
+        ArrayList<File> filesToMove = null;
+        if (arguments.size() > 2 && destination instanceof Directory) {
+          filesToMove = this.findAll(arguments);
+        }
+        if (filesToMove != null) {
+          this.moveAll(filesToMove, (Directory) destination);
+        } else {
+          // move one file at a time
+          for (int index = 0; index < arguments.size() - 1; index++) {
+            String oldPath = arguments.get(index);
+            File fileToMove = path.searchByPath(oldPath);
+            this.moveFile(fileToMove, destination);
+          }
         }
       } catch (Exception e) {
         this.setError("Given paths invalid");// error
@@ -72,10 +83,11 @@ public class Move extends Command {
           && (destination instanceof TextFile)) {
         // overwrite the other's content
         ((TextFile) destination)
-            .setContents(((TextFile) fileToMove).getContents());
-        // delete itself
+            .setContents(((TextFile) fileToMove).getBlob());
+        // delete itself, letting go of the blob the destination now shares
         this.removeFileFromParent(fileToMove);
         fileToMove.setParentDir(null);
+        ((TextFile) fileToMove).releaseContents();
 
         // move a file to a directory
       } else {
@@ -94,24 +106,130 @@ public class Move extends Command {
     }
   }
 
+  /**
+   * Finds every file to move into a directory before any is moved, so they
+   * can be moved together. Moving them one at a time would find the same
+   * files unless a path can't be found, a file is inside another one being
+   * moved, or a path goes through a text file being moved (a text file is
+   * passed over like a directory when a path is followed), since moving that
+   * one changes the other's path.
+   * 
+   * @param arguments The paths of the files followed by the destination
+   * @return filesToMove The files to move, or null if they have to be moved
+   *         one at a time
+   */
+  private ArrayList<File> findAll(ArrayList<String> arguments) {
+    ArrayList<File> filesToMove = new ArrayList<File>();
+    IdentityHashMap<File, Boolean> found = new IdentityHashMap<>();
+    try {
+      for (int index = 0; index < arguments.size() - 1; index++) {
+        File fileToMove = path.searchByPath(arguments.get(index));
+        filesToMove.add(fileToMove);
+        found.put(fileToMove, Boolean.TRUE);
+      }
+    } catch (InvalidPathException e) {
+      filesToMove = null;
+    }
+    if (filesToMove != null && found.size() < filesToMove.size()) {
+      filesToMove = null;
+    }
+    if (filesToMove != null && this.throughMovedFile(arguments, found)) {
+      filesToMove = null;
+    }
+    for (int index = 0; filesToMove != null && index < filesToMove.size();
+        index++) {
+      Directory parent = filesToMove.get(index).getParentDir();
+      while (parent != null && !found.containsKey(parent)) {
+        parent = parent.getParentDir();
+      }
+      if (parent != null) {
+        filesToMove = null;
+      }
+    }
+    return filesToMove;
+  }
+
+  /**
+   * Checks whether a path goes through a text file being moved. Only text
+   * files need checking, since a path through a directory being moved leads
+   * to a file inside it. Each leading part of the paths is only looked up
+   * once, however many paths share it.
+   * 
+   * @param arguments The paths of the files followed by the destination
+   * @param found The files being moved
+   * @return True if a path goes through a text file being moved
+   */
+  private boolean throughMovedFile(ArrayList<String> arguments,
+      IdentityHashMap<File, Boolean> found) {
+    boolean movingText = false;
+    for (File fileToMove : found.keySet()) {
+      movingText = movingText || fileToMove instanceof TextFile;
+    }
+    boolean through = false;
+    HashMap<String, Boolean> checked = new HashMap<String, Boolean>();
+    for (int index = 0; movingText && !through
+        && index < arguments.size() - 1; index++) {
+      String oldPath = arguments.get(index);
+      int slash = oldPath.indexOf('/', 1);
+      while (slash > 0 && !through) {
+        String leading = oldPath.substring(0, slash);
+        Boolean moved = checked.get(leading);
+        if (moved == null) {
+          moved = Boolean.FALSE;
+          try {
+            File file = path.searchByPath(leading);
+            moved = file instanceof TextFile && found.containsKey(file);
+          } catch (InvalidPathException e) {
+            // the whole path can't be found either
+          }
+          checked.put(leading, moved);
+        }
+        through = moved;
+        slash = oldPath.indexOf('/', slash + 1);
+      }
+    }
+    return through;
+  }
+
+  /**
+   * Moves many files into one directory, checking all of their names against
+   * the directory in one pass and adding all of them at once. Files that
+   * can't be moved give the same errors as they would moved one at a time.
+   * 
+   * @param filesToMove The files that are going to be moved to destination
+   * @param destination The directory the files will be moved to
+   */
+  private void moveAll(ArrayList<File> filesToMove, Directory destination) {
+    ArrayList<File> moving = new ArrayList<File>();
+    HashSet<String> names = new HashSet<String>();
+    for (File fileToMove : filesToMove) {
+      if (this.filesValid(fileToMove, destination)) {
+        if (destination.getChild(fileToMove.getFileName()) != null
+            || !names.add(fileToMove.getFileName())) {
+          this.setError("mv: file named " + fileToMove.getFileName()
+              + " exists in " + destination.getFileName());
+        } else {
+          moving.add(fileToMove);
+        }
+      }
+    }
+    // add children to the destination together
+    destination.getContents().addAll(moving);
+    for (File fileToMove : moving) {
+      // delete file itself
+      this.removeFileFromParent(fileToMove);
+      // add parent to child
+      fileToMove.setParentDir(destination);
+    }
+  }
+
   /**
    * Removes the target file from its parent's contents
    * 
    * @param target A File we want to remove from its parent's contents
    */
   private void removeFileFromParent(File target) {
-    // the list containing file that is to be removed
-    ArrayList<File> files = target.getParentDir().getContents();
-    // find the to-be-remove child then remove it, terminate loop if found
-    int index = 0;
-    boolean found = false;
-    while (index < files.size() && !found) {
-      if (files.get(index).equals(target)) {
-        files.remove(index);
-        found = true;
-      }
-      index++;
-    }
+    target.getParentDir().removeContents(target);
   }
 
   /**
@@ -135,7 +253,7 @@ public class Move extends Command {
           + destination.getFileName());
 
       // unable to move parent directory to any of its children
-    } else if (destination.getParentDir().equals(fileToMove)) {
+    } else if (this.isAncestor(fileToMove, destination)) {
       this.setError("mv: cannot move a directory, " + fileToMove.getFileName()
           + ", into itself, " + destination.getFileName());
 
@@ -151,4 +269,19 @@ public class Move extends Command {
     }
     return valid;
   }
+
+  /**
+   * Returns whether a file is above another one in the file system.
+   * 
+   * @param ancestor The file that might be above
+   * @param file The file that might be below
+   * @return true if ancestor is one of the directories above file
+   */
+  private boolean isAncestor(File ancestor, File file) {
+    Directory parent = file.getParentDir();
+    while (parent != null && parent != ancestor) {
+      parent = parent.getParentDir();
+    }
+    return parent != null;
+  }
 }
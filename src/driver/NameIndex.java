@@ -0,0 +1,400 @@
+package driver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Represents an index from file names to the text files and directories with
+ * that name, so finding files by their exact name does not need to walk the
+ * whole file system. The index is built the first time it is needed and then
+ * kept up to date as files are added or renamed. Files that are moved or
+ * removed are only dropped from the index when a lookup finds they are no
+ * longer where their parents say they are, so every lookup checks its results.
+ * The files below a lazy copy of a directory (see LazyCopy) are only indexed
+ * by the next lookup, so copying a directory stays as fast as it is without
+ * the index.
+ *
+ * The index can be turned off by setting the jshell.nameIndex property to
+ * false.
+ *
+ * @author Shamayum Rashad
+ */
+public class NameIndex {
+
+  /**
+   * the estimated bytes used for each name in the index
+   */
+  private static final int BYTES_PER_NAME = 112;
+
+  /**
+   * the estimated bytes used for each file in the index
+   */
+  private static final int BYTES_PER_FILE = 32;
+
+  /**
+   * whether the index is used
+   */
+  private static boolean enabled =
+      !"false".equals(System.getProperty("jshell.nameIndex"));
+
+  /**
+   * the root of the file system the index was built for, or null if it has not
+   * been built
+   */
+  private static volatile Directory root = null;
+
+  /**
+   * the text files in the file system keyed by their names
+   */
+  private static final HashMap<String, Set<File>> textFiles = new HashMap<>();
+
+  /**
+   * the directories in the file system keyed by their names
+   */
+  private static final HashMap<String, Set<File>> directories =
+      new HashMap<>();
+
+  /**
+   * the number of files in the index
+   */
+  private static long files = 0;
+
+  /**
+   * the lazy copies in the index whose files are still to be indexed
+   */
+  private static final ArrayList<Directory> deferred = new ArrayList<>();
+
+  /**
+   * the number of times a file was added to or dropped from the index
+   */
+  private static long updates = 0;
+
+  /**
+   * the time spent building and updating the index, in nanoseconds
+   */
+  private static long maintenanceTime = 0;
+
+  /**
+   * the number of lookups answered by the index
+   */
+  private static long lookups = 0;
+
+  /**
+   * Returns the files below the given directory with the given name, in the
+   * order a walk of the directory would find them.
+   * 
+   * @param fileSystemRoot  the root of the file system being searched
+   * @param dirToSearch     the directory being searched
+   * @param name            the name of the files being searched for
+   * @param wantDirectory   true to find directories, false for text files
+   * @return                the matching files in pre-order, or null if the
+   *                        index is turned off
+   */
+  public static synchronized ArrayList<File> find(Directory fileSystemRoot,
+      Directory dirToSearch, String name, boolean wantDirectory) {
+
+    ArrayList<File> result = null;
+    if (enabled) {
+      if (root != fileSystemRoot) {
+        build(fileSystemRoot);
+      }
+      addDeferred();
+      lookups++;
+      result = new ArrayList<>();
+      // the directories between dirToSearch and the files found
+      IdentityHashMap<File, Boolean> onPath = new IdentityHashMap<>();
+      Set<File> candidates =
+          (wantDirectory ? directories : textFiles).get(name);
+      if (candidates != null) {
+        Iterator<File> iterator = candidates.iterator();
+        while (iterator.hasNext()) {
+          File candidate = iterator.next();
+          ArrayList<File> ancestors = attachedAncestors(candidate);
+          // drop files that were moved out of the file system
+          if (ancestors == null) {
+            iterator.remove();
+            files--;
+            updates++;
+          } else if (ancestors.contains(dirToSearch)) {
+            result.add(candidate);
+            // stops at an ancestor already on the path of another file
+            int i = 1;
+            boolean added = true;
+            while (added && i < ancestors.size()) {
+              File ancestor = ancestors.get(i);
+              added = onPath.put(ancestor, Boolean.TRUE) == null
+                  && ancestor != dirToSearch;
+              i++;
+            }
+          }
+        }
+      }
+      if (result.size() > 1) {
+        result = inPreOrder(dirToSearch, result, onPath);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Adds a file, and everything below it, to the index if it was added to a
+   * directory in the file system the index was built for.
+   * 
+   * @param parent  the directory the file was added to
+   * @param file    the file that was added
+   */
+  static void fileAdded(Directory parent, File file) {
+    // most files are added before the index is ever built
+    if (root != null) {
+      synchronized (NameIndex.class) {
+        long start = System.nanoTime();
+        if (root != null && parent != null && isAttached(parent)
+            && !isIndexed(file)) {
+          addTree(file);
+        }
+        maintenanceTime += System.nanoTime() - start;
+      }
+    }
+  }
+
+  /**
+   * Moves a file to its new name in the index.
+   * 
+   * @param file     the file that was renamed
+   * @param oldName  the name the file had before
+   */
+  static void fileRenamed(File file, String oldName) {
+    if (root != null) {
+      synchronized (NameIndex.class) {
+        long start = System.nanoTime();
+        Set<File> sameName = indexFor(file).get(oldName);
+        if (sameName != null && sameName.remove(file)) {
+          files--;
+          updates++;
+          add(file);
+        }
+        maintenanceTime += System.nanoTime() - start;
+      }
+    }
+  }
+
+  /**
+   * Turns the index on or off. Turning it off also empties it.
+   * 
+   * @param useIndex  whether the index is used
+   */
+  public static synchronized void setEnabled(boolean useIndex) {
+    enabled = useIndex;
+    if (!enabled) {
+      clear();
+    }
+  }
+
+  /**
+   * Returns whether the index is used.
+   * 
+   * @return  true if the index is used, false otherwise
+   */
+  public static synchronized boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Empties the index, so it is built again the next time it is needed.
+   * Called when the file system is replaced by a loaded one.
+   */
+  public static synchronized void clear() {
+    root = null;
+    textFiles.clear();
+    directories.clear();
+    deferred.clear();
+    files = 0;
+  }
+
+  /**
+   * Returns a summary of the size and upkeep of the index.
+   * 
+   * @return  the index statistics, on one line
+   */
+  public static synchronized String getStatistics() {
+    long names = textFiles.size() + directories.size();
+    long bytes = names * BYTES_PER_NAME + files * BYTES_PER_FILE;
+    return String.format("name index: %d names, %d files, about %d KB, "
+        + "%d updates in %.1f ms, %d lookups", names, files, bytes / 1024,
+        updates, maintenanceTime / 1e6, lookups);
+  }
+
+  /**
+   * Builds the index for every file in the given file system.
+   * 
+   * @param fileSystemRoot  the root of the file system
+   */
+  private static void build(Directory fileSystemRoot) {
+    long start = System.nanoTime();
+    clear();
+    root = fileSystemRoot;
+    addTree(fileSystemRoot);
+    maintenanceTime += System.nanoTime() - start;
+  }
+
+  /**
+   * Adds a file, and everything below it, to the index.
+   * 
+   * @param file  the file being added
+   */
+  private static void addTree(File file) {
+    ArrayDeque<File> toAdd = new ArrayDeque<>();
+    toAdd.push(file);
+    while (!toAdd.isEmpty()) {
+      File next = toAdd.pop();
+      add(next);
+      if (next instanceof Directory) {
+        Directory directory = (Directory) next;
+        if (directory.isCopyPending()) {
+          deferred.add(directory);
+        } else {
+          for (File child : directory.getContents()) {
+            toAdd.push(child);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Adds the files below the lazy copies in the index, copying them.
+   */
+  private static void addDeferred() {
+    long start = System.nanoTime();
+    while (!deferred.isEmpty()) {
+      Directory directory = deferred.remove(deferred.size() - 1);
+      for (File child : directory.getContents()) {
+        addTree(child);
+      }
+    }
+    maintenanceTime += System.nanoTime() - start;
+  }
+
+  /**
+   * Adds a single file to the index.
+   * 
+   * @param file  the file being added
+   */
+  private static void add(File file) {
+    Set<File> sameName = indexFor(file).get(file.getFileName());
+    if (sameName == null) {
+      // files don't override equals, but make sure they're kept by identity
+      sameName =
+          Collections.newSetFromMap(new IdentityHashMap<File, Boolean>());
+      indexFor(file).put(file.getFileName(), sameName);
+    }
+    if (sameName.add(file)) {
+      files++;
+      updates++;
+    }
+  }
+
+  /**
+   * Returns whether a file is already in the index.
+   * 
+   * @param file  the file being checked
+   * @return      true if the file is in the index, false otherwise
+   */
+  private static boolean isIndexed(File file) {
+    Set<File> sameName = indexFor(file).get(file.getFileName());
+    return sameName != null && sameName.contains(file);
+  }
+
+  /**
+   * Returns the part of the index that holds files of the same kind.
+   * 
+   * @param file  the file being indexed
+   * @return      the directories if file is a directory, else the text files
+   */
+  private static HashMap<String, Set<File>> indexFor(File file) {
+    return file instanceof Directory ? directories : textFiles;
+  }
+
+  /**
+   * Returns whether the directory is in the file system the index was built
+   * for, following the parent of each directory up to the root.
+   * 
+   * @param directory  the directory being checked
+   * @return           true if the directory is below the indexed root
+   */
+  private static boolean isAttached(Directory directory) {
+    Directory top = directory;
+    while (top.getParentDir() != null) {
+      top = top.getParentDir();
+    }
+    return top == root;
+  }
+
+  /**
+   * Returns the file and all of its ancestors up to the root, checking each
+   * one is still in the contents of its parent.
+   * 
+   * @param file  the file being checked
+   * @return      the file followed by its ancestors, or null if the file is no
+   *              longer in the file system
+   */
+  private static ArrayList<File> attachedAncestors(File file) {
+    ArrayList<File> ancestors = new ArrayList<>();
+    File currFile = file;
+    ancestors.add(currFile);
+    while (currFile != null && currFile != root) {
+      Directory parent = currFile.getParentDir();
+      if (parent == null
+          || parent.getChild(currFile.getFileName()) != currFile) {
+        currFile = null;
+      } else {
+        currFile = parent;
+        ancestors.add(currFile);
+      }
+    }
+    return currFile == null ? null : ancestors;
+  }
+
+  /**
+   * Puts files into the order a pre-order walk would find them, with one
+   * walk from the directory searched that only goes into the directories
+   * above the files.
+   * 
+   * @param dirToSearch  the directory that was searched
+   * @param found        the files being ordered
+   * @param onPath       the directories between dirToSearch and the files
+   * @return             the files in pre-order
+   */
+  private static ArrayList<File> inPreOrder(Directory dirToSearch,
+      ArrayList<File> found, IdentityHashMap<File, Boolean> onPath) {
+    IdentityHashMap<File, Boolean> wanted = new IdentityHashMap<>();
+    for (File file : found) {
+      wanted.put(file, Boolean.TRUE);
+    }
+    ArrayList<File> sorted = new ArrayList<>(found.size());
+    ArrayDeque<File> stack = new ArrayDeque<>();
+    stack.push(dirToSearch);
+    while (!stack.isEmpty() && sorted.size() < found.size()) {
+      File file = stack.pop();
+      if (wanted.containsKey(file)) {
+        sorted.add(file);
+      }
+      if (onPath.containsKey(file)) {
+        ArrayList<File> children = ((Directory) file).getContents();
+        // pushed last to first, so the first child is walked first
+        for (int i = children.size() - 1; i >= 0; i--) {
+          File child = children.get(i);
+          if (wanted.containsKey(child) || onPath.containsKey(child)) {
+            stack.push(child);
+          }
+        }
+      }
+    }
+    return sorted;
+  }
+}
@@ -0,0 +1,256 @@
+package driver;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Represents a compiled pattern find matches file names against. Patterns are
+ * compiled once per search. A pattern that is a plain name, or a literal
+ * prefix and/or suffix around a single wildcard, is matched with equals,
+ * startsWith and endsWith; any other pattern is matched with a regular
+ * expression, reusing one Matcher per thread so matching a name allocates
+ * nothing.
+ *
+ * @author Shamayum Rashad
+ */
+public abstract class NameMatcher {
+
+  /**
+   * Returns whether a file name matches the pattern.
+   * 
+   * @param name  the file name being checked
+   * @return      true if the name matches, false otherwise
+   */
+  public abstract boolean matches(String name);
+
+  /**
+   * Returns the only name the pattern matches, if it only matches one.
+   * 
+   * @return  the name the pattern matches, or null if it matches more
+   */
+  public String getLiteral() {
+    return null;
+  }
+
+  /**
+   * Compiles a shell glob, where * matches any run of characters, ? matches
+   * one character and [...] matches one of the characters listed ([!...] for
+   * any character not listed).
+   * 
+   * @param glob  the glob being compiled
+   * @return      a matcher for the glob
+   * @throws java.util.regex.PatternSyntaxException  exception when a bracket
+   *         of the glob is not a valid set of characters, like [z-a]
+   */
+  public static NameMatcher glob(String glob) {
+    NameMatcher matcher;
+    int star = glob.indexOf('*');
+    if (!hasGlobCharacters(glob)) {
+      matcher = new Literal(glob);
+    } else if (star >= 0 && glob.indexOf('*', star + 1) < 0
+        && !hasGlobCharacters(glob.substring(0, star))
+        && !hasGlobCharacters(glob.substring(star + 1))) {
+      // a single * between a literal prefix and suffix
+      matcher = new Affix(glob.substring(0, star), glob.substring(star + 1));
+    } else {
+      matcher = new Regex(Pattern.compile(globToRegex(glob)));
+    }
+    return matcher;
+  }
+
+  /**
+   * Compiles a regular expression, which has to match the whole name.
+   * 
+   * @param regex  the regular expression being compiled
+   * @return       a matcher for the regular expression
+   * @throws java.util.regex.PatternSyntaxException  exception when the
+   *         regular expression is not valid
+   */
+  public static NameMatcher regex(String regex) {
+    NameMatcher matcher;
+    // leading ^ and trailing $ change nothing when the whole name must match
+    String body = regex;
+    if (body.startsWith("^")) {
+      body = body.substring(1);
+    }
+    if (body.endsWith("$") && !body.endsWith("\\$")) {
+      body = body.substring(0, body.length() - 1);
+    }
+    int wildcard = body.indexOf(".*");
+    if (!hasRegexCharacters(body)) {
+      matcher = new Literal(body);
+    } else if (wildcard >= 0
+        && !hasRegexCharacters(body.substring(0, wildcard))
+        && !hasRegexCharacters(body.substring(wildcard + 2))) {
+      // a single .* between a literal prefix and suffix
+      matcher = new Affix(body.substring(0, wildcard),
+          body.substring(wildcard + 2));
+    } else {
+      matcher = new Regex(Pattern.compile(regex));
+    }
+    return matcher;
+  }
+
+  /**
+   * Returns whether the text has any characters that are special in a glob.
+   * 
+   * @param text  the text being checked
+   * @return      true if the text has a wildcard or bracket
+   */
+  private static boolean hasGlobCharacters(String text) {
+    boolean found = false;
+    for (int i = 0; i < text.length() && !found; i++) {
+      char character = text.charAt(i);
+      found = character == '*' || character == '?' || character == '['
+          || character == '\\';
+    }
+    return found;
+  }
+
+  /**
+   * Returns whether the text has any characters that are special in a regular
+   * expression.
+   * 
+   * @param text  the text being checked
+   * @return      true if the text has a regular expression metacharacter
+   */
+  private static boolean hasRegexCharacters(String text) {
+    boolean found = false;
+    for (int i = 0; i < text.length() && !found; i++) {
+      found = "\\^$.|?*+()[]{}".indexOf(text.charAt(i)) >= 0;
+    }
+    return found;
+  }
+
+  /**
+   * Translates a glob into a regular expression matching the same names.
+   * 
+   * @param glob  the glob being translated
+   * @return      the equivalent regular expression
+   */
+  private static String globToRegex(String glob) {
+    StringBuilder regex = new StringBuilder();
+    int i = 0;
+    while (i < glob.length()) {
+      char character = glob.charAt(i);
+      int close = character == '[' ? glob.indexOf(']', i + 2) : -1;
+      if (character == '*') {
+        regex.append(".*");
+      } else if (character == '?') {
+        regex.append('.');
+      } else if (close > 0) {
+        // copy the bracket as a character class, with [! meaning [^
+        String members = glob.substring(i + 1, close);
+        if (members.startsWith("!")) {
+          members = "^" + members.substring(1);
+        }
+        regex.append('[').append(members.replace("\\", "\\\\")
+            .replace("[", "\\[")).append(']');
+        i = close;
+      } else if (character == '\\' && i + 1 < glob.length()) {
+        // an escaped character is matched as itself
+        i++;
+        regex.append(Pattern.quote(String.valueOf(glob.charAt(i))));
+      } else {
+        regex.append(Pattern.quote(String.valueOf(character)));
+      }
+      i++;
+    }
+    return regex.toString();
+  }
+
+  /**
+   * Represents a pattern that only matches one name.
+   */
+  private static class Literal extends NameMatcher {
+    /**
+     * the name the pattern matches
+     */
+    private final String name;
+
+    /**
+     * Constructs a pattern that only matches the given name.
+     * 
+     * @param name  the name the pattern matches
+     */
+    private Literal(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public boolean matches(String name) {
+      return this.name.equals(name);
+    }
+
+    @Override
+    public String getLiteral() {
+      return this.name;
+    }
+  }
+
+  /**
+   * Represents a pattern matching names with a literal prefix and suffix and
+   * anything in between.
+   */
+  private static class Affix extends NameMatcher {
+    /**
+     * the text the names start with
+     */
+    private final String prefix;
+    /**
+     * the text the names end with
+     */
+    private final String suffix;
+    /**
+     * the shortest name the pattern matches
+     */
+    private final int minimumLength;
+
+    /**
+     * Constructs a pattern matching names with a prefix and suffix.
+     * 
+     * @param prefix  the text the names start with
+     * @param suffix  the text the names end with
+     */
+    private Affix(String prefix, String suffix) {
+      this.prefix = prefix;
+      this.suffix = suffix;
+      this.minimumLength = prefix.length() + suffix.length();
+    }
+
+    @Override
+    public boolean matches(String name) {
+      return name.length() >= this.minimumLength
+          && name.startsWith(this.prefix) && name.endsWith(this.suffix);
+    }
+  }
+
+  /**
+   * Represents a pattern matched with a regular expression.
+   */
+  private static class Regex extends NameMatcher {
+    /**
+     * the compiled regular expression
+     */
+    private final Pattern pattern;
+    /**
+     * a matcher for each thread, reset for every name
+     */
+    private final ThreadLocal<Matcher> matchers;
+
+    /**
+     * Constructs a pattern matched with the given regular expression.
+     * 
+     * @param pattern  the compiled regular expression
+     */
+    private Regex(Pattern pattern) {
+      this.pattern = pattern;
+      this.matchers = ThreadLocal.withInitial(() -> this.pattern.matcher(""));
+    }
+
+    @Override
+    public boolean matches(String name) {
+      return this.matchers.get().reset(name).matches();
+    }
+  }
+}
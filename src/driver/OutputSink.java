@@ -0,0 +1,82 @@
+package driver;
+
+/**
+ * Represents somewhere the output of a command is written to as it is
+ * produced, such as the shell or a text file, so output does not have to be
+ * built up into one string before it is shown.
+ *
+ * @author Shamayum Rashad
+ */
+public abstract class OutputSink {
+
+  /**
+   * the last character written to the sink
+   */
+  private char lastCharacter = '\n';
+
+  /**
+   * Writes the given output to the sink.
+   *
+   * @param output the output to write
+   */
+  public void write(CharSequence output) {
+    if (output.length() > 0) {
+      this.lastCharacter = output.charAt(output.length() - 1);
+      this.append(output);
+    }
+  }
+
+  /**
+   * Writes a prompt to the sink. The output after a prompt doesn't continue
+   * it, so the sink stays at the start of a line if it was at one.
+   *
+   * @param prompt the prompt to write
+   */
+  public void writePrompt(CharSequence prompt) {
+    if (prompt.length() > 0) {
+      this.append(prompt);
+    }
+  }
+
+  /**
+   * Writes a new line to the sink unless the output written so far already
+   * ends with one.
+   */
+  public void endLine() {
+    if (!this.isAtLineStart()) {
+      this.write("\n");
+    }
+  }
+
+  /**
+   * Returns whether the output written so far is empty or ends with a new
+   * line.
+   *
+   * @return true if the next output starts a new line, false otherwise
+   */
+  public boolean isAtLineStart() {
+    return this.lastCharacter == '\n';
+  }
+
+  /**
+   * Returns the output held by the sink that has not been sent anywhere yet.
+   *
+   * @return the output held by the sink
+   */
+  public String getContents() {
+    return "";
+  }
+
+  /**
+   * Sends any output the sink is still holding to where it belongs.
+   */
+  public void flush() {
+  }
+
+  /**
+   * Appends output to wherever the sink sends it.
+   *
+   * @param output the output to append, never empty
+   */
+  protected abstract void append(CharSequence output);
+}
@@ -9,13 +9,10 @@ import java.util.ArrayList;
  */
 public class Path {
   /**
-   * the root directory of the fileSystem
+   * the fileSystem, whose root and current directories are looked up on every
+   * search, so a Path stays right after cd or load
    */
-  private Directory root;
-  /**
-   * the current directory of the fileSystem
-   */
-  private Directory current;
+  private FileSystem<Directory> fileSystem;
   /**
    * the symbol used to separate filenames
    */
@@ -28,76 +25,74 @@ public class Path {
    * @param fs the FileSystem which has access to root and current directories.
    */
   public Path(FileSystem<Directory> fs) {
-    this.root = fs.getRoot();
-    this.current = fs.getCurrentDirectory();
+    this.fileSystem = fs;
   }
 
   /**
    * For command pwd (print working directory). Given a File (could be a
    * Directory or a TextFile), return the path of the file in proper format.
+   * The file caches its path, so it is only rendered again after a file above
+   * it is renamed or moved.
    * 
    * @param file a File that we wish to find its path
    * @return res a String containing the path of the given file
    */
   public String getPath(File file) {
-    String result = this.getPathHelper(file);
-    // trim excess separator at the end
-    if (result.length() > 1) {
-      result = result.substring(0, result.length() - 1);
-    }
-    return result;
+    return file.getAbsolutePath();
   }
 
   /**
-   * Given a File (could be a Directory or a TextFile), return the path of the
-   * file.
+   * Given the path of a File (could be a Directory or a TextFile), return the
+   * file if found, or return error message if not found. Paths resolved since
+   * the file system last changed are answered from the PathCache.
    * 
-   * @param file a File that we wish to find its path
-   * @return result a String containing the path of the given file
+   * @param path a String representing the location of the target File
+   * @return file a File found by using given path
+   * @throws InvalidPathException meaning file with this path does not exist
    */
-  private String getPathHelper(File file) {
-    String result = "";
-    // base case
-    if (file.equals(this.root)) {
-      result = this.root.getFileName();
-      // recursive case
-    } else {
-      result = this.getPathHelper(file.getParentDir()) + file.getFileName()
-          + SEPARATOR;
+  public File searchByPath(String path) throws InvalidPathException {
+    // determine to start at root or current directory
+    Directory start = this.getStartingDirectory(path);
+    File file = PathCache.lookup(start, path);
+    if (file == null) {
+      long generation = PathCache.getGeneration();
+      file = this.resolve(start, path);
+      PathCache.store(start, path, file, generation);
     }
-    return result;
+    return file;
   }
 
   /**
-   * Given the path of a File (could be a Directory or a TextFile), return the
-   * file if found, or return error message if not found.
+   * Given the path of a File and the directory to start from, walk the file
+   * system to the file. This is a helper function for searchByPath.
    * 
+   * @param start the Directory the path starts at
    * @param path a String representing the location of the target File
    * @return file a File found by using given path
    * @throws InvalidPathException meaning file with this path does not exist
    */
-  public File searchByPath(String path) throws InvalidPathException {
+  private File resolve(Directory start, String path)
+      throws InvalidPathException {
     // get an array of the file names that we wish to find in the fileSystem
     ArrayList<String> targetFileNames = this.RetrieveFileNames(path);
-    // determine to start at root or current directory
-    File file = this.getStartingDirectory(path);
-    // get a list of existing files from starting directory
-    ArrayList<File> actualFiles = ((Directory) file).getContents();
+    File file = start;
+    // the directory whose files are searched for the next name
+    Directory directory = (Directory) file;
     for (int i = 0; i < targetFileNames.size(); i++) {
       String name = targetFileNames.get(i);
       // get parent if given ..
       if (name.equals("..")) {
         file = file.getParentDir();
         if (file == null) {
-          file = this.root;
+          file = this.fileSystem.getRoot();
         }
         // if target file name is not one of "..", ".", and "", search for it
       } else {
-        file = this.findFileWithName(actualFiles, name);
+        file = this.findFileWithName(directory, name);
       }
       // advance to next level
       if (file instanceof Directory) {
-        actualFiles = ((Directory) file).getContents();
+        directory = (Directory) file;
       }
     }
     return file;
@@ -114,10 +109,10 @@ public class Path {
    */
   private Directory getStartingDirectory(String path) {
     // if absolute path (starting at root)
-    Directory startingDirectory = this.root;
+    Directory startingDirectory = this.fileSystem.getRoot();
     // if relative path
-    if (!(path.startsWith(this.root.getFileName()))) {
-      startingDirectory = this.current;
+    if (!(path.startsWith(startingDirectory.getFileName()))) {
+      startingDirectory = this.fileSystem.getCurrentDirectory();
     }
     return startingDirectory;
   }
@@ -145,25 +140,23 @@ public class Path {
   }
 
   /**
-   * Given An ArrayList containing Files and a String representing a filename ,
-   * return the File with the name or throw an exception if the File is not
-   * found.
+   * Given a Directory and a String representing a filename, return the File
+   * within the Directory with the name or throw an exception if the File is
+   * not found.
    * 
-   * @param files An ArrayList containing Files
+   * @param directory the Directory containing the Files
    * @param name the name of the file that we are looking for
    * @return file the File with the desired name
    * @throws InvalidPathException if File with this path does not exist
    */
-  private File findFileWithName(ArrayList<File> files, String name)
+  private File findFileWithName(Directory directory, String name)
       throws InvalidPathException {
     // search for file with the given name
-    for (int index = 0; index < files.size(); index++) {
-      File file = files.get(index);
-      if (file.getFileName().equals(name)) {
-        return file;
-      }
+    File file = directory.getChild(name);
+    // if not found, it's clear the File with given fileName does not exist
+    if (file == null) {
+      throw new InvalidPathException("File with this path does not exist.");
     }
-    // at this point, it's clear the File with given fileName does not exist
-    throw new InvalidPathException("File with this path does not exist.");
+    return file;
   }
 }
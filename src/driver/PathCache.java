@@ -0,0 +1,228 @@
+package driver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Represents a bounded, least recently used cache of resolved paths, shared by
+ * every Path. Each entry remembers the generation of the file system it was
+ * resolved in; any change to the structure of the file system starts a new
+ * generation, which makes every older entry stale.
+ *
+ * The absolute path each file caches (see File.getAbsolutePath) only goes
+ * stale when a file is renamed or moved, so those changes also start a new
+ * rename generation, which adding and removing files leave alone.
+ *
+ * @author Ya-Tzu Wang
+ */
+public class PathCache {
+
+  /**
+   * the number of paths cached unless the jshell.pathCacheSize property is set
+   */
+  public static final int DEFAULT_CAPACITY = 1024;
+
+  /**
+   * the generation of the file system, increased on every structural change
+   */
+  private static final AtomicLong generation = new AtomicLong();
+
+  /**
+   * the rename generation of the file system, increased every time a file is
+   * renamed or moved
+   */
+  private static final AtomicLong renames = new AtomicLong();
+
+  /**
+   * the cached paths, in least to most recently used order
+   */
+  private static final LinkedHashMap<String, Entry> entries =
+      new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+          return this.size() > capacity;
+        }
+      };
+
+  /**
+   * the maximum number of paths cached
+   */
+  private static int capacity =
+      Integer.getInteger("jshell.pathCacheSize", DEFAULT_CAPACITY);
+
+  /**
+   * the number of lookups answered by the cache
+   */
+  private static long hits = 0;
+
+  /**
+   * the number of lookups the cache could not answer
+   */
+  private static long misses = 0;
+
+  /**
+   * Represents a resolved path.
+   */
+  private static class Entry {
+    /**
+     * the directory the path was resolved from
+     */
+    private final Directory start;
+    /**
+     * the generation of the file system the path was resolved in
+     */
+    private final long generation;
+    /**
+     * the file the path resolved to
+     */
+    private final File file;
+
+    /**
+     * Constructs a resolved path.
+     *
+     * @param start the directory the path was resolved from
+     * @param generation the generation the path was resolved in
+     * @param file the file the path resolved to
+     */
+    private Entry(Directory start, long generation, File file) {
+      this.start = start;
+      this.generation = generation;
+      this.file = file;
+    }
+  }
+
+  /**
+   * Returns the file the path resolved to from the given directory, if it was
+   * resolved since the file system last changed.
+   *
+   * @param start the directory the path is resolved from
+   * @param path the path being resolved
+   * @return the file the path resolves to, or null if it isn't cached
+   */
+  public static synchronized File lookup(Directory start, String path) {
+    File file = null;
+    Entry entry = entries.get(path);
+    if (entry != null && entry.start == start
+        && entry.generation == generation.get()) {
+      file = entry.file;
+      hits++;
+    } else {
+      misses++;
+    }
+    return file;
+  }
+
+  /**
+   * Caches the file a path resolved to from the given directory.
+   *
+   * @param start the directory the path was resolved from
+   * @param path the path that was resolved
+   * @param file the file the path resolved to
+   * @param resolvedIn the generation the path was resolved in
+   */
+  public static synchronized void store(Directory start, String path,
+      File file, long resolvedIn) {
+    if (capacity > 0) {
+      entries.put(path, new Entry(start, resolvedIn, file));
+    }
+  }
+
+  /**
+   * Returns the current generation of the file system.
+   *
+   * @return the current generation
+   */
+  public static long getGeneration() {
+    return generation.get();
+  }
+
+  /**
+   * Marks every cached path as stale. Called whenever the structure of the
+   * file system changes.
+   */
+  public static void invalidate() {
+    generation.incrementAndGet();
+  }
+
+  /**
+   * Returns the current rename generation of the file system.
+   *
+   * @return the current rename generation
+   */
+  public static long getRenameGeneration() {
+    return renames.get();
+  }
+
+  /**
+   * Marks every cached path, and every absolute path files cached, as stale.
+   * Called whenever a file is renamed or moved.
+   */
+  public static void renamed() {
+    renames.incrementAndGet();
+    generation.incrementAndGet();
+  }
+
+  /**
+   * Changes the maximum number of paths cached, dropping the least recently
+   * used paths if there are too many. A capacity of 0 disables the cache.
+   *
+   * @param newCapacity the maximum number of paths cached
+   */
+  public static synchronized void setCapacity(int newCapacity) {
+    capacity = Math.max(0, newCapacity);
+    while (entries.size() > capacity) {
+      entries.remove(entries.keySet().iterator().next());
+    }
+  }
+
+  /**
+   * Returns the maximum number of paths cached.
+   *
+   * @return the capacity of the cache
+   */
+  public static synchronized int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns the number of lookups answered by the cache.
+   *
+   * @return the number of cache hits
+   */
+  public static synchronized long getHits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of lookups the cache could not answer.
+   *
+   * @return the number of cache misses
+   */
+  public static synchronized long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Empties the cache and resets its counters.
+   */
+  public static synchronized void clear() {
+    entries.clear();
+    hits = 0;
+    misses = 0;
+  }
+
+  /**
+   * Returns a summary of the size and hit rate of the cache.
+   *
+   * @return the cache statistics, on one line
+   */
+  public static synchronized String getStatistics() {
+    long lookups = hits + misses;
+    double hitRate = lookups == 0 ? 0 : 100.0 * hits / lookups;
+    return String.format("path cache: %d/%d entries, %d hits, %d misses, "
+        + "%.1f%% hit rate", entries.size(), capacity, hits, misses, hitRate);
+  }
+}
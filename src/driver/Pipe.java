@@ -0,0 +1,228 @@
+package driver;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents a bounded buffer of lines between two commands of a pipeline.
+ * Output is passed on in chunks of whole lines; once CAPACITY chunks are
+ * waiting, the writing command waits until the reading command catches up,
+ * and once the reading command stops reading, the next write ends the
+ * writing command with a PipeClosedException. Both commands let go of the
+ * FileSystemLock while they wait.
+ *
+ * @author Shamayum Rashad
+ */
+class Pipe implements LineSource {
+
+  /**
+   * the number of characters held back before they are passed on
+   */
+  static final int CHUNK_SIZE = 8192;
+
+  /**
+   * the number of chunks that can wait to be read
+   */
+  static final int CAPACITY = 16;
+
+  /**
+   * the longest a wait goes without checking whether the pipe was closed, in
+   * milliseconds
+   */
+  private static final long WAIT_MILLIS = 50;
+
+  /**
+   * the chunk that marks the end of the output, compared by identity
+   */
+  private static final String END = new String("end of pipe");
+
+  /**
+   * the chunks waiting to be read
+   */
+  private final ArrayBlockingQueue<String> chunks =
+      new ArrayBlockingQueue<String>(CAPACITY);
+
+  /**
+   * where the writing command writes its output
+   */
+  private final OutputSink sink = new PipeSink();
+
+  /**
+   * whether the reading command stopped reading
+   */
+  private volatile boolean closed = false;
+
+  /**
+   * the chunk being read
+   */
+  private String chunk = "";
+
+  /**
+   * where the next line starts in the chunk being read
+   */
+  private int position = 0;
+
+  /**
+   * whether the end of the output was read
+   */
+  private boolean ended = false;
+
+  /**
+   * Represents the end of the pipe the writing command writes to.
+   */
+  private final class PipeSink extends OutputSink {
+
+    /**
+     * the output not passed on yet
+     */
+    private final StringBuilder pending = new StringBuilder();
+
+    /**
+     * Appends output, passing on every whole line once there is a chunk of
+     * them.
+     *
+     * @param output  the output to append
+     */
+    @Override
+    protected void append(CharSequence output) {
+      this.pending.append(output);
+      if (this.pending.length() >= CHUNK_SIZE) {
+        int lineEnd = this.pending.lastIndexOf("\n") + 1;
+        // a line longer than a chunk is passed on in pieces
+        int cut = lineEnd > 0 ? lineEnd : this.pending.length();
+        put(this.pending.substring(0, cut));
+        this.pending.delete(0, cut);
+      }
+    }
+
+    /**
+     * Passes on everything held back.
+     */
+    @Override
+    public void flush() {
+      if (this.pending.length() > 0) {
+        put(this.pending.toString());
+        this.pending.setLength(0);
+      }
+    }
+  }
+
+  /**
+   * Returns where the writing command writes its output.
+   *
+   * @return the sink of the pipe
+   */
+  OutputSink getSink() {
+    return this.sink;
+  }
+
+  /**
+   * Passes on what is held back and marks the end of the output, once the
+   * writing command is done. Nothing is passed on if the pipe was closed.
+   */
+  void finish() {
+    try {
+      this.sink.flush();
+      this.put(END);
+    } catch (PipeClosedException e) {
+      // nobody is reading any more
+    }
+  }
+
+  /**
+   * Reads the next line, waiting for the writing command if it hasn't
+   * written it yet.
+   *
+   * @return the line without its line break, or null at the end of the
+   *         output
+   */
+  @Override
+  public String readLine() {
+    String line = null;
+    StringBuilder partial = null;
+    while (line == null && !this.ended) {
+      int lineBreak = this.chunk.indexOf('\n', this.position);
+      if (lineBreak >= 0) {
+        String piece = this.chunk.substring(this.position, lineBreak);
+        line = partial == null ? piece : partial.append(piece).toString();
+        this.position = lineBreak + 1;
+      } else {
+        // the line goes on in the next chunk
+        if (this.position < this.chunk.length()) {
+          if (partial == null) {
+            partial = new StringBuilder();
+          }
+          partial.append(this.chunk, this.position, this.chunk.length());
+        }
+        this.chunk = this.take();
+        this.position = 0;
+        if (this.chunk == END) {
+          this.ended = true;
+          this.chunk = "";
+          if (partial != null && partial.length() > 0) {
+            line = partial.toString();
+          }
+        }
+      }
+    }
+    return line;
+  }
+
+  /**
+   * Stops reading, so the writing command ends the next time it writes.
+   */
+  @Override
+  public void close() {
+    this.closed = true;
+    this.chunks.clear();
+  }
+
+  /**
+   * Passes on a chunk, waiting while the pipe is full.
+   *
+   * @param next  the chunk
+   */
+  private void put(String next) {
+    if (this.closed) {
+      throw new PipeClosedException();
+    }
+    if (!this.chunks.offer(next)) {
+      int holds = FileSystemLock.releaseAll();
+      try {
+        boolean added = false;
+        while (!added) {
+          if (this.closed) {
+            throw new PipeClosedException();
+          }
+          added = this.chunks.offer(next, WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new PipeClosedException();
+      } finally {
+        FileSystemLock.reacquire(holds);
+      }
+    }
+  }
+
+  /**
+   * Takes the next chunk, waiting while the pipe is empty.
+   *
+   * @return the chunk, or END
+   */
+  private String take() {
+    String next = this.chunks.poll();
+    if (next == null) {
+      int holds = FileSystemLock.releaseAll();
+      try {
+        next = this.chunks.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        next = END;
+      } finally {
+        FileSystemLock.reacquire(holds);
+      }
+    }
+    return next;
+  }
+}
@@ -0,0 +1,22 @@
+package driver;
+
+/**
+ * Thrown when a command writes to a pipe the next command stopped reading,
+ * which ends the command early.
+ *
+ * @author Shamayum Rashad
+ */
+class PipeClosedException extends RuntimeException {
+
+  /**
+   * the serial version for serialization
+   */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Constructs the exception.
+   */
+  PipeClosedException() {
+    super("pipe closed");
+  }
+}
@@ -0,0 +1,224 @@
+package driver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs a pipeline of commands, where each command reads the output of the
+ * command before it a line at a time. Every command but the last runs on a
+ * thread of its own, writing to a Pipe the next command reads from, so the
+ * commands run at the same time while each pipe holds only a few chunks of
+ * output. A command that stops reading, like head, ends the commands before
+ * it the next time they write.
+ *
+ * The commands take turns with the file system through the FileSystemLock,
+ * letting go of it while they wait for a pipe. Only the last command can be
+ * redirected, and the errors of the others are printed after its output.
+ * Since the commands share the current directory and directory stack of the
+ * shell while running in no set order, commands that change them (cd, pushd
+ * and popd) can't be part of a pipeline.
+ *
+ * @author Shamayum Rashad
+ */
+public class Pipeline {
+
+  /**
+   * the name a pipeline is recorded under in place of a command
+   */
+  static final String COMMAND = "|";
+
+  /**
+   * the commands that change the current directory or directory stack
+   */
+  private static final Set<String> DIRECTORY_COMMANDS =
+      new HashSet<String>(Arrays.asList("cd", "pushd", "popd"));
+
+  /**
+   * Runs a pipeline, writing the output of the last command and every error
+   * to the given sink.
+   *
+   * @param stages      the commands of the pipeline with their arguments, in
+   *                    order, as split by CommandLine.splitPipeline
+   * @param fileSystem  the file system the commands work on
+   * @param output      where the output of the last command and the errors
+   *                    are written
+   * @return            the last command, or null if the pipeline wasn't run
+   */
+  public static Command run(List<String> stages,
+      FileSystem<Directory> fileSystem, OutputSink output) {
+
+    // make every command before any of them runs
+    int count = stages.size();
+    ArrayList<String> commands = new ArrayList<String>(count);
+    ArrayList<ArrayList<String>> arguments =
+        new ArrayList<ArrayList<String>>(count);
+    Stage[] running = new Stage[count - 1];
+    String error = null;
+    for (int stage = 0; stage < count && error == null; stage++) {
+      HashMap<String, ArrayList<String>> parsed =
+          Parser.parseInput(stages.get(stage));
+      for (Map.Entry<String, ArrayList<String>> pair : parsed.entrySet()) {
+        commands.add(pair.getKey());
+        arguments.add(pair.getValue());
+      }
+      String command = commands.get(stage);
+      ArrayList<String> stageArguments = arguments.get(stage);
+      if (command.isEmpty()) {
+        error = "pipeline: missing command";
+      } else if (DIRECTORY_COMMANDS.contains(command)) {
+        error = command + ": can't change the current directory in a "
+            + "pipeline";
+      } else if (stage == count - 1) {
+        if (!CommandRegistry.isRegistered(command)) {
+          error = notFound(command);
+        }
+      } else if (RedirectionDecorator.redirectionStart(stageArguments)
+          < stageArguments.size()) {
+        error = command + ": only the last command of a pipeline can be "
+            + "redirected";
+      } else {
+        try {
+          running[stage] = new Stage(
+              CommandRegistry.create(command, fileSystem), stageArguments,
+              stage > 0 ? running[stage - 1].pipe : null);
+        } catch (InvalidCommandException e) {
+          error = notFound(command);
+        }
+      }
+    }
+
+    Command last = null;
+    if (error != null) {
+      output.write(error + "\n");
+    } else {
+      LineSource input = null;
+      for (Stage stage : running) {
+        stage.start();
+        input = stage.pipe;
+      }
+
+      // the last command runs here, where it can be redirected
+      try {
+        last = JShell.runCommand(commands.get(count - 1),
+            arguments.get(count - 1), fileSystem, output, input);
+        output.endLine();
+      } catch (InvalidCommandException e) {
+        output.write(notFound(commands.get(count - 1)) + "\n");
+      } finally {
+        if (input != null) {
+          input.close();
+        }
+      }
+
+      for (Stage stage : running) {
+        stage.finish();
+        if (stage.command.getHasError()) {
+          output.write(stage.command.getError() + "\n");
+        }
+      }
+    }
+    return last;
+  }
+
+  /**
+   * Returns the error for a command that doesn't exist.
+   *
+   * @param command  the name of the command
+   * @return         the error, which blames the quotes if it has any
+   */
+  private static String notFound(String command) {
+    String error;
+    if (command.contains("\"")) {
+      error = command + ": excessive quotes";
+    } else {
+      error = command + ": command not found";
+    }
+    return error;
+  }
+
+  /**
+   * Represents a command of a pipeline other than the last, running on a
+   * thread of its own.
+   */
+  private static final class Stage extends Thread {
+
+    /**
+     * the command
+     */
+    private final Command command;
+
+    /**
+     * the arguments of the command
+     */
+    private final ArrayList<String> arguments;
+
+    /**
+     * the input of the command, or null for the first command
+     */
+    private final LineSource input;
+
+    /**
+     * the pipe the command writes its output to
+     */
+    private final Pipe pipe = new Pipe();
+
+    /**
+     * Makes a command to run in a pipeline.
+     *
+     * @param command    the command, which isn't run anywhere else
+     * @param arguments  the arguments of the command
+     * @param input      the input of the command, or null for none
+     */
+    private Stage(Command command, ArrayList<String> arguments,
+        LineSource input) {
+      super("pipeline stage");
+      this.command = command;
+      this.arguments = arguments;
+      this.input = input;
+      this.command.setInput(input);
+      this.command.setOutputSink(this.pipe.getSink());
+      this.setDaemon(true);
+    }
+
+    /**
+     * Runs the command, then marks the end of its output and stops reading
+     * its input.
+     */
+    @Override
+    public void run() {
+      FileSystemLock.lock();
+      try {
+        this.command.executeCommand(this.arguments);
+      } catch (PipeClosedException e) {
+        // the next command stopped reading
+      } finally {
+        FileSystemLock.unlock();
+        this.pipe.finish();
+        if (this.input != null) {
+          this.input.close();
+        }
+      }
+    }
+
+    /**
+     * Waits for the command to end.
+     */
+    private void finish() {
+      boolean joined = false;
+      while (!joined) {
+        try {
+          this.join();
+          joined = true;
+        } catch (InterruptedException e) {
+          // the command ends soon once nothing reads its output
+          this.pipe.close();
+        }
+      }
+    }
+  }
+}
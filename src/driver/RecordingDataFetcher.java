@@ -0,0 +1,103 @@
+package driver;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+/**
+ * Represents a fetcher that remembers what it fetched, so it can be written
+ * to the journal, and that can be given what was fetched before to hand out
+ * again instead of fetching it, when the journal is replayed.
+ *
+ * @author Ya-Tzu Wang
+ */
+class RecordingDataFetcher implements RemoteDataFetcher {
+
+  /**
+   * the fetcher used for addresses that weren't fetched before
+   */
+  private final RemoteDataFetcher fetcher;
+
+  /**
+   * the addresses and contents fetched since they were last taken
+   */
+  private final ArrayList<String[]> fetched = new ArrayList<>();
+
+  /**
+   * the addresses and contents fetched before, in the order they were fetched
+   */
+  private final ArrayDeque<String[]> replayed = new ArrayDeque<>();
+
+  /**
+   * whether the journal is being replayed, so nothing is really fetched
+   */
+  private boolean replaying = false;
+
+  /**
+   * Constructs a fetcher that records what the given fetcher fetches.
+   *
+   * @param fetcher the fetcher used for addresses that weren't fetched before
+   */
+  RecordingDataFetcher(RemoteDataFetcher fetcher) {
+    this.fetcher = fetcher;
+  }
+
+  /**
+   * Returns the contents at the address. While replaying, the contents are
+   * the ones fetched before, and an address that wasn't fetched before fails
+   * the way it did then.
+   *
+   * @param URL address of the file
+   * @return content the content of the file
+   * @throws IOException raised when the contents can't be fetched
+   */
+  @Override
+  public String getRemoteDataFromURL(String URL) throws IOException {
+    String content;
+    if (this.replaying) {
+      String[] next = this.replayed.peek();
+      if (next == null || !next[0].equals(URL)) {
+        throw new IOException(URL + " was not fetched");
+      }
+      content = this.replayed.poll()[1];
+    } else {
+      content = this.fetcher.getRemoteDataFromURL(URL);
+      this.fetched.add(new String[] {URL, content});
+    }
+    return content;
+  }
+
+  /**
+   * Returns what was fetched since the last time this was called.
+   *
+   * @return the address and contents of everything fetched, in order
+   */
+  ArrayList<String[]> takeFetched() {
+    ArrayList<String[]> taken = new ArrayList<>(this.fetched);
+    this.fetched.clear();
+    return taken;
+  }
+
+  /**
+   * Gives the fetcher contents that were fetched before, to hand out again
+   * while replaying.
+   *
+   * @param URL address of the file
+   * @param content the content fetched from it
+   */
+  void replay(String URL, String content) {
+    this.replayed.add(new String[] {URL, content});
+  }
+
+  /**
+   * Changes whether the journal is being replayed.
+   *
+   * @param replaying whether contents are handed out instead of fetched
+   */
+  void setReplaying(boolean replaying) {
+    this.replaying = replaying;
+    if (!replaying) {
+      this.replayed.clear();
+    }
+  }
+}
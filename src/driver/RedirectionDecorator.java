@@ -78,17 +78,20 @@ public class RedirectionDecorator extends Command{
       output += this.commandType + ": no outfile given" + "\n";
     }
 
-    // if the redirection is valid, execute the command and record the errors
+    /*
+     * if the redirection is valid, execute the command with its output going
+     * straight to the redirection and record the errors
+     */
     else if (validRedirection()) {
-      command.executeCommand(arguments);
-      if (command.getHasError()) {
-        output += command.getError() + "\n";
+      OutputSink sink = this.redirectOutput(arguments);
+      if (sink != null) {
+        command.setOutputSink(sink);
+        command.executeCommand(arguments);
+        sink.flush();
       }
-      // record the output of the redirection
-      output += this.redirectOutput();
-
-      if (output.endsWith("\n")) {
-        output = output.substring(0, output.length() - 1);
+      if (command.getHasError()) {
+        this.getOutputSink().endLine();
+        output += command.getError();
       }
     }
 
@@ -225,78 +228,61 @@ public class RedirectionDecorator extends Command{
   }
 
   /**
-   * Redirect the output of the command depending on the redirection given.
+   * Returns the sink the output of the command is redirected to, depending on
+   * the redirection given. The out file is created if it doesn't exist yet.
    * 
-   * @return  the output to the JShell.
+   * @param arguments  the arguments for the command
+   * @return  the sink for the command output, or null if the out file given
+   *          can't be written to
    */
-  private String redirectOutput() {
+  private OutputSink redirectOutput(ArrayList<String> arguments) {
 
-    String output = "";
+    OutputSink sink = null;
 
-    /* 
-     * if the redirection is append, append the output of the command to the
-     * file given
-     */
-    if (redirection.equals("append")) {
-      append(this.command);
+    // if the redirection is standard, the output goes to the JShell
+    if (redirection.equals("standard")) {
+      sink = this.getOutputSink();
     }
 
     /*
-     * if the redirection is overwrite, overwrite the output of the command to
-     * the file given
+     * otherwise, the output of the command overwrites or is appended to the
+     * file given
      */
-    else if (redirection.equals("overwrite")) {
-      overwrite(this.command);
-    }
-
-    // otherwise, store it in the redirectionDecorator to return to JShell
     else {
-      output = this.command.getPrintCommand();
+      File file = echoFile(this.redirectionPath.get(0), this.command);
+      if (file instanceof TextFile) {
+        sink = new TextFileOutputSink((TextFile) file,
+            redirection.equals("append"), this.readsFile(arguments, file));
+      // if file is not a text file, give an error
+      } else if (!file.getFileName().equals("")) {
+        command.setError(this.redirectionPath.get(0) + ": not a TextFile");
+      }
     }
 
-    return output;
-  }
-
-  /**
-   * Overwrites the content of the file by the output of the given command.
-   * 
-   * @param command  the command that provides the output
-   */
-  private void overwrite(Command command) {
-
-    String filePath = this.redirectionPath.get(0);
-    File file = echoFile(filePath, command);
-
-    if (file instanceof TextFile) {
-      ((TextFile) file).setContents(command.getPrintCommand());
-    // if file is not a text file, give an error
-    } else if (file.getFileName().equals("")) {
-    } else {
-      command.setError(this.redirectionPath.get(0) + ": not a TextFile");
-    }
+    return sink;
   }
 
-
   /**
-   * Add the string in arguments to the text file in arguments.
+   * Returns whether the command could read the out file while it writes to
+   * it, because one of its arguments is the out file or it reads an input
+   * such as the output of the command before it in a pipeline.
    * 
-   * @param command the command that provides the output
+   * @param arguments  the arguments for the command
+   * @param file       the out file
+   * @return           true if the output has to wait until the command ends
    */
-  private void append(Command command) {
-
-    String filePath = this.redirectionPath.get(0);
-    File file = echoFile(filePath, command);
+  private boolean readsFile(ArrayList<String> arguments, File file) {
 
-    // if the path given is a text file, append the string to the text file
-    if (file instanceof TextFile) {
-      ((TextFile) file).setContents(((TextFile) file).getContents()
-          + command.getPrintCommand());
-    }
-    // otherwise, if it is not a text file, return an error
-    else if (file.getFileName().equals("")) {
-    } else {
-      command.setError(this.redirectionPath.get(0) + ": not a TextFile");
+    boolean reads = this.command.getInput() != null;
+    Path filePath = new Path(fileSystem);
+    for (int index = 0; !reads && index < arguments.size(); index++) {
+      try {
+        reads = filePath.searchByPath(arguments.get(index)) == file;
+      } catch (InvalidPathException e) {
+        // an argument that isn't a path can't be the out file
+      }
     }
+    return reads;
   }
 
   /**
@@ -318,6 +304,7 @@ public class RedirectionDecorator extends Command{
       // if there is no file, and its a file name, create a text file
       if (!path.contains("/")) {
         try {
+          FileNameValidator.validate(path);
           file = new TextFile(path, fileSystem.getCurrentDirectory(), "");
           fileSystem.getCurrentDirectory().addContents((TextFile) file);
           // if the file name is invalid, give an error
@@ -336,6 +323,7 @@ public class RedirectionDecorator extends Command{
           // if the parent is a directory, create a text file
           File parentFile = filePath.searchByPath(parentPath);
           if (parentFile instanceof Directory) {
+            FileNameValidator.validate(outfile);
             file = new TextFile(outfile, (Directory) parentFile, "");
             ((Directory) parentFile).addContents((TextFile) file);
             // if parent if not a directory, give an error
@@ -10,6 +10,12 @@ public class Save extends Command {
   private JFileSystem fileSystem;
   private FileSystemSaver saver;
 
+  /**
+   * Whether the file system was saved to the file before the command
+   * returned.
+   */
+  private boolean saved = false;
+
   /**
    * Construct a save object.
    * 
@@ -29,23 +35,61 @@ public class Save extends Command {
    * appropriate exceptions.
    * 
    * @param arguments The only element in the arguments should be the absolute
-   *        path to the file.
+   *        path to the file, optionally after --incremental or -b, or only -s
+   *        to ask how far a background save got.
    */
   public void executeCommand(ArrayList<String> arguments) {
 
-    if (arguments.isEmpty()) {
+    // with --incremental, only what changed since the last save is written,
+    // and with -b the file system is written while the shell keeps going
+    String option = arguments.isEmpty() ? "" : arguments.get(0);
+    boolean incremental = option.equals("--incremental");
+    boolean background = option.equals("-b");
+    boolean status = option.equals("-s");
+    if (incremental || background || status) {
+      arguments = new ArrayList<String>(arguments.subList(1, arguments.size()));
+    }
+
+    if (status) {
+      if (arguments.isEmpty()) {
+        this.setPrintCommand(saver.getBackgroundStatus());
+      } else {
+        this.setError("Save: too many file names given");
+      }
+    }
+    else if (arguments.isEmpty()) {
       this.setError("Save: no file name given");
     }
 
     else if (arguments.size() > 1) {
       this.setError("Save: too many file names given");
     }
+    else if (background) {
+      String filePath = arguments.get(0);
+      this.setError(saver.saveInBackground(filePath, this.fileSystem));
+    }
+    else if (incremental) {
+      String filePath = arguments.get(0);
+      this.setError(saver.saveIncrementally(filePath, this.fileSystem));
+      this.saved = this.getError().isEmpty();
+    }
     else {
       String filePath = arguments.get(0);
       this.setError(saver.saveFileSystem(filePath, this.fileSystem));
+      this.saved = this.getError().isEmpty();
     }
   }
 
+  /**
+   * Returns whether the file system was saved to the file before the command
+   * returned, rather than only started saving in the background.
+   * 
+   * @return true if the file holds the file system as it is now
+   */
+  boolean isSaved() {
+    return this.saved;
+  }
+
   public String toString() {
     return fileSystem.toString();
   }
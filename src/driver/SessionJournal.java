@@ -0,0 +1,267 @@
+package driver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps a journal of the commands used in the shell, so a shell that stopped
+ * without saving can be brought back to where it was. Every command line is
+ * appended: commands that change the file system or where the shell is
+ * (mkdir, cp, mv, cd, pushd, popd, get, pipelines, which can run any of them,
+ * and anything redirected to a file) are replayed when recovering, together
+ * with the contents get fetched, and the other lines are only put back in the
+ * history. A successful save or load
+ * replaces the journal with a single record pointing at the saved file, so
+ * recovering loads that file and replays what came after it.
+ *
+ * @author Shamayum Rashad
+ */
+class SessionJournal {
+
+  /**
+   * a command line that is replayed
+   */
+  static final byte COMMAND = 'C';
+
+  /**
+   * a command line that is only put back in the history
+   */
+  static final byte HISTORY = 'H';
+
+  /**
+   * the address and contents a get command fetched
+   */
+  static final byte FETCHED = 'F';
+
+  /**
+   * the saved file the rest of the journal follows, and the size of the
+   * history when it was saved or loaded
+   */
+  static final byte CHECKPOINT = 'S';
+
+  /**
+   * the commands that change the file system or where the shell is
+   */
+  private static final Set<String> CHANGING_COMMANDS = new HashSet<String>(
+      Arrays.asList("mkdir", "cp", "mv", "cd", "pushd", "popd", "get",
+          Pipeline.COMMAND));
+
+  /**
+   * the file system the commands work on
+   */
+  private final FileSystem<Directory> fileSystem;
+
+  /**
+   * the fetcher get commands are given, which records what they fetch
+   */
+  private final RecordingDataFetcher fetcher =
+      new RecordingDataFetcher(new HTTPDataFetcher());
+
+  /**
+   * the journal, or null if it couldn't be opened
+   */
+  private Journal journal = null;
+
+  /**
+   * Constructs a journal of the commands used on the file system.
+   *
+   * @param fileSystem the file system the commands work on
+   */
+  SessionJournal(FileSystem<Directory> fileSystem) {
+    this.fileSystem = fileSystem;
+  }
+
+  /**
+   * Opens the journal in the given file and replays it, bringing the file
+   * system back to where it was when the last shell using the journal
+   * stopped. The jshell.journalBatch and jshell.journalMillis properties
+   * control how many records are forced to disk together and how long a
+   * record can wait for that.
+   *
+   * @param fileName the file the journal is kept in
+   * @param saver the saver used to load the last saved file
+   * @return what was recovered, or why nothing was, or an empty string if the
+   *         journal was empty
+   */
+  String open(String fileName, FileSystemSaver saver) {
+    String message = "";
+    try {
+      Path path = Paths.get(fileName);
+      this.journal = Journal.open(path,
+          Integer.getInteger("jshell.journalBatch",
+              Journal.DEFAULT_BATCH_SIZE),
+          Long.getLong("jshell.journalMillis", Journal.DEFAULT_BATCH_MILLIS));
+      Parser.setDataFetcher(this.fetcher);
+      message = this.recover(path, saver);
+    } catch (IOException | java.nio.file.InvalidPathException e) {
+      this.journal = null;
+      message = "journal: " + fileName + ": can't be used (" + e.getMessage()
+          + ")";
+    }
+    return message;
+  }
+
+  /**
+   * Records a command line after it was used.
+   *
+   * @param userInput the command line
+   * @param command the command of the line, or Pipeline.COMMAND for a
+   *        pipeline
+   * @param parsed the arguments of the command, with any redirection, or
+   *        null for a pipeline
+   * @param executed the command that was run, or null if none was
+   * @return any errors writing the journal
+   */
+  String commandRun(String userInput, String command, List<String> parsed,
+      Command executed) {
+    String errors = "";
+    if (this.journal != null) {
+      try {
+        boolean redirected = parsed != null
+            && RedirectionDecorator.redirectionStart(parsed) < parsed.size();
+        if (parsed != null
+            && ((executed instanceof Save && ((Save) executed).isSaved())
+            || (executed instanceof Load && executed.getError().isEmpty()))) {
+          // the saved file holds everything journaled so far
+          List<String> arguments =
+              parsed.subList(0, RedirectionDecorator.redirectionStart(parsed));
+          String saved = Paths.get(arguments.get(arguments.size() - 1))
+              .toAbsolutePath().toString();
+          this.journal.restart(CHECKPOINT, saved,
+              Integer.toString(this.fileSystem.getCommandHistory().size()));
+        } else if (executed != null
+            && (CHANGING_COMMANDS.contains(command) || redirected)) {
+          for (String[] fetched : this.fetcher.takeFetched()) {
+            this.journal.append(FETCHED, fetched);
+          }
+          this.journal.append(COMMAND, userInput);
+        } else {
+          this.journal.append(HISTORY, userInput);
+        }
+      } catch (IOException e) {
+        errors = "journal: " + e.getMessage();
+      }
+    }
+    return errors;
+  }
+
+  /**
+   * Writes every record to disk and closes the journal.
+   *
+   * @return any errors writing the journal
+   */
+  String close() {
+    String errors = "";
+    if (this.journal != null) {
+      try {
+        this.journal.close();
+      } catch (IOException e) {
+        errors = "journal: " + e.getMessage();
+      }
+      this.journal = null;
+      Parser.setDataFetcher(null);
+    }
+    return errors;
+  }
+
+  /**
+   * Loads the file last saved or loaded and replays every command used after
+   * it.
+   *
+   * @param path the file the journal is kept in
+   * @param saver the saver used to load the saved file
+   * @return what was recovered, or why nothing was
+   * @throws IOException exception when a journal that can't be recovered
+   *         can't be set aside either
+   */
+  private String recover(Path path, FileSystemSaver saver) throws IOException {
+    List<Journal.Record> records = this.journal.getRecovered();
+    int start = 0;
+    Journal.Record checkpoint = null;
+    for (int i = 0; i < records.size(); i++) {
+      if (records.get(i).getType() == CHECKPOINT) {
+        checkpoint = records.get(i);
+        start = i + 1;
+      }
+    }
+
+    String message = "";
+    if (checkpoint != null && !checkpoint.getField(0).isEmpty()) {
+      String saved = checkpoint.getField(0);
+      // the saver expects to be loading as the first command
+      this.fileSystem.addToHistory("load " + saved);
+      String errors = saver.getSavedFileSystem(saved, this.fileSystem);
+      ArrayList<String> history = this.fileSystem.getCommandHistory();
+      if (errors.isEmpty()) {
+        int savedHistory = Integer.parseInt(checkpoint.getField(1));
+        if (history.size() > savedHistory) {
+          history.subList(savedHistory, history.size()).clear();
+        }
+      } else {
+        history.clear();
+        Path kept = path.resolveSibling(path.getFileName() + ".old");
+        Files.copy(path, kept, StandardCopyOption.REPLACE_EXISTING);
+        this.journal.restart(CHECKPOINT, "", "0");
+        message = "journal: can't load " + saved + " (" + errors
+            + "), the journal was moved to " + kept;
+        start = records.size();
+      }
+    }
+
+    int replayed = 0;
+    this.fetcher.setReplaying(true);
+    for (Journal.Record record : records.subList(start, records.size())) {
+      if (record.getType() == FETCHED) {
+        this.fetcher.replay(record.getField(0), record.getField(1));
+      } else if (record.getType() == HISTORY) {
+        this.fileSystem.addToHistory(record.getField(0));
+      } else if (record.getType() == COMMAND) {
+        this.fileSystem.addToHistory(record.getField(0));
+        this.replay(record.getField(0));
+        replayed++;
+      }
+    }
+    this.fetcher.setReplaying(false);
+
+    if (message.isEmpty() && !records.isEmpty()) {
+      message = "journal: recovered " + replayed + " commands"
+          + (checkpoint != null && !checkpoint.getField(0).isEmpty()
+              ? " since saving " + checkpoint.getField(0) : "");
+    }
+    return message;
+  }
+
+  /**
+   * Runs a command line again, ignoring its output.
+   *
+   * @param userInput the command line
+   */
+  private void replay(String userInput) {
+    List<String> stages = CommandLine.splitPipeline(userInput);
+    if (stages.size() > 1) {
+      Pipeline.run(stages, this.fileSystem, new StringOutputSink());
+    } else {
+      HashMap<String, ArrayList<String>> inputParsed =
+          Parser.parseInput(userInput);
+      for (Map.Entry<String, ArrayList<String>> pair
+          : inputParsed.entrySet()) {
+        try {
+          JShell.runCommand(pair.getKey(), pair.getValue(), this.fileSystem,
+              new StringOutputSink());
+        } catch (InvalidCommandException e) {
+          // it wasn't a command the first time either
+        }
+      }
+    }
+  }
+}
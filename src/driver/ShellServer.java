@@ -0,0 +1,174 @@
+package driver;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves one file system to many users at once over TCP on the loopback
+ * address. Each connection is a session of the file system (see
+ * JFileSystem.createSession) with its own current directory, history and
+ * directory stack, run by a thread of its own the way JShell runs its
+ * standard input in interactive mode: the prompt is sent once a command's
+ * output is, so a client knows the command is done.
+ *
+ * Commands from different sessions take turns with the files through the
+ * FileSystemLock, like the commands of a pipeline.
+ *
+ * Run with: java driver.ShellServer [-p port]
+ *
+ * @author Shamayum Rashad
+ */
+public class ShellServer {
+
+  /**
+   * the port listened on when none is given
+   */
+  public static final int DEFAULT_PORT = 7777;
+
+  /**
+   * the number of connections that can wait to be accepted
+   */
+  private static final int BACKLOG = 1024;
+
+  /**
+   * the file system the sessions share
+   */
+  private final JFileSystem fileSystem;
+
+  /**
+   * the socket connections are accepted on
+   */
+  private final ServerSocket serverSocket;
+
+  /**
+   * the connections of the sessions running
+   */
+  private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+  /**
+   * the number of sessions started
+   */
+  private final AtomicLong sessions = new AtomicLong();
+
+  /**
+   * Starts listening for connections.
+   *
+   * @param fileSystem  the file system the sessions share
+   * @param port        the port to listen on, or 0 for any free port
+   * @throws IOException  exception when the port can't be listened on
+   */
+  public ShellServer(JFileSystem fileSystem, int port) throws IOException {
+    this.fileSystem = fileSystem;
+    this.serverSocket =
+        new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+  }
+
+  /**
+   * Returns the port the server listens on.
+   *
+   * @return the port
+   */
+  public int getPort() {
+    return this.serverSocket.getLocalPort();
+  }
+
+  /**
+   * Returns the number of sessions started so far.
+   *
+   * @return the number of sessions
+   */
+  public long getSessionCount() {
+    return this.sessions.get();
+  }
+
+  /**
+   * Accepts connections, starting a session for each, until the server is
+   * closed.
+   */
+  public void serve() {
+    boolean open = true;
+    while (open) {
+      try {
+        Socket connection = this.serverSocket.accept();
+        connection.setTcpNoDelay(true);
+        this.connections.add(connection);
+        Thread session = new Thread(() -> this.runSession(connection),
+            "session " + this.sessions.incrementAndGet());
+        session.setDaemon(true);
+        session.start();
+      } catch (IOException e) {
+        open = !this.serverSocket.isClosed();
+      }
+    }
+  }
+
+  /**
+   * Stops accepting connections and ends every session, then waits for a
+   * save a session started in the background to finish.
+   */
+  public void close() {
+    try {
+      this.serverSocket.close();
+    } catch (IOException e) {
+      // it stops listening either way
+    }
+    for (Socket connection : this.connections) {
+      try {
+        connection.close();
+      } catch (IOException e) {
+        // the session ends either way
+      }
+    }
+    try {
+      BackgroundSave.await(0);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Runs the commands of a connection until it sends exit or closes.
+   *
+   * @param connection  the connection of the session
+   */
+  private void runSession(Socket connection) {
+    JFileSystem session = this.fileSystem.createSession();
+    try {
+      StandardOutputSink output =
+          new StandardOutputSink(connection.getOutputStream());
+      JShell.run(Thread.currentThread().getName(),
+          connection.getInputStream(), false, session, output,
+          new SessionJournal(session));
+    } catch (IOException e) {
+      // the client went away before the session started
+    } finally {
+      this.connections.remove(connection);
+      try {
+        connection.close();
+      } catch (IOException e) {
+        // it is closed either way
+      }
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+
+    int port = DEFAULT_PORT;
+    if (args.length == 2 && args[0].equals("-p")
+        && args[1].matches("[0-9]{1,5}")) {
+      port = Integer.parseInt(args[1]);
+    } else if (args.length != 0) {
+      System.err.println("usage: ShellServer [-p port]");
+      System.exit(2);
+    }
+    ShellServer server =
+        new ShellServer(JFileSystem.createInstanceOfJFileSystem(), port);
+    System.err.println("listening on port " + server.getPort());
+    server.serve();
+  }
+}
@@ -0,0 +1,61 @@
+package driver;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+
+/**
+ * Represents an output sink that writes to the shell's standard output
+ * through a buffer, so large outputs are printed as they are produced
+ * without a system call for every write.
+ *
+ * @author Shamayum Rashad
+ */
+public class StandardOutputSink extends OutputSink {
+
+  /**
+   * the size of the output buffer in characters
+   */
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /**
+   * the buffered writer to the standard output
+   */
+  private BufferedWriter writer;
+
+  /**
+   * Constructs an output sink that writes to the given stream.
+   *
+   * @param out the stream the output is written to, usually System.out
+   */
+  public StandardOutputSink(OutputStream out) {
+    this.writer = new BufferedWriter(new OutputStreamWriter(out), BUFFER_SIZE);
+  }
+
+  /**
+   * Appends output to the buffer, which is written out once it is full.
+   *
+   * @param output the output to append
+   */
+  @Override
+  protected void append(CharSequence output) {
+    try {
+      this.writer.append(output);
+    } catch (IOException e) {
+      // the standard output is gone, so there is nowhere to report it
+    }
+  }
+
+  /**
+   * Writes out everything held in the buffer.
+   */
+  @Override
+  public void flush() {
+    try {
+      this.writer.flush();
+    } catch (IOException e) {
+      // the standard output is gone, so there is nowhere to report it
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package driver;
+
+import java.util.ArrayList;
+
+/**
+ * Represents the stats command in the command line. Prints statistics about
+ * the caches and indexes the shell keeps to speed up commands.
+ *
+ * @author Ya-Tzu Wang
+ */
+public class Stats extends Command {
+
+  /**
+   * Constructs an object to represent the stats command on the command line.
+   */
+  public Stats() {
+    super(true);
+  }
+
+  /**
+   * Executes the stats command, modifying the output string to include the
+   * statistics of the path cache, the name index and the blob store.
+   *
+   * @param arguments an empty list
+   */
+  public void executeCommand(ArrayList<String> arguments) {
+
+    // if there are no arguments given, print the statistics
+    if (arguments.isEmpty()) {
+      this.setPrintCommand(PathCache.getStatistics());
+      this.setPrintCommand("\n");
+      this.setPrintCommand(NameIndex.getStatistics());
+      this.setPrintCommand("\n");
+      this.setPrintCommand(BlobStore.getStatistics());
+    }
+    // otherwise, give an error
+    else {
+      String invalidArgument = arguments.toString();
+      this.setError(invalidArgument.substring(1, invalidArgument.length() - 1)
+          + ": stats does not take any inputs");
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package driver;
+
+/**
+ * Represents an output sink that holds all of the output written to it, so it
+ * can be retrieved as a string afterwards.
+ *
+ * @author Shamayum Rashad
+ */
+public class StringOutputSink extends OutputSink {
+
+  /**
+   * the output written so far
+   */
+  private StringBuilder output = new StringBuilder();
+
+  /**
+   * Appends output to the held output.
+   *
+   * @param output the output to append
+   */
+  @Override
+  protected void append(CharSequence output) {
+    this.output.append(output);
+  }
+
+  /**
+   * Returns all of the output written to the sink.
+   *
+   * @return the output written so far
+   */
+  @Override
+  public String getContents() {
+    return this.output.toString();
+  }
+}
@@ -1,5 +1,9 @@
 package driver;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
 public class TextFile extends File {
 
   /**
@@ -8,10 +12,23 @@ public class TextFile extends File {
   private static final long serialVersionUID = 5L;
 
   /**
-   * Represents the data in the text file.
+   * Represents the data in the text file while it is being serialized, and
+   * null the rest of the time.
    */
   private String contents;
 
+  /**
+   * Represents the data in the text file, which other text files with the
+   * same data can share, or null while it is being appended to.
+   */
+  private transient Blob blob;
+
+  /**
+   * Represents the data in the text file while it is being appended to, or
+   * null once it is joined back into a blob.
+   */
+  private transient volatile TextRope rope;
+
   /**
    * Creates a TextFile object
    * 
@@ -21,7 +38,20 @@ public class TextFile extends File {
    */
   public TextFile(String name, Directory parent, String content) {
     super(name, parent);
-    this.contents = content;
+    this.blob = BlobStore.store(content);
+  }
+
+  /**
+   * Creates a TextFile object sharing contents another text file holds, or
+   * whose contents stay in a mapped snapshot file until they are read.
+   * 
+   * @param name Represents the desired name of the new file.
+   * @param parent Represents the parent directory of the new file.
+   * @param content Represents the contents, which are not copied.
+   */
+  TextFile(String name, Directory parent, Blob content) {
+    super(name, parent);
+    this.blob = BlobStore.share(content);
   }
 
   /**
@@ -30,16 +60,173 @@ public class TextFile extends File {
    * @param content Represents the new contents.
    */
   public void setContents(String content) {
-    this.contents = content;
+    this.replaceContents(BlobStore.store(content));
+  }
+
+  /**
+   * Overwrites the old contents of the file with contents another text file
+   * holds, without copying them.
+   * 
+   * @param content Represents the new contents.
+   */
+  void setContents(Blob content) {
+    this.replaceContents(BlobStore.share(content));
+  }
+
+  /**
+   * Replaces the contents of the file with a blob already counted as taken,
+   * letting go of the old one.
+   * 
+   * @param content Represents the new contents.
+   */
+  private void replaceContents(Blob content) {
+    LazyCopy.changing(this);
+    FrozenTree.changing(this);
+    BlobStore.release(this.blob);
+    this.blob = content;
+    this.rope = null;
+    ChangeTracker.changed(this);
+  }
+
+  /**
+   * Lets go of the contents of a text file that is being dropped, so its blob
+   * stops being counted as taken by it.
+   */
+  void releaseContents() {
+    FrozenTree.changing(this);
+    BlobStore.release(this.blob);
+    this.blob = null;
+  }
+
+  /**
+   * Adds to the end of the contents of the file. Only what is added is
+   * copied, however long the contents already are.
+   * 
+   * @param content Represents the contents added.
+   */
+  public void appendContents(CharSequence content) {
+    LazyCopy.changing(this);
+    FrozenTree.changing(this);
+    TextRope appended = this.rope;
+    if (appended == null) {
+      appended = new TextRope(this.getContents());
+    }
+    appended.append(content);
+    this.rope = appended;
+    BlobStore.release(this.blob);
+    this.blob = null;
+    ChangeTracker.changed(this);
   }
 
   /**
-   * Returns the contents of the text file.
+   * Returns the contents of the text file. Contents still in a mapped snapshot
+   * are decoded every time, so they never stay on the heap, and contents that
+   * were appended to are joined into one string the first time they are
+   * needed as one.
    * 
    * @return a string which represents the contents of the text file.
    */
   public String getContents() {
-    return this.contents;
+    return this.getBlob().read();
+  }
+
+  /**
+   * Returns the blob holding the contents of the text file, so another text
+   * file can share it. Contents that were appended to are joined into a blob
+   * first.
+   * 
+   * @return the blob holding the contents
+   */
+  Blob getBlob() {
+    TextRope appended = this.rope;
+    if (appended != null) {
+      this.blob = BlobStore.store(appended.toString());
+      this.rope = null;
+    }
+    return this.blob;
+  }
+
+  /**
+   * Returns the blob holding the contents of the text file without changing
+   * how they are held, so they can be read by another thread while nothing
+   * changes them.
+   * 
+   * @return the blob holding the contents
+   */
+  Blob readBlob() {
+    TextRope appended = this.rope;
+    return appended != null ? new Blob(appended.toString()) : this.blob;
+  }
+
+  /**
+   * Returns the contents of the text file without changing how they are
+   * held, so they can be read by another thread while nothing changes them.
+   * 
+   * @return a string which represents the contents of the text file.
+   */
+  String readContents() {
+    return this.readBlob().read();
+  }
+
+  /**
+   * Returns the number of characters in the contents of the text file.
+   * 
+   * @return the length of the contents
+   */
+  public int getLength() {
+    TextRope appended = this.rope;
+    return appended != null ? appended.length() : this.readContents().length();
+  }
+
+  /**
+   * Returns part of the contents of the text file, without joining contents
+   * that were appended to.
+   * 
+   * @param begin Represents the position of the first character returned.
+   * @param end Represents the position after the last character returned.
+   * @return the contents between the positions
+   * @throws IndexOutOfBoundsException exception when the positions are not in
+   *         the contents or end is before begin
+   */
+  public String getContents(int begin, int end) {
+    TextRope appended = this.rope;
+    return appended != null ? appended.substring(begin, end)
+        : this.readContents().substring(begin, end);
+  }
+
+  /**
+   * Writes the contents of the text file to an output sink, a piece at a time
+   * if they were appended to.
+   * 
+   * @param sink Represents the sink the contents are written to.
+   */
+  public void writeContents(OutputSink sink) {
+    TextRope appended = this.rope;
+    if (appended != null) {
+      appended.writeTo(sink);
+    } else {
+      sink.write(this.readContents());
+    }
+  }
+
+  /**
+   * Returns whether the contents are still only in a mapped snapshot file.
+   * 
+   * @return true if the contents haven't been loaded onto the heap
+   */
+  public boolean isContentsMapped() {
+    Blob content = this.blob;
+    return this.rope == null && content != null && content.isMapped();
+  }
+
+  /**
+   * Returns whether the file shares its contents with another text file.
+   * 
+   * @param textFile represents the text file compared to
+   * @return true if both files hold the same blob
+   */
+  public boolean sharesContentsWith(TextFile textFile) {
+    return this.readBlob() == textFile.readBlob();
   }
 
   /**
@@ -64,4 +251,36 @@ public class TextFile extends File {
         && this.getFileName().equals(textFile.getFileName());
     return isEqual;
   }
+
+  /**
+   * Saves the text file with serialization, reading contents that are still
+   * in a mapped snapshot or being appended to into one string first.
+   * 
+   * @param out Represents the stream the text file is written to
+   * @throws IOException exception when the stream can't be written
+   */
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    this.contents = this.getContents();
+    try {
+      out.defaultWriteObject();
+    } finally {
+      this.contents = null;
+    }
+  }
+
+  /**
+   * Loads the text file with serialization, keeping its contents in the blob
+   * store.
+   * 
+   * @param in Represents the stream the text file is read from
+   * @throws IOException exception when the stream can't be read
+   * @throws ClassNotFoundException exception when a class of the stream isn't
+   *         known
+   */
+  private void readObject(ObjectInputStream in)
+      throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    this.blob = BlobStore.store(this.contents);
+    this.contents = null;
+  }
 }
@@ -0,0 +1,101 @@
+package driver;
+
+/**
+ * Represents an output sink that redirects the output into a text file,
+ * either overwriting or appending to its contents. The output goes into the
+ * text file a chunk at a time as it is written, so only a chunk of it is
+ * held on top of the file. A command that reads the file it writes to gets a
+ * deferred sink instead, which collects all of the output and only puts it
+ * into the text file on flush, so the command still reads the file's old
+ * contents while it runs.
+ *
+ * @author Shamayum Rashad
+ */
+public class TextFileOutputSink extends OutputSink {
+
+  /**
+   * the number of characters held before they go into the text file, unless
+   * the sink is deferred
+   */
+  static final int CHUNK_SIZE = 8192;
+
+  /**
+   * the text file the output is redirected to
+   */
+  private TextFile textFile;
+
+  /**
+   * whether the output is appended to the text file or overwrites it
+   */
+  private boolean append;
+
+  /**
+   * whether the output is only put into the text file on flush
+   */
+  private boolean deferred;
+
+  /**
+   * the output written since the last flush
+   */
+  private StringBuilder pending = new StringBuilder();
+
+  /**
+   * whether the text file has been overwritten since the sink was created
+   */
+  private boolean overwritten = false;
+
+  /**
+   * Constructs a deferred output sink that redirects output into the text
+   * file.
+   *
+   * @param textFile the text file the output is redirected to
+   * @param append true to append to the text file, false to overwrite it
+   */
+  public TextFileOutputSink(TextFile textFile, boolean append) {
+    this(textFile, append, true);
+  }
+
+  /**
+   * Constructs an output sink that redirects output into the text file.
+   *
+   * @param textFile the text file the output is redirected to
+   * @param append true to append to the text file, false to overwrite it
+   * @param deferred true to only put the output into the text file on
+   *        flush, false to put it in a chunk at a time
+   */
+  public TextFileOutputSink(TextFile textFile, boolean append,
+      boolean deferred) {
+    this.textFile = textFile;
+    this.append = append;
+    this.deferred = deferred;
+  }
+
+  /**
+   * Appends output to the output waiting to go into the text file, putting
+   * it into the text file once there is a chunk of it unless the sink is
+   * deferred.
+   *
+   * @param output the output to append
+   */
+  @Override
+  protected void append(CharSequence output) {
+    this.pending.append(output);
+    if (!this.deferred && this.pending.length() >= CHUNK_SIZE) {
+      this.flush();
+    }
+  }
+
+  /**
+   * Puts the output written so far into the text file.
+   */
+  @Override
+  public void flush() {
+    if (!this.append && !this.overwritten) {
+      this.textFile.setContents(this.pending.toString());
+      this.overwritten = true;
+    } else if (this.pending.length() > 0) {
+      this.textFile.appendContents(this.pending);
+    }
+    this.pending.setLength(0);
+  }
+}
@@ -0,0 +1,177 @@
+package driver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Represents the contents of a text file that are being appended to, as a list
+ * of chunks instead of one string, so appending only copies what is appended.
+ * Small appends are gathered into a tail until it is a whole chunk; larger
+ * ones become chunks of their own. Part of the contents can be copied, or the
+ * contents written out chunk by chunk, without ever joining them into one
+ * string.
+ *
+ * @author Shamayum Rashad
+ */
+class TextRope {
+
+  /**
+   * the size the tail grows to before it becomes a chunk
+   */
+  static final int CHUNK_SIZE = 8192;
+
+  /**
+   * the chunks before the tail, in order
+   */
+  private final ArrayList<String> chunks = new ArrayList<>();
+
+  /**
+   * the position just after each chunk
+   */
+  private int[] ends = new int[8];
+
+  /**
+   * the text appended since the last chunk
+   */
+  private final StringBuilder tail = new StringBuilder();
+
+  /**
+   * the number of characters in the chunks before the tail
+   */
+  private int chunked = 0;
+
+  /**
+   * Constructs a rope starting with the given text, which is not copied.
+   *
+   * @param text  the text the rope starts with
+   */
+  TextRope(String text) {
+    if (!text.isEmpty()) {
+      this.addChunk(text);
+    }
+  }
+
+  /**
+   * Appends text to the end of the rope.
+   *
+   * @param text  the text appended
+   */
+  void append(CharSequence text) {
+    if (text.length() >= CHUNK_SIZE) {
+      this.sealTail();
+      this.addChunk(text.toString());
+    } else {
+      this.tail.append(text);
+      if (this.tail.length() >= CHUNK_SIZE) {
+        this.sealTail();
+      }
+    }
+  }
+
+  /**
+   * Returns the number of characters in the rope.
+   *
+   * @return the length of the text
+   */
+  int length() {
+    return this.chunked + this.tail.length();
+  }
+
+  /**
+   * Copies part of the text, only looking at the chunks it spans.
+   *
+   * @param begin  the position of the first character copied
+   * @param end    the position just after the last character copied
+   * @return       the text between the positions
+   * @throws IndexOutOfBoundsException  exception when the positions are not
+   *         in the text or end is before begin
+   */
+  String substring(int begin, int end) {
+    if (begin < 0 || end > this.length() || begin > end) {
+      throw new IndexOutOfBoundsException("begin " + begin + ", end " + end
+          + ", length " + this.length());
+    }
+    StringBuilder part = new StringBuilder(end - begin);
+    int chunk = this.findChunk(begin);
+    int position = begin;
+    while (position < end && chunk < this.chunks.size()) {
+      int start = chunk == 0 ? 0 : this.ends[chunk - 1];
+      String text = this.chunks.get(chunk);
+      part.append(text, position - start,
+          Math.min(end, this.ends[chunk]) - start);
+      position = Math.min(end, this.ends[chunk]);
+      chunk++;
+    }
+    if (position < end) {
+      part.append(this.tail, position - this.chunked, end - this.chunked);
+    }
+    return part.toString();
+  }
+
+  /**
+   * Writes the text to an output sink a chunk at a time.
+   *
+   * @param sink  the sink the text is written to
+   */
+  void writeTo(OutputSink sink) {
+    for (String chunk : this.chunks) {
+      sink.write(chunk);
+    }
+    if (this.tail.length() > 0) {
+      sink.write(this.tail);
+    }
+  }
+
+  /**
+   * Joins the chunks into one string.
+   *
+   * @return the text of the rope
+   */
+  @Override
+  public String toString() {
+    StringBuilder text = new StringBuilder(this.length());
+    for (String chunk : this.chunks) {
+      text.append(chunk);
+    }
+    text.append(this.tail);
+    return text.toString();
+  }
+
+  /**
+   * Returns the chunk holding the character at a position in the chunks.
+   *
+   * @param position  the position of the character
+   * @return          the number of the chunk, or the number of chunks if the
+   *                  position is in the tail
+   */
+  private int findChunk(int position) {
+    int found = Arrays.binarySearch(this.ends, 0, this.chunks.size(),
+        position);
+    // a chunk ending at the position is followed by the one holding it
+    return found >= 0 ? found + 1 : -found - 1;
+  }
+
+  /**
+   * Makes the tail a chunk, if it holds anything.
+   */
+  private void sealTail() {
+    if (this.tail.length() > 0) {
+      this.addChunk(this.tail.toString());
+      this.tail.setLength(0);
+    }
+  }
+
+  /**
+   * Adds a chunk after the last one.
+   *
+   * @param text  the text of the chunk
+   */
+  private void addChunk(String text) {
+    if (this.chunks.size() == this.ends.length) {
+      this.ends = Arrays.copyOf(this.ends, this.ends.length * 2);
+    }
+    this.chunked += text.length();
+    this.ends[this.chunks.size()] = this.chunked;
+    this.chunks.add(text);
+  }
+}
@@ -26,18 +26,43 @@ public class Tree extends Command {
   }
 
   /**
-   * Executes the tree command.
+   * Executes the tree command. With no arguments the entire file system is
+   * printed, and with -L n only the first n levels below the root are.
    * 
    * @param arguments represents the arguments entered by the user.
    */
   @Override
   public void executeCommand(ArrayList<String> arguments) {
     if (arguments.isEmpty()) {
-      this.setPrintCommand(this.fileSystem.getRoot().toString());
+      this.fileSystem.getRoot().printTree(this.getOutputSink());
+    } else if (arguments.size() == 2 && arguments.get(0).equals("-L")) {
+      int maxDepth = this.parseDepth(arguments.get(1));
+      if (maxDepth > 0) {
+        this.fileSystem.getRoot().printTree(this.getOutputSink(), maxDepth);
+      } else {
+        this.setError("Invalid depth for tree command: " + arguments.get(1)
+            + " is not a positive number.");
+      }
     } else {
-      this.setError("Invalid syntax for tree command: tree must not take"
-          + " any arguments.");
+      this.setError("Invalid syntax for tree command: tree only takes"
+          + " -L followed by a depth.");
     }
   }
 
+  /**
+   * Converts the depth given to -L into a number.
+   * 
+   * @param depth represents the depth entered by the user.
+   * @return the depth, or -1 if it is not a number.
+   */
+  private int parseDepth(String depth) {
+    int maxDepth;
+    try {
+      maxDepth = Integer.parseInt(depth);
+    } catch (NumberFormatException e) {
+      maxDepth = -1;
+    }
+    return maxDepth;
+  }
+
 }
@@ -0,0 +1,129 @@
+package test;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import driver.BlobStore;
+import driver.Copy;
+import driver.Directory;
+import driver.Move;
+import driver.JFileSystem;
+import driver.TextFile;
+
+public class BlobStoreTest {
+
+  JFileSystem fileSystem;
+  Directory root;
+  String text;
+
+  @Before
+  public void setUp() throws Exception {
+    BlobStore.setEnabled(true);
+    fileSystem = JFileSystem.createInstanceOfJFileSystem();
+    root = new Directory("/", null);
+    fileSystem.setRoot(root);
+    fileSystem.setCurrentDirectory(root);
+    StringBuilder contents = new StringBuilder();
+    for (int i = 0; i < 10; i++) {
+      contents.append("a template line ").append(i).append('\n');
+    }
+    text = contents.toString();
+  }
+
+  @After
+  public void tearDown() {
+    BlobStore.setEnabled(true);
+  }
+
+  @Test
+  public void testSameContentsAreShared() {
+    TextFile first = new TextFile("first", root, text);
+    TextFile second = new TextFile("second", root, new String(text));
+    assertTrue(first.sharesContentsWith(second));
+  }
+
+  @Test
+  public void testShortContentsAreNotShared() {
+    TextFile first = new TextFile("first", root, new String("short"));
+    TextFile second = new TextFile("second", root, new String("short"));
+    assertFalse(first.sharesContentsWith(second));
+    assertEquals(first.getContents(), second.getContents());
+  }
+
+  @Test
+  public void testStoreCanBeTurnedOff() {
+    BlobStore.setEnabled(false);
+    TextFile first = new TextFile("first", root, text);
+    TextFile second = new TextFile("second", root, text);
+    assertFalse(first.sharesContentsWith(second));
+  }
+
+  @Test
+  public void testChangingSharedContents() {
+    TextFile first = new TextFile("first", root, text);
+    TextFile second = new TextFile("second", root, text);
+    second.setContents(text + "more");
+    assertFalse(first.sharesContentsWith(second));
+    assertEquals(text, first.getContents());
+    second.appendContents("\n");
+    assertEquals(text + "more\n", second.getContents());
+    second.setContents(text);
+    assertTrue(first.sharesContentsWith(second));
+  }
+
+  @Test
+  public void testCopyShares() throws Exception {
+    Directory source = new Directory("source", root);
+    root.addContents(source);
+    TextFile original = new TextFile("config", source, text);
+    source.addContents(original);
+    root.addContents(new Directory("target", root));
+    Copy copy = new Copy(fileSystem);
+    copy.executeCommand(new ArrayList<String>(
+        Arrays.asList("/source", "/target")));
+    assertEquals("", copy.getError());
+    TextFile copied = (TextFile) ((Directory) ((Directory) root
+        .getChild("target")).getChild("source")).getChild("config");
+    assertTrue(original.sharesContentsWith(copied));
+    copied.setContents("changed");
+    assertEquals(text, original.getContents());
+  }
+
+  @Test
+  public void testMoveReleasesMovedContents() throws Exception {
+    TextFile moved = new TextFile("moved", root, text + "moved");
+    TextFile target = new TextFile("target", root, text + "target");
+    root.addContents(moved);
+    root.addContents(target);
+    long before = references();
+    Move move = new Move(fileSystem);
+    move.executeCommand(new ArrayList<String>(
+        Arrays.asList("/moved", "/target")));
+    assertEquals("", move.getError());
+    assertEquals(text + "moved", target.getContents());
+    // target let go of its own blob and moved of the one it handed over
+    assertEquals(before - 1, references());
+  }
+
+  /**
+   * Returns the number of references the blob store counts.
+   *
+   * @return the references in the statistics of the blob store
+   */
+  private long references() {
+    String statistics = BlobStore.getStatistics();
+    String counted = statistics.substring(0,
+        statistics.indexOf(" references"));
+    return Long.parseLong(counted.substring(counted.lastIndexOf(' ') + 1));
+  }
+
+  @Test
+  public void testStatistics() {
+    new TextFile("first", root, text);
+    new TextFile("second", root, text);
+    assertTrue(BlobStore.getStatistics().startsWith("blob store: "));
+  }
+}
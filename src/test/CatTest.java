@@ -41,6 +41,13 @@ public class CatTest {
     assertEquals(expected, actual);
   }
 
+  @Test
+  public void testCatNoFilesCopiesInput() {
+    cat.setInput(HeadTest.numbers(3));
+    cat.executeCommand(arguments);
+    assertEquals("1\n2\n3", cat.getPrintCommand());
+  }
+
   @Test
   public void testCatSingleTextFile() {
     arguments.add("/dir1/text");
@@ -0,0 +1,93 @@
+package test;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.Test;
+import driver.CommandLine;
+
+public class CommandLineTest {
+
+  @Test
+  public void testEmptyLine() {
+    CommandLine line = new CommandLine("   ");
+    assertEquals(1, line.size());
+    assertEquals("", line.getCommand());
+    assertTrue(line.getArguments().isEmpty());
+  }
+
+  @Test
+  public void testWordsAreOffsetsIntoTheTrimmedLine() {
+    CommandLine line = new CommandLine("  ls   /a  b ");
+    assertEquals("ls   /a  b", line.getLine());
+    assertEquals(3, line.size());
+    assertEquals(5, line.getStart(1));
+    assertEquals(7, line.getEnd(1));
+    assertEquals(new ArrayList<String>(Arrays.asList("/a", "b")),
+        line.getArguments());
+  }
+
+  @Test
+  public void testQuotedWordKeepsSpacesAndQuotes() {
+    CommandLine line = new CommandLine("find / -name \"a  b\"c");
+    assertEquals(new ArrayList<String>(
+        Arrays.asList("/", "-name", "\"a  b\"", "c")), line.getArguments());
+  }
+
+  @Test
+  public void testUnclosedQuoteEndsAtSpace() {
+    CommandLine line = new CommandLine("cat \"a b");
+    assertEquals(new ArrayList<String>(Arrays.asList("\"a", "b")),
+        line.getArguments());
+  }
+
+  @Test
+  public void testEchoStringBeforeRedirection() {
+    CommandLine line = new CommandLine("echo  \"a  b\" c >> file");
+    assertEquals(new ArrayList<String>(
+        Arrays.asList("\"a  b\" c", ">>", "file")), line.getArguments());
+  }
+
+  @Test
+  public void testEchoWithoutRedirection() {
+    CommandLine line = new CommandLine("echo \"a  b\" c");
+    assertEquals(new ArrayList<String>(Arrays.asList("\"a  b\"", "c")),
+        line.getArguments());
+  }
+
+  @Test
+  public void testLongLine() {
+    StringBuilder input = new StringBuilder("echo");
+    for (int word = 0; word < 100000; word++) {
+      input.append(" word").append(word);
+    }
+    CommandLine line = new CommandLine(input.toString());
+    assertEquals(100001, line.size());
+    assertEquals("word99999", line.get(100000));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testNoSuchWord() {
+    new CommandLine("ls").get(1);
+  }
+
+  @Test
+  public void testSplitPipeline() {
+    assertEquals(Arrays.asList("find / -type f ", " head 2", ""),
+        CommandLine.splitPipeline("find / -type f | head 2|"));
+  }
+
+  @Test
+  public void testLineWithoutPipeIsOneCommand() {
+    assertEquals(Arrays.asList("ls -R /"),
+        CommandLine.splitPipeline("ls -R /"));
+  }
+
+  @Test
+  public void testPipeInQuotesIsNotSplit() {
+    assertEquals(Arrays.asList("echo \"a | b\" ", " cat"),
+        CommandLine.splitPipeline("echo \"a | b\" | cat"));
+    assertEquals(Arrays.asList("cat \"a ", " b"),
+        CommandLine.splitPipeline("cat \"a | b"));
+  }
+}
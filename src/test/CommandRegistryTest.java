@@ -0,0 +1,122 @@
+package test;
+
+import static org.junit.Assert.*;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import org.junit.*;
+import driver.*;
+
+/**
+ * Test for the command registry.
+ * 
+ * @author Shamayum Rashad
+ */
+public class CommandRegistryTest {
+  MockJFileSystem fileSystem;
+  ArrayList<String> arguments;
+
+  /**
+   * A command registered from outside the shell, which prints its arguments.
+   */
+  static class Greet extends Command {
+    Greet() {
+      super(true);
+    }
+
+    @Override
+    public void executeCommand(ArrayList<String> arguments) {
+      if (arguments.isEmpty()) {
+        this.setError("greet: nobody to greet");
+      } else {
+        this.setPrintCommand("hello " + arguments.get(0));
+      }
+    }
+  }
+
+  @Before
+  public void setUp() {
+    fileSystem = MockJFileSystem.createInstanceOfJFileSystem();
+    arguments = new ArrayList<String>();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    CommandRegistry.unregister("greet");
+    Field field = (fileSystem.getClass()).getDeclaredField("fileSystemRef");
+    field.setAccessible(true);
+    field.set(null, null);
+  }
+
+  @Test
+  public void testBuiltInCommandsAreRegistered() {
+    assertTrue(CommandRegistry.isRegistered("ls"));
+    assertTrue(CommandRegistry.getNames().contains("find"));
+    assertFalse(CommandRegistry.isRegistered("greet"));
+  }
+
+  @Test(expected = InvalidCommandException.class)
+  public void testUnknownCommand() throws InvalidCommandException {
+    CommandRegistry.obtain("greet", fileSystem);
+  }
+
+  @Test
+  public void testRegisteredCommandRunsThroughParser()
+      throws InvalidCommandException {
+    CommandRegistry.register("greet", fs -> new Greet());
+    Command greet = Parser.commandObject("greet", fileSystem);
+    arguments.add("world");
+    greet.executeCommand(arguments);
+    assertEquals("hello world", greet.getPrintCommand());
+  }
+
+  @Test
+  public void testReusableCommandIsRunAgainCleared()
+      throws InvalidCommandException {
+    CommandRegistry.register("greet", fs -> new Greet(), true);
+    Command first = CommandRegistry.obtain("greet", fileSystem);
+    first.executeCommand(arguments);
+    assertTrue(first.getHasError());
+    CommandRegistry.release("greet", fileSystem, first);
+    Command second = CommandRegistry.obtain("greet", fileSystem);
+    assertSame(first, second);
+    assertFalse(second.getHasError());
+    assertEquals("", second.getError());
+    arguments.add("again");
+    second.executeCommand(arguments);
+    assertEquals("hello again", second.getPrintCommand());
+  }
+
+  @Test
+  public void testCommandIsNotSharedUntilReleased()
+      throws InvalidCommandException {
+    CommandRegistry.register("greet", fs -> new Greet(), true);
+    Command first = CommandRegistry.obtain("greet", fileSystem);
+    Command second = CommandRegistry.obtain("greet", fileSystem);
+    assertNotSame(first, second);
+  }
+
+  @Test
+  public void testCommandIsMadeAgainWhenNotReusable()
+      throws InvalidCommandException {
+    CommandRegistry.register("greet", fs -> new Greet());
+    Command first = CommandRegistry.obtain("greet", fileSystem);
+    CommandRegistry.release("greet", fileSystem, first);
+    assertNotSame(first, CommandRegistry.obtain("greet", fileSystem));
+  }
+
+  @Test
+  public void testReusedCommandFollowsCurrentDirectory()
+      throws InvalidCommandException {
+    fileSystem.addDirectory("/", "dir");
+    Command pwd = CommandRegistry.obtain("pwd", fileSystem);
+    pwd.executeCommand(arguments);
+    assertEquals("/", pwd.getPrintCommand());
+    CommandRegistry.release("pwd", fileSystem, pwd);
+    fileSystem.setCurrentDirectory(
+        (Directory) fileSystem.getRoot().getChild("dir"));
+    Command again = CommandRegistry.obtain("pwd", fileSystem);
+    assertSame(pwd, again);
+    again.executeCommand(arguments);
+    assertEquals("/dir", again.getPrintCommand());
+  }
+}
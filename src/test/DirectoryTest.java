@@ -132,4 +132,92 @@ public class DirectoryTest {
     assertTrue(dirA.equals(newDirectory));
   }
 
+  @Test
+  public void testGetChildWithName()
+      throws InvalidFileNameException, ExistingFileException {
+    root.addContents(dirA);
+    root.addContents(textA);
+    assertSame(textA, root.getChild("TextFile"));
+    assertSame(dirA, root.getChild("dirA"));
+  }
+
+  @Test
+  public void testGetChildThatDoesNotExist()
+      throws InvalidFileNameException, ExistingFileException {
+    root.addContents(dirA);
+    assertNull(root.getChild("dirB"));
+  }
+
+  @Test
+  public void testGetChildAddedDirectlyToContents() {
+    root.getContents().add(dirB);
+    assertSame(dirB, root.getChild("dirB"));
+  }
+
+  @Test
+  public void testRemoveContents()
+      throws InvalidFileNameException, ExistingFileException {
+    ArrayList<File> expectedOutput = new ArrayList<File>();
+    expectedOutput.add(dirA);
+    expectedOutput.add(dirC);
+    root.addContents(dirA);
+    root.addContents(dirB);
+    root.addContents(dirC);
+    assertTrue(root.removeContents(dirB));
+    assertEquals(expectedOutput, root.getContents());
+    assertNull(root.getChild("dirB"));
+  }
+
+  @Test
+  public void testRemoveContentsNotInDirectory()
+      throws InvalidFileNameException, ExistingFileException {
+    root.addContents(dirA);
+    assertFalse(root.removeContents(new Directory("dirA", root)));
+    assertSame(dirA, root.getChild("dirA"));
+  }
+
+  @Test
+  public void testAddContentsAfterRemovingFileWithSameName()
+      throws InvalidFileNameException, ExistingFileException {
+    root.addContents(dirA);
+    root.removeContents(dirA);
+    Directory newDirA = new Directory("dirA", root);
+    root.addContents(newDirA);
+    assertSame(newDirA, root.getChild("dirA"));
+  }
+
+  @Test
+  public void testRemoveContentsKeepsOrder()
+      throws InvalidFileNameException, ExistingFileException {
+    root.addContents(dirA);
+    root.addContents(dirB);
+    root.addContents(dirC);
+    root.addContents(textA);
+    assertTrue(root.removeContents(dirB));
+    assertTrue(root.removeContents(textA));
+    assertFalse(root.removeContents(dirB));
+    assertEquals(2, root.getContents().size());
+    assertSame(dirA, root.getContents().get(0));
+    assertSame(dirC, root.getContents().get(1));
+    root.addContents(dirB);
+    assertSame(dirB, root.getContents().get(2));
+    assertSame(dirB, root.getChild("dirB"));
+  }
+
+  @Test(expected = ExistingFileException.class)
+  public void testAddContentsWithExistingName()
+      throws InvalidFileNameException, ExistingFileException {
+    root.addContents(dirA);
+    root.addContents(new Directory("dirA", root));
+  }
+
+  @Test
+  public void testGetChildAfterRename()
+      throws InvalidFileNameException, ExistingFileException {
+    root.addContents(dirA);
+    dirA.setFileName("renamed");
+    assertNull(root.getChild("dirA"));
+    assertSame(dirA, root.getChild("renamed"));
+  }
+
 }
@@ -0,0 +1,47 @@
+package test;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import driver.FileNameValidator;
+import driver.InvalidFileNameException;
+
+public class FileNameValidatorTest {
+
+  @Test
+  public void testValidName() {
+    assertTrue(FileNameValidator.isValid("TestFolder_1"));
+  }
+
+  @Test
+  public void testEmptyName() {
+    assertTrue(FileNameValidator.isValid(""));
+  }
+
+  @Test
+  public void testEachIllegalCharacter() {
+    for (char character : FileNameValidator.ILLEGAL_CHARACTERS.toCharArray()) {
+      assertFalse(FileNameValidator.isValid("file" + character + "name"));
+    }
+  }
+
+  @Test
+  public void testIllegalCharacterAtEnds() {
+    assertFalse(FileNameValidator.isValid("!file"));
+    assertFalse(FileNameValidator.isValid("file."));
+  }
+
+  @Test
+  public void testNonAsciiName() {
+    assertTrue(FileNameValidator.isValid("féichier中"));
+  }
+
+  @Test
+  public void testValidateValidName() throws InvalidFileNameException {
+    FileNameValidator.validate("file");
+  }
+
+  @Test(expected = InvalidFileNameException.class)
+  public void testValidateInvalidName() throws InvalidFileNameException {
+    FileNameValidator.validate("file.txt");
+  }
+}
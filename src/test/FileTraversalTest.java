@@ -0,0 +1,118 @@
+package test;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+import org.junit.Before;
+import org.junit.Test;
+import driver.Directory;
+import driver.File;
+import driver.FileTraversal;
+import driver.TextFile;
+
+public class FileTraversalTest {
+
+  Directory root;
+  Directory dirA;
+  Directory dirA1;
+  Directory dirB;
+  TextFile textA;
+  TextFile textC;
+
+  @Before
+  public void setUp() throws Exception {
+    // root -> (dirA -> (dirA1, textA), dirB, textC)
+    root = new Directory("root", null);
+    dirA = new Directory("dirA", root);
+    dirA1 = new Directory("dirA1", dirA);
+    dirB = new Directory("dirB", root);
+    textA = new TextFile("textA", dirA, "A");
+    textC = new TextFile("textC", root, "C");
+    root.addContents(dirA);
+    root.addContents(dirB);
+    root.addContents(textC);
+    dirA.addContents(dirA1);
+    dirA.addContents(textA);
+  }
+
+  private String walk(FileTraversal traversal) {
+    ArrayList<String> names = new ArrayList<String>();
+    FileTraversal.Walker walker = traversal.iterator();
+    while (walker.hasNext()) {
+      File file = walker.next();
+      names.add(file.getFileName() + ":" + walker.getDepth());
+    }
+    return String.join(" ", names);
+  }
+
+  @Test
+  public void testPreOrder() {
+    assertEquals("root:0 dirA:1 dirA1:2 textA:2 dirB:1 textC:1",
+        walk(new FileTraversal(root, FileTraversal.Order.PRE_ORDER)));
+  }
+
+  @Test
+  public void testPostOrder() {
+    assertEquals("dirA1:2 textA:2 dirA:1 dirB:1 textC:1 root:0",
+        walk(new FileTraversal(root, FileTraversal.Order.POST_ORDER)));
+  }
+
+  @Test
+  public void testBreadthFirst() {
+    assertEquals("root:0 dirA:1 dirB:1 textC:1 dirA1:2 textA:2",
+        walk(new FileTraversal(root, FileTraversal.Order.BREADTH_FIRST)));
+  }
+
+  @Test
+  public void testMaxDepth() {
+    assertEquals("root:0 dirA:1 dirB:1 textC:1",
+        walk(new FileTraversal(root, FileTraversal.Order.PRE_ORDER, 1)));
+    assertEquals("dirA:1 dirB:1 textC:1 root:0",
+        walk(new FileTraversal(root, FileTraversal.Order.POST_ORDER, 1)));
+    assertEquals("root:0",
+        walk(new FileTraversal(root, FileTraversal.Order.POST_ORDER, 0)));
+  }
+
+  @Test
+  public void testEmptyDirectory() {
+    assertEquals("dirB:0",
+        walk(new FileTraversal(dirB, FileTraversal.Order.PRE_ORDER)));
+    assertEquals("dirB:0",
+        walk(new FileTraversal(dirB, FileTraversal.Order.POST_ORDER)));
+    assertEquals("dirB:0",
+        walk(new FileTraversal(dirB, FileTraversal.Order.BREADTH_FIRST)));
+  }
+
+  @Test
+  public void testForEach() {
+    int count = 0;
+    for (File file : new FileTraversal(dirA, FileTraversal.Order.PRE_ORDER)) {
+      assertNotNull(file);
+      count++;
+    }
+    assertEquals(3, count);
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testNextPastEnd() {
+    FileTraversal.Walker walker =
+        new FileTraversal(dirB, FileTraversal.Order.PRE_ORDER).iterator();
+    walker.next();
+    walker.next();
+  }
+
+  @Test
+  public void testVeryDeepTree() throws Exception {
+    Directory top = new Directory("top", null);
+    Directory deepest = top;
+    for (int i = 0; i < 100000; i++) {
+      Directory child = new Directory("d", deepest);
+      deepest.getContents().add(child);
+      deepest = child;
+    }
+    FileTraversal.Walker walker =
+        new FileTraversal(top, FileTraversal.Order.POST_ORDER).iterator();
+    assertSame(deepest, walker.next());
+    assertEquals(100000, walker.getDepth());
+  }
+}
@@ -332,4 +332,149 @@ public class FindTest {
 
     assertEquals(expectedOutput, actualOutput);
   }
+
+  @Test
+  public void testParallelMatchesSequential() {
+    fileSystem.addDirectory("/", "test1");
+    fileSystem.addDirectory("/", "test2");
+    for (int i = 0; i < 20; i++) {
+      fileSystem.addDirectory("/test1", "dir" + i);
+      fileSystem.addTextFile("/test1/dir" + i, "test", "content");
+      fileSystem.addDirectory("/test1/dir" + i, "inner");
+      fileSystem.addTextFile("/test1/dir" + i + "/inner", "test", "content");
+    }
+    fileSystem.addTextFile("/test2", "test", "content");
+    arguments.add("/");
+    arguments.add("/test2");
+    arguments.add("-type");
+    arguments.add("f");
+    arguments.add("-name");
+    arguments.add("\"test\"");
+    find.executeCommand(arguments);
+    String sequentialOutput = find.getPrintCommand();
+
+    Find parallelFind = new Find(fileSystem);
+    arguments.add(0, "-j");
+    arguments.add(1, "4");
+    parallelFind.executeCommand(arguments);
+
+    assertEquals("", parallelFind.getError());
+    assertEquals(sequentialOutput, parallelFind.getPrintCommand());
+    assertEquals(42, sequentialOutput.split("\n").length);
+  }
+
+  @Test
+  public void testParallelOnePath() {
+    arguments.add("-j");
+    arguments.add("2");
+    arguments.add("/test1");
+    arguments.add("-type");
+    arguments.add("d");
+    arguments.add("-name");
+    arguments.add("\"test2\"");
+    fileSystem.addDirectory("/", "test1");
+    fileSystem.addDirectory("/test1", "test2");
+    fileSystem.addDirectory("/test1/test2", "test3");
+    find.executeCommand(arguments);
+    String actualOutput = find.getError() + "\n" + find.getPrintCommand();
+    String expectedOutput = "\ntest1/test2";
+
+    assertEquals(expectedOutput, actualOutput);
+  }
+
+  @Test
+  public void testInvalidNumberOfThreads() {
+    arguments.add("-j");
+    arguments.add("zero");
+    arguments.add("/");
+    arguments.add("-type");
+    arguments.add("d");
+    arguments.add("-name");
+    arguments.add("\"test\"");
+    find.executeCommand(arguments);
+    String expectedOutput = "Find: invalid number of threads: -j must be "
+        + "followed by a positive number";
+
+    assertEquals(expectedOutput, find.getError());
+  }
+
+  @Test
+  public void testTooManyThreads() {
+    arguments.add("-j");
+    arguments.add("100000");
+    arguments.add("/");
+    arguments.add("-type");
+    arguments.add("d");
+    arguments.add("-name");
+    arguments.add("\"test\"");
+    find.executeCommand(arguments);
+    String expectedOutput = "Find: invalid number of threads: -j can't be "
+        + "more than 32767";
+
+    assertEquals(expectedOutput, find.getError());
+    assertEquals("", find.getPrintCommand());
+  }
+
+  @Test
+  public void testGlobName() {
+    arguments.add("/");
+    arguments.add("-type");
+    arguments.add("f");
+    arguments.add("-name");
+    arguments.add("\"*.log\"");
+    fileSystem.addDirectory("/", "test1");
+    fileSystem.addTextFile("/", "a.log", "content");
+    fileSystem.addTextFile("/test1", "b.log", "content");
+    fileSystem.addTextFile("/test1", "b.txt", "content");
+    find.executeCommand(arguments);
+    String actualOutput = find.getError() + "\n" + find.getPrintCommand();
+    String expectedOutput = "\n/a.log\n/test1/b.log";
+
+    assertEquals(expectedOutput, actualOutput);
+  }
+
+  @Test
+  public void testRegexName() {
+    arguments.add("/");
+    arguments.add("-type");
+    arguments.add("d");
+    arguments.add("-regex");
+    arguments.add("\"test[0-9]\"");
+    fileSystem.addDirectory("/", "test1");
+    fileSystem.addDirectory("/", "test22");
+    fileSystem.addDirectory("/test1", "test3");
+    find.executeCommand(arguments);
+    String actualOutput = find.getError() + "\n" + find.getPrintCommand();
+    String expectedOutput = "\n/test1/test3\n/test1";
+
+    assertEquals(expectedOutput, actualOutput);
+  }
+
+  @Test
+  public void testInvalidRegex() {
+    arguments.add("/");
+    arguments.add("-type");
+    arguments.add("d");
+    arguments.add("-regex");
+    arguments.add("\"test[\"");
+    find.executeCommand(arguments);
+    String expectedOutput = "Find: invalid regular expression: test[";
+
+    assertEquals(expectedOutput, find.getError());
+    assertEquals("", find.getPrintCommand());
+  }
+
+  @Test
+  public void testInvalidGlobBracket() {
+    arguments.add("/");
+    arguments.add("-type");
+    arguments.add("d");
+    arguments.add("-name");
+    arguments.add("\"[z-a]\"");
+    find.executeCommand(arguments);
+    String expectedOutput = "Find: invalid pattern: [z-a]";
+
+    assertEquals(expectedOutput, find.getError());
+    assertEquals("", find.getPrintCommand());
+  }
 }
@@ -68,4 +68,20 @@ public class GetTest {
     // will fail test if fetched file not exist
     mockPath.searchByPath("/t1");
   }
+
+  @Test
+  public void testGetExistingFileName() throws InvalidPathException {
+    arguments.add("http://www.example.com/notes.txt");
+    arguments.add("http://www.example.com/notes.txt");
+    get.executeCommand(arguments);
+    assertEquals("Test Content",
+        ((TextFile) mockPath.searchByPath("/notes_1")).getContents());
+  }
+
+  @Test
+  public void testGetIllegalFileName() throws InvalidPathException {
+    arguments.add("http://www.example.com/my#notes.txt");
+    get.executeCommand(arguments);
+    mockPath.searchByPath("/newFile_1");
+  }
 }
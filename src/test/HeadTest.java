@@ -0,0 +1,115 @@
+package test;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.*;
+import driver.*;
+
+/**
+ * Test for the head command.
+ * 
+ * @author Shamayum Rashad
+ */
+public class HeadTest {
+  Head head;
+  ArrayList<String> arguments;
+
+  /**
+   * Input read from a list of lines, which remembers being closed.
+   */
+  static class ListSource implements LineSource {
+    Iterator<String> lines;
+    int read = 0;
+    boolean closed = false;
+
+    ListSource(List<String> lines) {
+      this.lines = lines.iterator();
+    }
+
+    @Override
+    public String readLine() {
+      String line = null;
+      if (!closed && lines.hasNext()) {
+        line = lines.next();
+        read++;
+      }
+      return line;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  /**
+   * Returns input with the given number of lines, numbered from 1.
+   */
+  static ListSource numbers(int count) {
+    ArrayList<String> lines = new ArrayList<String>();
+    for (int line = 1; line <= count; line++) {
+      lines.add(Integer.toString(line));
+    }
+    return new ListSource(lines);
+  }
+
+  @Before
+  public void setUp() {
+    head = new Head();
+    arguments = new ArrayList<String>();
+  }
+
+  @Test
+  public void testTenLinesByDefault() {
+    ListSource input = numbers(20);
+    head.setInput(input);
+    head.executeCommand(arguments);
+    assertEquals("1\n2\n3\n4\n5\n6\n7\n8\n9\n10", head.getPrintCommand());
+  }
+
+  @Test
+  public void testStopsReadingAfterLinesGiven() {
+    ListSource input = numbers(1000);
+    head.setInput(input);
+    arguments.add("3");
+    head.executeCommand(arguments);
+    assertEquals("1\n2\n3", head.getPrintCommand());
+    assertEquals(3, input.read);
+    assertTrue(input.closed);
+  }
+
+  @Test
+  public void testShorterInput() {
+    head.setInput(new ListSource(Arrays.asList("a", "b")));
+    arguments.add("5");
+    head.executeCommand(arguments);
+    assertEquals("a\nb", head.getPrintCommand());
+    assertFalse(head.getHasError());
+  }
+
+  @Test
+  public void testInvalidNumberOfLines() {
+    head.setInput(numbers(5));
+    arguments.add("x");
+    head.executeCommand(arguments);
+    assertEquals("head: invalid number of lines: x", head.getError());
+    assertEquals("", head.getPrintCommand());
+  }
+
+  @Test
+  public void testInvalidNumberOfLinesWithoutInput() {
+    arguments.add("-5x");
+    head.executeCommand(arguments);
+    assertEquals("head: invalid number of lines: -5x", head.getError());
+  }
+
+  @Test
+  public void testNoInput() {
+    head.executeCommand(arguments);
+    assertEquals("head: no input given, use it after a | in a pipeline",
+        head.getError());
+  }
+}
@@ -0,0 +1,30 @@
+package test;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import driver.Indentation;
+
+public class IndentationTest {
+
+  @Test
+  public void testNoIndentation() {
+    assertEquals("", Indentation.tabs(0));
+  }
+
+  @Test
+  public void testShallowIndentation() {
+    assertEquals("\t\t\t", Indentation.tabs(3));
+  }
+
+  @Test
+  public void testDeepIndentation() {
+    String tabs = Indentation.tabs(500);
+    assertEquals(500, tabs.length());
+    assertEquals(tabs.length(), tabs.replace("\t", "").length() + 500);
+  }
+
+  @Test
+  public void testIndentationIsReused() {
+    assertSame(Indentation.tabs(7), Indentation.tabs(7));
+  }
+}
@@ -0,0 +1,569 @@
+package test;
+
+import static org.junit.Assert.*;
+import java.io.FileOutputStream;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import driver.BlockCodec;
+import driver.BlockCodecs;
+import driver.Directory;
+import driver.JFileSystem;
+import driver.JFileSystemSaver;
+import driver.TextFile;
+
+public class JFileSystemSaverTest {
+
+  JFileSystem fileSystem;
+  Directory dirA;
+  Directory dirA1;
+  java.io.File saveFile;
+
+  @Before
+  public void setUp() throws Exception {
+    fileSystem = JFileSystem.createInstanceOfJFileSystem();
+    dirA = new Directory("A", fileSystem.getRoot());
+    fileSystem.getRoot().addContents(dirA);
+    dirA1 = new Directory("A1", dirA);
+    dirA.addContents(dirA1);
+    fileSystem.getRoot().addContents(new Directory("B", fileSystem.getRoot()));
+    dirA.addContents(new TextFile("notes", dirA, "line one\nline two"));
+    fileSystem.setCurrentDirectory(dirA1);
+    fileSystem.getDirectoryStack().push(dirA);
+    fileSystem.addToHistory("mkdir A");
+    fileSystem.addToHistory("save file");
+    saveFile = java.io.File.createTempFile("jshell", ".save");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    saveFile.delete();
+    Field field = (fileSystem.getClass()).getDeclaredField("fileSystemRef");
+    field.setAccessible(true);
+    field.set(null, null);
+  }
+
+  /**
+   * Empties the file system as if the shell was just started with a load.
+   */
+  private void restart() {
+    fileSystem.setRoot(new Directory("/", null));
+    fileSystem.setCurrentDirectory(fileSystem.getRoot());
+    fileSystem.setDirectoryStack(new driver.DirectoryStack());
+    fileSystem.setCommandHistory(new java.util.ArrayList<String>());
+    fileSystem.addToHistory("load " + saveFile.getPath());
+  }
+
+  private void assertRestored() {
+    assertEquals("/\n\tA\n\t\tA1\n\t\tnotes\n\tB", fileSystem.toString());
+    assertEquals("A1", fileSystem.getCurrentDirectory().getFileName());
+    assertSame(fileSystem.getRoot().getChild("A"),
+        fileSystem.getCurrentDirectory().getParentDir());
+    assertSame(fileSystem.getRoot().getChild("A"),
+        fileSystem.getDirectoryStack().pop());
+    assertEquals("line one\nline two", ((TextFile) ((Directory) fileSystem
+        .getRoot().getChild("A")).getChild("notes")).getContents());
+    assertEquals(3, fileSystem.getCommandHistory().size());
+    assertTrue(fileSystem.getCommandHistory().get(2)
+        .endsWith(saveFile.getPath()));
+  }
+
+  @Test
+  public void testBinaryRoundTrip() {
+    JFileSystemSaver saver = new JFileSystemSaver();
+    assertEquals("", saver.saveFileSystem(saveFile.getPath(), fileSystem));
+    restart();
+    assertEquals("", saver.getSavedFileSystem(saveFile.getPath(), fileSystem));
+    assertRestored();
+  }
+
+  @Test
+  public void testSerializedFilesStillLoad() {
+    new JFileSystemSaver(JFileSystemSaver.Format.SERIALIZED)
+        .saveFileSystem(saveFile.getPath(), fileSystem);
+    restart();
+    assertEquals("", new JFileSystemSaver()
+        .getSavedFileSystem(saveFile.getPath(), fileSystem));
+    assertRestored();
+  }
+
+  @Test
+  public void testBinaryIsSmaller() throws Exception {
+    new JFileSystemSaver(JFileSystemSaver.Format.SERIALIZED)
+        .saveFileSystem(saveFile.getPath(), fileSystem);
+    long serialized = Files.size(saveFile.toPath());
+    new JFileSystemSaver().saveFileSystem(saveFile.getPath(), fileSystem);
+    assertTrue(Files.size(saveFile.toPath()) < serialized);
+  }
+
+  @Test
+  public void testVeryDeepTree() throws Exception {
+    Directory deepest = dirA1;
+    for (int i = 0; i < 50000; i++) {
+      Directory child = new Directory("d", deepest);
+      deepest.getContents().add(child);
+      deepest = child;
+    }
+    fileSystem.setCurrentDirectory(deepest);
+    JFileSystemSaver saver = new JFileSystemSaver();
+    assertEquals("", saver.saveFileSystem(saveFile.getPath(), fileSystem));
+    restart();
+    assertEquals("", saver.getSavedFileSystem(saveFile.getPath(), fileSystem));
+    Directory current = fileSystem.getCurrentDirectory();
+    int depth = 0;
+    while (current.getParentDir() != null) {
+      current = current.getParentDir();
+      depth++;
+    }
+    assertEquals(50002, depth);
+  }
+
+  @Test
+  public void testFileNotFound() {
+    String missing = saveFile.getPath() + ".missing";
+    fileSystem.addToHistory("load " + missing);
+    assertEquals(missing + ": file not found", new JFileSystemSaver()
+        .getSavedFileSystem(missing, fileSystem));
+  }
+
+  @Test
+  public void testNotASavedFileSystem() throws Exception {
+    FileOutputStream output = new FileOutputStream(saveFile);
+    output.write("not a file system".getBytes());
+    output.close();
+    assertEquals(saveFile.getPath() + ": not an appropriate file",
+        new JFileSystemSaver().getSavedFileSystem(saveFile.getPath(),
+            fileSystem));
+  }
+
+  @Test
+  public void testTruncatedSnapshot() throws Exception {
+    new JFileSystemSaver().saveFileSystem(saveFile.getPath(), fileSystem);
+    byte[] saved = Files.readAllBytes(saveFile.toPath());
+    FileOutputStream output = new FileOutputStream(saveFile);
+    output.write(saved, 0, saved.length / 2);
+    output.close();
+    restart();
+    assertEquals(saveFile.getPath() + ": not an appropriate file",
+        new JFileSystemSaver().getSavedFileSystem(saveFile.getPath(),
+            fileSystem));
+    assertEquals("/", fileSystem.toString());
+  }
+
+  @Test
+  public void testMappedRoundTrip() {
+    JFileSystemSaver saver = new JFileSystemSaver();
+    saver.saveFileSystem(saveFile.getPath(), fileSystem);
+    restart();
+    assertEquals("", saver.getMappedFileSystem(saveFile.getPath(), fileSystem));
+    Directory loadedA = (Directory) fileSystem.getRoot().getChild("A");
+    TextFile notes = (TextFile) loadedA.getChild("notes");
+    assertTrue(notes.isContentsMapped());
+    assertRestored();
+    // reading the contents doesn't keep them on the heap
+    assertTrue(notes.isContentsMapped());
+    notes.setContents("changed");
+    assertFalse(notes.isContentsMapped());
+    assertEquals("changed", notes.getContents());
+  }
+
+  @Test
+  public void testSaveOverMappedFile() throws Exception {
+    JFileSystemSaver saver = new JFileSystemSaver();
+    saver.saveFileSystem(saveFile.getPath(), fileSystem);
+    restart();
+    saver.getMappedFileSystem(saveFile.getPath(), fileSystem);
+    Directory loadedA = (Directory) fileSystem.getRoot().getChild("A");
+    loadedA.addContents(new TextFile("more", loadedA, "more text"));
+    assertEquals("", saver.saveFileSystem(saveFile.getPath(), fileSystem));
+    assertEquals("line one\nline two",
+        ((TextFile) loadedA.getChild("notes")).getContents());
+    restart();
+    assertEquals("", saver.getSavedFileSystem(saveFile.getPath(), fileSystem));
+    Directory reloadedA = (Directory) fileSystem.getRoot().getChild("A");
+    assertEquals("line one\nline two",
+        ((TextFile) reloadedA.getChild("notes")).getContents());
+    assertEquals("more text",
+        ((TextFile) reloadedA.getChild("more")).getContents());
+  }
+
+  @Test
+  public void testMappedLoadOfSerializedFile() {
+    new JFileSystemSaver(JFileSystemSaver.Format.SERIALIZED)
+        .saveFileSystem(saveFile.getPath(), fileSystem);
+    restart();
+    assertEquals("", new JFileSystemSaver()
+        .getMappedFileSystem(saveFile.getPath(), fileSystem));
+    assertRestored();
+  }
+
+  @Test
+  public void testMappedFileNotFound() {
+    String missing = saveFile.getPath() + ".missing";
+    assertEquals(missing + ": file not found", new JFileSystemSaver()
+        .getMappedFileSystem(missing, fileSystem));
+  }
+
+  @Test
+  public void testIncrementalSaveOnlyAppendsChanges() throws Exception {
+    JFileSystemSaver saver = new JFileSystemSaver();
+    // make the snapshot big enough that rewriting it would show
+    Directory dirB = (Directory) fileSystem.getRoot().getChild("B");
+    for (int i = 0; i < 1000; i++) {
+      dirB.addContents(new TextFile("file" + i, dirB, "contents " + i));
+    }
+    assertEquals("", saver.saveFileSystem(saveFile.getPath(), fileSystem));
+    long base = Files.size(saveFile.toPath());
+
+    ((TextFile) dirA.getChild("notes")).setContents("changed");
+    dirA.addContents(new TextFile("added", dirA, "new text"));
+    dirA1.setFileName("renamed");
+    ((TextFile) dirB.getChild("file7")).setContents("seven");
+    fileSystem.addToHistory("save --incremental file");
+    assertEquals("", saver.saveIncrementally(saveFile.getPath(), fileSystem));
+    long incremental = Files.size(saveFile.toPath());
+    assertTrue(incremental > base);
+    assertTrue(incremental - base < 300);
+
+    restart();
+    assertEquals("", saver.getSavedFileSystem(saveFile.getPath(), fileSystem));
+    Directory loadedA = (Directory) fileSystem.getRoot().getChild("A");
+    Directory loadedB = (Directory) fileSystem.getRoot().getChild("B");
+    assertEquals("changed",
+        ((TextFile) loadedA.getChild("notes")).getContents());
+    assertEquals("new text",
+        ((TextFile) loadedA.getChild("added")).getContents());
+    assertNull(loadedA.getChild("A1"));
+    assertSame(loadedA.getChild("renamed"),
+        fileSystem.getCurrentDirectory());
+    assertSame(loadedA, fileSystem.getDirectoryStack().pop());
+    assertEquals(1000, loadedB.getContents().size());
+    assertEquals("seven",
+        ((TextFile) loadedB.getChild("file7")).getContents());
+    assertEquals("contents 8",
+        ((TextFile) loadedB.getChild("file8")).getContents());
+    assertEquals(4, fileSystem.getCommandHistory().size());
+    assertEquals("save --incremental file",
+        fileSystem.getCommandHistory().get(2));
+  }
+
+  @Test
+  public void testIncrementalSaveOfMovedDirectory() {
+    JFileSystemSaver saver = new JFileSystemSaver();
+    saver.saveFileSystem(saveFile.getPath(), fileSystem);
+    Directory dirB = (Directory) fileSystem.getRoot().getChild("B");
+    dirA.removeContents(dirA1);
+    dirA1.setParentDir(dirB);
+    dirB.getContents().add(dirA1);
+    dirA1.getContents().add(new TextFile("inside", dirA1, "moved along"));
+    assertEquals("", saver.saveIncrementally(saveFile.getPath(), fileSystem));
+    dirB.getContents().add(new Directory("later", dirB));
+    assertEquals("", saver.saveIncrementally(saveFile.getPath(), fileSystem));
+
+    restart();
+    assertEquals("", saver.getSavedFileSystem(saveFile.getPath(), fileSystem));
+    assertEquals("/\n\tA\n\t\tnotes\n\tB\n\t\tA1\n\t\t\tinside"
+        + "\n\t\tlater", fileSystem.toString());
+    assertEquals("A1", fileSystem.getCurrentDirectory().getFileName());
+    assertEquals("B",
+        fileSystem.getCurrentDirectory().getParentDir().getFileName());
+  }
+
+  @Test
+  public void testIncrementalSaveWithoutSnapshotSavesEverything() {
+    JFileSystemSaver saver = new JFileSystemSaver();
+    saveFile.delete();
+    assertEquals("", saver.saveIncrementally(saveFile.getPath(), fileSystem));
+    restart();
+    assertEquals("", saver.getSavedFileSystem(saveFile.getPath(), fileSystem));
+    assertRestored();
+  }
+
+  @Test
+  public void testIncrementalSaveAfterLoad() {
+    JFileSystemSaver saver = new JFileSystemSaver();
+    saver.saveFileSystem(saveFile.getPath(), fileSystem);
+    restart();
+    saver.getMappedFileSystem(saveFile.getPath(), fileSystem);
+    Directory loadedA = (Directory) fileSystem.getRoot().getChild("A");
+    loadedA.getContents().add(new TextFile("more", loadedA, "more text"));
+    assertEquals("", saver.saveIncrementally(saveFile.getPath(), fileSystem));
+    restart();
+    assertEquals("", saver.getMappedFileSystem(saveFile.getPath(), fileSystem));
+    Directory reloadedA = (Directory) fileSystem.getRoot().getChild("A");
+    assertEquals("more text",
+        ((TextFile) reloadedA.getChild("more")).getContents());
+    assertEquals("line one\nline two",
+        ((TextFile) reloadedA.getChild("notes")).getContents());
+    // the load itself was saved with the change
+    assertEquals(4, fileSystem.getCommandHistory().size());
+  }
+
+  @Test
+  public void testPartlyWrittenDeltaIsIgnored() throws Exception {
+    JFileSystemSaver saver = new JFileSystemSaver();
+    saver.saveFileSystem(saveFile.getPath(), fileSystem);
+    dirA.getContents().add(new TextFile("lost", dirA, "never saved"));
+    saver.saveIncrementally(saveFile.getPath(), fileSystem);
+    byte[] saved = Files.readAllBytes(saveFile.toPath());
+    FileOutputStream output = new FileOutputStream(saveFile);
+    output.write(saved, 0, saved.length - 3);
+    output.close();
+
+    restart();
+    assertEquals("", saver.getSavedFileSystem(saveFile.getPath(), fileSystem));
+    assertRestored();
+    // the torn delta is overwritten rather than appended to
+    Directory loadedB = (Directory) fileSystem.getRoot().getChild("B");
+    loadedB.getContents().add(new Directory("kept", loadedB));
+    assertEquals("", saver.saveIncrementally(saveFile.getPath(), fileSystem));
+    restart();
+    assertEquals("", saver.getSavedFileSystem(saveFile.getPath(), fileSystem));
+    assertNotNull(((Directory) fileSystem.getRoot().getChild("B"))
+        .getChild("kept"));
+  }
+
+  @Test
+  public void testCompact() throws Exception {
+    JFileSystemSaver saver = new JFileSystemSaver();
+    TextFile notes = (TextFile) dirA.getChild("notes");
+    saver.saveFileSystem(saveFile.getPath(), fileSystem);
+    for (int i = 0; i < 5; i++) {
+      notes.setContents("version " + i);
+      saver.saveIncrementally(saveFile.getPath(), fileSystem);
+    }
+    long before = Files.size(saveFile.toPath());
+    assertEquals("", saver.compact(saveFile.getPath()));
+    assertTrue(Files.size(saveFile.toPath()) < before);
+
+    // changes can still be appended to the compacted snapshot
+    notes.setContents("line one\nline two");
+    assertEquals("", saver.saveIncrementally(saveFile.getPath(), fileSystem));
+    restart();
+    assertEquals("", saver.getSavedFileSystem(saveFile.getPath(), fileSystem));
+    assertRestored();
+  }
+
+  @Test
+  public void testCompactSerializedFile() {
+    new JFileSystemSaver(JFileSystemSaver.Format.SERIALIZED)
+        .saveFileSystem(saveFile.getPath(), fileSystem);
+    assertEquals(saveFile.getPath() + ": not a binary snapshot",
+        new JFileSystemSaver().compact(saveFile.getPath()));
+  }
+
+  /**
+   * Adds a text file of the given contents to the root.
+   */
+  private TextFile addText(String name, String contents) throws Exception {
+    TextFile file = new TextFile(name, fileSystem.getRoot(), contents);
+    fileSystem.getRoot().addContents(file);
+    return file;
+  }
+
+  /**
+   * Returns text that compresses well.
+   */
+  private String repeatedText() {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      text.append("line ").append(i % 10).append(" of some text\n");
+    }
+    return text.toString();
+  }
+
+  @Test
+  public void testEncodedTextRoundTrip() throws Exception {
+    String text = repeatedText();
+    addText("long", text);
+    JFileSystemSaver saver = new JFileSystemSaver();
+    assertEquals("", saver.saveFileSystem(saveFile.getPath(), fileSystem));
+    assertTrue(Files.size(saveFile.toPath()) < text.length() / 10);
+    assertTrue(saver.getStatistics().contains("1 blocks encoded"));
+
+    restart();
+    assertEquals("", saver.getSavedFileSystem(saveFile.getPath(), fileSystem));
+    assertEquals(text,
+        ((TextFile) fileSystem.getRoot().getChild("long")).getContents());
+    assertTrue(saver.getStatistics().startsWith("load: "));
+
+    restart();
+    assertEquals("", saver.getMappedFileSystem(saveFile.getPath(), fileSystem));
+    TextFile mapped = (TextFile) fileSystem.getRoot().getChild("long");
+    assertTrue(mapped.isContentsMapped());
+    assertEquals(text, mapped.getContents());
+  }
+
+  @Test
+  public void testSharedTextIsWrittenOnce() throws Exception {
+    String text = repeatedText();
+    addText("first", text);
+    addText("second", text);
+    JFileSystemSaver saver =
+        new JFileSystemSaver(JFileSystemSaver.Format.BINARY, null);
+    assertEquals("", saver.saveFileSystem(saveFile.getPath(), fileSystem));
+    assertTrue(Files.size(saveFile.toPath()) < 2 * text.length());
+    assertTrue(saver.getStatistics().contains("1 shared"));
+
+    restart();
+    assertEquals("", saver.getMappedFileSystem(saveFile.getPath(), fileSystem));
+    TextFile first = (TextFile) fileSystem.getRoot().getChild("first");
+    TextFile second = (TextFile) fileSystem.getRoot().getChild("second");
+    assertTrue(first.sharesContentsWith(second));
+    assertEquals(text, second.getContents());
+    second.setContents("changed");
+    assertEquals(text, first.getContents());
+  }
+
+  @Test
+  public void testSaveWithoutCodec() throws Exception {
+    String text = repeatedText();
+    addText("long", text);
+    JFileSystemSaver saver =
+        new JFileSystemSaver(JFileSystemSaver.Format.BINARY, null);
+    assertEquals("", saver.saveFileSystem(saveFile.getPath(), fileSystem));
+    assertTrue(Files.size(saveFile.toPath()) > text.length());
+    assertTrue(saver.getStatistics().contains("0 blocks encoded"));
+    restart();
+    assertEquals("", saver.getSavedFileSystem(saveFile.getPath(), fileSystem));
+    assertEquals(text,
+        ((TextFile) fileSystem.getRoot().getChild("long")).getContents());
+  }
+
+  @Test
+  public void testSmallTextIsNotEncoded() throws Exception {
+    // compresses well, but is too small to be worth decoding
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 60; i++) {
+      text.append('a');
+    }
+    addText("small", text.toString());
+    JFileSystemSaver saver = new JFileSystemSaver();
+    assertEquals("", saver.saveFileSystem(saveFile.getPath(), fileSystem));
+    assertTrue(saver.getStatistics().contains("0 blocks encoded"));
+    restart();
+    assertEquals("", saver.getMappedFileSystem(saveFile.getPath(), fileSystem));
+    assertEquals(text.toString(), ((TextFile) fileSystem.getRoot()
+        .getChild("small")).getContents());
+  }
+
+  @Test
+  public void testIncrementalSaveEncodesChangedText() throws Exception {
+    TextFile file = addText("long", "short");
+    JFileSystemSaver saver = new JFileSystemSaver();
+    assertEquals("", saver.saveFileSystem(saveFile.getPath(), fileSystem));
+    String text = repeatedText();
+    file.setContents(text);
+    assertEquals("", saver.saveIncrementally(saveFile.getPath(), fileSystem));
+    assertTrue(saver.getStatistics().contains("1 blocks encoded"));
+    restart();
+    assertEquals("", saver.getSavedFileSystem(saveFile.getPath(), fileSystem));
+    assertEquals(text,
+        ((TextFile) fileSystem.getRoot().getChild("long")).getContents());
+  }
+
+  @Test
+  public void testRegisteredCodec() throws Exception {
+    BlockCodec codec = new driver.DeflateCodec(9) {
+      @Override
+      public int getId() {
+        return 100;
+      }
+
+      @Override
+      public String getName() {
+        return "deflate9";
+      }
+    };
+    BlockCodecs.register(codec);
+    assertSame(codec, BlockCodecs.forName("deflate9"));
+    String text = repeatedText();
+    addText("long", text);
+    JFileSystemSaver saver =
+        new JFileSystemSaver(JFileSystemSaver.Format.BINARY, codec);
+    assertEquals("", saver.saveFileSystem(saveFile.getPath(), fileSystem));
+    assertTrue(saver.getStatistics().contains("1 blocks encoded"));
+    restart();
+    assertEquals("", new JFileSystemSaver().getSavedFileSystem(
+        saveFile.getPath(), fileSystem));
+    assertEquals(text,
+        ((TextFile) fileSystem.getRoot().getChild("long")).getContents());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCodecNumberAlreadyUsed() {
+    BlockCodecs.register(new driver.DeflateCodec(1) {
+      @Override
+      public String getName() {
+        return "fast deflate";
+      }
+    });
+  }
+
+  @Test
+  public void testBackgroundSave() throws Exception {
+    JFileSystemSaver saver = new JFileSystemSaver();
+    assertEquals("", saver.saveInBackground(saveFile.getPath(), fileSystem));
+    assertTrue(saver.awaitBackgroundSave(60000));
+    assertTrue(saver.getBackgroundStatus().startsWith("save: saved "
+        + saveFile.getPath() + " in the background, 5 files in "));
+    restart();
+    assertEquals("", saver.getSavedFileSystem(saveFile.getPath(), fileSystem));
+    assertRestored();
+  }
+
+  @Test
+  public void testBackgroundSaveKeepsTheFileSystemAsItWas()
+      throws Exception {
+    Directory big = new Directory("big", fileSystem.getRoot());
+    fileSystem.getRoot().addContents(big);
+    TextFile last = null;
+    for (int i = 0; i < 100000; i++) {
+      last = new TextFile("file" + i, big, "text " + i);
+      big.addContents(last);
+    }
+    JFileSystemSaver saver = new JFileSystemSaver();
+    assertEquals("", saver.saveInBackground(saveFile.getPath(), fileSystem));
+    // change the file system while it may still be being written
+    last.setContents("changed");
+    last.setFileName("renamed");
+    big.addContents(new TextFile("added", big, ""));
+    dirA.setFileName("Z");
+    fileSystem.getRoot().getContents().remove(big);
+    assertTrue(saver.awaitBackgroundSave(60000));
+
+    restart();
+    assertEquals("", saver.getSavedFileSystem(saveFile.getPath(), fileSystem));
+    Directory loaded = (Directory) fileSystem.getRoot().getChild("big");
+    assertEquals(100000, loaded.getContents().size());
+    assertEquals("text 99999",
+        ((TextFile) loaded.getChild("file99999")).getContents());
+    assertNull(loaded.getChild("added"));
+    assertNotNull(fileSystem.getRoot().getChild("A"));
+    assertEquals("A1", fileSystem.getCurrentDirectory().getFileName());
+  }
+
+  @Test
+  public void testOneBackgroundSaveAtATime() throws Exception {
+    JFileSystemSaver saver = new JFileSystemSaver();
+    assertTrue(saver.awaitBackgroundSave(60000));
+    String first = saver.saveInBackground(saveFile.getPath(), fileSystem);
+    String second = saver.saveInBackground(saveFile.getPath(), fileSystem);
+    assertEquals("", first);
+    // the first save may have finished before the second was started
+    assertTrue(second.isEmpty() || second.equals("Save: a background save to "
+        + saveFile.getPath() + " is still running"));
+    assertTrue(saver.awaitBackgroundSave(60000));
+  }
+
+  @Test
+  public void testBackgroundSaveToDirectory() throws Exception {
+    JFileSystemSaver saver = new JFileSystemSaver();
+    String directory = saveFile.getParent();
+    assertEquals("The filePath: " + directory
+        + " exists but is a directory rather than a regular file",
+        saver.saveInBackground(directory, fileSystem));
+  }
+}
@@ -140,4 +140,38 @@ public class JFileSystemTest {
     fileSystem.setCurrentDirectory(dirC);
     assertFalse(fileSystem.hasNext());
   }
+
+  @Test
+  public void testSessionSharesFilesOnly() {
+    fileSystem.setCurrentDirectory(dirA);
+    fileSystem.addToHistory("cd A");
+    JFileSystem session = fileSystem.createSession();
+    assertSame(fileSystem.getRoot(), session.getRoot());
+    assertSame(fileSystem.getRoot(), session.getCurrentDirectory());
+    assertTrue(session.getCommandHistory().isEmpty());
+    assertNotSame(fileSystem.getDirectoryStack(),
+        session.getDirectoryStack());
+    session.setCurrentDirectory(dirB);
+    assertSame(dirA, fileSystem.getCurrentDirectory());
+    assertEquals(fileSystem.toString(), session.toString());
+  }
+
+  @Test
+  public void testSessionsFollowNewRoot() throws Exception {
+    JFileSystem first = fileSystem.createSession();
+    JFileSystem second = fileSystem.createSession();
+    first.setCurrentDirectory(dirA1);
+    second.setCurrentDirectory(dirB1);
+    second.getDirectoryStack().push(dirB);
+    Directory loaded = new Directory("/", null);
+    Directory loadedA = new Directory("A", loaded);
+    loaded.addContents(loadedA);
+    first.setRoot(loaded);
+    first.setCurrentDirectory(loadedA);
+    assertSame(loaded, fileSystem.getRoot());
+    assertSame(loaded, second.getRoot());
+    assertSame(loadedA, first.getCurrentDirectory());
+    assertSame(loaded, second.getCurrentDirectory());
+    assertTrue(second.getDirectoryStack().isEmpty());
+  }
 }
@@ -0,0 +1,62 @@
+package test;
+
+import static org.junit.Assert.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import org.junit.*;
+import driver.*;
+
+/**
+ * Test for the shell reading commands.
+ * 
+ * @author Shamayum Rashad
+ */
+public class JShellTest {
+  InputStream standardInput;
+  PrintStream standardOutput;
+  ByteArrayOutputStream output;
+
+  @Before
+  public void setUp() {
+    standardInput = System.in;
+    standardOutput = System.out;
+    output = new ByteArrayOutputStream();
+    System.setOut(new PrintStream(output, true));
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    System.setIn(standardInput);
+    System.setOut(standardOutput);
+    Field field = JFileSystem.class.getDeclaredField("fileSystemRef");
+    field.setAccessible(true);
+    field.set(null, null);
+  }
+
+  /**
+   * Runs the shell in interactive mode on the given input and returns
+   * everything it printed.
+   */
+  String run(String input) {
+    System.setIn(
+        new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+    JShell.main(new String[] {"-i"});
+    return output.toString(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testInteractiveTranscript() {
+    assertEquals("/#: /#: /#: /a\n/#: /#: ",
+        run("mkdir a\ncd a\npwd\ncd /\nexit\n"));
+  }
+
+  @Test
+  public void testInteractiveErrors() {
+    assertEquals("/#: nope: command not found\n/#: Popd: Directory Stack "
+        + "is empty\n/#: ", run("nope\npopd\nexit\n"));
+  }
+}
@@ -0,0 +1,159 @@
+package test;
+
+import static org.junit.Assert.*;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import driver.Journal;
+
+public class JournalTest {
+
+  Path path;
+  Journal journal;
+
+  @Before
+  public void setUp() throws Exception {
+    path = Files.createTempFile("jshell", ".journal");
+    Files.delete(path);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    if (journal != null) {
+      journal.close();
+    }
+    Files.deleteIfExists(path);
+  }
+
+  /**
+   * Closes the journal and opens it again, returning what was in it.
+   */
+  private List<Journal.Record> reopen() throws IOException {
+    journal.close();
+    journal = Journal.open(path, Journal.DEFAULT_BATCH_SIZE,
+        Journal.DEFAULT_BATCH_MILLIS);
+    return journal.getRecovered();
+  }
+
+  @Test
+  public void testNewJournalIsEmpty() throws Exception {
+    journal = Journal.open(path, 8, 5);
+    assertTrue(journal.getRecovered().isEmpty());
+    assertTrue(reopen().isEmpty());
+  }
+
+  @Test
+  public void testRecordsAreRecovered() throws Exception {
+    journal = Journal.open(path, 8, 5);
+    journal.append((byte) 'C', "mkdir a");
+    journal.append((byte) 'F', "http://host/file.txt", "contents\nwith ünicode");
+    journal.append((byte) 'H', "");
+    List<Journal.Record> records = reopen();
+    assertEquals(3, records.size());
+    assertEquals('C', records.get(0).getType());
+    assertEquals("mkdir a", records.get(0).getField(0));
+    assertEquals("contents\nwith ünicode", records.get(1).getField(1));
+    assertEquals("", records.get(2).getField(0));
+    assertNull(records.get(2).getField(1));
+  }
+
+  @Test
+  public void testAppendAfterRecovering() throws Exception {
+    journal = Journal.open(path, 8, 5);
+    journal.append((byte) 'C', "first");
+    reopen();
+    journal.append((byte) 'C', "second");
+    List<Journal.Record> records = reopen();
+    assertEquals(2, records.size());
+    assertEquals("second", records.get(1).getField(0));
+  }
+
+  @Test
+  public void testSyncWritesRecords() throws Exception {
+    // a batch that never fills and a long wait, so only sync writes
+    journal = Journal.open(path, 1000, 60000);
+    journal.append((byte) 'C', "mkdir a");
+    long before = Files.size(path);
+    journal.sync();
+    assertTrue(Files.size(path) > before);
+  }
+
+  @Test
+  public void testWaitingForEveryRecord() throws Exception {
+    journal = Journal.open(path, 1000, 0);
+    long before = Files.size(path);
+    journal.append((byte) 'C', "mkdir a");
+    assertTrue(Files.size(path) > before);
+    assertEquals("journal: 1 records, 1 syncs, 1.0 records per sync",
+        journal.getStatistics());
+  }
+
+  @Test
+  public void testPartlyWrittenRecordIsDropped() throws Exception {
+    journal = Journal.open(path, 8, 5);
+    journal.append((byte) 'C', "kept");
+    journal.append((byte) 'C', "torn");
+    journal.close();
+    journal = null;
+    byte[] saved = Files.readAllBytes(path);
+    FileOutputStream output = new FileOutputStream(path.toFile());
+    output.write(saved, 0, saved.length - 2);
+    output.close();
+
+    journal = Journal.open(path, 8, 5);
+    assertEquals(1, journal.getRecovered().size());
+    // new records go after the last whole one
+    journal.append((byte) 'C', "after");
+    List<Journal.Record> records = reopen();
+    assertEquals(2, records.size());
+    assertEquals("kept", records.get(0).getField(0));
+    assertEquals("after", records.get(1).getField(0));
+  }
+
+  @Test
+  public void testRestart() throws Exception {
+    journal = Journal.open(path, 8, 5);
+    journal.append((byte) 'C', "mkdir a");
+    journal.append((byte) 'C', "mkdir b");
+    journal.restart((byte) 'S', "/saved", "2");
+    journal.append((byte) 'C', "mkdir c");
+    List<Journal.Record> records = reopen();
+    assertEquals(2, records.size());
+    assertEquals("/saved", records.get(0).getField(0));
+    assertEquals("mkdir c", records.get(1).getField(0));
+  }
+
+  @Test(expected = IOException.class)
+  public void testNotAJournal() throws Exception {
+    Files.write(path, "not a journal".getBytes());
+    Journal.open(path, 8, 5);
+  }
+
+  @Test
+  public void testConcurrentAppends() throws Exception {
+    journal = Journal.open(path, 16, 0);
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      final int thread = t;
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < 100; i++) {
+          try {
+            journal.append((byte) 'C', thread + " " + i);
+          } catch (IOException e) {
+            throw new RuntimeException(e);
+          }
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(400, reopen().size());
+  }
+}
@@ -0,0 +1,141 @@
+package test;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import driver.Copy;
+import driver.Directory;
+import driver.JFileSystem;
+import driver.JFileSystemSaver;
+import driver.NameIndex;
+import driver.TextFile;
+
+public class LazyCopyTest {
+
+  JFileSystem fileSystem;
+  Directory root;
+  Directory source;
+  Directory inner;
+  TextFile notes;
+
+  @Before
+  public void setUp() throws Exception {
+    NameIndex.clear();
+    fileSystem = JFileSystem.createInstanceOfJFileSystem();
+    root = new Directory("/", null);
+    fileSystem.setRoot(root);
+    fileSystem.setCurrentDirectory(root);
+    // / -> (source -> (inner -> (notes)), target)
+    source = new Directory("source", root);
+    root.addContents(source);
+    inner = new Directory("inner", source);
+    source.addContents(inner);
+    notes = new TextFile("notes", inner, "old notes");
+    inner.addContents(notes);
+    root.addContents(new Directory("target", root));
+  }
+
+  @After
+  public void tearDown() {
+    NameIndex.clear();
+  }
+
+  private void copy(String from, String to) {
+    Copy copy = new Copy(fileSystem);
+    copy.executeCommand(new ArrayList<String>(Arrays.asList(from, to)));
+    assertEquals("", copy.getError());
+  }
+
+  private Directory copied() {
+    return (Directory) ((Directory) root.getChild("target"))
+        .getChild("source");
+  }
+
+  @Test
+  public void testCopyHasTheFiles() {
+    copy("/source", "/target");
+    assertEquals("source\n\tinner\n\t\tnotes", copied().toString());
+    TextFile copiedNotes = (TextFile) ((Directory) copied().getChild("inner"))
+        .getChild("notes");
+    assertEquals("old notes", copiedNotes.getContents());
+    assertNotSame(notes, copiedNotes);
+    assertSame(copied(), copied().getChild("inner").getParentDir());
+  }
+
+  @Test
+  public void testChangingTheSourceAfterCopying() throws Exception {
+    copy("/source", "/target");
+    notes.setContents("new notes");
+    inner.addContents(new TextFile("more", inner, ""));
+    inner.setFileName("renamed");
+    source.addContents(new Directory("added", source));
+    assertEquals("source\n\tinner\n\t\tnotes", copied().toString());
+    assertEquals("old notes", ((TextFile) ((Directory) copied()
+        .getChild("inner")).getChild("notes")).getContents());
+  }
+
+  @Test
+  public void testChangingTheCopy() throws Exception {
+    copy("/source", "/target");
+    Directory copiedInner = (Directory) copied().getChild("inner");
+    ((TextFile) copiedInner.getChild("notes")).setContents("new notes");
+    copiedInner.addContents(new TextFile("more", copiedInner, ""));
+    assertEquals("old notes", notes.getContents());
+    assertEquals("source\n\tinner\n\t\tnotes", source.toString());
+  }
+
+  @Test
+  public void testCopyOfACopy() throws Exception {
+    copy("/source", "/target");
+    root.addContents(new Directory("again", root));
+    copy("/target/source", "/again");
+    notes.setContents("new notes");
+    ((TextFile) ((Directory) copied().getChild("inner")).getChild("notes"))
+        .setContents("changed copy");
+    Directory again = (Directory) ((Directory) root.getChild("again"))
+        .getChild("source");
+    assertEquals("old notes", ((TextFile) ((Directory) again
+        .getChild("inner")).getChild("notes")).getContents());
+  }
+
+  @Test
+  public void testCopyIntoItsOwnSubtree() throws Exception {
+    Directory deeper = new Directory("deeper", inner);
+    inner.addContents(deeper);
+    copy("/source", "/source/inner/deeper");
+    // the copy is the source as it was before it was put inside it
+    assertEquals("source\n\tinner\n\t\tnotes\n\t\tdeeper",
+        ((Directory) deeper.getChild("source")).toString());
+  }
+
+  @Test
+  public void testSaveCopy() throws Exception {
+    java.io.File saveFile = java.io.File.createTempFile("lazy", ".save");
+    saveFile.deleteOnExit();
+    copy("/source", "/target");
+    JFileSystemSaver saver = new JFileSystemSaver();
+    assertEquals("", saver.saveInBackground(saveFile.getPath(), fileSystem));
+    notes.setContents("new notes");
+    source.addContents(new Directory("added", source));
+    assertTrue(saver.awaitBackgroundSave(60000));
+    assertTrue(saver.getBackgroundStatus().startsWith("save: saved"));
+
+    fileSystem.setCommandHistory(new ArrayList<String>());
+    fileSystem.addToHistory("load " + saveFile.getPath());
+    assertEquals("", saver.getSavedFileSystem(saveFile.getPath(), fileSystem));
+    assertEquals("/\n\tsource\n\t\tinner\n\t\t\tnotes\n\ttarget\n\t\tsource"
+        + "\n\t\t\tinner\n\t\t\t\tnotes", fileSystem.getRoot().toString());
+  }
+
+  @Test
+  public void testFindInCopy() {
+    // build the index before copying
+    assertEquals(1, NameIndex.find(root, root, "notes", false).size());
+    copy("/source", "/target");
+    assertEquals(2, NameIndex.find(root, root, "notes", false).size());
+    assertEquals(1, NameIndex.find(root, copied(), "notes", false).size());
+  }
+}
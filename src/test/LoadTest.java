@@ -88,4 +88,30 @@ public class LoadTest {
 
     assertEquals(expectedOutput, actualOutput);
   }
+
+  @Test
+  public void testMappedFileGiven() {
+    fileSystem.addToHistory("load -m fileName");
+    arguments.add("-m");
+    arguments.add("fileName");
+    load.executeCommand(arguments);
+    String actualOutput = load.getError() + "\n" + load.getPrintCommand();
+    String expectedOutput = "\n";
+
+    assertEquals(expectedOutput, actualOutput);
+  }
+
+  @Test
+  public void testMappedLoadNotFirstCommand() {
+    fileSystem.addToHistory("first command");
+    fileSystem.addToHistory("load -m fileName");
+    arguments.add("-m");
+    arguments.add("fileName");
+    load.executeCommand(arguments);
+    String actualOutput = load.getError() + "\n" + load.getPrintCommand();
+    String expectedOutput = "load: disabled "
+        + "(load command has to be first command used)\n";
+
+    assertEquals(expectedOutput, actualOutput);
+  }
 }
@@ -1,6 +1,8 @@
 ﻿package test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import java.util.ArrayList;
 import org.junit.Before;
 import org.junit.Test;
@@ -243,7 +245,24 @@ public class ManTest {
         + "with your real file system on\nyour computer. When the above command"
         + " is typed, you must ensure\nthat the entire state of the program is "
         + "written to the file\nFileName. The file FileName is some file that "
-        + "is stored on the actual\nfilesystem of your computer.";
+        + "is stored on the actual\nfilesystem of your computer.\n\n save "
+        + "--incremental FileName\n Only append what changed since the "
+        + "FileName was last\nsaved or loaded to it, instead of writing "
+        + "everything again.\n\n save -b FileName\n Save in the background "
+        + "while the shell keeps\nbeing used. The state of the program when "
+        + "the command\nis typed is what gets saved.\n\n save -s\n Show how "
+        + "far the last background save got.";
+
+    assertEquals(definition, man.getPrintCommand());
+  }
+
+  @Test
+  public void testCompactCommand() {
+    ArrayList<String> arguments = new ArrayList<>();
+    arguments.add("compact");
+    man.executeCommand(arguments);
+    String definition = "compact:\n Rewrite the FileName as a single save, "
+        + "folding every\nincremental save appended to it back into it.";
 
     assertEquals(definition, man.getPrintCommand());
   }
@@ -256,7 +275,8 @@ public class ManTest {
     String definition = "load:\n When the user types in the above"
         + " command, your JShell must load\nthe contents of the FileName and"
         + " reinitialize everything that was\nsaved previously into the"
-        + " FileName.";
+        + " FileName.\n\n load -m FileName\n Map the FileName into memory "
+        + "instead, only reading the\ncontents of a file when it is used.";
 
     assertEquals(definition, man.getPrintCommand());
   }
@@ -268,7 +288,13 @@ public class ManTest {
     man.executeCommand(arguments);
     String definition = "find:\n You are now asked to implement "
         + "the find command. The syntax\nof the find command is as follows: "
-        + "find path ... -type [f|d]\n-name expression.";
+        + "find path ... -type [f|d]\n-name expression.\n\n find -j N "
+        + "path ... -type [f|d] -name expression\n Search with N threads. "
+        + "The files found are the same, in the same\norder, as searching "
+        + "with one.\n\n -name \"pattern\"\n The pattern is a glob: * "
+        + "matches any characters, ? matches\none and [abc] matches one of "
+        + "a, b or c.\n\n -regex \"pattern\"\n Match the whole name against "
+        + "a regular expression instead.";
 
     assertEquals(definition, man.getPrintCommand());
   }
@@ -281,7 +307,8 @@ public class ManTest {
     String definition = "tree:\n When the user types in the tree"
         + " command you must starting, from\nthe root directory display"
         + " the entire filesystem as a tree. For every\nlevel of the tree, "
-        + "you must indent by a tab character.";
+        + "you must indent by a tab character.\n\n tree -L n\n Only "
+        + "display the first n levels below the root directory.";
 
     assertEquals(definition, man.getPrintCommand());
   }
@@ -324,4 +351,22 @@ public class ManTest {
     assertEquals(definition, man.getError());
   }
 
+  /**
+   * test the execute method and the output when the pipeline is given, and
+   * that head's definition only covers head
+   */
+  @Test
+  public void testPipeline() {
+    ArrayList<String> arguments = new ArrayList<>();
+    arguments.add("pipeline");
+    man.executeCommand(arguments);
+
+    assertTrue(man.getPrintCommand().startsWith(
+        "pipeline:\n COMMAND | COMMAND ...\n"));
+    Man head = new Man();
+    arguments.set(0, "head");
+    head.executeCommand(arguments);
+    assertFalse(head.getPrintCommand().contains("COMMAND | COMMAND"));
+  }
+
 }
@@ -89,4 +89,76 @@ public class MoveTest {
     String actual = move.getError();
     assertEquals(expected, actual);
   }
+
+  @Test
+  public void testMoveManyFilesToDirectory() throws InvalidPathException {
+    fileSystem.addTextFile("/dir1", "text3", "More Content");
+    arguments.add("/dir1/text");
+    arguments.add("/dir2/text2");
+    arguments.add("/dir1/text3");
+    arguments.add("/");
+    move.executeCommand(arguments);
+    assertEquals("", move.getError());
+    assertEquals("Test Content",
+        ((TextFile) mockPath.searchByPath("/text")).getContents());
+    mockPath.searchByPath("/text2");
+    mockPath.searchByPath("/text3");
+    Directory dir1 = (Directory) mockPath.searchByPath("/dir1");
+    assertTrue(dir1.getContents().isEmpty());
+    assertNull(dir1.getChild("text"));
+  }
+
+  @Test
+  public void testMoveManyFilesWithSameName() throws InvalidPathException {
+    fileSystem.addTextFile("/dir2", "text", "Other Content");
+    arguments.add("/dir1/text");
+    arguments.add("/dir2/text");
+    arguments.add("/");
+    move.executeCommand(arguments);
+    assertEquals("mv: file named text exists in /", move.getError());
+    // the first one is moved, the second one stays where it was
+    assertEquals("Test Content",
+        ((TextFile) mockPath.searchByPath("/text")).getContents());
+    assertEquals("Other Content",
+        ((TextFile) mockPath.searchByPath("/dir2/text")).getContents());
+  }
+
+  @Test
+  public void testMoveManyFilesThroughMovedTextFile()
+      throws InvalidPathException {
+    fileSystem.addTextFile("/", "a", "x");
+    fileSystem.addTextFile("/", "d", "y");
+    fileSystem.addDirectory("/", "c");
+    arguments.add("/a");
+    arguments.add("/dir1");
+    arguments.add("/a/d");
+    arguments.add("/c");
+    move.executeCommand(arguments);
+    // once /a is moved, /a/d can't be found, as when moving one at a time
+    assertEquals("Given paths invalid", move.getError());
+    assertNotNull(mockPath.searchByPath("/c/a"));
+    assertNotNull(mockPath.searchByPath("/c/dir1"));
+    assertEquals("y", ((TextFile) mockPath.searchByPath("/d")).getContents());
+  }
+
+  @Test
+  public void testMoveDirectoryIntoItsDescendant() {
+    fileSystem.addDirectory("/dir1", "inner");
+    fileSystem.addDirectory("/dir1/inner", "deeper");
+    arguments.add("/dir1");
+    arguments.add("/dir1/inner/deeper");
+    move.executeCommand(arguments);
+    String expected = "mv: cannot move a directory, dir1, into itself, deeper";
+    assertEquals(expected, move.getError());
+  }
+
+  @Test
+  public void testMoveDirectoryToRoot() throws InvalidPathException {
+    fileSystem.addDirectory("/dir1", "inner");
+    arguments.add("/dir1/inner");
+    arguments.add("/");
+    move.executeCommand(arguments);
+    assertEquals("", move.getError());
+    mockPath.searchByPath("/inner");
+  }
 }
@@ -0,0 +1,139 @@
+package test;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import driver.Directory;
+import driver.File;
+import driver.NameIndex;
+import driver.TextFile;
+
+public class NameIndexTest {
+
+  Directory root;
+  Directory dirA;
+  Directory dirB;
+  TextFile configA;
+  TextFile configRoot;
+
+  @Before
+  public void setUp() throws Exception {
+    NameIndex.clear();
+    NameIndex.setEnabled(true);
+    // / -> (a -> (config), b, config)
+    root = new Directory("/", null);
+    dirA = new Directory("a", root);
+    dirB = new Directory("b", root);
+    configA = new TextFile("config", dirA, "");
+    configRoot = new TextFile("config", root, "");
+    root.addContents(dirA);
+    root.addContents(dirB);
+    root.addContents(configRoot);
+    dirA.addContents(configA);
+  }
+
+  @After
+  public void tearDown() {
+    NameIndex.setEnabled(true);
+    NameIndex.clear();
+  }
+
+  @Test
+  public void testFindInPreOrder() {
+    ArrayList<File> found = NameIndex.find(root, root, "config", false);
+    assertEquals(Arrays.asList(configA, configRoot), found);
+  }
+
+  @Test
+  public void testTextFilesAndDirectoriesAreSeparate() {
+    assertTrue(NameIndex.find(root, root, "a", false).isEmpty());
+    assertEquals(Arrays.asList(dirA), NameIndex.find(root, root, "a", true));
+  }
+
+  @Test
+  public void testFindBelowAnotherDirectory() {
+    assertEquals(Arrays.asList(configA),
+        NameIndex.find(root, dirA, "config", false));
+    assertTrue(NameIndex.find(root, dirB, "config", false).isEmpty());
+  }
+
+  @Test
+  public void testFileAddedAfterBuilding() throws Exception {
+    NameIndex.find(root, root, "config", false);
+    TextFile configB = new TextFile("config", dirB, "");
+    dirB.addContents(configB);
+    assertEquals(Arrays.asList(configA, configB, configRoot),
+        NameIndex.find(root, root, "config", false));
+  }
+
+  @Test
+  public void testDirectoryTreeAddedAfterBuilding() throws Exception {
+    NameIndex.find(root, root, "config", false);
+    Directory dirC = new Directory("c", null);
+    Directory dirD = new Directory("d", dirC);
+    TextFile configD = new TextFile("config", dirD, "");
+    dirD.addContents(configD);
+    dirC.addContents(dirD);
+    dirC.setParentDir(dirB);
+    dirB.addContents(dirC);
+    assertEquals(Arrays.asList(configD),
+        NameIndex.find(root, dirB, "config", false));
+  }
+
+  @Test
+  public void testRenamedFile() {
+    NameIndex.find(root, root, "config", false);
+    configA.setFileName("settings");
+    assertEquals(Arrays.asList(configRoot),
+        NameIndex.find(root, root, "config", false));
+    assertEquals(Arrays.asList(configA),
+        NameIndex.find(root, root, "settings", false));
+  }
+
+  @Test
+  public void testMovedFile() throws Exception {
+    NameIndex.find(root, root, "config", false);
+    dirB.addContents(configA);
+    dirA.removeContents(configA);
+    configA.setParentDir(dirB);
+    assertEquals(Arrays.asList(configA),
+        NameIndex.find(root, dirB, "config", false));
+    assertTrue(NameIndex.find(root, dirA, "config", false).isEmpty());
+    assertEquals(2, NameIndex.find(root, root, "config", false).size());
+  }
+
+  @Test
+  public void testRemovedFile() {
+    NameIndex.find(root, root, "config", false);
+    dirA.removeContents(configA);
+    configA.setParentDir(null);
+    assertEquals(Arrays.asList(configRoot),
+        NameIndex.find(root, root, "config", false));
+  }
+
+  @Test
+  public void testAnotherFileSystem() throws Exception {
+    NameIndex.find(root, root, "config", false);
+    Directory otherRoot = new Directory("/", null);
+    TextFile otherConfig = new TextFile("config", otherRoot, "");
+    otherRoot.addContents(otherConfig);
+    assertEquals(Arrays.asList(otherConfig),
+        NameIndex.find(otherRoot, otherRoot, "config", false));
+  }
+
+  @Test
+  public void testDisabled() {
+    NameIndex.setEnabled(false);
+    assertNull(NameIndex.find(root, root, "config", false));
+  }
+
+  @Test
+  public void testStatistics() {
+    NameIndex.find(root, root, "config", false);
+    assertTrue(NameIndex.getStatistics()
+        .startsWith("name index: 4 names, 5 files, about 0 KB, "));
+  }
+}
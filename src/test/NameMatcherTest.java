@@ -0,0 +1,86 @@
+package test;
+
+import static org.junit.Assert.*;
+import java.util.regex.PatternSyntaxException;
+import org.junit.Test;
+import driver.NameMatcher;
+
+public class NameMatcherTest {
+
+  @Test
+  public void testGlobLiteral() {
+    NameMatcher matcher = NameMatcher.glob("config");
+    assertTrue(matcher.matches("config"));
+    assertFalse(matcher.matches("configs"));
+    assertEquals("config", matcher.getLiteral());
+  }
+
+  @Test
+  public void testGlobSuffix() {
+    NameMatcher matcher = NameMatcher.glob("*.log");
+    assertTrue(matcher.matches("server.log"));
+    assertTrue(matcher.matches(".log"));
+    assertFalse(matcher.matches("server.log1"));
+    assertNull(matcher.getLiteral());
+  }
+
+  @Test
+  public void testGlobPrefix() {
+    NameMatcher matcher = NameMatcher.glob("test*");
+    assertTrue(matcher.matches("test"));
+    assertTrue(matcher.matches("test12"));
+    assertFalse(matcher.matches("atest"));
+  }
+
+  @Test
+  public void testGlobPrefixAndSuffixDoNotOverlap() {
+    NameMatcher matcher = NameMatcher.glob("ab*ba");
+    assertTrue(matcher.matches("abba"));
+    assertTrue(matcher.matches("ab-ba"));
+    assertFalse(matcher.matches("aba"));
+  }
+
+  @Test
+  public void testGlobWildcards() {
+    NameMatcher matcher = NameMatcher.glob("f?le[0-9]*");
+    assertTrue(matcher.matches("file1"));
+    assertTrue(matcher.matches("fxle9abc"));
+    assertFalse(matcher.matches("file"));
+    assertFalse(matcher.matches("filex"));
+  }
+
+  @Test
+  public void testGlobNegatedBracket() {
+    NameMatcher matcher = NameMatcher.glob("[!a]*");
+    assertTrue(matcher.matches("bcd"));
+    assertFalse(matcher.matches("abc"));
+  }
+
+  @Test
+  public void testGlobQuotesRegexCharacters() {
+    NameMatcher matcher = NameMatcher.glob("a+b*(c)");
+    assertTrue(matcher.matches("a+bxx(c)"));
+    assertFalse(matcher.matches("aabxx(c)"));
+  }
+
+  @Test
+  public void testRegexMatchesWholeName() {
+    NameMatcher matcher = NameMatcher.regex("file[0-9]+");
+    assertTrue(matcher.matches("file12"));
+    assertFalse(matcher.matches("file12a"));
+    assertFalse(matcher.matches("afile12"));
+  }
+
+  @Test
+  public void testRegexLiteralAndAffix() {
+    assertEquals("config", NameMatcher.regex("^config$").getLiteral());
+    NameMatcher matcher = NameMatcher.regex("data.*csv");
+    assertTrue(matcher.matches("data_2020csv"));
+    assertFalse(matcher.matches("mydata.csv"));
+  }
+
+  @Test(expected = PatternSyntaxException.class)
+  public void testInvalidRegex() {
+    NameMatcher.regex("file[");
+  }
+}
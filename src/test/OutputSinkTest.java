@@ -0,0 +1,101 @@
+package test;
+
+import static org.junit.Assert.*;
+import java.io.ByteArrayOutputStream;
+import org.junit.Before;
+import org.junit.Test;
+import driver.Directory;
+import driver.StandardOutputSink;
+import driver.StringOutputSink;
+import driver.TextFile;
+import driver.TextFileOutputSink;
+
+/**
+ * Test for the output sinks commands write their output to.
+ * 
+ * @author Shamayum Rashad
+ */
+public class OutputSinkTest {
+
+  TextFile textFile;
+
+  @Before
+  public void setUp() {
+    textFile = new TextFile("file", new Directory("/", null), "old\n");
+  }
+
+  @Test
+  public void testStringSinkHoldsOutput() {
+    StringOutputSink sink = new StringOutputSink();
+    sink.write("first ");
+    sink.write("second");
+    assertEquals("first second", sink.getContents());
+  }
+
+  @Test
+  public void testEndLineAddsNewline() {
+    StringOutputSink sink = new StringOutputSink();
+    sink.write("line");
+    sink.endLine();
+    sink.endLine();
+    assertEquals("line\n", sink.getContents());
+  }
+
+  @Test
+  public void testEndLineOnEmptySink() {
+    StringOutputSink sink = new StringOutputSink();
+    sink.endLine();
+    assertEquals("", sink.getContents());
+  }
+
+  @Test
+  public void testStandardSinkWritesOnFlush() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    StandardOutputSink sink = new StandardOutputSink(out);
+    sink.write("output");
+    sink.flush();
+    assertEquals("output", out.toString());
+    assertEquals("", sink.getContents());
+  }
+
+  @Test
+  public void testTextFileSinkOverwrites() {
+    TextFileOutputSink sink = new TextFileOutputSink(textFile, false);
+    sink.write("new");
+    assertEquals("old\n", textFile.getContents());
+    sink.flush();
+    assertEquals("new", textFile.getContents());
+  }
+
+  @Test
+  public void testTextFileSinkOverwritesWithNothing() {
+    TextFileOutputSink sink = new TextFileOutputSink(textFile, false);
+    sink.flush();
+    assertEquals("", textFile.getContents());
+  }
+
+  @Test
+  public void testTextFileSinkWritesChunks() {
+    TextFileOutputSink sink = new TextFileOutputSink(textFile, false, false);
+    StringBuilder chunk = new StringBuilder();
+    for (int character = 0; character < 8192; character++) {
+      chunk.append('x');
+    }
+    sink.write(chunk);
+    assertEquals(chunk.toString(), textFile.getContents());
+    sink.write("y");
+    assertEquals(8192, textFile.getLength());
+    sink.flush();
+    assertEquals(chunk + "y", textFile.getContents());
+  }
+
+  @Test
+  public void testTextFileSinkAppends() {
+    TextFileOutputSink sink = new TextFileOutputSink(textFile, true);
+    sink.write("new");
+    sink.flush();
+    sink.write(" more");
+    sink.flush();
+    assertEquals("old\nnew more", textFile.getContents());
+  }
+}
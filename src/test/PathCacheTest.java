@@ -0,0 +1,104 @@
+package test;
+
+import static org.junit.Assert.*;
+import java.lang.reflect.Field;
+import org.junit.*;
+import driver.*;
+
+/**
+ * Test for the resolved path cache used by Path.
+ * 
+ * @author Ya-Tzu Wang
+ */
+public class PathCacheTest {
+  MockJFileSystem fileSystem;
+  Path path;
+  Directory dir1;
+  Directory dir2;
+
+  @Before
+  public void setUp() throws InvalidPathException {
+    fileSystem = MockJFileSystem.createInstanceOfJFileSystem();
+    fileSystem.addDirectory("/", "dir1");
+    fileSystem.addDirectory("/", "dir2");
+    fileSystem.addTextFile("/dir1", "text", "content");
+    path = new Path(fileSystem);
+    dir1 = (Directory) path.searchByPath("/dir1");
+    dir2 = (Directory) path.searchByPath("/dir2");
+    PathCache.setCapacity(PathCache.DEFAULT_CAPACITY);
+    PathCache.clear();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    PathCache.setCapacity(PathCache.DEFAULT_CAPACITY);
+    PathCache.clear();
+    Field field = (fileSystem.getClass()).getDeclaredField("fileSystemRef");
+    field.setAccessible(true);
+    field.set(null, null);
+  }
+
+  @Test
+  public void testRepeatedSearchIsAHit() throws InvalidPathException {
+    File first = path.searchByPath("/dir1/text");
+    File second = path.searchByPath("/dir1/text");
+    assertSame(first, second);
+    assertEquals(1, PathCache.getHits());
+    assertEquals(1, PathCache.getMisses());
+  }
+
+  @Test
+  public void testAddContentsInvalidates()
+      throws InvalidPathException, InvalidFileNameException,
+      ExistingFileException {
+    path.searchByPath("/dir1/text");
+    dir2.addContents(new Directory("dir3", dir2));
+    path.searchByPath("/dir1/text");
+    assertEquals(0, PathCache.getHits());
+    assertEquals(2, PathCache.getMisses());
+  }
+
+  @Test(expected = InvalidPathException.class)
+  public void testRemovedFileIsNotFound() throws InvalidPathException {
+    File text = path.searchByPath("/dir1/text");
+    dir1.removeContents(text);
+    path.searchByPath("/dir1/text");
+  }
+
+  @Test
+  public void testRenamedFileIsFoundByNewName() throws InvalidPathException {
+    File text = path.searchByPath("/dir1/text");
+    text.setFileName("renamed");
+    assertSame(text, path.searchByPath("/dir1/renamed"));
+  }
+
+  @Test
+  public void testRelativePathFromDifferentDirectory()
+      throws InvalidPathException {
+    fileSystem.addDirectory("/dir2", "dir1");
+    path.searchByPath("dir1");
+    fileSystem.setCurrentDirectory(dir2);
+    Path fromDir2 = new Path(fileSystem);
+    File found = fromDir2.searchByPath("dir1");
+    assertSame(dir2, found.getParentDir());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedPathIsDropped()
+      throws InvalidPathException {
+    PathCache.setCapacity(1);
+    path.searchByPath("/dir1");
+    path.searchByPath("/dir2");
+    path.searchByPath("/dir1");
+    assertEquals(0, PathCache.getHits());
+    assertEquals(3, PathCache.getMisses());
+  }
+
+  @Test
+  public void testStatistics() throws InvalidPathException {
+    path.searchByPath("/dir1");
+    path.searchByPath("/dir1");
+    assertEquals("path cache: 1/1024 entries, 1 hits, 1 misses, 50.0% hit rate",
+        PathCache.getStatistics());
+  }
+}
@@ -47,6 +47,31 @@ public class PathTest {
     assertEquals(actual, expected);
   }
 
+  @Test
+  public void testGetPathWithRoot() {
+    assertEquals("/", path.getPath(fileSystem.getRoot()));
+    assertEquals(0, fileSystem.getRoot().getDepth());
+  }
+
+  @Test
+  public void testGetPathAfterRenamingParent() {
+    assertEquals("/dir1/text", path.getPath(text));
+    dir1.setFileName("renamed");
+    assertEquals("/renamed/text", path.getPath(text));
+    assertEquals("/renamed", path.getPath(dir1));
+  }
+
+  @Test
+  public void testGetPathAfterMovingParent() {
+    fileSystem.addDirectory("/", "dir2");
+    assertEquals("/dir1/text", path.getPath(text));
+    assertEquals(2, text.getDepth());
+    Directory dir2 = (Directory) fileSystem.getRoot().getChild("dir2");
+    dir1.setParentDir(dir2);
+    assertEquals("/dir2/dir1/text", path.getPath(text));
+    assertEquals(3, text.getDepth());
+  }
+
   @Test
   public void testSearchByPathWithPathOfTextFile() {
     File expected = text;
@@ -0,0 +1,135 @@
+package test;
+
+import static org.junit.Assert.*;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.*;
+import driver.*;
+
+/**
+ * Test for pipelines of commands.
+ * 
+ * @author Shamayum Rashad
+ */
+public class PipelineTest {
+  MockJFileSystem fileSystem;
+  StringOutputSink output;
+
+  /**
+   * A command which prints its argument on every line until nothing reads
+   * its output.
+   */
+  static class Yes extends Command {
+    Yes() {
+      super(true);
+    }
+
+    @Override
+    public void executeCommand(ArrayList<String> arguments) {
+      while (true) {
+        this.setPrintCommand(arguments.get(0) + "\n");
+      }
+    }
+  }
+
+  @Before
+  public void setUp() {
+    fileSystem = MockJFileSystem.createInstanceOfJFileSystem();
+    output = new StringOutputSink();
+    CommandRegistry.register("yes", fs -> new Yes());
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    CommandRegistry.unregister("yes");
+    Field field = (fileSystem.getClass()).getDeclaredField("fileSystemRef");
+    field.setAccessible(true);
+    field.set(null, null);
+  }
+
+  /**
+   * Runs a line as a pipeline and returns its output.
+   */
+  String run(String line) {
+    Pipeline.run(CommandLine.splitPipeline(line), fileSystem, output);
+    return output.getContents();
+  }
+
+  @Test
+  public void testFindIntoHead() {
+    for (int file = 0; file < 50; file++) {
+      fileSystem.addTextFile("/", "f" + file, "");
+    }
+    Find find = new Find(fileSystem);
+    find.executeCommand(new ArrayList<String>(
+        Arrays.asList("/", "-type", "f", "-name", "\"f*\"")));
+    String[] found = find.getPrintCommand().split("\n");
+    assertEquals(50, found.length);
+    assertEquals(found[0] + "\n" + found[1] + "\n" + found[2] + "\n",
+        run("find / -type f -name \"f*\" | head 3"));
+  }
+
+  @Test(timeout = 10000)
+  public void testHeadStopsEndlessCommand() {
+    assertEquals("y\ny\n", run("yes y | head 2"));
+  }
+
+  @Test(timeout = 10000)
+  public void testThreeCommands() {
+    assertEquals("y\ny\ny\n", run("yes y | cat | head 3"));
+  }
+
+  @Test(timeout = 10000)
+  public void testLongLinesAcrossChunks() {
+    StringBuilder line = new StringBuilder();
+    for (int character = 0; character < 20000; character++) {
+      line.append((char) ('a' + character % 26));
+    }
+    String expected = line + "\n" + line + "\n";
+    assertEquals(expected, run("yes " + line + " | head 2"));
+  }
+
+  @Test
+  public void testLastCommandRedirected() {
+    run("echo \"hello\" | cat > out");
+    assertEquals("", output.getContents());
+    TextFile file = (TextFile) fileSystem.getRoot().getChild("out");
+    assertEquals("hello", file.getContents());
+  }
+
+  @Test
+  public void testOnlyLastCommandRedirected() {
+    assertEquals("echo: only the last command of a pipeline can be "
+        + "redirected\n", run("echo \"hello\" > out | cat"));
+    assertNull(fileSystem.getRoot().getChild("out"));
+  }
+
+  @Test
+  public void testCurrentDirectoryNotChanged() {
+    fileSystem.addDirectory("/", "d1");
+    assertEquals("cd: can't change the current directory in a pipeline\n",
+        run("cd d1 | pwd"));
+    assertSame(fileSystem.getRoot(), fileSystem.getCurrentDirectory());
+    assertEquals("cd: can't change the current directory in a pipeline\n"
+        + "pushd: can't change the current directory in a pipeline\n",
+        run("pwd | pushd d1"));
+    assertSame(fileSystem.getRoot(), fileSystem.getCurrentDirectory());
+  }
+
+  @Test
+  public void testMissingCommand() {
+    assertEquals("pipeline: missing command\n", run("pwd |"));
+  }
+
+  @Test
+  public void testUnknownCommand() {
+    assertEquals("nope: command not found\n", run("pwd | nope"));
+  }
+
+  @Test
+  public void testErrorOfEarlierCommand() {
+    assertEquals("cat: missing: No such file or directory\n",
+        run("cat missing | head"));
+  }
+}
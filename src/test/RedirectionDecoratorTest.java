@@ -6,9 +6,12 @@ import java.util.ArrayList;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import driver.Cat;
 import driver.Directory;
 import driver.FileSystem;
+import driver.InvalidPathException;
 import driver.RedirectionDecorator;
+import driver.TextFile;
 
 public class RedirectionDecoratorTest {
 
@@ -128,6 +131,58 @@ public class RedirectionDecoratorTest {
     assertEquals(expectedOutput, actualOutput);
   }
 
+  @Test
+  public void testExecuteCommandOverwriteWritesFile()
+      throws InvalidPathException {
+    arguments.add("cp");
+    paths.add(">");
+    paths.add("path");
+    new RedirectionDecorator(command, paths, "man", fileSystem)
+        .executeCommand(arguments);
+    TextFile file = (TextFile) new MockPath((MockJFileSystem) fileSystem)
+        .searchByPath("/path");
+    assertEquals("[cp]", file.getContents());
+  }
+
+  @Test
+  public void testExecuteCommandAppendWritesFile()
+      throws InvalidPathException {
+    ((MockJFileSystem) fileSystem).addTextFile("/", "path", "old ");
+    arguments.add("cp");
+    paths.add(">>");
+    paths.add("path");
+    new RedirectionDecorator(command, paths, "man", fileSystem)
+        .executeCommand(arguments);
+    TextFile file = (TextFile) new MockPath((MockJFileSystem) fileSystem)
+        .searchByPath("/path");
+    assertEquals("old [cp]", file.getContents());
+  }
+
+  @Test
+  public void testExecuteCommandStandardWithError() {
+    RedirectionDecorator test = new RedirectionDecorator
+        (command, paths, "man", fileSystem);
+    test.executeCommand(arguments);
+    String expectedOutput = "empty arguments";
+    String actualOutput = test.getPrintCommand();
+
+    assertEquals(expectedOutput, actualOutput);
+  }
+
+  @Test
+  public void testExecuteCommandIllegalOutfile() {
+    arguments.add("cp");
+    paths.add(">");
+    paths.add("pa!th");
+    RedirectionDecorator test = new RedirectionDecorator
+        (command, paths, "man", fileSystem);
+    test.executeCommand(arguments);
+    String expectedOutput = "pa!th: contains illegal characters";
+    String actualOutput = test.getPrintCommand();
+
+    assertEquals(expectedOutput, actualOutput);
+  }
+
   @Test
   public void testRedirectionStartOverwriteIndex() {
     arguments.add("man");
@@ -164,6 +219,24 @@ public class RedirectionDecoratorTest {
     assertEquals(expectedOutput, actualOutput);
   }
 
+  @Test
+  public void testCatAppendedToItself() {
+    StringBuilder old = new StringBuilder();
+    for (int line = 0; line < 2000; line++) {
+      old.append("line ").append(line).append('\n');
+    }
+    ((MockJFileSystem) fileSystem).addTextFile("/", "text", old.toString());
+    arguments.add("text");
+    paths.add(">>");
+    paths.add("text");
+    RedirectionDecorator test = new RedirectionDecorator
+        (new Cat(fileSystem), paths, "cat", fileSystem);
+    test.executeCommand(arguments);
+    TextFile file = (TextFile) fileSystem.getRoot().getChild("text");
+
+    assertEquals(old.toString() + old, file.getContents());
+  }
+
   @Test
   public void testRedirectionStartEmpty() {
     int actualOutput = RedirectionDecorator.redirectionStart(arguments);
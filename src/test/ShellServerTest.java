@@ -0,0 +1,112 @@
+package test;
+
+import static org.junit.Assert.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import org.junit.*;
+import driver.*;
+
+/**
+ * Test for the shell server.
+ * 
+ * @author Shamayum Rashad
+ */
+public class ShellServerTest {
+  JFileSystem fileSystem;
+  ShellServer server;
+
+  /**
+   * A connection to the server, which sends a command and returns its output.
+   */
+  class Client {
+    Socket socket;
+    InputStream in;
+    OutputStream out;
+
+    Client() throws IOException {
+      socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+      in = socket.getInputStream();
+      out = socket.getOutputStream();
+      assertEquals("", readPrompt());
+    }
+
+    String run(String line) throws IOException {
+      out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+      out.flush();
+      return readPrompt();
+    }
+
+    String readPrompt() throws IOException {
+      ByteArrayOutputStream read = new ByteArrayOutputStream();
+      String text = "";
+      while (!text.endsWith("/#: ")) {
+        int next = in.read();
+        if (next < 0) {
+          return text;
+        }
+        read.write(next);
+        text = read.toString(StandardCharsets.UTF_8);
+      }
+      return text.substring(0, text.length() - 4);
+    }
+  }
+
+  @Before
+  public void setUp() throws IOException {
+    fileSystem = JFileSystem.createInstanceOfJFileSystem();
+    server = new ShellServer(fileSystem, 0);
+    new Thread(server::serve).start();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    server.close();
+    Field field = (fileSystem.getClass()).getDeclaredField("fileSystemRef");
+    field.setAccessible(true);
+    field.set(null, null);
+  }
+
+  @Test(timeout = 10000)
+  public void testSessionsShareFiles() throws IOException {
+    Client first = new Client();
+    Client second = new Client();
+    first.run("mkdir /shared");
+    first.run("echo \"hello\" > /shared/text");
+    assertEquals("hello\n", second.run("cat /shared/text"));
+  }
+
+  @Test(timeout = 10000)
+  public void testSessionsHaveOwnDirectoryAndHistory() throws IOException {
+    Client first = new Client();
+    Client second = new Client();
+    first.run("mkdir a");
+    first.run("cd a");
+    assertEquals("/a\n", first.run("pwd"));
+    assertEquals("/\n", second.run("pwd"));
+    assertEquals("1. pwd\n2. history\n", second.run("history"));
+  }
+
+  @Test(timeout = 10000)
+  public void testSessionsHaveOwnDirectoryStack() throws IOException {
+    Client first = new Client();
+    Client second = new Client();
+    first.run("mkdir a");
+    first.run("pushd a");
+    assertEquals("Popd: Directory Stack is empty\n", second.run("popd"));
+    first.run("popd");
+    assertEquals("/\n", first.run("pwd"));
+  }
+
+  @Test(timeout = 10000)
+  public void testExitEndsSession() throws IOException {
+    Client client = new Client();
+    assertEquals("", client.run("exit"));
+    assertEquals(-1, client.in.read());
+  }
+}
@@ -0,0 +1,42 @@
+package test;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import org.junit.*;
+import driver.*;
+
+/**
+ * Test for stats.
+ * 
+ * @author Ya-Tzu Wang
+ */
+public class StatsTest {
+  Stats stats;
+  ArrayList<String> arguments;
+
+  @Before
+  public void setUp() {
+    PathCache.clear();
+    stats = new Stats();
+    arguments = new ArrayList<String>();
+  }
+
+  @Test
+  public void testStats() {
+    stats.executeCommand(arguments);
+    String actual = stats.getPrintCommand();
+    String expected =
+        PathCache.getStatistics() + "\n" + NameIndex.getStatistics() + "\n"
+            + BlobStore.getStatistics();
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void testStatsWithInput() {
+    arguments.add("path");
+    stats.executeCommand(arguments);
+    String actual = stats.getError();
+    String expected = "path: stats does not take any inputs";
+    assertEquals(expected, actual);
+  }
+}
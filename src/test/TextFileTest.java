@@ -4,6 +4,7 @@ import static org.junit.Assert.*;
 import org.junit.Before;
 import org.junit.Test;
 import driver.Directory;
+import driver.StringOutputSink;
 import driver.TextFile;
 
 public class TextFileTest {
@@ -66,4 +67,72 @@ public class TextFileTest {
     assertTrue(textfile.equals(newTextFile));
   }
 
+  /**
+   * Appends small and large pieces to the text file, returning what its
+   * contents should be.
+   */
+  private String appendPieces() {
+    StringBuilder expected = new StringBuilder("Test Content");
+    for (int i = 0; i < 3000; i++) {
+      String piece = "line " + i + "\n";
+      if (i % 1000 == 999) {
+        StringBuilder large = new StringBuilder();
+        while (large.length() < 10000) {
+          large.append("large ").append(i);
+        }
+        piece = large.toString();
+      }
+      textfile.appendContents(piece);
+      expected.append(piece);
+    }
+    return expected.toString();
+  }
+
+  @Test
+  public void testAppendContents() {
+    String expected = appendPieces();
+    assertEquals(expected.length(), textfile.getLength());
+    assertEquals(expected, textfile.getContents());
+    // appending after the contents were joined starts from them
+    textfile.appendContents("more");
+    assertEquals(expected + "more", textfile.getContents());
+  }
+
+  @Test
+  public void testGetPartOfAppendedContents() {
+    String expected = appendPieces();
+    int[] positions = {0, 1, 12, 8191, 8192, 8193, 20000, 30000,
+        expected.length() - 1, expected.length()};
+    for (int begin : positions) {
+      for (int end : positions) {
+        if (begin <= end) {
+          assertEquals(expected.substring(begin, end),
+              textfile.getContents(begin, end));
+        }
+      }
+    }
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetPartPastTheEnd() {
+    appendPieces();
+    textfile.getContents(0, textfile.getLength() + 1);
+  }
+
+  @Test
+  public void testWriteAppendedContents() {
+    String expected = appendPieces();
+    StringOutputSink sink = new StringOutputSink();
+    textfile.writeContents(sink);
+    assertEquals(expected, sink.getContents());
+  }
+
+  @Test
+  public void testSetContentsAfterAppending() {
+    appendPieces();
+    textfile.setContents("New Content");
+    assertEquals("New Content", textfile.getContents());
+    assertEquals(11, textfile.getLength());
+    assertEquals("Content", textfile.getContents(4, 11));
+  }
 }
@@ -87,10 +87,61 @@ public class TreeTest {
   @Test
   public void testTreeWithArguments() {
     String expectedOutput =
-        "Invalid syntax for tree command: tree must not take any arguments.";
+        "Invalid syntax for tree command: tree only takes -L followed by a"
+            + " depth.";
     arguments.add("TreeCommandShouldFail");
     tree.executeCommand(arguments);
     String actualOutput = tree.getError();
     assertEquals(expectedOutput, actualOutput);
   }
+
+  @Test
+  public void testTreeWithDepthLimit() {
+    fileSystem.addDirectory("/", "A");
+    fileSystem.addDirectory("/A", "A1");
+    fileSystem.addDirectory("/A/A1", "A2");
+    fileSystem.addTextFile("/", "TextFile", "Test Content");
+    String expectedOutput = "/\n\tA\n\t\tA1\n\tTextFile";
+    arguments.add("-L");
+    arguments.add("2");
+    tree.executeCommand(arguments);
+    String actualOutput = tree.getPrintCommand();
+    assertEquals(expectedOutput, actualOutput);
+  }
+
+  @Test
+  public void testTreeWithDepthLimitDeeperThanTree() {
+    fileSystem.addDirectory("/", "A");
+    fileSystem.addDirectory("/A", "A1");
+    String expectedOutput = "/\n\tA\n\t\tA1";
+    arguments.add("-L");
+    arguments.add("10");
+    tree.executeCommand(arguments);
+    String actualOutput = tree.getPrintCommand();
+    assertEquals(expectedOutput, actualOutput);
+  }
+
+  @Test
+  public void testTreeWithInvalidDepth() {
+    String expectedOutput =
+        "Invalid depth for tree command: 0 is not a positive number.";
+    arguments.add("-L");
+    arguments.add("0");
+    tree.executeCommand(arguments);
+    String actualOutput = tree.getError();
+    assertEquals(expectedOutput, actualOutput);
+  }
+
+  @Test
+  public void testTreeWithVeryDeepNesting() {
+    String path = "";
+    for (int i = 0; i < 100; i++) {
+      fileSystem.addDirectory(path.isEmpty() ? "/" : path, "D");
+      path = path + "/D";
+    }
+    tree.executeCommand(arguments);
+    String[] lines = tree.getPrintCommand().split("\n");
+    assertEquals(101, lines.length);
+    assertEquals(100, lines[100].length() - "D".length());
+  }
 }